@@ -5,14 +5,11 @@ import com.jn.langx.text.StringTemplates;
 import com.jn.langx.util.Preconditions;
 import com.jn.langx.util.Strings;
 import com.jn.langx.util.Throwables;
-import com.jn.langx.util.collection.Collects;
 import com.jn.langx.util.collection.Pipeline;
-import com.jn.langx.util.function.Consumer;
 import com.jn.langx.util.function.Function;
-import com.jn.langx.util.io.Charsets;
 import com.jn.langx.util.io.IOs;
-import com.jn.langx.util.io.LineDelimiter;
 import com.jn.langx.util.io.file.Files;
+import com.jn.sqlhelper.cli.ddl.TablesDDLDumper;
 import com.jn.sqlhelper.common.connection.ConnectionFactory;
 import com.jn.sqlhelper.common.connection.NamedConnectionConfiguration;
 import com.jn.sqlhelper.common.ddl.dump.DatabaseLoader;
@@ -29,10 +26,7 @@ import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.util.List;
@@ -45,11 +39,14 @@ public class ShowDatabaseCommands {
     @Autowired
     DirectoryBasedFileConfigurationRepository<NamedConnectionConfiguration> repository;
 
-    private Connection getConnectionByConnectionConfigurationId(String id) {
+    private ConnectionFactory getConnectionFactoryByConnectionConfigurationId(String id) {
         NamedConnectionConfiguration configuration = repository.getById(id);
         Preconditions.checkNotNull(configuration, StringTemplates.formatWithPlaceholder("Can't find a connection configuration named {}", id));
-        ConnectionFactory factory = new ConnectionFactory(configuration);
-        return factory.getConnection();
+        return new ConnectionFactory(configuration);
+    }
+
+    private Connection getConnectionByConnectionConfigurationId(String id) {
+        return getConnectionFactoryByConnectionConfigurationId(id).getConnection();
     }
 
     @ShellMethod(key = "show tables", value = "Show table names")
@@ -152,15 +149,29 @@ public class ShowDatabaseCommands {
                                 @ShellOption(help = "the table name", defaultValue = "") String table,
                                 @ShellOption(help = "the dump directory") String directory,
                                 @ShellOption(help = "the dump filename") String filename,
-                                @ShellOption(help = "postback to you", defaultValue = "false") boolean postback) {
-        Connection connection = getConnectionByConnectionConfigurationId(connectionName);
-        BufferedWriter bf = null;
+                                @ShellOption(help = "postback to you", defaultValue = "false") boolean postback,
+                                @ShellOption(help = "the count of the connections to load the tables", defaultValue = "4") int parallelism,
+                                @ShellOption(help = "load the details of all the tables at once, it is faster but all the tables are held in memory", defaultValue = "false") boolean bulk) {
+        ConnectionFactory connectionFactory = getConnectionFactoryByConnectionConfigurationId(connectionName);
+        Connection connection = connectionFactory.getConnection();
         try {
             DatabaseMetaData dbMetaData = connection.getMetaData();
             DatabaseDescription databaseDescription = new DatabaseDescription(dbMetaData);
             table = Strings.getNullIfBlank(table);
-            List<Table> ts = new DatabaseLoader().loadTables(databaseDescription, Connections.getCatalog(connection), Connections.getSchema(connection), table, true, true, true, true);
+            DatabaseLoader loader = new DatabaseLoader();
+            List<Table> ts;
+            if (bulk) {
+                loader.setBulkLoad(true);
+                loader.setParallelism(parallelism);
+                loader.setConnectionFactory(connectionFactory);
+                ts = loader.loadTables(databaseDescription, Connections.getCatalog(connection), Connections.getSchema(connection), table, true, true, true, true);
+            } else {
+                // the details are loaded by the dumper table by table
+                ts = loader.loadTables(databaseDescription, Connections.getCatalog(connection), Connections.getSchema(connection), table);
+            }
             Preconditions.checkNotNull(ts, StringTemplates.formatWithPlaceholder("table {} is not exists", table));
+            IOs.close(connection);
+            connection = null;
 
             if (!Strings.endsWithIgnoreCase(filename, SQL_FILE_SUFFIX)) {
                 filename = filename + ".sql";
@@ -168,36 +179,19 @@ public class ShowDatabaseCommands {
             Files.makeDirs(directory);
             File file = new File(directory, filename);
             Files.makeFile(file);
-            bf = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file)));
-            final BufferedWriter bufferedWriter = bf;
-
-            CommonTableGenerator generator = new CommonTableGenerator(databaseDescription);
 
-            StringBuilder builder = new StringBuilder();
-            Collects.forEach(ts, new Consumer<Table>() {
-                @Override
-                public void accept(Table t) {
-                    try {
-                        String ddl = generator.generate(t);
-                        builder.append(ddl);
-                        builder.append(LineDelimiter.DEFAULT.getValue());
-                        IOs.write(ddl.getBytes(Charsets.UTF_8), bufferedWriter, Charsets.UTF_8);
-                        bufferedWriter.write(LineDelimiter.DEFAULT.getValue());
-                        bufferedWriter.flush();
-                    } catch (Throwable ex) {
-                        logger.error(ex.getMessage());
-                    }
-
-                }
-            });
+            TablesDDLDumper dumper = new TablesDDLDumper(connectionFactory);
+            dumper.setParallelism(parallelism);
+            dumper.setLoadDetails(!bulk);
+            StringBuilder builder = postback ? new StringBuilder() : null;
+            TablesDDLDumper.Progress progress = dumper.dump(ts, file, builder);
             if (postback) {
                 return builder.toString();
             }
-            return null;
+            return StringTemplates.formatWithPlaceholder("dumped to {}: {}", file.getPath(), progress);
         } catch (Throwable ex) {
             throw Throwables.wrapAsRuntimeException(ex);
         } finally {
-            IOs.close(bf);
             IOs.close(connection);
         }
     }
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.cli.ddl;
+
+import com.jn.langx.text.StringTemplates;
+import com.jn.langx.util.io.Charsets;
+import com.jn.langx.util.io.IOs;
+import com.jn.langx.util.io.LineDelimiter;
+import com.jn.sqlhelper.common.connection.ConnectionFactory;
+import com.jn.sqlhelper.common.ddl.dump.DatabaseLoader;
+import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
+import com.jn.sqlhelper.common.ddl.model.Table;
+import com.jn.sqlhelper.dialect.ddl.generator.CommonTableGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dumps the DDL of the tables to a file table by table, the whole schema is never held in memory.
+ * <p>
+ * The loader workers load the details (columns, pks, indexes, fks) of a table into a copy of the table and generate its DDL,
+ * every worker has its own connection. The tables of the caller are not changed, the details are released once the DDL is generated. The generated DDL are handed to the writer (the caller thread)
+ * with a bounded queue, at most queueCapacity tables are in flight, and the writer writes them in the order of the tables.
+ */
+public class TablesDDLDumper {
+    private static final Logger logger = LoggerFactory.getLogger(TablesDDLDumper.class);
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ConnectionFactory connectionFactory;
+    private int parallelism = 4;
+    private int queueCapacity = 64;
+    /**
+     * flush the file every flushInterval tables
+     */
+    private int flushInterval = 100;
+    private long progressIntervalMillis = 5000;
+    /**
+     * false if the tables are loaded with the details already, see {@link DatabaseLoader#setBulkLoad(boolean)}
+     */
+    private boolean loadDetails = true;
+
+    public TablesDDLDumper(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public void setFlushInterval(int flushInterval) {
+        this.flushInterval = Math.max(1, flushInterval);
+    }
+
+    public void setProgressIntervalMillis(long progressIntervalMillis) {
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    public void setLoadDetails(boolean loadDetails) {
+        this.loadDetails = loadDetails;
+    }
+
+    /**
+     * @param tables   the tables loaded without details, or with details if loadDetails is false
+     * @param postback append all the DDL to it if not null
+     */
+    public Progress dump(List<Table> tables, File file, StringBuilder postback) throws IOException, SQLException {
+        final Table[] pendingTables = tables.toArray(new Table[tables.size()]);
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        final Semaphore permits = new Semaphore(queueCapacity);
+        final BlockingQueue<GeneratedDDL> queue = new ArrayBlockingQueue<GeneratedDDL>(queueCapacity);
+
+        int threads = Math.max(1, Math.min(parallelism, pendingTables.length));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        FileOutputStream outputStream = null;
+        BufferedWriter writer = null;
+        Progress progress = new Progress(pendingTables.length);
+        try {
+            List<Future<Void>> workers = new ArrayList<Future<Void>>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        load(pendingTables, nextIndex, permits, queue);
+                        return null;
+                    }
+                }));
+            }
+
+            outputStream = new FileOutputStream(file);
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, Charsets.UTF_8), WRITE_BUFFER_SIZE);
+            String lineDelimiter = LineDelimiter.DEFAULT.getValue();
+            // the DDL generated out of order
+            Map<Integer, GeneratedDDL> reordered = new HashMap<Integer, GeneratedDDL>();
+            long lastReportTime = progress.startTime;
+            while (progress.written < pendingTables.length) {
+                GeneratedDDL generated = queue.poll(1, TimeUnit.SECONDS);
+                if (generated == null) {
+                    checkWorkers(workers);
+                } else {
+                    reordered.put(generated.index, generated);
+                    while ((generated = reordered.remove(progress.written)) != null) {
+                        if (generated.ddl != null) {
+                            writer.write(generated.ddl);
+                            writer.write(lineDelimiter);
+                            if (postback != null) {
+                                postback.append(generated.ddl).append(lineDelimiter);
+                            }
+                        } else {
+                            progress.failed++;
+                        }
+                        progress.written++;
+                        permits.release();
+                        if (progress.written % flushInterval == 0) {
+                            writer.flush();
+                        }
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastReportTime >= progressIntervalMillis) {
+                    writer.flush();
+                    progress.bytes = outputStream.getChannel().position();
+                    logger.info("Dumping the DDL: {}", progress);
+                    lastReportTime = now;
+                }
+            }
+            writer.flush();
+            progress.bytes = outputStream.getChannel().position();
+            logger.info("Dumped the DDL: {}", progress);
+            return progress;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted when dump the DDL", ex);
+        } finally {
+            executor.shutdownNow();
+            IOs.close(writer);
+            IOs.close(outputStream);
+        }
+    }
+
+    private void load(Table[] pendingTables, AtomicInteger nextIndex, Semaphore permits, BlockingQueue<GeneratedDDL> queue) throws SQLException, InterruptedException {
+        Connection connection = connectionFactory.getConnection();
+        if (connection == null) {
+            throw new SQLException("Can't get a connection to load the tables");
+        }
+        try {
+            DatabaseMetaData dbMetaData = connection.getMetaData();
+            CommonTableGenerator generator = new CommonTableGenerator(new DatabaseDescription(dbMetaData));
+            DatabaseLoader loader = new DatabaseLoader();
+            while (true) {
+                // a permit is acquired before an index is claimed, so the next table to write is always in flight
+                permits.acquire();
+                int index = nextIndex.getAndIncrement();
+                if (index >= pendingTables.length) {
+                    permits.release();
+                    return;
+                }
+                Table table = pendingTables[index];
+                String ddl = null;
+                try {
+                    if (loadDetails) {
+                        table = copyWithoutDetails(table);
+                        loader.loadTableDetails(dbMetaData, table, true, true, true, true);
+                    }
+                    ddl = generator.generate(table);
+                } catch (Throwable ex) {
+                    logger.error("Error occur when dump the DDL of table {}, error message: {}", table.getName(), ex.getMessage(), ex);
+                }
+                queue.put(new GeneratedDDL(index, ddl));
+            }
+        } finally {
+            IOs.close(connection);
+        }
+    }
+
+    private static Table copyWithoutDetails(Table table) {
+        Table copy = new Table();
+        copy.setCatalog(table.getCatalog());
+        copy.setSchema(table.getSchema());
+        copy.setName(table.getName());
+        copy.setTableType(table.getTableType());
+        copy.setRemarks(table.getRemarks());
+        copy.setTypeCatalog(table.getTypeCatalog());
+        copy.setTypeSchema(table.getTypeSchema());
+        copy.setTypeName(table.getTypeName());
+        copy.setSelfReferencingColumnName(table.getSelfReferencingColumnName());
+        copy.setRefGeneration(table.getRefGeneration());
+        copy.setSql(table.getSql());
+        return copy;
+    }
+
+    private static void checkWorkers(List<Future<Void>> workers) throws SQLException, InterruptedException {
+        for (Future<Void> worker : workers) {
+            if (worker.isDone()) {
+                try {
+                    worker.get();
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    }
+                    throw new SQLException(cause);
+                }
+            }
+        }
+    }
+
+    private static final class GeneratedDDL {
+        private final int index;
+        /**
+         * null if failed
+         */
+        private final String ddl;
+
+        private GeneratedDDL(int index, String ddl) {
+            this.index = index;
+            this.ddl = ddl;
+        }
+    }
+
+    public static final class Progress {
+        private final int total;
+        private final long startTime = System.currentTimeMillis();
+        private int written;
+        private int failed;
+        private long bytes;
+
+        private Progress(int total) {
+            this.total = total;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getWritten() {
+            return written;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            long cost = Math.max(1, System.currentTimeMillis() - startTime);
+            return StringTemplates.formatWithPlaceholder("{}/{} tables ({} failed), {} KB, {} ms, {} tables/s, {} KB/s",
+                    written, total, failed, bytes / 1024, cost, written * 1000L / cost, bytes * 1000L / 1024 / cost);
+        }
+    }
+}
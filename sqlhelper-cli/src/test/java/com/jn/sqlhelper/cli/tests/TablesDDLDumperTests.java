@@ -0,0 +1,58 @@
+package com.jn.sqlhelper.cli.tests;
+
+import com.jn.sqlhelper.cli.ddl.TablesDDLDumper;
+import com.jn.sqlhelper.common.connection.ConnectionFactory;
+import com.jn.sqlhelper.common.ddl.dump.DatabaseLoader;
+import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
+import com.jn.sqlhelper.common.ddl.model.Table;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+public class TablesDDLDumperTests {
+
+    @Test
+    public void testDetailsReleased() throws Exception {
+        ConnectionFactory connectionFactory = new ConnectionFactory("org.h2.Driver", "jdbc:h2:mem:ddl_dump;DB_CLOSE_DELAY=-1", "sa", "", null);
+        Connection connection = connectionFactory.getConnection();
+        List<Table> tables;
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("create table dump_user(id bigint primary key, name varchar(32))");
+            statement.execute("create table dump_order(id bigint primary key, user_id bigint, amount decimal(10, 2), foreign key (user_id) references dump_user(id))");
+            statement.execute("create index idx_dump_order_amount on dump_order(amount)");
+            statement.close();
+            tables = new DatabaseLoader().loadTables(new DatabaseDescription(connection.getMetaData()), null, "PUBLIC", "DUMP_%", false, false, false, false);
+        } finally {
+            connection.close();
+        }
+        Assert.assertEquals(2, tables.size());
+
+        File file = File.createTempFile("ddl_dump", ".sql");
+        try {
+            StringBuilder ddl = new StringBuilder();
+            TablesDDLDumper dumper = new TablesDDLDumper(connectionFactory);
+            dumper.setParallelism(2);
+            dumper.setQueueCapacity(1);
+            TablesDDLDumper.Progress progress = dumper.dump(tables, file, ddl);
+            Assert.assertEquals(2, progress.getWritten());
+            Assert.assertEquals(0, progress.getFailed());
+            Assert.assertEquals(file.length(), progress.getBytes());
+            Assert.assertTrue(ddl.toString(), ddl.toString().toUpperCase().contains("AMOUNT"));
+        } finally {
+            file.delete();
+        }
+
+        // the details are loaded into the copies of the tables, which are released after the DDL is generated
+        for (Table table : tables) {
+            Assert.assertTrue(table.getColumns().isEmpty());
+            Assert.assertTrue(table.getPkColumns().isEmpty());
+            Assert.assertTrue(table.getIndexMap().isEmpty());
+            Assert.assertTrue(table.getFkColumnMap().isEmpty());
+        }
+    }
+}
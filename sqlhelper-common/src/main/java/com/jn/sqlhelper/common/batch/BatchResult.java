@@ -23,6 +23,14 @@ public class BatchResult<E> {
     private BatchStatement statement;
     private List<E> parameters;
     private int rowsAffected;
+    /**
+     * the update count of every parameter, {@link java.sql.Statement#SUCCESS_NO_INFO} or {@link java.sql.Statement#EXECUTE_FAILED} if unknown
+     */
+    private int[] updateCounts;
+    /**
+     * the indexes of the failed batches (chunks)
+     */
+    private final List<Integer> failedBatches = Collects.emptyArrayList();
     private final Set<Throwable> throwables = Collects.newLinkedHashSet();
 
     public BatchStatement getStatement() {
@@ -49,6 +57,22 @@ public class BatchResult<E> {
         this.rowsAffected = rowsAffected;
     }
 
+    public int[] getUpdateCounts() {
+        return updateCounts;
+    }
+
+    public void setUpdateCounts(int[] updateCounts) {
+        this.updateCounts = updateCounts;
+    }
+
+    public List<Integer> getFailedBatches() {
+        return failedBatches;
+    }
+
+    public void addFailedBatch(int batchIndex) {
+        this.failedBatches.add(batchIndex);
+    }
+
     public List<Throwable> getThrowables() {
         return Collects.asList(throwables);
     }
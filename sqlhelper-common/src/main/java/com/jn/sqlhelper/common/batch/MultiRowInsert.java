@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.batch;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.sqlhelper.common.utils.SqlLexer;
+
+/**
+ * Expands a single row insert: INSERT INTO t (a, b) VALUES (?, ?) to a multiple rows insert.
+ * <p>
+ * Only the inserts those all of the placeholders are in the VALUES row can be expanded,
+ * so the parameters of the row i start at i * parametersPerRow + 1.
+ */
+public class MultiRowInsert {
+    /**
+     * INTO t (a, b)
+     */
+    private final String target;
+    /**
+     * (?, ?)
+     */
+    private final String row;
+    private final int parametersPerRow;
+
+    private MultiRowInsert(String target, String row, int parametersPerRow) {
+        this.target = target;
+        this.row = row;
+        this.parametersPerRow = parametersPerRow;
+    }
+
+    /**
+     * @return null if the sql is not a single row insert
+     */
+    public static MultiRowInsert parse(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        if (lexer.next() != SqlLexer.WORD || !lexer.is("insert")) {
+            return null;
+        }
+        int targetStart = lexer.getTokenEnd();
+        int targetEnd = -1;
+        int type;
+        while ((type = lexer.next()) != SqlLexer.EOF) {
+            if (type == SqlLexer.PARAMETER) {
+                return null;
+            }
+            if (type == SqlLexer.WORD) {
+                if (lexer.is("values")) {
+                    targetEnd = lexer.getTokenStart();
+                    break;
+                }
+                if (lexer.is("select")) {
+                    return null;
+                }
+            }
+        }
+        if (targetEnd < 0 || lexer.next() != SqlLexer.LEFT_PAREN) {
+            return null;
+        }
+        int rowStart = lexer.getTokenStart();
+        int rowEnd = -1;
+        int depth = 1;
+        int parameters = 0;
+        while (depth > 0 && (type = lexer.next()) != SqlLexer.EOF) {
+            if (type == SqlLexer.LEFT_PAREN) {
+                depth++;
+            } else if (type == SqlLexer.RIGHT_PAREN) {
+                depth--;
+                rowEnd = lexer.getTokenEnd();
+            } else if (type == SqlLexer.PARAMETER) {
+                parameters++;
+            }
+        }
+        if (depth > 0 || parameters == 0) {
+            return null;
+        }
+        // only the tailing semicolon is allowed after the row
+        while ((type = lexer.next()) != SqlLexer.EOF) {
+            if (type != SqlLexer.OTHER || sql.charAt(lexer.getTokenStart()) != ';') {
+                return null;
+            }
+        }
+        return new MultiRowInsert(sql.substring(targetStart, targetEnd).trim(), sql.substring(rowStart, rowEnd), parameters);
+    }
+
+    public int getParametersPerRow() {
+        return parametersPerRow;
+    }
+
+    /**
+     * INSERT ALL requires the INTO keyword, MySQL allows: INSERT IGNORE INTO t ...
+     */
+    public boolean isSupported(MultiRowInsertStyle style) {
+        switch (style) {
+            case VALUES_LIST:
+                return true;
+            case INSERT_ALL:
+                return target.regionMatches(true, 0, "into", 0, 4);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param maxRows       the max rows of a statement, 0: unlimited
+     * @param maxParameters the max bind parameters of a statement, 0: unlimited
+     * @return the max rows of a statement, at least 1
+     */
+    public int getMaxRowsPerStatement(int maxRows, int maxParameters) {
+        int rows = maxRows > 0 ? maxRows : Integer.MAX_VALUE;
+        if (maxParameters > 0) {
+            rows = Math.min(rows, maxParameters / parametersPerRow);
+        }
+        return Math.max(1, rows);
+    }
+
+    public String build(MultiRowInsertStyle style, int rows) {
+        Preconditions.checkArgument(rows > 0);
+        StringBuilder builder;
+        switch (style) {
+            case VALUES_LIST:
+                builder = new StringBuilder(target.length() + 20 + (row.length() + 2) * rows);
+                builder.append("INSERT ").append(target).append(" VALUES ").append(row);
+                for (int i = 1; i < rows; i++) {
+                    builder.append(", ").append(row);
+                }
+                return builder.toString();
+            case INSERT_ALL:
+                builder = new StringBuilder(32 + (target.length() + row.length() + 9) * rows);
+                builder.append("INSERT ALL");
+                for (int i = 0; i < rows; i++) {
+                    builder.append(' ').append(target).append(" VALUES ").append(row);
+                }
+                return builder.append(" SELECT 1 FROM DUAL").toString();
+            default:
+                Preconditions.checkArgument(rows == 1);
+                return "INSERT " + target + " VALUES " + row;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.batch;
+
+/**
+ * The syntax to insert multiple rows with one statement
+ */
+public enum MultiRowInsertStyle {
+    /**
+     * INSERT INTO t (a, b) VALUES (?, ?), (?, ?)
+     * <p>
+     * MySQL, PostgreSQL, H2, SQL Server 2008+ etc.
+     */
+    VALUES_LIST,
+    /**
+     * INSERT ALL INTO t (a, b) VALUES (?, ?) INTO t (a, b) VALUES (?, ?) SELECT 1 FROM DUAL
+     * <p>
+     * Oracle
+     */
+    INSERT_ALL,
+    /**
+     * not supported
+     */
+    NONE;
+}
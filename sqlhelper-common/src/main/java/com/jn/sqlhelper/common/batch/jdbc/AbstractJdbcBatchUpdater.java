@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.batch.jdbc;
+
+import com.jn.langx.util.function.Function;
+import com.jn.sqlhelper.common.batch.BatchResult;
+import com.jn.sqlhelper.common.batch.BatchStatement;
+import com.jn.sqlhelper.common.batch.BatchUpdater;
+import com.jn.sqlhelper.common.statement.PreparedStatementSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * The parameters are executed in batches (chunks), a batch is closed when it has {@link #batchSize} rows,
+ * or when the estimated bytes of its rows reach {@link #maxBatchBytes}.
+ * If {@link #commitPerBatch} and the connection is not auto commit, every batch is committed (or rolled back if failed).
+ * Else the update stops at the first failed batch, the rows after it are not executed and their update counts are
+ * {@link Statement#EXECUTE_FAILED}, so the caller can roll back the whole transaction.
+ */
+public abstract class AbstractJdbcBatchUpdater<E, STATEMENT extends BatchStatement> implements BatchUpdater<E, STATEMENT> {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractJdbcBatchUpdater.class);
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    Connection connection;
+    PreparedStatementSetter<E> setter;
+    int batchSize = DEFAULT_BATCH_SIZE;
+    /**
+     * works only if the {@link #rowSizeEstimator} is set, 0: unlimited
+     */
+    long maxBatchBytes = 0;
+    Function<E, Integer> rowSizeEstimator;
+    boolean commitPerBatch = false;
+
+    public void setConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void setSetter(PreparedStatementSetter<E> setter) {
+        this.setter = setter;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize <= 0 ? Integer.MAX_VALUE : batchSize;
+    }
+
+    public void setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    public void setRowSizeEstimator(Function<E, Integer> rowSizeEstimator) {
+        this.rowSizeEstimator = rowSizeEstimator;
+    }
+
+    public void setCommitPerBatch(boolean commitPerBatch) {
+        this.commitPerBatch = commitPerBatch;
+    }
+
+    boolean isBytesLimited() {
+        return maxBatchBytes > 0 && rowSizeEstimator != null;
+    }
+
+    long estimateBytes(E parameter) {
+        Integer size = rowSizeEstimator.apply(parameter);
+        return size == null ? 0 : size;
+    }
+
+    boolean isCommitPerBatch() throws SQLException {
+        return commitPerBatch && !connection.getAutoCommit();
+    }
+
+    /**
+     * @return whether the next batches should be executed
+     */
+    boolean endBatch(BatchResult<E> result, int batchIndex, boolean failed, boolean commit) {
+        if (failed) {
+            result.addFailedBatch(batchIndex);
+        }
+        if (!commit) {
+            return !failed || commitPerBatch;
+        }
+        try {
+            if (failed) {
+                connection.rollback();
+            } else {
+                connection.commit();
+            }
+        } catch (SQLException ex) {
+            logger.error("Error occur when end the batch {} of statement: {}", batchIndex, result.getSql(), ex);
+            result.addThrowable(ex);
+            if (!failed) {
+                result.addFailedBatch(batchIndex);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * marks the rows which are not executed
+     */
+    static void skipRows(int[] updateCounts, int fromRow) {
+        Arrays.fill(updateCounts, fromRow, updateCounts.length, Statement.EXECUTE_FAILED);
+    }
+
+    /**
+     * the sum of the update counts, {@link Statement#SUCCESS_NO_INFO} is counted as 1 row
+     */
+    static int sumRowsAffected(int[] updateCounts) {
+        int sum = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount > 0) {
+                sum += updateCount;
+            } else if (updateCount == Statement.SUCCESS_NO_INFO) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+}
@@ -15,32 +15,113 @@
 package com.jn.sqlhelper.common.batch.jdbc;
 
 import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.IOs;
+import com.jn.sqlhelper.common.batch.BatchMode;
 import com.jn.sqlhelper.common.batch.BatchResult;
 import com.jn.sqlhelper.common.batch.BatchStatement;
-import com.jn.sqlhelper.common.batch.BatchMode;
-import com.jn.sqlhelper.common.batch.BatchUpdater;
-import com.jn.sqlhelper.common.statement.PreparedStatementSetter;
+import com.jn.sqlhelper.common.batch.MultiRowInsert;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 
-public class BatchSqlBatchUpdater<E, STATEMENT extends BatchStatement> implements BatchUpdater<E, STATEMENT> {
-    Connection connection;
-    PreparedStatementSetter setter;
+/**
+ * Expands a single row insert to multiple rows inserts, see {@link MultiRowInsert}.
+ * <p>
+ * The rows of a statement is limited by the {@link #batchSize}, {@link #maxRowsPerStatement} and {@link #maxBindParameters},
+ * the {@link #maxBatchBytes} is not used since the statements should have the same shape to be reused.
+ * If the statement is not a single row insert, the result has a throwable, the caller can use the other batch modes.
+ */
+public class BatchSqlBatchUpdater<E, STATEMENT extends BatchStatement> extends AbstractJdbcBatchUpdater<E, STATEMENT> {
+    private static final Logger logger = LoggerFactory.getLogger(BatchSqlBatchUpdater.class);
+
+    private MultiRowInsertStyle multiRowInsertStyle = MultiRowInsertStyle.VALUES_LIST;
+    /**
+     * 0: unlimited
+     */
+    private int maxRowsPerStatement = 0;
+    /**
+     * 0: unlimited
+     */
+    private int maxBindParameters = 0;
+
+    public void setMultiRowInsertStyle(MultiRowInsertStyle multiRowInsertStyle) {
+        this.multiRowInsertStyle = multiRowInsertStyle;
+    }
+
+    public void setMaxRowsPerStatement(int maxRowsPerStatement) {
+        this.maxRowsPerStatement = maxRowsPerStatement;
+    }
+
+    public void setMaxBindParameters(int maxBindParameters) {
+        this.maxBindParameters = maxBindParameters;
+    }
 
     @Override
-    public BatchResult batchUpdate(STATEMENT statement, List<E> parameters) throws SQLException {
+    public BatchResult<E> batchUpdate(STATEMENT statement, List<E> parametersList) throws SQLException {
         Preconditions.checkNotNull(statement);
         Preconditions.checkArgument(statement.getBatchMode() == BatchMode.BATCH_SQL);
-        PreparedStatement pstmt = connection.prepareStatement(statement.getSql());
-        setter.setParameters(pstmt, 1, parameters);
-        int updatedRows = pstmt.executeUpdate();
-        BatchResult result = new BatchResult();
-        result.setRowsAffected(updatedRows);
+        BatchResult<E> result = new BatchResult<E>();
         result.setStatement(statement);
-        result.setParameters(parameters);
+        result.setParameters(parametersList);
+
+        MultiRowInsert insert = MultiRowInsert.parse(statement.getSql());
+        if (insert == null || !insert.isSupported(multiRowInsertStyle)) {
+            result.addThrowable(new SQLException("Can't expand the statement to a multiple rows insert: " + statement.getSql()));
+            return result;
+        }
+        int rowsPerStatement = Math.min(batchSize, insert.getMaxRowsPerStatement(maxRowsPerStatement, maxBindParameters));
+        int[] updateCounts = new int[parametersList.size()];
+        boolean commit = isCommitPerBatch();
+        PreparedStatement fullStatement = null;
+        try {
+            int batchIndex = 0;
+            for (int batchStart = 0; batchStart < parametersList.size(); batchStart += rowsPerStatement) {
+                int rows = Math.min(rowsPerStatement, parametersList.size() - batchStart);
+                PreparedStatement pstmt;
+                if (rows == rowsPerStatement) {
+                    // the full batches reuse one statement
+                    if (fullStatement == null) {
+                        fullStatement = connection.prepareStatement(insert.build(multiRowInsertStyle, rows));
+                    }
+                    pstmt = fullStatement;
+                } else {
+                    pstmt = connection.prepareStatement(insert.build(multiRowInsertStyle, rows));
+                }
+                boolean failed = false;
+                try {
+                    pstmt.clearParameters();
+                    for (int i = 0; i < rows; i++) {
+                        setter.setParameters(pstmt, i * insert.getParametersPerRow() + 1, parametersList.get(batchStart + i));
+                    }
+                    int updated = pstmt.executeUpdate();
+                    Arrays.fill(updateCounts, batchStart, batchStart + rows, updated == rows ? 1 : Statement.SUCCESS_NO_INFO);
+                } catch (SQLException ex) {
+                    logger.error("Error occur when execute the batch {} of statement: {}", batchIndex, result.getSql(), ex);
+                    result.addThrowable(ex);
+                    Arrays.fill(updateCounts, batchStart, batchStart + rows, Statement.EXECUTE_FAILED);
+                    failed = true;
+                } finally {
+                    if (pstmt != fullStatement) {
+                        IOs.close(pstmt);
+                    }
+                }
+                if (!endBatch(result, batchIndex, failed, commit)) {
+                    skipRows(updateCounts, batchStart + rows);
+                    break;
+                }
+                batchIndex++;
+            }
+        } finally {
+            IOs.close(fullStatement);
+        }
+        result.setUpdateCounts(updateCounts);
+        result.setRowsAffected(sumRowsAffected(updateCounts));
         return result;
     }
 }
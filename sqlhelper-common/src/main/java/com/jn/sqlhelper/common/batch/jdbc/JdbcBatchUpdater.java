@@ -15,35 +15,97 @@
 package com.jn.sqlhelper.common.batch.jdbc;
 
 import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.IOs;
+import com.jn.sqlhelper.common.batch.BatchMode;
 import com.jn.sqlhelper.common.batch.BatchResult;
 import com.jn.sqlhelper.common.batch.BatchStatement;
-import com.jn.sqlhelper.common.batch.BatchMode;
-import com.jn.sqlhelper.common.batch.BatchUpdater;
-import com.jn.sqlhelper.common.statement.PreparedStatementSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 
-public class JdbcBatchUpdater<E, STATEMENT extends BatchStatement> implements BatchUpdater<E, STATEMENT> {
-    Connection connection;
-    PreparedStatementSetter<E> setter;
+/**
+ * Executes the parameters with one prepared statement, batch by batch.
+ * A failed batch is recorded in the result, the next batches are executed only if {@link #commitPerBatch}.
+ */
+public class JdbcBatchUpdater<E, STATEMENT extends BatchStatement> extends AbstractJdbcBatchUpdater<E, STATEMENT> {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchUpdater.class);
 
     @Override
     public BatchResult<E> batchUpdate(STATEMENT statement, List<E> parametersList) throws SQLException {
         Preconditions.checkNotNull(statement);
         Preconditions.checkArgument(statement.getBatchMode() == BatchMode.JDBC_BATCH);
-        PreparedStatement pstmt = connection.prepareStatement(statement.getSql());
-        for (int i = 0; i < parametersList.size(); i++) {
-            setter.setParameters(pstmt, 1, parametersList.get(i));
-            pstmt.addBatch();
-        }
-        int[] updateds = pstmt.executeBatch();
         BatchResult<E> result = new BatchResult<E>();
         result.setParameters(parametersList);
         result.setStatement(statement);
-        result.setRowsAffected(updateds[0]);
+
+        int[] updateCounts = new int[parametersList.size()];
+        boolean commit = isCommitPerBatch();
+        boolean bytesLimited = isBytesLimited();
+        PreparedStatement pstmt = connection.prepareStatement(statement.getSql());
+        try {
+            int batchIndex = 0;
+            int batchStart = 0;
+            long batchBytes = 0;
+            for (int i = 0; i < parametersList.size(); i++) {
+                E parameters = parametersList.get(i);
+                setter.setParameters(pstmt, 1, parameters);
+                pstmt.addBatch();
+                if (bytesLimited) {
+                    batchBytes += estimateBytes(parameters);
+                }
+                int rows = i + 1 - batchStart;
+                if (rows >= batchSize || (bytesLimited && batchBytes >= maxBatchBytes) || i == parametersList.size() - 1) {
+                    boolean failed = !executeBatch(pstmt, result, batchIndex, batchStart, rows, updateCounts);
+                    if (!endBatch(result, batchIndex, failed, commit)) {
+                        skipRows(updateCounts, i + 1);
+                        break;
+                    }
+                    batchIndex++;
+                    batchStart = i + 1;
+                    batchBytes = 0;
+                }
+            }
+        } finally {
+            IOs.close(pstmt);
+        }
+        result.setUpdateCounts(updateCounts);
+        result.setRowsAffected(sumRowsAffected(updateCounts));
         return result;
     }
+
+    private boolean executeBatch(PreparedStatement pstmt, BatchResult<E> result, int batchIndex, int batchStart, int rows, int[] updateCounts) {
+        try {
+            int[] counts = pstmt.executeBatch();
+            if (counts.length == rows) {
+                System.arraycopy(counts, 0, updateCounts, batchStart, rows);
+            } else {
+                // the driver returns less counts (the oracle returns one count per batch, for example)
+                Arrays.fill(updateCounts, batchStart, batchStart + rows, Statement.SUCCESS_NO_INFO);
+            }
+            return true;
+        } catch (SQLException ex) {
+            logger.error("Error occur when execute the batch {} of statement: {}", batchIndex, result.getSql(), ex);
+            result.addThrowable(ex);
+            Arrays.fill(updateCounts, batchStart, batchStart + rows, Statement.EXECUTE_FAILED);
+            if (ex instanceof BatchUpdateException) {
+                // the rows before the failed one may be executed
+                int[] counts = ((BatchUpdateException) ex).getUpdateCounts();
+                if (counts != null) {
+                    System.arraycopy(counts, 0, updateCounts, batchStart, Math.min(counts.length, rows));
+                }
+            }
+            try {
+                pstmt.clearBatch();
+            } catch (SQLException ignored) {
+                // ignore it
+            }
+            return false;
+        }
+    }
 }
@@ -15,36 +15,74 @@
 package com.jn.sqlhelper.common.batch.jdbc;
 
 import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.IOs;
+import com.jn.sqlhelper.common.batch.BatchMode;
 import com.jn.sqlhelper.common.batch.BatchResult;
 import com.jn.sqlhelper.common.batch.BatchStatement;
-import com.jn.sqlhelper.common.batch.BatchMode;
-import com.jn.sqlhelper.common.batch.BatchUpdater;
-import com.jn.sqlhelper.common.statement.PreparedStatementSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 
-public class SimpleBatchUpdater<E, STATEMENT extends BatchStatement> implements BatchUpdater<E, STATEMENT> {
-    Connection connection;
-    PreparedStatementSetter<E> setter;
+/**
+ * Executes the parameters one by one with one prepared statement,
+ * the batches only affect the commits when {@link #commitPerBatch}, else the update stops at the first failed row.
+ */
+public class SimpleBatchUpdater<E, STATEMENT extends BatchStatement> extends AbstractJdbcBatchUpdater<E, STATEMENT> {
+    private static final Logger logger = LoggerFactory.getLogger(SimpleBatchUpdater.class);
 
     @Override
     public BatchResult<E> batchUpdate(STATEMENT statement, List<E> parametersList) throws SQLException {
         Preconditions.checkNotNull(statement);
         Preconditions.checkArgument(statement.getBatchMode() == BatchMode.SIMPLE);
-        int sum = 0;
-        for (int i = 0; i < parametersList.size(); i++) {
-            PreparedStatement pstmt = connection.prepareStatement(statement.getSql());
-            setter.setParameters(pstmt, 1, parametersList.get(i));
-            int updated = pstmt.executeUpdate();
-            sum = sum + updated;
-        }
         BatchResult<E> result = new BatchResult<E>();
         result.setStatement(statement);
         result.setParameters(parametersList);
-        result.setRowsAffected(sum);
+
+        int[] updateCounts = new int[parametersList.size()];
+        boolean commit = isCommitPerBatch();
+        boolean bytesLimited = isBytesLimited();
+        PreparedStatement pstmt = connection.prepareStatement(statement.getSql());
+        try {
+            int batchIndex = 0;
+            int batchStart = 0;
+            long batchBytes = 0;
+            boolean failed = false;
+            for (int i = 0; i < parametersList.size(); i++) {
+                E parameters = parametersList.get(i);
+                try {
+                    pstmt.clearParameters();
+                    setter.setParameters(pstmt, 1, parameters);
+                    updateCounts[i] = pstmt.executeUpdate();
+                } catch (SQLException ex) {
+                    logger.error("Error occur when execute the row {} of statement: {}", i, result.getSql(), ex);
+                    result.addThrowable(ex);
+                    updateCounts[i] = Statement.EXECUTE_FAILED;
+                    failed = true;
+                }
+                if (bytesLimited) {
+                    batchBytes += estimateBytes(parameters);
+                }
+                int rows = i + 1 - batchStart;
+                if (rows >= batchSize || (bytesLimited && batchBytes >= maxBatchBytes) || i == parametersList.size() - 1 || (failed && !commitPerBatch)) {
+                    if (!endBatch(result, batchIndex, failed, commit)) {
+                        skipRows(updateCounts, i + 1);
+                        break;
+                    }
+                    batchIndex++;
+                    batchStart = i + 1;
+                    batchBytes = 0;
+                    failed = false;
+                }
+            }
+        } finally {
+            IOs.close(pstmt);
+        }
+        result.setUpdateCounts(updateCounts);
+        result.setRowsAffected(sumRowsAffected(updateCounts));
         return result;
     }
 }
@@ -18,15 +18,22 @@ import com.jn.langx.util.Emptys;
 import com.jn.langx.util.collection.Collects;
 import com.jn.langx.util.function.Consumer;
 import com.jn.langx.util.io.IOs;
+import com.jn.sqlhelper.common.connection.ConnectionFactory;
 import com.jn.sqlhelper.common.ddl.model.*;
 import com.jn.sqlhelper.common.ddl.model.internal.TableType;
 import com.jn.sqlhelper.common.resultset.BeanRowMapper;
 import com.jn.sqlhelper.common.resultset.RowMapperResultSetExtractor;
 
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public class DatabaseLoader {
 
@@ -37,6 +44,40 @@ public class DatabaseLoader {
     };
 
 
+    /**
+     * load the columns of all the tables with one round trip, and the primary keys, foreign keys with one query (MySQL, PostgreSQL)
+     */
+    private boolean bulkLoad = false;
+    /**
+     * the connections of the per table round trips, required when parallelism > 1
+     */
+    private ConnectionFactory connectionFactory;
+    private int parallelism = 1;
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public void setConnectionFactory(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     public Table loadTable(DatabaseDescription databaseDescription, String catalog, String schema, String tableName) throws SQLException {
         return loadTable(databaseDescription, catalog, schema, tableName, false, false, false, false);
     }
@@ -60,28 +101,146 @@ public class DatabaseLoader {
         try {
             tablesRs = databaseDescription.getDbMetaData().getTables(catalogNamePattern, schemaNamePattern, tableNamePattern, tableTypes);
             tables = new RowMapperResultSetExtractor<Table>(new BeanRowMapper<Table>(Table.class)).extract(tablesRs);
-            DatabaseMetaData dbMetaData = databaseDescription.getDbMetaData();
+        } finally {
+            IOs.close(tablesRs);
+        }
+        DatabaseMetaData dbMetaData = databaseDescription.getDbMetaData();
+        if (bulkLoad && tables.size() > 1) {
+            Map<String, Table> tableMap = new HashMap<String, Table>(tables.size() * 2);
             for (Table table : tables) {
-                if (isLoadColumns) {
-                    findColumns(dbMetaData, table);
-                }
-
+                tableMap.put(tableKey(table.getCatalog(), table.getSchema(), table.getName()), table);
+            }
+            if (isLoadColumns) {
+                findColumns(dbMetaData, catalogNamePattern, schemaNamePattern, tableNamePattern, tableMap);
+                isLoadColumns = false;
+            }
+            InformationSchemaLoader informationSchemaLoader = InformationSchemaLoader.of(dbMetaData);
+            if (informationSchemaLoader != null) {
                 if (isLoadPks) {
-                    findTablePKs(dbMetaData, table);
+                    informationSchemaLoader.loadPrimaryKeys(dbMetaData.getConnection(), catalogNamePattern, schemaNamePattern, tableMap);
+                    isLoadPks = false;
                 }
+                if (isLoadFks) {
+                    informationSchemaLoader.loadForeignKeys(dbMetaData.getConnection(), catalogNamePattern, schemaNamePattern, tableMap);
+                    isLoadFks = false;
+                }
+            }
+        }
+        if (!isLoadColumns && !isLoadPks && !isLoadIndexes && !isLoadFks) {
+            return tables;
+        }
+        if (parallelism > 1 && connectionFactory != null && tables.size() > 1) {
+            loadTablesInParallel(tables, isLoadColumns, isLoadPks, isLoadIndexes, isLoadFks);
+        } else {
+            loadTables(dbMetaData, tables, isLoadColumns, isLoadPks, isLoadIndexes, isLoadFks);
+        }
+        return tables;
+    }
 
-                if (isLoadIndexes) {
-                    findTableIndexes(dbMetaData, table);
+    /**
+     * Load the details of a table those was loaded by {@link #loadTables(DatabaseDescription, String, String, String)}
+     */
+    public void loadTableDetails(DatabaseMetaData dbMetaData, Table table, boolean isLoadColumns, boolean isLoadPks, boolean isLoadIndexes, boolean isLoadFks) throws SQLException {
+        loadTables(dbMetaData, Collections.singletonList(table), isLoadColumns, isLoadPks, isLoadIndexes, isLoadFks);
+    }
+
+    private void loadTables(DatabaseMetaData dbMetaData, List<Table> tables, boolean isLoadColumns, boolean isLoadPks, boolean isLoadIndexes, boolean isLoadFks) throws SQLException {
+        for (Table table : tables) {
+            if (isLoadColumns) {
+                findColumns(dbMetaData, table);
+            }
+
+            if (isLoadPks) {
+                findTablePKs(dbMetaData, table);
+            }
+
+            if (isLoadIndexes) {
+                findTableIndexes(dbMetaData, table);
+            }
+
+            if (isLoadFks) {
+                findTableFKs(dbMetaData, table);
+            }
+        }
+    }
+
+    /**
+     * The per table round trips are spread on at most {@link #parallelism} connections,
+     * every task has its own connection since the metadata of a connection can't be shared by threads.
+     */
+    private void loadTablesInParallel(List<Table> tables, final boolean isLoadColumns, final boolean isLoadPks, final boolean isLoadIndexes, final boolean isLoadFks) throws SQLException {
+        int threads = Math.min(parallelism, tables.size());
+        List<List<Table>> partitions = new ArrayList<List<Table>>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<Table>());
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            partitions.get(i % threads).add(tables.get(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+            for (final List<Table> partition : partitions) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Connection connection = connectionFactory.getConnection();
+                        if (connection == null) {
+                            throw new SQLException("Can't get a connection to load the tables");
+                        }
+                        try {
+                            loadTables(connection.getMetaData(), partition, isLoadColumns, isLoadPks, isLoadIndexes, isLoadFks);
+                        } finally {
+                            IOs.close(connection);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted when load the tables", ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    }
+                    throw new SQLException(cause);
                 }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                if (isLoadFks) {
-                    findTableFKs(dbMetaData, table);
+    /**
+     * Load the columns of all the tables with one round trip
+     */
+    private void findColumns(DatabaseMetaData dbMetaData, String catalogNamePattern, String schemaNamePattern, String tableNamePattern, Map<String, Table> tableMap) throws SQLException {
+        ResultSet columnsRs = null;
+        try {
+            columnsRs = dbMetaData.getColumns(catalogNamePattern, schemaNamePattern, tableNamePattern, null);
+            List<Column> columns = new RowMapperResultSetExtractor<Column>(new BeanRowMapper<Column>(Column.class)).extract(columnsRs);
+            for (Column column : columns) {
+                Table table = tableMap.get(tableKey(column.getCatalog(), column.getSchema(), column.getTableName()));
+                if (table != null) {
+                    table.addColumn(column);
                 }
             }
         } finally {
-            IOs.close(tablesRs);
+            IOs.close(columnsRs);
         }
-        return tables;
+    }
+
+    /**
+     * The databases those have no schema (MySQL for example) use the catalogs.
+     */
+    static String tableKey(String catalog, String schema, String tableName) {
+        return (Emptys.isNotEmpty(schema) ? schema : catalog) + "." + tableName;
     }
 
     private void findColumns(DatabaseMetaData dbMetaData, final Table table) throws SQLException {
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.ddl.dump;
+
+import com.jn.langx.util.io.IOs;
+import com.jn.sqlhelper.common.ddl.model.ImportedColumn;
+import com.jn.sqlhelper.common.ddl.model.PrimaryKeyColumn;
+import com.jn.sqlhelper.common.ddl.model.Table;
+import com.jn.sqlhelper.common.ddl.model.internal.FkInitiallyRule;
+import com.jn.sqlhelper.common.ddl.model.internal.FkMutatedRule;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads the primary keys and the foreign keys of all the tables of a schema with one query,
+ * {@link DatabaseMetaData} has no bulk form for them.
+ * <p>
+ * Supports MySQL (the databases are the catalogs) and PostgreSQL (the schemas),
+ * the information_schema of PostgreSQL shows only the tables the current user has privileges on,
+ * the foreign keys of PostgreSQL are read from pg_catalog.
+ */
+abstract class InformationSchemaLoader {
+
+    /**
+     * pk catalog, pk schema, pk table, pk column, key seq, pk name
+     */
+    abstract String primaryKeysSql();
+
+    /**
+     * pk catalog, pk schema, pk table, pk column, fk catalog, fk schema, fk table, fk column, key seq, update rule, delete rule, fk name, pk name,
+     * deferrability (the code of {@link FkInitiallyRule})
+     */
+    abstract String foreignKeysSql();
+
+    abstract String primaryKeysScopeColumn();
+
+    abstract String foreignKeysScopeColumn();
+
+    /**
+     * the columns of a key are ordered by the key seq
+     */
+    abstract String primaryKeysOrderBy();
+
+    abstract String foreignKeysOrderBy();
+
+    /**
+     * @return the pattern of the schemas (or catalogs) to load
+     */
+    abstract String scope(String catalogNamePattern, String schemaNamePattern);
+
+    static InformationSchemaLoader of(DatabaseMetaData dbMetaData) throws SQLException {
+        String database = dbMetaData.getDatabaseProductName();
+        if (database == null) {
+            return null;
+        }
+        database = database.toLowerCase(Locale.ROOT);
+        if (database.contains("mysql") || database.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (database.contains("postgres")) {
+            return POSTGRESQL;
+        }
+        return null;
+    }
+
+    void loadPrimaryKeys(Connection connection, String catalogNamePattern, String schemaNamePattern, Map<String, Table> tableMap) throws SQLException {
+        String scope = scope(catalogNamePattern, schemaNamePattern);
+        PreparedStatement statement = null;
+        ResultSet rs = null;
+        try {
+            statement = prepare(connection, primaryKeysSql(), primaryKeysScopeColumn(), scope, primaryKeysOrderBy());
+            rs = statement.executeQuery();
+            while (rs.next()) {
+                Table table = tableMap.get(DatabaseLoader.tableKey(rs.getString(1), rs.getString(2), rs.getString(3)));
+                if (table != null) {
+                    PrimaryKeyColumn pk = new PrimaryKeyColumn();
+                    pk.setCatalog(table.getCatalog());
+                    pk.setSchema(table.getSchema());
+                    pk.setTableName(table.getName());
+                    pk.setColumnName(rs.getString(4));
+                    pk.setKeySeq(rs.getInt(5));
+                    pk.setName(rs.getString(6));
+                    table.addPKColumn(pk);
+                }
+            }
+        } finally {
+            IOs.close(rs);
+            IOs.close(statement);
+        }
+    }
+
+    void loadForeignKeys(Connection connection, String catalogNamePattern, String schemaNamePattern, Map<String, Table> tableMap) throws SQLException {
+        String scope = scope(catalogNamePattern, schemaNamePattern);
+        PreparedStatement statement = null;
+        ResultSet rs = null;
+        try {
+            statement = prepare(connection, foreignKeysSql(), foreignKeysScopeColumn(), scope, foreignKeysOrderBy());
+            rs = statement.executeQuery();
+            while (rs.next()) {
+                Table table = tableMap.get(DatabaseLoader.tableKey(rs.getString(5), rs.getString(6), rs.getString(7)));
+                if (table != null) {
+                    ImportedColumn fk = new ImportedColumn();
+                    fk.setPkTableCatalog(rs.getString(1));
+                    fk.setPkTableSchema(rs.getString(2));
+                    fk.setPkTableName(rs.getString(3));
+                    fk.setPkColumnName(rs.getString(4));
+                    fk.setFkTableCatalog(table.getCatalog());
+                    fk.setFkTableSchema(table.getSchema());
+                    fk.setFkTableName(table.getName());
+                    fk.setFkColumnName(rs.getString(8));
+                    fk.setKeySeq(rs.getInt(9));
+                    fk.setUpdateRule(rule(rs.getString(10)));
+                    fk.setDeleteRule(rule(rs.getString(11)));
+                    fk.setFkName(rs.getString(12));
+                    fk.setPkName(rs.getString(13));
+                    FkInitiallyRule deferrability = FkInitiallyRule.ofCode(rs.getInt(14));
+                    fk.setDeferrability(deferrability == null ? FkInitiallyRule.importedKeyNotDeferrable : deferrability);
+                    table.addFKColumn(fk);
+                }
+            }
+        } finally {
+            IOs.close(rs);
+            IOs.close(statement);
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, String scopeColumn, String scope, String orderBy) throws SQLException {
+        if (scope != null) {
+            sql = sql + " AND " + scopeColumn + " LIKE ?";
+        }
+        sql = sql + " ORDER BY " + orderBy;
+        PreparedStatement statement = connection.prepareStatement(sql);
+        if (scope != null) {
+            statement.setString(1, scope);
+        }
+        return statement;
+    }
+
+    private static FkMutatedRule rule(String keywords) {
+        for (FkMutatedRule rule : FkMutatedRule.values()) {
+            if (rule.getKeywords().equalsIgnoreCase(keywords)) {
+                return rule;
+            }
+        }
+        return FkMutatedRule.importedKeyNoAction;
+    }
+
+    private static final InformationSchemaLoader MYSQL = new InformationSchemaLoader() {
+        @Override
+        String primaryKeysSql() {
+            return "SELECT TABLE_SCHEMA, NULL, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, CONSTRAINT_NAME" +
+                    " FROM information_schema.KEY_COLUMN_USAGE" +
+                    " WHERE CONSTRAINT_NAME = 'PRIMARY'";
+        }
+
+        @Override
+        String foreignKeysSql() {
+            return "SELECT k.REFERENCED_TABLE_SCHEMA, NULL, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME," +
+                    " k.TABLE_SCHEMA, NULL, k.TABLE_NAME, k.COLUMN_NAME, k.ORDINAL_POSITION," +
+                    " rc.UPDATE_RULE, rc.DELETE_RULE, k.CONSTRAINT_NAME, rc.UNIQUE_CONSTRAINT_NAME, " + DatabaseMetaData.importedKeyNotDeferrable +
+                    " FROM information_schema.KEY_COLUMN_USAGE k" +
+                    " JOIN information_schema.REFERENTIAL_CONSTRAINTS rc ON rc.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND rc.CONSTRAINT_NAME = k.CONSTRAINT_NAME" +
+                    " WHERE k.REFERENCED_TABLE_NAME IS NOT NULL";
+        }
+
+        @Override
+        String primaryKeysScopeColumn() {
+            return "TABLE_SCHEMA";
+        }
+
+        @Override
+        String foreignKeysScopeColumn() {
+            return "k.TABLE_SCHEMA";
+        }
+
+        @Override
+        String primaryKeysOrderBy() {
+            return "TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION";
+        }
+
+        @Override
+        String foreignKeysOrderBy() {
+            return "k.TABLE_SCHEMA, k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION";
+        }
+
+        @Override
+        String scope(String catalogNamePattern, String schemaNamePattern) {
+            return catalogNamePattern;
+        }
+    };
+
+    private static final InformationSchemaLoader POSTGRESQL = new InformationSchemaLoader() {
+        @Override
+        String primaryKeysSql() {
+            return "SELECT k.table_catalog, k.table_schema, k.table_name, k.column_name, k.ordinal_position, k.constraint_name" +
+                    " FROM information_schema.table_constraints c" +
+                    " JOIN information_schema.key_column_usage k ON k.constraint_schema = c.constraint_schema AND k.constraint_name = c.constraint_name" +
+                    " WHERE c.constraint_type = 'PRIMARY KEY'";
+        }
+
+        /**
+         * The foreign key names are unique only in a table, so the key columns are read from pg_constraint (conkey, confkey)
+         * instead of joining the key_column_usage by the constraint name.
+         */
+        @Override
+        String foreignKeysSql() {
+            return "SELECT current_database(), pkn.nspname, pkc.relname, pka.attname," +
+                    " current_database(), fkn.nspname, fkc.relname, fka.attname, pos.n," +
+                    " " + ruleCase("con.confupdtype") + ", " + ruleCase("con.confdeltype") + ", con.conname, pki.relname, " + deferrabilityCase() +
+                    " FROM pg_catalog.pg_constraint con" +
+                    " JOIN pg_catalog.generate_series(1, 32) pos(n) ON pos.n <= array_upper(con.conkey, 1)" +
+                    " JOIN pg_catalog.pg_class fkc ON fkc.oid = con.conrelid" +
+                    " JOIN pg_catalog.pg_namespace fkn ON fkn.oid = fkc.relnamespace" +
+                    " JOIN pg_catalog.pg_attribute fka ON fka.attrelid = con.conrelid AND fka.attnum = con.conkey[pos.n]" +
+                    " JOIN pg_catalog.pg_class pkc ON pkc.oid = con.confrelid" +
+                    " JOIN pg_catalog.pg_namespace pkn ON pkn.oid = pkc.relnamespace" +
+                    " JOIN pg_catalog.pg_attribute pka ON pka.attrelid = con.confrelid AND pka.attnum = con.confkey[pos.n]" +
+                    " LEFT JOIN pg_catalog.pg_class pki ON pki.oid = con.conindid" +
+                    " WHERE con.contype = 'f'";
+        }
+
+        private String ruleCase(String column) {
+            return "CASE " + column + " WHEN 'c' THEN 'CASCADE' WHEN 'n' THEN 'SET NULL' WHEN 'd' THEN 'SET DEFAULT' WHEN 'r' THEN 'RESTRICT' ELSE 'NO ACTION' END";
+        }
+
+        private String deferrabilityCase() {
+            return "CASE WHEN NOT con.condeferrable THEN " + DatabaseMetaData.importedKeyNotDeferrable +
+                    " WHEN con.condeferred THEN " + DatabaseMetaData.importedKeyInitiallyDeferred +
+                    " ELSE " + DatabaseMetaData.importedKeyInitiallyImmediate + " END";
+        }
+
+        @Override
+        String primaryKeysScopeColumn() {
+            return "k.table_schema";
+        }
+
+        @Override
+        String foreignKeysScopeColumn() {
+            return "fkn.nspname";
+        }
+
+        @Override
+        String primaryKeysOrderBy() {
+            return "k.table_schema, k.table_name, k.ordinal_position";
+        }
+
+        @Override
+        String foreignKeysOrderBy() {
+            return "fkn.nspname, fkc.relname, con.conname, pos.n";
+        }
+
+        @Override
+        String scope(String catalogNamePattern, String schemaNamePattern) {
+            return schemaNamePattern;
+        }
+    };
+}
@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BeanRowMapper<T> implements RowMapper<T> {
     private static final Logger logger = LoggerFactory.getLogger(BeanRowMapper.class);
@@ -30,6 +31,18 @@ public class BeanRowMapper<T> implements RowMapper<T> {
     private Class<T> targetClass; // map an row to an instance of the class
     private ConverterService converterService = ConverterService.DEFAULT; // value converter
     private SqlSymbolMapper sqlSymbolMapper; // for guess field by column name
+    /**
+     * map rows with a precompiled plan per column layout, see {@link BeanRowMappingPlan}
+     */
+    private boolean precompiled = Boolean.parseBoolean(System.getProperty("beanrowmapper.precompiled", "false"));
+    private final ConcurrentHashMap<String, BeanRowMappingPlan<T>> plans = new ConcurrentHashMap<String, BeanRowMappingPlan<T>>();
+    /**
+     * column layout signature => the field of every column, the arrays are never changed after they are cached.
+     * The shared one is used when the fields are parsed by the {@link CachedEntityBeanClassParser}
+     */
+    private static final ConcurrentHashMap<ResolutionKey, EntityFieldInfo[]> sharedResolutions = new ConcurrentHashMap<ResolutionKey, EntityFieldInfo[]>();
+    private final ConcurrentHashMap<ResolutionKey, EntityFieldInfo[]> resolutions;
+    private volatile Layout<T> lastLayout;
 
     public BeanRowMapper(Class<T> beanClass) {
         this(beanClass, true);
@@ -39,6 +52,7 @@ public class BeanRowMapper<T> implements RowMapper<T> {
         Preconditions.checkNotNull(beanClass);
         this.targetClass = beanClass;
         this.fieldMap = (useCache ? CachedEntityBeanClassParser.getInstance() : new EntityBeanClassParser()).parse(targetClass);
+        this.resolutions = useCache ? sharedResolutions : new ConcurrentHashMap<ResolutionKey, EntityFieldInfo[]>();
     }
 
     private Map<String, EntityFieldInfo> fieldMap;
@@ -48,15 +62,19 @@ public class BeanRowMapper<T> implements RowMapper<T> {
         if (sqlSymbolMapper == null) {
             sqlSymbolMapper = new UnderlineToCamelSymbolMapper();
         }
-        int columnCount = resultSetDescription.getColumnCount();
+        Layout<T> layout = getLayout(resultSetDescription);
+        if (precompiled) {
+            return layout.plan.mapping(row);
+        }
+        EntityFieldInfo[] fields = layout.fields;
         T instance = Reflects.newInstance(targetClass);
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = resultSetDescription.getColumnName(i);
-            EntityFieldInfo fieldInfo = findFieldForColumn(columnName);
+        for (int i = 1; i <= fields.length; i++) {
+            EntityFieldInfo fieldInfo = fields[i - 1];
             if (fieldInfo == null) {
                 if (ignoreUnrecognizableColumn) {
                     continue;
                 }
+                String columnName = resultSetDescription.getColumnName(i);
                 String errorMessage = StringTemplates.formatWithPlaceholder("Can't find a field link to a column: {} in the class: {}", columnName, targetClass);
                 throw new NoMappedFieldException(errorMessage);
             }
@@ -112,6 +130,99 @@ public class BeanRowMapper<T> implements RowMapper<T> {
     }
 
 
+    private Layout<T> getLayout(ResultSetDescription resultSetDescription) {
+        Layout<T> layout = lastLayout;
+        if (layout != null && layout.resultSetDescription == resultSetDescription && (!precompiled || layout.plan != null)) {
+            return layout;
+        }
+        String signature = resultSetDescription.getSignature();
+        EntityFieldInfo[] fields = resolveFields(signature, resultSetDescription);
+        BeanRowMappingPlan<T> plan = null;
+        if (precompiled) {
+            plan = plans.get(signature);
+            if (plan == null) {
+                for (int i = 0; i < fields.length; i++) {
+                    if (fields[i] == null && !ignoreUnrecognizableColumn) {
+                        String errorMessage = StringTemplates.formatWithPlaceholder("Can't find a field link to a column: {} in the class: {}", resultSetDescription.getColumnName(i + 1), targetClass);
+                        throw new NoMappedFieldException(errorMessage);
+                    }
+                }
+                plan = new BeanRowMappingPlan<T>(targetClass, fields, converterService);
+                BeanRowMappingPlan<T> existed = plans.putIfAbsent(signature, plan);
+                if (existed != null) {
+                    plan = existed;
+                }
+            }
+        }
+        layout = new Layout<T>(resultSetDescription, fields, plan);
+        lastLayout = layout;
+        return layout;
+    }
+
+    private EntityFieldInfo[] resolveFields(String signature, ResultSetDescription resultSetDescription) {
+        ResolutionKey key = new ResolutionKey(targetClass, sqlSymbolMapper.getClass(), signature);
+        EntityFieldInfo[] fields = resolutions.get(key);
+        if (fields == null) {
+            int columnCount = resultSetDescription.getColumnCount();
+            fields = new EntityFieldInfo[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                fields[i - 1] = findFieldForColumn(resultSetDescription.getColumnName(i));
+            }
+            EntityFieldInfo[] existed = resolutions.putIfAbsent(key, fields);
+            if (existed != null) {
+                fields = existed;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * the resolved fields (and the plan) of a result set
+     */
+    private static class Layout<T> {
+        private final ResultSetDescription resultSetDescription;
+        private final EntityFieldInfo[] fields;
+        private final BeanRowMappingPlan<T> plan;
+
+        Layout(ResultSetDescription resultSetDescription, EntityFieldInfo[] fields, BeanRowMappingPlan<T> plan) {
+            this.resultSetDescription = resultSetDescription;
+            this.fields = fields;
+            this.plan = plan;
+        }
+    }
+
+    private static class ResolutionKey {
+        private final Class beanClass;
+        private final Class sqlSymbolMapperClass;
+        private final String signature;
+
+        ResolutionKey(Class beanClass, Class sqlSymbolMapperClass, String signature) {
+            this.beanClass = beanClass;
+            this.sqlSymbolMapperClass = sqlSymbolMapperClass;
+            this.signature = signature;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResolutionKey)) {
+                return false;
+            }
+            ResolutionKey that = (ResolutionKey) o;
+            return beanClass == that.beanClass && sqlSymbolMapperClass == that.sqlSymbolMapperClass && signature.equals(that.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return (beanClass.hashCode() * 31 + sqlSymbolMapperClass.hashCode()) * 31 + signature.hashCode();
+        }
+    }
+
+    /**
+     * it is called only once for a column layout, the fieldMap is never changed
+     */
     private EntityFieldInfo findFieldForColumn(final String columnName) {
         if (fieldMap == null) {
             return null;
@@ -122,7 +233,8 @@ public class BeanRowMapper<T> implements RowMapper<T> {
             return fieldInfo;
         }
 
-        fieldInfo = Collects.findFirst(fieldMap.values(), new Predicate<EntityFieldInfo>() {
+        final String mappedColumnName = sqlSymbolMapper == null ? null : sqlSymbolMapper.apply(columnName);
+        return Collects.findFirst(fieldMap.values(), new Predicate<EntityFieldInfo>() {
             @Override
             public boolean test(EntityFieldInfo field) {
                 return Collects.anyMatch(field.getColumnNames(), new Predicate<String>() {
@@ -131,18 +243,14 @@ public class BeanRowMapper<T> implements RowMapper<T> {
                         if (value.equalsIgnoreCase(columnName)) {
                             return true;
                         }
-                        if (sqlSymbolMapper != null) {
-                            return sqlSymbolMapper.apply(columnName).equalsIgnoreCase(sqlSymbolMapper.apply(value));
+                        if (mappedColumnName != null) {
+                            return mappedColumnName.equalsIgnoreCase(sqlSymbolMapper.apply(value));
                         }
                         return false;
                     }
                 });
             }
         });
-        if (fieldInfo != null) {
-            fieldMap.put(columnName, fieldInfo);
-        }
-        return fieldInfo;
     }
 
     private void setValue(FieldInfo fieldInfo, Object target, Object fieldValue) throws Throwable {
@@ -184,6 +292,7 @@ public class BeanRowMapper<T> implements RowMapper<T> {
 
     public void setIgnoreUnrecognizableColumn(boolean ignoreUnrecognizableColumn) {
         this.ignoreUnrecognizableColumn = ignoreUnrecognizableColumn;
+        clearPlans();
     }
 
     public ConverterService getConverterService() {
@@ -192,9 +301,24 @@ public class BeanRowMapper<T> implements RowMapper<T> {
 
     public void setConverterService(ConverterService converterService) {
         this.converterService = converterService;
+        clearPlans();
     }
 
     public void setSqlSymbolMapper(SqlSymbolMapper sqlSymbolMapper) {
         this.sqlSymbolMapper = sqlSymbolMapper;
+        clearPlans();
+    }
+
+    public boolean isPrecompiled() {
+        return precompiled;
+    }
+
+    public void setPrecompiled(boolean precompiled) {
+        this.precompiled = precompiled;
+    }
+
+    private void clearPlans() {
+        plans.clear();
+        lastLayout = null;
     }
 }
@@ -0,0 +1,267 @@
+package com.jn.sqlhelper.common.resultset;
+
+import com.jn.langx.Converter;
+import com.jn.langx.exception.ValueConvertException;
+import com.jn.langx.text.StringTemplates;
+import com.jn.langx.util.Throwables;
+import com.jn.langx.util.converter.ConverterService;
+import com.jn.langx.util.reflect.Modifiers;
+import com.jn.langx.util.reflect.Reflects;
+import com.jn.langx.util.reflect.type.Primitives;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A precompiled plan to map the rows of a result set column layout to a bean class.
+ * <p>
+ * Every column is bound once to a typed getter of the ResultSet, the converters and an accessible setter (or field),
+ * so mapping a row does no field lookup, no getter selection and no access check.
+ */
+class BeanRowMappingPlan<T> {
+    private static final Logger logger = LoggerFactory.getLogger(BeanRowMappingPlan.class);
+
+    private static final int READ_ANY = 0;
+    private static final int READ_STRING = 1;
+    private static final int READ_BOOLEAN = 2;
+    private static final int READ_BYTE = 3;
+    private static final int READ_SHORT = 4;
+    private static final int READ_INT = 5;
+    private static final int READ_LONG = 6;
+    private static final int READ_FLOAT = 7;
+    private static final int READ_DOUBLE = 8;
+    private static final int READ_BIG_DECIMAL = 9;
+    private static final int READ_DATE = 10;
+    private static final int READ_TIME = 11;
+    private static final int READ_TIMESTAMP = 12;
+    private static final int READ_BYTES = 13;
+
+    private final Class<T> targetClass;
+    private final Constructor<T> constructor;
+    private final ColumnMapping[] columns;
+
+    /**
+     * @param fields the field of every column, the first column is fields[0], null if the column will be ignored
+     */
+    BeanRowMappingPlan(Class<T> targetClass, EntityFieldInfo[] fields, ConverterService converterService) {
+        this.targetClass = targetClass;
+        this.constructor = findConstructor(targetClass);
+        int count = 0;
+        for (EntityFieldInfo field : fields) {
+            if (field != null) {
+                count++;
+            }
+        }
+        this.columns = new ColumnMapping[count];
+        int j = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                columns[j++] = new ColumnMapping(targetClass, i + 1, fields[i], converterService);
+            }
+        }
+    }
+
+    private static <T> Constructor<T> findConstructor(Class<T> targetClass) {
+        try {
+            Constructor<T> constructor = targetClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (Throwable ex) {
+            // fall back to Reflects.newInstance
+            return null;
+        }
+    }
+
+    T mapping(ResultSet row) {
+        T instance;
+        if (constructor != null) {
+            try {
+                instance = constructor.newInstance();
+            } catch (Throwable ex) {
+                throw Throwables.wrapAsRuntimeException(ex);
+            }
+        } else {
+            instance = Reflects.newInstance(targetClass);
+        }
+        for (ColumnMapping column : columns) {
+            column.apply(row, instance);
+        }
+        return instance;
+    }
+
+    private static final class ColumnMapping {
+        private final Class targetClass;
+        private final int index;
+        private final int reader;
+        private final EntityFieldInfo fieldInfo;
+        private final Class fieldType;
+        private final Class wrappedType;
+        private final Converter converter;
+        private final ConverterService converterService;
+        private final Method setter;
+        private final Field field;
+        private final boolean primitive;
+
+        ColumnMapping(Class targetClass, int index, EntityFieldInfo fieldInfo, ConverterService converterService) {
+            this.targetClass = targetClass;
+            this.index = index;
+            this.fieldInfo = fieldInfo;
+            this.fieldType = fieldInfo.getFieldType();
+            this.wrappedType = Primitives.wrap(fieldType);
+            this.reader = getReader(fieldType);
+            this.converter = fieldInfo.getConverter();
+            this.converterService = converterService;
+            this.primitive = Primitives.isPrimitive(fieldType);
+
+            Method method = fieldInfo.getSetter();
+            if (method != null && Modifiers.isPublic(method)) {
+                method.setAccessible(true);
+                this.setter = method;
+                this.field = null;
+            } else {
+                this.setter = null;
+                this.field = fieldInfo.getField();
+                this.field.setAccessible(true);
+            }
+        }
+
+        void apply(ResultSet row, Object instance) {
+            Object value;
+            try {
+                value = read(row);
+            } catch (Throwable ex) {
+                try {
+                    value = ResultSets.getResultSetValue(row, index);
+                } catch (Throwable ex2) {
+                    throw Throwables.wrapAsRuntimeException(ex2);
+                }
+            }
+            if (value == null) {
+                if (primitive) {
+                    return;
+                }
+            } else if (!wrappedType.isInstance(value)) {
+                value = convert(value);
+            }
+            set(instance, value);
+        }
+
+        private Object read(ResultSet rs) throws SQLException {
+            Object value;
+            switch (reader) {
+                case READ_STRING:
+                    return rs.getString(index);
+                case READ_BOOLEAN:
+                    value = rs.getBoolean(index);
+                    break;
+                case READ_BYTE:
+                    value = rs.getByte(index);
+                    break;
+                case READ_SHORT:
+                    value = rs.getShort(index);
+                    break;
+                case READ_INT:
+                    value = rs.getInt(index);
+                    break;
+                case READ_LONG:
+                    value = rs.getLong(index);
+                    break;
+                case READ_FLOAT:
+                    value = rs.getFloat(index);
+                    break;
+                case READ_DOUBLE:
+                    value = rs.getDouble(index);
+                    break;
+                case READ_BIG_DECIMAL:
+                    return rs.getBigDecimal(index);
+                case READ_DATE:
+                    return rs.getDate(index);
+                case READ_TIME:
+                    return rs.getTime(index);
+                case READ_TIMESTAMP:
+                    return rs.getTimestamp(index);
+                case READ_BYTES:
+                    return rs.getBytes(index);
+                default:
+                    return ResultSets.getResultSetValue(rs, index, fieldType);
+            }
+            return rs.wasNull() ? null : value;
+        }
+
+        private Object convert(Object value) {
+            Object source = value;
+            try {
+                if (converter != null) {
+                    value = converter.apply(value);
+                }
+                if (value != null && !wrappedType.isInstance(value) && converterService != null) {
+                    value = converterService.convert(value, fieldType);
+                }
+            } catch (Throwable ex) {
+                logger.warn(ex.getMessage(), ex);
+                throw newValueConvertException(source);
+            }
+            if (value != null && !wrappedType.isInstance(value)) {
+                throw newValueConvertException(value);
+            }
+            return value;
+        }
+
+        private ValueConvertException newValueConvertException(Object value) {
+            return new ValueConvertException(StringTemplates.formatWithPlaceholder("Can't convert {} to {} for {}#{}", value.getClass(), fieldType, Reflects.getFQNClassName(targetClass), fieldInfo.getFieldName()));
+        }
+
+        private void set(Object instance, Object value) {
+            if (setter != null) {
+                try {
+                    setter.invoke(instance, value);
+                } catch (Throwable ex) {
+                    logger.error("set {} # {} field by setter {} fail, value: {}", Reflects.getFQNClassName(targetClass), fieldInfo.getField().getName(), setter.getName(), value);
+                }
+            } else {
+                try {
+                    field.set(instance, value);
+                } catch (Throwable ex) {
+                    logger.error("set {} # {} field by reflection fail, value: {}", Reflects.getFQNClassName(targetClass), fieldInfo.getField().getName(), value);
+                }
+            }
+        }
+    }
+
+    private static int getReader(Class type) {
+        if (String.class == type) {
+            return READ_STRING;
+        } else if (boolean.class == type || Boolean.class == type) {
+            return READ_BOOLEAN;
+        } else if (byte.class == type || Byte.class == type) {
+            return READ_BYTE;
+        } else if (short.class == type || Short.class == type) {
+            return READ_SHORT;
+        } else if (int.class == type || Integer.class == type) {
+            return READ_INT;
+        } else if (long.class == type || Long.class == type) {
+            return READ_LONG;
+        } else if (float.class == type || Float.class == type) {
+            return READ_FLOAT;
+        } else if (double.class == type || Double.class == type || Number.class == type) {
+            return READ_DOUBLE;
+        } else if (BigDecimal.class == type) {
+            return READ_BIG_DECIMAL;
+        } else if (java.sql.Date.class == type) {
+            return READ_DATE;
+        } else if (java.sql.Time.class == type) {
+            return READ_TIME;
+        } else if (java.sql.Timestamp.class == type || java.util.Date.class == type) {
+            return READ_TIMESTAMP;
+        } else if (byte[].class == type) {
+            return READ_BYTES;
+        }
+        return READ_ANY;
+    }
+}
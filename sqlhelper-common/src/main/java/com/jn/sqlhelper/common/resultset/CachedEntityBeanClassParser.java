@@ -1,5 +1,6 @@
 package com.jn.sqlhelper.common.resultset;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -18,11 +19,13 @@ public class CachedEntityBeanClassParser extends EntityBeanClassParser {
 
     @Override
     public Map<String, EntityFieldInfo> parse(Class clazz) {
-        if (cache.containsKey(clazz)) {
-            return cache.get(clazz);
+        Map<String, EntityFieldInfo> entityFieldInfoMap = cache.get(clazz);
+        if (entityFieldInfoMap != null) {
+            return entityFieldInfoMap;
         }
-        Map<String, EntityFieldInfo> entityFieldInfoMap = super.parse(clazz);
-        cache.putIfAbsent(clazz, entityFieldInfoMap);
-        return entityFieldInfoMap;
+        // the cached map is shared by all mappers, so it is read only
+        entityFieldInfoMap = Collections.unmodifiableMap(super.parse(clazz));
+        Map<String, EntityFieldInfo> existed = cache.putIfAbsent(clazz, entityFieldInfoMap);
+        return existed != null ? existed : entityFieldInfoMap;
     }
 }
@@ -1,44 +1,100 @@
 package com.jn.sqlhelper.common.resultset;
 
-import com.jn.langx.util.ThrowableFunction;
-import com.jn.langx.util.Throwables;
-import com.jn.langx.util.collection.Arrs;
-import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.function.Consumer;
 import com.jn.sqlhelper.common.ddl.model.internal.JdbcType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * The description of the columns of a result set.
+ * <p>
+ * Only the column count is read when it is created, an attribute is read from the {@link ResultSetMetaData}
+ * for all the columns when it is asked for the first time, so the attributes which no mapper uses cost nothing.
+ * The errors of the metadata are logged, and the default values are used.
+ * <p>
+ * A description is not thread safe until {@link #loadAll()} is called, see {@link ResultSetDescriptionCache}.
+ */
 @SuppressWarnings({"unused"})
 public class ResultSetDescription {
     private static final Logger logger = LoggerFactory.getLogger(ResultSetDescription.class);
 
+    private static final int AUTO_INCREMENT = 0;
+    private static final int CASE_SENSITIVE = 1;
+    private static final int SEARCHABLE = 2;
+    private static final int CURRENCY = 3;
+    private static final int NULLABLE = 4;
+    private static final int SIGNED = 5;
+    private static final int DISPLAY_SIZE = 6;
+    private static final int COLUMN_LABEL = 7;
+    private static final int COLUMN_NAME = 8;
+    private static final int SCHEMA_NAME = 9;
+    private static final int PRECISION = 10;
+    private static final int SCALE = 11;
+    private static final int TABLE_NAME = 12;
+    private static final int CATALOG_NAME = 13;
+    private static final int COLUMN_TYPE = 14;
+    private static final int COLUMN_TYPE_NAME = 15;
+    private static final int READ_ONLY = 16;
+    private static final int WRITABLE = 17;
+    private static final int DEFINITELY_WRITABLE = 18;
+    private static final int COLUMN_CLASS_NAME = 19;
+
+    /**
+     * null after all the attributes are loaded
+     */
+    private ResultSetMetaData resultSetMetaData;
+
     public ResultSetDescription(final ResultSetMetaData resultSetMetaData) {
-        parseColumnCount(resultSetMetaData);
-        parseIsAutoIncrement(resultSetMetaData);
-        parseIsCaseSensitive(resultSetMetaData);
-        parseIsSearchable(resultSetMetaData);
-        parseIsCurrency(resultSetMetaData);
-        parseIsNullable(resultSetMetaData);
-        parseIsSigned(resultSetMetaData);
-        parseColumnDisplaySizes(resultSetMetaData);
-        parseColumnNames(resultSetMetaData);
-        parseColumnLabels(resultSetMetaData);
-        parsePrecisions(resultSetMetaData);
-        parseScales(resultSetMetaData);
-        parseSchemaNames(resultSetMetaData);
-        parseTableNames(resultSetMetaData);
-        parseCatalogNames(resultSetMetaData);
-        parseColumnTypes(resultSetMetaData);
-        parseColumnJdbcTypeNames(resultSetMetaData);
-        parseColumnClassNames(resultSetMetaData);
-        parseIsReadOnly(resultSetMetaData);
-        parseIsWritable(resultSetMetaData);
-        parseIsDefinitelyWritable(resultSetMetaData);
+        this.resultSetMetaData = resultSetMetaData;
+        try {
+            this.columnCount = resultSetMetaData.getColumnCount();
+        } catch (Throwable ex) {
+            logger.warn("Error occur when get the column count: {}", ex.getMessage(), ex);
+            this.columnCount = 0;
+        }
+    }
+
+    /**
+     * Reads all the attributes and releases the {@link ResultSetMetaData},
+     * after that the description can be shared by the threads and outlives the result set.
+     *
+     * @return this
+     */
+    public ResultSetDescription loadAll() {
+        if (resultSetMetaData == null) {
+            return this;
+        }
+        if (columnCount > 0) {
+            // an attribute is loaded for all the columns at once
+            isAutoIncrement(1);
+            isCaseSensitive(1);
+            isSearchable(1);
+            isCurrency(1);
+            isNullable(1);
+            isSigned(1);
+            getColumnDisplaySize(1);
+            getColumnLabel(1);
+            getSchemaName(1);
+            getPrecision(1);
+            getScale(1);
+            getTableName(1);
+            getCatalogName(1);
+            getColumnType(1);
+            getColumnTypeName(1);
+            isReadOnly(1);
+            isWritable(1);
+            isDefinitelyWritable(1);
+            getColumnClassName(1);
+        }
+        getSignature();
+        resultSetMetaData = null;
+        return this;
     }
 
     private int columnCount;
@@ -47,17 +103,7 @@ public class ResultSetDescription {
         return columnCount;
     }
 
-    private void parseColumnCount(final ResultSetMetaData resultSetMetaData) {
-        this.columnCount = Throwables.ignoreThrowable(logger, 0, new ThrowableFunction<Object, Integer>() {
-            @Override
-            public Integer doFun(Object o) throws Throwable {
-                return resultSetMetaData.getColumnCount();
-            }
-        }, resultSetMetaData);
-
-    }
-
-    private List<Boolean> isAutoIncrement;
+    private boolean[] isAutoIncrement;
 
     /**
      * Indicates whether the designated column is automatically numbered.
@@ -66,26 +112,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isAutoIncrement(int column) {
-        return isAutoIncrement.get(column - 1);
-    }
-
-    private void parseIsAutoIncrement(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isAutoIncrement = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isAutoIncrement.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isAutoIncrement(column);
-                    }
-                }, column));
-            }
-        });
-        this.isAutoIncrement = isAutoIncrement;
+        if (isAutoIncrement == null) {
+            isAutoIncrement = loadBooleans(AUTO_INCREMENT, false);
+        }
+        return isAutoIncrement[column - 1];
     }
 
-    private List<Boolean> isCaseSensitive;
+    private boolean[] isCaseSensitive;
 
     /**
      * Indicates whether a column's case matters.
@@ -94,26 +127,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isCaseSensitive(int column) {
-        return isCaseSensitive.get(column - 1);
+        if (isCaseSensitive == null) {
+            isCaseSensitive = loadBooleans(CASE_SENSITIVE, false);
+        }
+        return isCaseSensitive[column - 1];
     }
 
-    private void parseIsCaseSensitive(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isCaseSensitive = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isCaseSensitive.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isCaseSensitive(column);
-                    }
-                }, column));
-            }
-        });
-        this.isCaseSensitive = isCaseSensitive;
-    }
-
-    private List<Boolean> isSearchable;
+    private boolean[] isSearchable;
 
     /**
      * Indicates whether the designated column can be used in a where clause.
@@ -122,27 +142,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isSearchable(int column) {
-        return isSearchable.get(column - 1);
-    }
-
-    private void parseIsSearchable(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isSearchable = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isSearchable.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isSearchable(column);
-                    }
-                }, column));
-            }
-        });
-        this.isSearchable = isSearchable;
+        if (isSearchable == null) {
+            isSearchable = loadBooleans(SEARCHABLE, false);
+        }
+        return isSearchable[column - 1];
     }
 
-
-    private List<Boolean> isCurrency;
+    private boolean[] isCurrency;
 
     /**
      * Indicates whether the designated column is a cash value.
@@ -151,27 +157,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isCurrency(int column) {
-        return isCurrency.get(column - 1);
-    }
-
-    private void parseIsCurrency(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isCurrency = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isCurrency.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isSearchable(column);
-                    }
-                }, column));
-            }
-        });
-        this.isCurrency = isCurrency;
+        if (isCurrency == null) {
+            isCurrency = loadBooleans(CURRENCY, false);
+        }
+        return isCurrency[column - 1];
     }
 
-
-    private List<Integer> isNullable;
+    private int[] isNullable;
 
     /**
      * Indicates the nullability of values in the designated column.
@@ -181,23 +173,10 @@ public class ResultSetDescription {
      * <code>columnNullable</code> or <code>columnNullableUnknown</code>
      */
     public int isNullable(int column) {
-        return isNullable.get(column - 1);
-    }
-
-    private void parseIsNullable(final ResultSetMetaData resultSetMetaData) {
-        final List<Integer> isNullable = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isNullable.add(Throwables.ignoreThrowable(logger, columnNullableUnknown, new ThrowableFunction<Integer, Integer>() {
-                    @Override
-                    public Integer doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isNullable(column);
-                    }
-                }, column));
-            }
-        });
-        this.isNullable = isNullable;
+        if (isNullable == null) {
+            isNullable = loadInts(NULLABLE, columnNullableUnknown);
+        }
+        return isNullable[column - 1];
     }
 
     /**
@@ -219,7 +198,7 @@ public class ResultSetDescription {
     public static final int columnNullableUnknown = 2;
 
 
-    private List<Boolean> isSigned;
+    private boolean[] isSigned;
 
     /**
      * Indicates whether values in the designated column are signed numbers.
@@ -228,27 +207,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isSigned(int column) {
-        return isSigned.get(column - 1);
-    }
-
-    private void parseIsSigned(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isSigned = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isSigned.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isSigned(column);
-                    }
-                }, column));
-            }
-        });
-        this.isSigned = isSigned;
+        if (isSigned == null) {
+            isSigned = loadBooleans(SIGNED, false);
+        }
+        return isSigned[column - 1];
     }
 
-
-    private List<Integer> columnDisplaySizes;
+    private int[] columnDisplaySizes;
 
     /**
      * Indicates the designated column's normal maximum width in characters.
@@ -258,27 +223,13 @@ public class ResultSetDescription {
      * of the designated column
      */
     public int getColumnDisplaySize(int column) {
-        return columnDisplaySizes.get(column - 1);
-    }
-
-    private void parseColumnDisplaySizes(final ResultSetMetaData resultSetMetaData) {
-        final List<Integer> columnDisplaySizes = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                columnDisplaySizes.add(Throwables.ignoreThrowable(logger, columnNullableUnknown, new ThrowableFunction<Integer, Integer>() {
-                    @Override
-                    public Integer doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getColumnDisplaySize(column);
-                    }
-                }, column));
-            }
-        });
-        this.columnDisplaySizes = columnDisplaySizes;
+        if (columnDisplaySizes == null) {
+            columnDisplaySizes = loadInts(DISPLAY_SIZE, columnNullableUnknown);
+        }
+        return columnDisplaySizes[column - 1];
     }
 
-
-    private List<String> columnLabels;
+    private String[] columnLabels;
 
     /**
      * Gets the designated column's suggested title for use in printouts and
@@ -291,27 +242,13 @@ public class ResultSetDescription {
      * @return the suggested column title
      */
     public String getColumnLabel(int column) {
-        return columnLabels.get(column - 1);
+        if (columnLabels == null) {
+            columnLabels = loadStrings(COLUMN_LABEL, null);
+        }
+        return columnLabels[column - 1];
     }
 
-    private void parseColumnLabels(final ResultSetMetaData resultSetMetaData) {
-        final List<String> columnLabels = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                columnLabels.add(Throwables.ignoreThrowable(logger, getColumnName(column), new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getColumnLabel(column);
-                    }
-                }, column));
-            }
-        });
-        this.columnLabels = columnLabels;
-    }
-
-
-    private List<String> columnNames;
+    private String[] columnNames;
 
     /**
      * Get the designated column's name.
@@ -320,30 +257,41 @@ public class ResultSetDescription {
      * @return column name
      */
     public String getColumnName(int column) {
-        return columnNames.get(column - 1);
+        if (columnNames == null) {
+            columnNames = loadStrings(COLUMN_NAME, "_UNKnown_");
+        }
+        return columnNames[column - 1];
     }
 
-    private void parseColumnNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> columnNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                columnNames.add(Throwables.ignoreThrowable(logger, "_UNKnown_", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getColumnName(column);
-                    }
-                }, column));
-            }
-        });
-        this.columnNames = columnNames;
+    public List<String> getColumnNames() {
+        if (columnNames == null) {
+            columnNames = loadStrings(COLUMN_NAME, "_UNKnown_");
+        }
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
     }
 
-    public List<String> getColumnNames() {
-        return columnNames;
+    private String signature;
+
+    /**
+     * The signature of the column layout: the column count and the column names in order.
+     * The result sets which have a same signature can be mapped in a same way.
+     */
+    public String getSignature() {
+        if (signature == null) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(columnCount).append(':');
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    builder.append(',');
+                }
+                builder.append(getColumnName(i));
+            }
+            signature = builder.toString();
+        }
+        return signature;
     }
 
-    private List<String> schemaNames;
+    private String[] schemaNames;
 
     /**
      * Get the designated column's table's schema.
@@ -352,27 +300,13 @@ public class ResultSetDescription {
      * @return schema name or "" if not applicable
      */
     public String getSchemaName(int column) {
-        return schemaNames.get(column - 1);
+        if (schemaNames == null) {
+            schemaNames = loadStrings(SCHEMA_NAME, "");
+        }
+        return schemaNames[column - 1];
     }
 
-    private void parseSchemaNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> schemaNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                schemaNames.add(Throwables.ignoreThrowable(logger, "", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getSchemaName(column);
-                    }
-                }, column));
-            }
-        });
-        this.schemaNames = schemaNames;
-    }
-
-
-    private List<Integer> precisions;
+    private int[] precisions;
 
     /**
      * Get the designated column's specified column size.
@@ -386,27 +320,13 @@ public class ResultSetDescription {
      * @return precision
      */
     public int getPrecision(int column) {
-        return precisions.get(column - 1);
-    }
-
-    private void parsePrecisions(final ResultSetMetaData resultSetMetaData) {
-        final List<Integer> precisions = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                precisions.add(Throwables.ignoreThrowable(logger, 0, new ThrowableFunction<Integer, Integer>() {
-                    @Override
-                    public Integer doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getPrecision(column);
-                    }
-                }, column));
-            }
-        });
-        this.precisions = precisions;
+        if (precisions == null) {
+            precisions = loadInts(PRECISION, 0);
+        }
+        return precisions[column - 1];
     }
 
-
-    private List<Integer> scales;
+    private int[] scales;
 
     /**
      * Gets the designated column's number of digits to right of the decimal point.
@@ -416,27 +336,13 @@ public class ResultSetDescription {
      * @return scale
      */
     public int getScale(int column) {
-        return scales.get(column - 1);
-    }
-
-    private void parseScales(final ResultSetMetaData resultSetMetaData) {
-        final List<Integer> scales = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                scales.add(Throwables.ignoreThrowable(logger, 0, new ThrowableFunction<Integer, Integer>() {
-                    @Override
-                    public Integer doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getScale(column);
-                    }
-                }, column));
-            }
-        });
-        this.scales = scales;
+        if (scales == null) {
+            scales = loadInts(SCALE, 0);
+        }
+        return scales[column - 1];
     }
 
-
-    private List<String> tableNames;
+    private String[] tableNames;
 
     /**
      * Gets the designated column's table name.
@@ -445,26 +351,13 @@ public class ResultSetDescription {
      * @return table name or "" if not applicable
      */
     public String getTableName(int column) {
-        return tableNames.get(column - 1);
+        if (tableNames == null) {
+            tableNames = loadStrings(TABLE_NAME, "");
+        }
+        return tableNames[column - 1];
     }
 
-    private void parseTableNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> tableNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                tableNames.add(Throwables.ignoreThrowable(logger, "", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getTableName(column);
-                    }
-                }, column));
-            }
-        });
-        this.tableNames = tableNames;
-    }
-
-    private List<String> catalogNames;
+    private String[] catalogNames;
 
     /**
      * Gets the designated column's table's catalog name.
@@ -474,43 +367,13 @@ public class ResultSetDescription {
      * appears or "" if not applicable
      */
     public String getCatalogName(int column) {
-        return catalogNames.get(column - 1);
-    }
-
-    private void parseCatalogNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> catalogNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                catalogNames.add(Throwables.ignoreThrowable(logger, "", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getCatalogName(column);
-                    }
-                }, column));
-            }
-        });
-        this.catalogNames = catalogNames;
+        if (catalogNames == null) {
+            catalogNames = loadStrings(CATALOG_NAME, "");
+        }
+        return catalogNames[column - 1];
     }
 
-    private List<JdbcType> jdbcTypes;
-
-    private void parseColumnTypes(final ResultSetMetaData resultSetMetaData) {
-        final List<JdbcType> jdbcTypes = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                jdbcTypes.add(Throwables.ignoreThrowable(logger, JdbcType.UNKNOWN, new ThrowableFunction<Integer, JdbcType>() {
-                    @Override
-                    public JdbcType doFun(Integer column) throws Throwable {
-                        return JdbcType.ofCode(resultSetMetaData.getColumnType(column));
-                    }
-                }, column));
-            }
-        });
-        this.jdbcTypes = jdbcTypes;
-
-    }
+    private JdbcType[] jdbcTypes;
 
     /**
      * Retrieves the designated column's SQL type.
@@ -520,11 +383,18 @@ public class ResultSetDescription {
      * @see Types
      */
     public JdbcType getColumnType(int column) {
-        return jdbcTypes.get(column - 1);
+        if (jdbcTypes == null) {
+            int[] codes = loadInts(COLUMN_TYPE, Integer.MIN_VALUE);
+            JdbcType[] jdbcTypes = new JdbcType[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                jdbcTypes[i] = codes[i] == Integer.MIN_VALUE ? JdbcType.UNKNOWN : JdbcType.ofCode(codes[i]);
+            }
+            this.jdbcTypes = jdbcTypes;
+        }
+        return jdbcTypes[column - 1];
     }
 
-
-    private List<String> columnJdbcTypeNames;
+    private String[] columnJdbcTypeNames;
 
     /**
      * Retrieves the designated column's database-specific type name.
@@ -534,26 +404,13 @@ public class ResultSetDescription {
      * a user-defined type, then a fully-qualified type name is returned.
      */
     public String getColumnTypeName(int column) {
-        return columnJdbcTypeNames.get(column - 1);
+        if (columnJdbcTypeNames == null) {
+            columnJdbcTypeNames = loadStrings(COLUMN_TYPE_NAME, "");
+        }
+        return columnJdbcTypeNames[column - 1];
     }
 
-    private void parseColumnJdbcTypeNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> columnJdbcTypeNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                columnJdbcTypeNames.add(Throwables.ignoreThrowable(logger, "", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getColumnTypeName(column);
-                    }
-                }, column));
-            }
-        });
-        this.columnJdbcTypeNames = columnJdbcTypeNames;
-    }
-
-    private List<Boolean> isReadOnly;
+    private boolean[] isReadOnly;
 
     /**
      * Indicates whether the designated column is definitely not writable.
@@ -562,26 +419,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isReadOnly(int column) {
-        return isReadOnly.get(column - 1);
-    }
-
-    private void parseIsReadOnly(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isReadOnly = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isReadOnly.add(Throwables.ignoreThrowable(logger, true, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isReadOnly(column);
-                    }
-                }, column));
-            }
-        });
-        this.isReadOnly = isReadOnly;
+        if (isReadOnly == null) {
+            isReadOnly = loadBooleans(READ_ONLY, true);
+        }
+        return isReadOnly[column - 1];
     }
 
-    private List<Boolean> isWritable;
+    private boolean[] isWritable;
 
     /**
      * Indicates whether it is possible for a write on the designated column to succeed.
@@ -590,26 +434,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isWritable(int column) {
-        return isWritable.get(column - 1);
-    }
-
-    private void parseIsWritable(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isWritable = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isWritable.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isWritable(column);
-                    }
-                }, column));
-            }
-        });
-        this.isWritable = isWritable;
+        if (isWritable == null) {
+            isWritable = loadBooleans(WRITABLE, false);
+        }
+        return isWritable[column - 1];
     }
 
-    private List<Boolean> isDefinitelyWritable;
+    private boolean[] isDefinitelyWritable;
 
     /**
      * Indicates whether a write on the designated column will definitely succeed.
@@ -618,26 +449,13 @@ public class ResultSetDescription {
      * @return <code>true</code> if so; <code>false</code> otherwise
      */
     public boolean isDefinitelyWritable(int column) {
-        return isDefinitelyWritable.get(column - 1);
+        if (isDefinitelyWritable == null) {
+            isDefinitelyWritable = loadBooleans(DEFINITELY_WRITABLE, false);
+        }
+        return isDefinitelyWritable[column - 1];
     }
 
-    private void parseIsDefinitelyWritable(final ResultSetMetaData resultSetMetaData) {
-        final List<Boolean> isDefinitelyWritable = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                isDefinitelyWritable.add(Throwables.ignoreThrowable(logger, false, new ThrowableFunction<Integer, Boolean>() {
-                    @Override
-                    public Boolean doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.isDefinitelyWritable(column);
-                    }
-                }, column));
-            }
-        });
-        this.isDefinitelyWritable = isDefinitelyWritable;
-    }
-
-    private List<String> columnClassNames;
+    private String[] columnClassNames;
 
     /**
      * <p>Returns the fully-qualified name of the Java class whose instances
@@ -653,22 +471,112 @@ public class ResultSetDescription {
      * column. This is the class name used for custom mapping.
      */
     public String getColumnClassName(int column) {
-        return columnClassNames.get(column - 1);
+        if (columnClassNames == null) {
+            columnClassNames = loadStrings(COLUMN_CLASS_NAME, "");
+        }
+        return columnClassNames[column - 1];
+    }
+
+    private boolean[] loadBooleans(int attribute, boolean defaultValue) {
+        boolean[] values = new boolean[columnCount];
+        for (int column = 1; column <= columnCount; column++) {
+            try {
+                values[column - 1] = readBoolean(attribute, column);
+            } catch (Throwable ex) {
+                logger.warn(ex.getMessage(), ex);
+                values[column - 1] = defaultValue;
+            }
+        }
+        return values;
+    }
+
+    private boolean readBoolean(int attribute, int column) throws SQLException {
+        switch (attribute) {
+            case AUTO_INCREMENT:
+                return resultSetMetaData.isAutoIncrement(column);
+            case CASE_SENSITIVE:
+                return resultSetMetaData.isCaseSensitive(column);
+            case SEARCHABLE:
+                return resultSetMetaData.isSearchable(column);
+            case CURRENCY:
+                return resultSetMetaData.isCurrency(column);
+            case SIGNED:
+                return resultSetMetaData.isSigned(column);
+            case READ_ONLY:
+                return resultSetMetaData.isReadOnly(column);
+            case WRITABLE:
+                return resultSetMetaData.isWritable(column);
+            case DEFINITELY_WRITABLE:
+                return resultSetMetaData.isDefinitelyWritable(column);
+            default:
+                throw new IllegalArgumentException("Not a boolean attribute: " + attribute);
+        }
+    }
+
+    private int[] loadInts(int attribute, int defaultValue) {
+        int[] values = new int[columnCount];
+        for (int column = 1; column <= columnCount; column++) {
+            try {
+                values[column - 1] = readInt(attribute, column);
+            } catch (Throwable ex) {
+                logger.warn(ex.getMessage(), ex);
+                values[column - 1] = defaultValue;
+            }
+        }
+        return values;
+    }
+
+    private int readInt(int attribute, int column) throws SQLException {
+        switch (attribute) {
+            case NULLABLE:
+                return resultSetMetaData.isNullable(column);
+            case DISPLAY_SIZE:
+                return resultSetMetaData.getColumnDisplaySize(column);
+            case PRECISION:
+                return resultSetMetaData.getPrecision(column);
+            case SCALE:
+                return resultSetMetaData.getScale(column);
+            case COLUMN_TYPE:
+                return resultSetMetaData.getColumnType(column);
+            default:
+                throw new IllegalArgumentException("Not an int attribute: " + attribute);
+        }
     }
 
-    private void parseColumnClassNames(final ResultSetMetaData resultSetMetaData) {
-        final List<String> columnClassNames = Collects.emptyArrayList();
-        Collects.forEach(Arrs.range(1, columnCount + 1), new Consumer<Integer>() {
-            @Override
-            public void accept(Integer column) {
-                columnClassNames.add(Throwables.ignoreThrowable(logger, "", new ThrowableFunction<Integer, String>() {
-                    @Override
-                    public String doFun(Integer column) throws Throwable {
-                        return resultSetMetaData.getColumnClassName(column);
-                    }
-                }, column));
+    /**
+     * @param defaultValue null: the column name
+     */
+    private String[] loadStrings(int attribute, String defaultValue) {
+        String[] values = new String[columnCount];
+        for (int column = 1; column <= columnCount; column++) {
+            try {
+                values[column - 1] = readString(attribute, column);
+            } catch (Throwable ex) {
+                logger.warn(ex.getMessage(), ex);
+                values[column - 1] = defaultValue == null ? getColumnName(column) : defaultValue;
             }
-        });
-        this.columnClassNames = columnClassNames;
+        }
+        return values;
+    }
+
+    private String readString(int attribute, int column) throws SQLException {
+        switch (attribute) {
+            case COLUMN_LABEL:
+                return resultSetMetaData.getColumnLabel(column);
+            case COLUMN_NAME:
+                return resultSetMetaData.getColumnName(column);
+            case SCHEMA_NAME:
+                return resultSetMetaData.getSchemaName(column);
+            case TABLE_NAME:
+                return resultSetMetaData.getTableName(column);
+            case CATALOG_NAME:
+                return resultSetMetaData.getCatalogName(column);
+            case COLUMN_TYPE_NAME:
+                return resultSetMetaData.getColumnTypeName(column);
+            case COLUMN_CLASS_NAME:
+                return resultSetMetaData.getColumnClassName(column);
+            default:
+                throw new IllegalArgumentException("Not a string attribute: " + attribute);
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.jn.sqlhelper.common.resultset;
+
+import com.jn.langx.util.Objects;
+import com.jn.langx.util.Preconditions;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Caches the result set descriptions by sql, so the repeated queries reuse the column layout
+ * instead of reading the {@link ResultSetMetaData} every time.
+ * <p>
+ * The cached descriptions are fully loaded (see {@link ResultSetDescription#loadAll()}), so they can be shared by the threads.
+ * A cached description is reused only if the column count and the column labels are not changed,
+ * so a <code>select *</code> sql after a DDL is described again.
+ * A DDL which changes only the column types is not detected, call {@link #invalidate(String)} or {@link #clear()} after it.
+ * <p>
+ * At most maxCapacity descriptions are kept, the oldest one will be evicted.
+ */
+public class ResultSetDescriptionCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final ConcurrentHashMap<String, ResultSetDescription> cache = new ConcurrentHashMap<String, ResultSetDescription>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+    private final int maxCapacity;
+
+    public ResultSetDescriptionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ResultSetDescriptionCache(int maxCapacity) {
+        this.maxCapacity = Math.max(1, maxCapacity);
+    }
+
+    public ResultSetDescription get(String sql, ResultSet resultSet) throws SQLException {
+        Preconditions.checkNotNull(sql);
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        ResultSetDescription description = cache.get(sql);
+        if (description != null && isSameColumns(description, resultSetMetaData)) {
+            return description;
+        }
+        description = new ResultSetDescription(resultSetMetaData).loadAll();
+        if (cache.put(sql, description) == null) {
+            insertionOrder.offer(sql);
+            while (cache.size() > maxCapacity) {
+                String eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                cache.remove(eldest);
+            }
+        }
+        return description;
+    }
+
+    private static boolean isSameColumns(ResultSetDescription description, ResultSetMetaData resultSetMetaData) throws SQLException {
+        int columnCount = resultSetMetaData.getColumnCount();
+        if (description.getColumnCount() != columnCount) {
+            return false;
+        }
+        for (int i = 1; i <= columnCount; i++) {
+            if (!Objects.equals(description.getColumnLabel(i), resultSetMetaData.getColumnLabel(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the description of the sql, the next query of the sql reads the {@link ResultSetMetaData} again.
+     */
+    public void invalidate(String sql) {
+        Preconditions.checkNotNull(sql);
+        cache.remove(sql);
+        insertionOrder.remove(sql);
+    }
+
+    public void clear() {
+        cache.clear();
+        insertionOrder.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
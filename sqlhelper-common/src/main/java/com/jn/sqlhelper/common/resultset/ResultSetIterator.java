@@ -0,0 +1,120 @@
+package com.jn.sqlhelper.common.resultset;
+
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over a result set, a row is mapped only when it is read.
+ * <p>
+ * The result set (and the statement if it is given) is closed when the rows are exhausted,
+ * or when {@link #close()} is called, so always close it in a finally block.
+ */
+public class ResultSetIterator<T> implements Iterator<T>, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ResultSetIterator.class);
+
+    private final ResultSet resultSet;
+    @Nullable
+    private final Statement statement;
+    private final RowMapper<T> mapper;
+    private ResultSetDescription resultSetDescription;
+    private int rowIndex = 0;
+    /**
+     * null: the cursor is not moved for the next row
+     */
+    private Boolean hasNext;
+    private boolean closed = false;
+
+    public ResultSetIterator(ResultSet resultSet, RowMapper<T> mapper) {
+        this(resultSet, mapper, null);
+    }
+
+    /**
+     * @param statement the statement of the result set, it will be closed with the result set
+     */
+    public ResultSetIterator(ResultSet resultSet, RowMapper<T> mapper, @Nullable Statement statement) {
+        Preconditions.checkNotNull(resultSet, "ResultSet is required");
+        Preconditions.checkNotNull(mapper, "RowMapper is required");
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.statement = statement;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (hasNext == null) {
+            try {
+                hasNext = resultSet.next();
+            } catch (SQLException ex) {
+                close();
+                throw Throwables.wrapAsRuntimeException(ex);
+            }
+            if (!hasNext) {
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        try {
+            if (resultSetDescription == null) {
+                resultSetDescription = new ResultSetDescription(resultSet.getMetaData());
+            }
+            return mapper.mapping(resultSet, rowIndex++, resultSetDescription);
+        } catch (SQLException ex) {
+            close();
+            throw Throwables.wrapAsRuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException ex) {
+            logger.warn("Error occur when close the result set: {}", ex.getMessage(), ex);
+        }
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                logger.warn("Error occur when close the statement: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+}
@@ -169,6 +169,30 @@ public class ResultSets {
         return obj;
     }
 
+    /**
+     * Skip the first offset rows, it moves the cursor directly if the result set is scrollable.
+     *
+     * @return the count of the skipped rows
+     */
+    public static int skipRows(ResultSet rs, int offset) throws SQLException {
+        if (offset <= 0) {
+            return 0;
+        }
+        if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY) {
+            if (rs.absolute(offset)) {
+                return offset;
+            }
+            // less than offset rows
+            rs.afterLast();
+            return offset;
+        }
+        int skipped = 0;
+        while (skipped < offset && rs.next()) {
+            skipped++;
+        }
+        return skipped;
+    }
+
     public static final List<JdbcType> intTypes = Collects.asList(new JdbcType[]{
             JdbcType.BIT, // 0,1
             JdbcType.TINYINT, // byte
@@ -3,7 +3,6 @@ package com.jn.sqlhelper.common.resultset;
 import com.jn.langx.util.Preconditions;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +11,8 @@ public class RowMapperResultSetExtractor<T> implements ResultSetExtractor<List<T
     private int offset = 0;
     private int expectedMaxRows = Integer.MAX_VALUE;
     private RowMapper<T> mapper;
+    private ResultSetDescriptionCache descriptionCache;
+    private String sql;
 
     public RowMapperResultSetExtractor(RowMapper<T> rowMapper) {
         this(rowMapper, 0, Integer.MAX_VALUE);
@@ -33,22 +34,36 @@ public class RowMapperResultSetExtractor<T> implements ResultSetExtractor<List<T
     }
 
 
+    /**
+     * Reuses the description of the sql in the cache, the sql is the key of the cache.
+     */
+    public void setDescriptionCache(ResultSetDescriptionCache descriptionCache, String sql) {
+        this.descriptionCache = descriptionCache;
+        this.sql = sql;
+    }
+
     @Override
     public List<T> extract(ResultSet rs) throws SQLException {
         List<T> results = (this.expectedMaxRows > 0 ? new ArrayList<T>(16) : new ArrayList<T>());
         int rowIndex = 0;
 
         if (expectedMaxRows > 0) {
-            ResultSetMetaData rsMetaData = rs.getMetaData();
-            ResultSetDescription resultSetDescription = new ResultSetDescription(rsMetaData);
-            while (rs.next() && results.size() < expectedMaxRows) {
-                if (rowIndex < offset) {
-                    rowIndex++;
-                    continue;
-                }
+            ResultSetDescription resultSetDescription = describe(rs);
+            rowIndex = ResultSets.skipRows(rs, offset);
+            if (rowIndex < offset) {
+                return results;
+            }
+            while (results.size() < expectedMaxRows && rs.next()) {
                 results.add(this.mapper.mapping(rs, rowIndex++, resultSetDescription));
             }
         }
         return results;
     }
+
+    private ResultSetDescription describe(ResultSet rs) throws SQLException {
+        if (descriptionCache != null && sql != null) {
+            return descriptionCache.get(sql, rs);
+        }
+        return new ResultSetDescription(rs.getMetaData());
+    }
 }
@@ -0,0 +1,69 @@
+package com.jn.sqlhelper.common.resultset;
+
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.function.Consumer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the rows one by one and passes every row to a consumer, the rows are not kept in memory.
+ * <p>
+ * It is used with a streaming statement, see {@link com.jn.sqlhelper.common.statement.StreamingStatements}.
+ * The offset should be a part of the sql if possible, the rows before the offset are skipped on the client side.
+ * The extracted value is the count of the consumed rows.
+ */
+public class StreamingResultSetExtractor<T> implements ResultSetExtractor<Integer> {
+    private int offset = 0;
+    private int expectedMaxRows = Integer.MAX_VALUE;
+    private RowMapper<T> mapper;
+    private ResultSetDescriptionCache descriptionCache;
+    private String sql;
+    private Consumer<T> consumer;
+
+    public StreamingResultSetExtractor(RowMapper<T> rowMapper, Consumer<T> consumer) {
+        this(rowMapper, consumer, 0, Integer.MAX_VALUE);
+    }
+
+    public StreamingResultSetExtractor(RowMapper<T> rowMapper, Consumer<T> consumer, int offset, int expectedMaxRows) {
+        Preconditions.checkNotNull(rowMapper, "RowMapper is required");
+        Preconditions.checkNotNull(consumer, "Consumer is required");
+        Preconditions.checkTrue(offset >= 0, "offset is zero at least");
+        this.mapper = rowMapper;
+        this.consumer = consumer;
+        this.offset = offset;
+        this.expectedMaxRows = Math.max(0, expectedMaxRows);
+    }
+
+    /**
+     * Reuses the description of the sql in the cache, the sql is the key of the cache.
+     */
+    public void setDescriptionCache(ResultSetDescriptionCache descriptionCache, String sql) {
+        this.descriptionCache = descriptionCache;
+        this.sql = sql;
+    }
+
+    @Override
+    public Integer extract(ResultSet rs) throws SQLException {
+        int count = 0;
+        if (expectedMaxRows > 0) {
+            ResultSetDescription resultSetDescription = describe(rs);
+            int rowIndex = ResultSets.skipRows(rs, offset);
+            if (rowIndex < offset) {
+                return count;
+            }
+            while (count < expectedMaxRows && rs.next()) {
+                consumer.accept(this.mapper.mapping(rs, rowIndex++, resultSetDescription));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private ResultSetDescription describe(ResultSet rs) throws SQLException {
+        if (descriptionCache != null && sql != null) {
+            return descriptionCache.get(sql, rs);
+        }
+        return new ResultSetDescription(rs.getMetaData());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.statement;
+
+import com.jn.langx.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Configures a statement to fetch the rows of its result set in batches, instead of loading all the rows into memory.
+ * <ul>
+ * <li>MySQL: the rows are streamed one by one only if the fetch size is Integer.MIN_VALUE</li>
+ * <li>PostgreSQL: the fetch size works only if the auto commit of the connection is off</li>
+ * <li>others: the fetch size is used</li>
+ * </ul>
+ * The result set should be forward only and read only.
+ */
+public class StreamingStatements {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingStatements.class);
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * @param database  the database product name or the database id, e.g. MySQL, postgresql
+     * @param fetchSize the fetch size if the database fetch the rows in batches, {@link #DEFAULT_FETCH_SIZE} if it is not positive
+     */
+    public static int getStreamingFetchSize(@Nullable String database, int fetchSize) {
+        if (isMySql(database)) {
+            return Integer.MIN_VALUE;
+        }
+        return fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+    }
+
+    public static void enableStreaming(Statement statement, int fetchSize) throws SQLException {
+        Connection connection = statement.getConnection();
+        String database = connection.getMetaData().getDatabaseProductName();
+        statement.setFetchSize(getStreamingFetchSize(database, fetchSize));
+        if (isPostgreSql(database) && connection.getAutoCommit()) {
+            logger.warn("The auto commit of the connection is on, all the rows of the result set will be loaded by the PostgreSQL driver");
+        }
+    }
+
+    private static boolean isMySql(String database) {
+        if (database == null) {
+            return false;
+        }
+        String db = database.toLowerCase(Locale.ROOT);
+        return db.contains("mysql") || db.contains("mariadb");
+    }
+
+    private static boolean isPostgreSql(String database) {
+        return database != null && database.toLowerCase(Locale.ROOT).contains("postgres");
+    }
+}
@@ -20,9 +20,6 @@ import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
-import java.util.Locale;
-import java.util.StringTokenizer;
-import java.util.regex.Pattern;
 
 public class SQLs {
     public static final String WHITESPACE = " \n\r\f\t";
@@ -78,81 +75,109 @@ public class SQLs {
         return 0;
     }
 
-    //DML
-    public static boolean isSelectStatement(String sql) {
-        String sql0 = sql.trim();
-        // with xx as ( select x ...
-        if (Strings.startsWithIgnoreCase(sql0, "with")) {
-            StringTokenizer stringTokenizer = new StringTokenizer(sql0);
-            int i = 0;
-            while (i < 5 && stringTokenizer.hasMoreTokens()) {
-                String token = stringTokenizer.nextToken();
-                if ("select".equals(token.toLowerCase())) {
-                    return true;
+    /**
+     * Classify a sql by its leading tokens, the sql is not copied.
+     * <p>
+     * The leading comments, hints and brackets are skipped. For a WITH statement,
+     * the common table expressions (at any depth) are skipped, the type is decided by the main statement.
+     */
+    public static SqlStatementType getStatementType(String sql) {
+        if (sql == null) {
+            return SqlStatementType.OTHER;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        return moveToStatementKeyword(lexer) ? SqlStatementType.of(lexer) : SqlStatementType.OTHER;
+    }
+
+    /**
+     * Move the lexer to the leading keyword of the main statement.
+     *
+     * @return false if not found
+     */
+    private static boolean moveToStatementKeyword(SqlLexer lexer) {
+        int type = lexer.next();
+        while (type == SqlLexer.LEFT_PAREN) {
+            type = lexer.next();
+        }
+        if (type != SqlLexer.WORD) {
+            return false;
+        }
+        if (!lexer.is("with")) {
+            return true;
+        }
+        // with [recursive] name [(columns)] as [[not] materialized] ( ... ) [, name ...] statement
+        int depth = 0;
+        boolean afterCte = false;
+        while ((type = lexer.next()) != SqlLexer.EOF) {
+            if (type == SqlLexer.LEFT_PAREN) {
+                depth++;
+            } else if (type == SqlLexer.RIGHT_PAREN) {
+                depth--;
+                if (depth < 0) {
+                    return false;
                 }
-                i++;
+                afterCte = depth == 0;
+                continue;
+            } else if (depth == 0 && afterCte && SqlStatementType.of(lexer).isDml()) {
+                return true;
             }
+            afterCte = false;
+        }
+        return false;
+    }
+
+    private static boolean startsWithKeywords(String sql, String... keywords) {
+        if (sql == null) {
             return false;
-        } else {
-            return Strings.startsWithIgnoreCase(sql0, "select");
         }
+        SqlLexer lexer = new SqlLexer(sql);
+        for (String keyword : keywords) {
+            if (lexer.next() != SqlLexer.WORD || !lexer.is(keyword)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private static final Pattern SELECT_COUNT_PATTERN = Pattern.compile("select\\s+count.*");
-    private static final Pattern COUNT_FUNCTION_PATTERN = Pattern.compile("count(\\s*\\(.*(\\s*\\))?)?");
+    //DML
+    public static boolean isSelectStatement(String sql) {
+        return getStatementType(sql) == SqlStatementType.SELECT;
+    }
 
+    /**
+     * select count( ...
+     */
     public static boolean isSelectCountStatement(String sql) {
-        String sql0 = sql.trim();
-        // with xx as ( select x ...
-        if (Strings.startsWithIgnoreCase(sql0, "with")) {
-            StringTokenizer stringTokenizer = new StringTokenizer(sql0);
-            int i = 0;
-            boolean hasSelectKeyword = false;
-            boolean hasCountKeyword = false;
-
-            while (i < 7 && stringTokenizer.hasMoreTokens()) {
-                String token = stringTokenizer.nextToken();
-                if ("select".equals(token.toLowerCase())) {
-                    hasSelectKeyword = true;
-                    continue;
-                }
-                if (COUNT_FUNCTION_PATTERN.matcher(token.toLowerCase()).matches()) {
-                    hasCountKeyword = true;
-                }
-                i++;
-            }
-            return hasSelectKeyword && hasCountKeyword;
-        } else {
-            String lowerSql = sql0.toLowerCase();
-            return SELECT_COUNT_PATTERN.matcher(lowerSql).matches();
+        if (sql == null) {
+            return false;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        if (!moveToStatementKeyword(lexer) || !lexer.is("select")) {
+            return false;
         }
+        return lexer.next() == SqlLexer.WORD && lexer.is("count") && lexer.next() == SqlLexer.LEFT_PAREN;
     }
 
     public static boolean isUpdateStatement(String sql) {
-        sql = sql.trim();
-        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s", " ").matches("update \\w+(\\.\\w)* set");
+        return getStatementType(sql) == SqlStatementType.UPDATE;
     }
 
     public static boolean isDeleteStatement(String sql) {
-        sql = sql.trim();
-        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s", " ").startsWith("delete from");
+        return getStatementType(sql) == SqlStatementType.DELETE;
     }
 
     public static boolean isInsertStatement(String sql) {
-        sql = sql.trim();
-        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s", " ").startsWith("insert into");
+        return getStatementType(sql) == SqlStatementType.INSERT;
     }
 
 
     // DDL
     public static boolean isCreateStatement(String sql) {
-        sql = sql.trim();
-        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s", " ").startsWith("create table");
+        return startsWithKeywords(sql, "create", "table");
     }
 
     public static boolean isDropTableStatement(String sql) {
-        sql = sql.trim();
-        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s", " ").startsWith("drop table");
+        return startsWithKeywords(sql, "drop", "table");
     }
 
     public static boolean isQuote(String tok) {
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.utils;
+
+/**
+ * A forward only SQL lexer, it does not copy the sql:
+ * every token is a range [tokenStart, tokenEnd) of the original sql.
+ * <p>
+ * Whitespaces, line comments (--) and block comments (including hints) are skipped,
+ * string literals and quoted identifiers ("x", `x`, [x]) are returned as a single token.
+ */
+public class SqlLexer {
+    public static final int EOF = 0;
+    /**
+     * keyword, identifier or number
+     */
+    public static final int WORD = 1;
+    /**
+     * 'string literal'
+     */
+    public static final int STRING = 2;
+    /**
+     * "x", `x`, [x]
+     */
+    public static final int QUOTED_IDENTIFIER = 3;
+    public static final int LEFT_PAREN = 4;
+    public static final int RIGHT_PAREN = 5;
+    /**
+     * the ? placeholder
+     */
+    public static final int PARAMETER = 6;
+    /**
+     * operators, comma, semicolon etc.
+     */
+    public static final int OTHER = 7;
+
+    private final String sql;
+    private final int length;
+    private int position;
+    private int tokenType = EOF;
+    private int tokenStart;
+    private int tokenEnd;
+
+    public SqlLexer(String sql) {
+        this(sql, 0);
+    }
+
+    public SqlLexer(String sql, int start) {
+        this.sql = sql;
+        this.length = sql.length();
+        this.position = start;
+    }
+
+    /**
+     * @return the type of the next token
+     */
+    public int next() {
+        skipWhitespacesAndComments();
+        tokenStart = position;
+        if (position >= length) {
+            tokenEnd = position;
+            tokenType = EOF;
+            return tokenType;
+        }
+        char c = sql.charAt(position);
+        switch (c) {
+            case '\'':
+                position = skipQuoted(position, '\'');
+                tokenType = STRING;
+                break;
+            case '"':
+            case '`':
+                position = skipQuoted(position, c);
+                tokenType = QUOTED_IDENTIFIER;
+                break;
+            case '[':
+                position = skipQuoted(position, ']');
+                tokenType = QUOTED_IDENTIFIER;
+                break;
+            case '(':
+                position++;
+                tokenType = LEFT_PAREN;
+                break;
+            case ')':
+                position++;
+                tokenType = RIGHT_PAREN;
+                break;
+            case '?':
+                position++;
+                tokenType = PARAMETER;
+                break;
+            default:
+                if (isWordChar(c)) {
+                    position++;
+                    while (position < length && isWordChar(sql.charAt(position))) {
+                        position++;
+                    }
+                    tokenType = WORD;
+                } else {
+                    position++;
+                    tokenType = OTHER;
+                }
+        }
+        tokenEnd = position;
+        return tokenType;
+    }
+
+    private void skipWhitespacesAndComments() {
+        while (position < length) {
+            char c = sql.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+            } else if (c == '-' && position + 1 < length && sql.charAt(position + 1) == '-') {
+                position += 2;
+                while (position < length && sql.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (c == '/' && position + 1 < length && sql.charAt(position + 1) == '*') {
+                int end = sql.indexOf("*/", position + 2);
+                position = end < 0 ? length : end + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the index after the close quote
+     */
+    private int skipQuoted(int start, char closeQuote) {
+        int i = start + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\' && closeQuote == '\'') {
+                i += 2;
+                continue;
+            }
+            if (c == closeQuote) {
+                // '' or "" is an escaped quote
+                if (i + 1 < length && sql.charAt(i + 1) == closeQuote && closeQuote != ']') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    public int getTokenType() {
+        return tokenType;
+    }
+
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    public int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return whether the current token is the keyword, ignore case
+     */
+    public boolean is(String keyword) {
+        return tokenType == WORD && tokenEnd - tokenStart == keyword.length() && sql.regionMatches(true, tokenStart, keyword, 0, keyword.length());
+    }
+
+    private static final String[] KEYWORDS_NOT_AFTER_ORDER_BY = new String[]{"select", "union", "from", "where", "and", "or", "between", "in", "case"};
+
+    /**
+     * Find the trailing ORDER BY clause of the outermost query.
+     * <p>
+     * The ORDER BY is ignored if it is in a sub query, or it is followed by any placeholder or any of
+     * [select, union, from, where, and, or, between, in, case], or the brackets are not matched.
+     *
+     * @return the start index of the ORDER keyword, -1 if not found
+     */
+    public static int findTrailingOrderBy(String sql) {
+        if (sql == null) {
+            return -1;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        int depth = 0;
+        int orderIndex = -1;
+        // the start of the previous token if it is a top level ORDER keyword
+        int orderStart = -1;
+        int type;
+        while ((type = lexer.next()) != EOF) {
+            switch (type) {
+                case LEFT_PAREN:
+                    depth++;
+                    break;
+                case RIGHT_PAREN:
+                    depth--;
+                    if (depth < 0) {
+                        return -1;
+                    }
+                    break;
+                case PARAMETER:
+                    if (orderIndex >= 0) {
+                        return -1;
+                    }
+                    break;
+                case WORD:
+                    if (orderStart >= 0 && lexer.is("by")) {
+                        orderIndex = orderStart;
+                    } else if (orderIndex >= 0) {
+                        for (String keyword : KEYWORDS_NOT_AFTER_ORDER_BY) {
+                            if (lexer.is(keyword)) {
+                                // the order by is not the trailing one
+                                orderIndex = -1;
+                                break;
+                            }
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            orderStart = depth == 0 && lexer.is("order") ? lexer.tokenStart : -1;
+        }
+        return depth == 0 ? orderIndex : -1;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.utils;
+
+/**
+ * The kind of a sql statement, it is decided by the leading keyword of the statement.
+ *
+ * @see SQLs#getStatementType(String)
+ */
+public enum SqlStatementType {
+    SELECT("select"),
+    INSERT("insert"),
+    UPDATE("update"),
+    DELETE("delete"),
+    MERGE("merge"),
+    CREATE("create"),
+    ALTER("alter"),
+    DROP("drop"),
+    TRUNCATE("truncate"),
+    CALL("call"),
+    OTHER(null);
+
+    private final String keyword;
+
+    SqlStatementType(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public boolean isDml() {
+        return this == SELECT || this == INSERT || this == UPDATE || this == DELETE || this == MERGE;
+    }
+
+    /**
+     * @return the type of which the keyword is the current token of the lexer, {@link #OTHER} if none
+     */
+    static SqlStatementType of(SqlLexer lexer) {
+        if (lexer.getTokenType() == SqlLexer.WORD) {
+            for (SqlStatementType type : values()) {
+                if (type.keyword != null && lexer.is(type.keyword)) {
+                    return type;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,123 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.sqlhelper.common.resultset.BeanRowMapper;
+import com.jn.sqlhelper.common.resultset.RowMapperResultSetExtractor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class BeanRowMapperTests {
+    private static final String[] COLUMNS = new String[]{"id", "name", "age", "create_time", "score"};
+
+    @Test
+    public void testPrecompiled() throws Throwable {
+        List<User> users = map(false, 100);
+        List<User> users2 = map(true, 100);
+        Assert.assertEquals(100, users2.size());
+        for (int i = 0; i < users.size(); i++) {
+            Assert.assertEquals(users.get(i), users2.get(i));
+        }
+        // the null value of the 7th row is skipped for the primitive field
+        Assert.assertEquals(0, users2.get(6).getAge());
+        Assert.assertNull(users2.get(6).getName());
+    }
+
+    @Test
+    public void testReuseMapper() throws Throwable {
+        BeanRowMapper<User> mapper = new BeanRowMapper<User>(User.class);
+        mapper.setPrecompiled(true);
+        RowMapperResultSetExtractor<User> extractor = new RowMapperResultSetExtractor<User>(mapper);
+        List<User> users = extractor.extract(newResultSet(20));
+        // the mapping plan of the first result set is reused
+        List<User> users2 = extractor.extract(newResultSet(20));
+        Assert.assertEquals(users, users2);
+        Assert.assertEquals(map(false, 20), users2);
+    }
+
+    private static List<User> map(boolean precompiled, int rows) throws Throwable {
+        BeanRowMapper<User> mapper = new BeanRowMapper<User>(User.class);
+        mapper.setPrecompiled(precompiled);
+        return new RowMapperResultSetExtractor<User>(mapper).extract(newResultSet(rows));
+    }
+
+    /**
+     * an in-memory result set: the row i is (i, "name_i", i % 100, i, i / 10), every 7th row has null name and age
+     */
+    private static ResultSet newResultSet(int rows) {
+        Object[][] values = new Object[rows][];
+        for (int i = 1; i <= rows; i++) {
+            boolean nullRow = i % 7 == 0;
+            values[i - 1] = new Object[]{(long) i, nullRow ? null : "name_" + i, nullRow ? null : i % 100, new Timestamp(i), new BigDecimal(i / 10)};
+        }
+        return JdbcStubs.resultSet(COLUMNS, values);
+    }
+
+    public static class User {
+        private long id;
+        private String name;
+        private int age;
+        private Timestamp createTime;
+        private BigDecimal score;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Timestamp getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(Timestamp createTime) {
+            this.createTime = createTime;
+        }
+
+        public BigDecimal getScore() {
+            return score;
+        }
+
+        public void setScore(BigDecimal score) {
+            this.score = score;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof User)) {
+                return false;
+            }
+            User u = (User) o;
+            return id == u.id && age == u.age
+                    && (name == null ? u.name == null : name.equals(u.name))
+                    && createTime.equals(u.createTime)
+                    && score.equals(u.score);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) id;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.sqlhelper.common.ddl.dump.DatabaseLoader;
+import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
+import com.jn.sqlhelper.common.ddl.model.ImportedColumn;
+import com.jn.sqlhelper.common.ddl.model.Table;
+import com.jn.sqlhelper.common.ddl.model.internal.FkInitiallyRule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DatabaseLoaderTests {
+    private static final String[] TABLE_COLUMNS = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE"};
+    private static final String[] COLUMN_COLUMNS = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "ORDINAL_POSITION"};
+    private static final String[] PK_COLUMNS = new String[]{"c1", "c2", "c3", "c4", "c5", "c6"};
+    private static final String[] FK_COLUMNS = new String[]{"c1", "c2", "c3", "c4", "c5", "c6", "c7", "c8", "c9", "c10", "c11", "c12", "c13", "c14"};
+
+    @Test
+    public void testBulkLoad() throws SQLException {
+        Map<String, AtomicInteger> calls = new HashMap<String, AtomicInteger>();
+        List<String> sqls = new ArrayList<String>();
+        DatabaseLoader loader = new DatabaseLoader();
+        loader.setBulkLoad(true);
+        List<Table> tables = loader.loadTables(new DatabaseDescription(newMetaData(calls, sqls)), "test", "public", null, true, true, true, true);
+        Assert.assertEquals(2, tables.size());
+
+        // the columns, pks and fks of all the tables are loaded with one round trip, the indexes are loaded table by table
+        Assert.assertEquals(1, count(calls, "getColumns"));
+        Assert.assertEquals(2, count(calls, "prepareStatement"));
+        Assert.assertEquals(0, count(calls, "getPrimaryKeys"));
+        Assert.assertEquals(0, count(calls, "getImportedKeys"));
+        Assert.assertEquals(2, count(calls, "getIndexInfo"));
+        // the key columns are ordered by the key seq, after the schema condition
+        Assert.assertTrue(sqls.get(0), sqls.get(0).endsWith(" AND k.table_schema LIKE ? ORDER BY k.table_schema, k.table_name, k.ordinal_position"));
+        Assert.assertTrue(sqls.get(1), sqls.get(1).endsWith(" AND fkn.nspname LIKE ? ORDER BY fkn.nspname, fkc.relname, con.conname, pos.n"));
+
+        Table user = tables.get(0);
+        Assert.assertEquals("user", user.getName());
+        Assert.assertEquals(2, user.getColumns().size());
+        Assert.assertEquals("id", user.getColumns().iterator().next().getName());
+        Assert.assertEquals(1, user.getPkColumns().size());
+        Assert.assertTrue(user.getFkColumnMap().isEmpty());
+
+        Table order = tables.get(1);
+        Assert.assertEquals("order", order.getName());
+        Assert.assertEquals(3, order.getColumns().size());
+        Assert.assertEquals(1, order.getPkColumns().size());
+        ImportedColumn fk = order.getFkColumnMap().get("user_id");
+        Assert.assertNotNull(fk);
+        Assert.assertEquals("user", fk.getPkTableName());
+        Assert.assertEquals("id", fk.getPkColumnName());
+        Assert.assertEquals("fk_order_user", fk.getFkName());
+        Assert.assertEquals(FkInitiallyRule.importedKeyInitiallyDeferred, fk.getDeferrability());
+    }
+
+    private static int count(Map<String, AtomicInteger> calls, String method) {
+        AtomicInteger count = calls.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    private static void called(Map<String, AtomicInteger> calls, String method) {
+        AtomicInteger count = calls.get(method);
+        if (count == null) {
+            count = new AtomicInteger();
+            calls.put(method, count);
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * a PostgreSQL database: the table "order" refers to the table "user", the foreign key is deferrable initially deferred
+     */
+    private static DatabaseMetaData newMetaData(final Map<String, AtomicInteger> calls, final List<String> sqls) {
+        final Connection connection = JdbcStubs.proxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                called(calls, method.getName());
+                if ("prepareStatement".equals(method.getName())) {
+                    String sql = (String) args[0];
+                    sqls.add(sql);
+                    if (sql.contains("PRIMARY KEY")) {
+                        return JdbcStubs.preparedStatement(JdbcStubs.resultSet(PK_COLUMNS, new Object[][]{
+                                {"test", "public", "user", "id", 1, "user_pkey"},
+                                {"test", "public", "order", "id", 1, "order_pkey"}
+                        }));
+                    }
+                    return JdbcStubs.preparedStatement(JdbcStubs.resultSet(FK_COLUMNS, new Object[][]{
+                            {"test", "public", "user", "id", "test", "public", "order", "user_id", 1, "CASCADE", "NO ACTION", "fk_order_user", "user_pkey", DatabaseMetaData.importedKeyInitiallyDeferred}
+                    }));
+                }
+                return null;
+            }
+        });
+        return JdbcStubs.proxy(DatabaseMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                called(calls, name);
+                if ("getDatabaseProductName".equals(name)) {
+                    return "PostgreSQL";
+                }
+                if ("getConnection".equals(name)) {
+                    return connection;
+                }
+                if ("getTables".equals(name)) {
+                    return JdbcStubs.resultSet(TABLE_COLUMNS, new Object[][]{
+                            {"test", "public", "user", "TABLE"},
+                            {"test", "public", "order", "TABLE"}
+                    });
+                }
+                if ("getColumns".equals(name)) {
+                    return JdbcStubs.resultSet(COLUMN_COLUMNS, new Object[][]{
+                            {"test", "public", "user", "id", Types.BIGINT, 1},
+                            {"test", "public", "user", "name", Types.VARCHAR, 2},
+                            {"test", "public", "order", "id", Types.BIGINT, 1},
+                            {"test", "public", "order", "user_id", Types.BIGINT, 2},
+                            {"test", "public", "order", "amount", Types.DECIMAL, 3},
+                            // the table is not loaded
+                            {"test", "public", "other", "id", Types.BIGINT, 1}
+                    });
+                }
+                if ("getIndexInfo".equals(name)) {
+                    return JdbcStubs.resultSet(new String[0], new Object[0][]);
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+}
@@ -0,0 +1,283 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.langx.util.function.Function;
+import com.jn.sqlhelper.common.batch.BatchMode;
+import com.jn.sqlhelper.common.batch.BatchResult;
+import com.jn.sqlhelper.common.batch.BatchStatement;
+import com.jn.sqlhelper.common.batch.jdbc.AbstractJdbcBatchUpdater;
+import com.jn.sqlhelper.common.batch.jdbc.BatchSqlBatchUpdater;
+import com.jn.sqlhelper.common.batch.jdbc.JdbcBatchUpdater;
+import com.jn.sqlhelper.common.batch.jdbc.SimpleBatchUpdater;
+import com.jn.sqlhelper.common.statement.PreparedStatementSetter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class JdbcBatchUpdaterTests {
+    private static final PreparedStatementSetter<Integer> SETTER = new PreparedStatementSetter<Integer>() {
+        @Override
+        public void setParameters(PreparedStatement statement, int startIndex, Integer parameter) throws SQLException {
+            statement.setInt(startIndex, parameter);
+        }
+    };
+
+    @Test
+    public void testBatchSize() throws SQLException {
+        FakeDatabase database = new FakeDatabase(-1);
+        JdbcBatchUpdater<Integer, BatchStatement> updater = newUpdater(new JdbcBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setBatchSize(4);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.JDBC_BATCH), rows(10));
+        Assert.assertEquals(10, result.getRowsAffected());
+        Assert.assertEquals(10, result.getUpdateCounts().length);
+        Assert.assertTrue(result.getFailedBatches().isEmpty());
+        Assert.assertEquals(1, database.prepares);
+        Assert.assertEquals(3, database.roundTrips);
+        Assert.assertEquals(3, database.commits);
+        Assert.assertTrue(database.closed);
+    }
+
+    @Test
+    public void testBatchBytes() throws SQLException {
+        FakeDatabase database = new FakeDatabase(-1);
+        JdbcBatchUpdater<Integer, BatchStatement> updater = newUpdater(new JdbcBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setMaxBatchBytes(25);
+        updater.setRowSizeEstimator(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer row) {
+                return 10;
+            }
+        });
+        updater.batchUpdate(statement(BatchMode.JDBC_BATCH), rows(10));
+        Assert.assertEquals(4, database.roundTrips);
+    }
+
+    @Test
+    public void testFailedBatch() throws SQLException {
+        FakeDatabase database = new FakeDatabase(5);
+        JdbcBatchUpdater<Integer, BatchStatement> updater = newUpdater(new JdbcBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setBatchSize(4);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.JDBC_BATCH), rows(10));
+        Assert.assertEquals(Arrays.asList(1), result.getFailedBatches());
+        Assert.assertEquals(1, result.getUpdateCounts()[4]);
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[5]);
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[7]);
+        Assert.assertEquals(7, result.getRowsAffected());
+        Assert.assertEquals(3, database.roundTrips);
+        Assert.assertEquals(2, database.commits);
+        Assert.assertEquals(1, database.rollbacks);
+        Assert.assertTrue(result.hasThrowable());
+    }
+
+    @Test
+    public void testStopAtFailedBatch() throws SQLException {
+        FakeDatabase database = new FakeDatabase(5);
+        JdbcBatchUpdater<Integer, BatchStatement> updater = newUpdater(new JdbcBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setBatchSize(4);
+        updater.setCommitPerBatch(false);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.JDBC_BATCH), rows(10));
+        // the batch 2 is not executed, the caller rolls back the transaction
+        Assert.assertEquals(2, database.roundTrips);
+        Assert.assertEquals(0, database.commits);
+        Assert.assertEquals(Arrays.asList(1), result.getFailedBatches());
+        Assert.assertEquals(5, result.getRowsAffected());
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[8]);
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[9]);
+        Assert.assertTrue(result.hasThrowable());
+        Assert.assertTrue(database.closed);
+    }
+
+    @Test
+    public void testSimpleStopAtFailedRow() throws SQLException {
+        FakeDatabase database = new FakeDatabase(5);
+        SimpleBatchUpdater<Integer, BatchStatement> updater = newUpdater(new SimpleBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setBatchSize(4);
+        updater.setCommitPerBatch(false);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.SIMPLE), rows(10));
+        Assert.assertEquals(6, database.roundTrips);
+        Assert.assertEquals(5, result.getRowsAffected());
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[5]);
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[6]);
+        Assert.assertEquals(Arrays.asList(1), result.getFailedBatches());
+    }
+
+    @Test
+    public void testSimple() throws SQLException {
+        FakeDatabase database = new FakeDatabase(5);
+        SimpleBatchUpdater<Integer, BatchStatement> updater = newUpdater(new SimpleBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setBatchSize(4);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.SIMPLE), rows(10));
+        Assert.assertEquals(1, database.prepares);
+        Assert.assertEquals(10, database.roundTrips);
+        Assert.assertEquals(9, result.getRowsAffected());
+        Assert.assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCounts()[5]);
+        Assert.assertEquals(Arrays.asList(1), result.getFailedBatches());
+        Assert.assertTrue(database.closed);
+    }
+
+    @Test
+    public void testBatchSql() throws SQLException {
+        FakeDatabase database = new FakeDatabase(-1);
+        BatchSqlBatchUpdater<Integer, BatchStatement> updater = newUpdater(new BatchSqlBatchUpdater<Integer, BatchStatement>(), database);
+        updater.setMaxBindParameters(4);
+        BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.BATCH_SQL), rows(10));
+        Assert.assertFalse(result.hasThrowable());
+        // 2 statements: 4 rows, 2 rows
+        Assert.assertEquals(2, database.prepares);
+        Assert.assertEquals(3, database.roundTrips);
+        Assert.assertEquals(10, result.getRowsAffected());
+
+        result = updater.batchUpdate(new BatchStatement() {
+            @Override
+            public BatchMode getBatchMode() {
+                return BatchMode.BATCH_SQL;
+            }
+
+            @Override
+            public void setBatchMode(BatchMode batchMode) {
+            }
+
+            @Override
+            public String getSql() {
+                return "update t set id = ?";
+            }
+        }, rows(10));
+        Assert.assertTrue(result.hasThrowable());
+    }
+
+    @Test
+    public void testBatchSizes() throws SQLException {
+        List<Integer> rows = rows(2000);
+        for (int batchSize : new int[]{1, 10, 100, 1000, 10000}) {
+            FakeDatabase database = new FakeDatabase(-1);
+            JdbcBatchUpdater<Integer, BatchStatement> updater = newUpdater(new JdbcBatchUpdater<Integer, BatchStatement>(), database);
+            updater.setBatchSize(batchSize);
+            BatchResult<Integer> result = updater.batchUpdate(statement(BatchMode.JDBC_BATCH), rows);
+            Assert.assertEquals(rows.size(), result.getRowsAffected());
+            Assert.assertEquals((rows.size() + batchSize - 1) / batchSize, database.roundTrips);
+        }
+    }
+
+    private static <U extends AbstractJdbcBatchUpdater<Integer, BatchStatement>> U newUpdater(U updater, FakeDatabase database) {
+        updater.setConnection(database.connection());
+        updater.setSetter(SETTER);
+        updater.setCommitPerBatch(true);
+        return updater;
+    }
+
+    private static List<Integer> rows(int count) {
+        List<Integer> rows = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(i);
+        }
+        return rows;
+    }
+
+    private static BatchStatement statement(final BatchMode batchMode) {
+        return new BatchStatement() {
+            @Override
+            public BatchMode getBatchMode() {
+                return batchMode;
+            }
+
+            @Override
+            public void setBatchMode(BatchMode batchMode) {
+            }
+
+            @Override
+            public String getSql() {
+                return "insert into t (id) values (?)";
+            }
+        };
+    }
+
+    /**
+     * a connection that fails the row failedRow
+     */
+    private static class FakeDatabase {
+        private final int failedRow;
+        private int prepares;
+        private int roundTrips;
+        private int commits;
+        private int rollbacks;
+        private boolean closed;
+        private int current;
+        private final List<Integer> batch = new ArrayList<Integer>();
+
+        private FakeDatabase(int failedRow) {
+            this.failedRow = failedRow;
+        }
+
+        private Connection connection() {
+            return JdbcStubs.proxy(Connection.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if ("prepareStatement".equals(name)) {
+                        prepares++;
+                        return statement();
+                    }
+                    if ("getAutoCommit".equals(name)) {
+                        return false;
+                    }
+                    if ("commit".equals(name)) {
+                        commits++;
+                    } else if ("rollback".equals(name)) {
+                        rollbacks++;
+                    }
+                    return JdbcStubs.defaultValue(method.getReturnType());
+                }
+            });
+        }
+
+        private PreparedStatement statement() {
+            return JdbcStubs.proxy(PreparedStatement.class, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                    String name = method.getName();
+                    if ("setInt".equals(name)) {
+                        current = (Integer) args[1];
+                    } else if ("addBatch".equals(name)) {
+                        batch.add(current);
+                    } else if ("clearBatch".equals(name)) {
+                        batch.clear();
+                    } else if ("close".equals(name)) {
+                        closed = true;
+                    } else if ("executeUpdate".equals(name)) {
+                        roundTrip();
+                        if (current == failedRow) {
+                            throw new SQLException("failed row " + current);
+                        }
+                        return 1;
+                    } else if ("executeBatch".equals(name)) {
+                        roundTrip();
+                        int[] counts = new int[batch.size()];
+                        for (int i = 0; i < counts.length; i++) {
+                            if (batch.get(i) == failedRow) {
+                                batch.clear();
+                                throw new BatchUpdateException("failed row " + failedRow, Arrays.copyOf(counts, i));
+                            }
+                            counts[i] = 1;
+                        }
+                        batch.clear();
+                        return counts;
+                    }
+                    return null;
+                }
+            });
+        }
+
+        private void roundTrip() {
+            roundTrips++;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.jn.sqlhelper.common.tests;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * In-memory stubs of the JDBC interfaces, the methods which are not stubbed return the default value of the return type.
+ */
+public class JdbcStubs {
+
+    public static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, handler));
+    }
+
+    public static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        return null;
+    }
+
+    /**
+     * the label of a column is its name, the type of all the columns is {@link Types#OTHER}
+     */
+    public static ResultSetMetaData metaData(final String... columns) {
+        return proxy(ResultSetMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("getColumnCount".equals(name)) {
+                    return columns.length;
+                }
+                if ("getColumnName".equals(name) || "getColumnLabel".equals(name)) {
+                    return columns[(Integer) args[0] - 1];
+                }
+                if ("getColumnType".equals(name)) {
+                    return Types.OTHER;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    public static ResultSet resultSet(String[] columns, Object[][] rows) {
+        return new ResultSetStub(metaData(columns), rows).proxy();
+    }
+
+    /**
+     * @return a statement which returns the result set when it is executed
+     */
+    public static PreparedStatement preparedStatement(final ResultSet resultSet) {
+        return proxy(PreparedStatement.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("executeQuery".equals(method.getName())) {
+                    return resultSet;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * A result set of the rows, the columns are found by the index or the label.
+     * <p>
+     * The typed getters fail if the value is not of the type, except that the numbers are converted to the required number type.
+     */
+    public static class ResultSetStub implements InvocationHandler {
+        private final ResultSetMetaData metaData;
+        private final Object[][] rows;
+        private boolean scrollable = false;
+        private int row = 0;
+        private boolean wasNull = false;
+        private boolean closed = false;
+
+        public ResultSetStub(ResultSetMetaData metaData, Object[][] rows) {
+            this.metaData = metaData;
+            this.rows = rows;
+        }
+
+        public ResultSetStub scrollable(boolean scrollable) {
+            this.scrollable = scrollable;
+            return this;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public ResultSet proxy() {
+            return JdbcStubs.proxy(ResultSet.class, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                return ++row <= rows.length;
+            }
+            if ("getMetaData".equals(name)) {
+                return metaData;
+            }
+            if ("getType".equals(name)) {
+                return scrollable ? ResultSet.TYPE_SCROLL_INSENSITIVE : ResultSet.TYPE_FORWARD_ONLY;
+            }
+            if ("absolute".equals(name)) {
+                if (!scrollable) {
+                    throw new SQLException("the result set is forward only");
+                }
+                row = (Integer) args[0];
+                return row <= rows.length;
+            }
+            if ("afterLast".equals(name)) {
+                row = rows.length + 1;
+                return null;
+            }
+            if ("close".equals(name)) {
+                closed = true;
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return closed;
+            }
+            if ("wasNull".equals(name)) {
+                return wasNull;
+            }
+            if ("findColumn".equals(name)) {
+                return findColumn((String) args[0]);
+            }
+            if (name.startsWith("get") && args != null && args.length >= 1 && (args[0] instanceof Integer || args[0] instanceof String)) {
+                int column = args[0] instanceof Integer ? (Integer) args[0] : findColumn((String) args[0]);
+                return getValue(method, column);
+            }
+            return defaultValue(method.getReturnType());
+        }
+
+        private Object getValue(Method method, int column) throws SQLException {
+            Object value = rows[row - 1][column - 1];
+            wasNull = value == null;
+            Class<?> returnType = method.getReturnType();
+            if (value == null) {
+                return defaultValue(returnType);
+            }
+            if ("getObject".equals(method.getName()) && method.getParameterTypes().length == 1) {
+                return value;
+            }
+            if (returnType == String.class) {
+                return value.toString();
+            }
+            if (returnType == BigDecimal.class && value instanceof Number) {
+                return new BigDecimal(value.toString());
+            }
+            if (value instanceof Number && returnType.isPrimitive() && returnType != boolean.class) {
+                Number number = (Number) value;
+                if (returnType == int.class) {
+                    return number.intValue();
+                }
+                if (returnType == long.class) {
+                    return number.longValue();
+                }
+                if (returnType == short.class) {
+                    return number.shortValue();
+                }
+                if (returnType == byte.class) {
+                    return number.byteValue();
+                }
+                if (returnType == float.class) {
+                    return number.floatValue();
+                }
+                return number.doubleValue();
+            }
+            if (returnType == boolean.class && value instanceof Boolean || returnType.isInstance(value)) {
+                return value;
+            }
+            throw new SQLException("the column " + column + " is not a " + returnType);
+        }
+
+        private int findColumn(String label) throws SQLException {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (label.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+            throw new SQLException("unknown column: " + label);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.sqlhelper.common.batch.MultiRowInsert;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiRowInsertTests {
+
+    @Test
+    public void testParse() {
+        Assert.assertNull(MultiRowInsert.parse("update t set a = ?"));
+        Assert.assertNull(MultiRowInsert.parse("insert into t (a) select a from s where b = ?"));
+        Assert.assertNull(MultiRowInsert.parse("insert into t (a) values (?) returning id"));
+        Assert.assertNull(MultiRowInsert.parse("insert into t (a) values ('x')"));
+        MultiRowInsert insert = MultiRowInsert.parse("INSERT INTO t (a, b, c) VALUES (?, upper(?), 'x?');");
+        Assert.assertNotNull(insert);
+        Assert.assertEquals(2, insert.getParametersPerRow());
+        Assert.assertFalse(MultiRowInsert.parse("insert ignore into t (a) values (?)").isSupported(MultiRowInsertStyle.INSERT_ALL));
+    }
+
+    @Test
+    public void testBuild() {
+        MultiRowInsert insert = MultiRowInsert.parse("insert into t (a, b) values (?, ?)");
+        Assert.assertEquals("INSERT into t (a, b) VALUES (?, ?), (?, ?), (?, ?)", insert.build(MultiRowInsertStyle.VALUES_LIST, 3));
+        Assert.assertEquals("INSERT ALL into t (a, b) VALUES (?, ?) into t (a, b) VALUES (?, ?) SELECT 1 FROM DUAL", insert.build(MultiRowInsertStyle.INSERT_ALL, 2));
+    }
+
+    @Test
+    public void testMaxRowsPerStatement() {
+        MultiRowInsert insert = MultiRowInsert.parse("insert into t (a, b, c) values (?, ?, ?)");
+        // SQL Server
+        Assert.assertEquals(699, insert.getMaxRowsPerStatement(1000, 2098));
+        Assert.assertEquals(1000, insert.getMaxRowsPerStatement(1000, 0));
+        Assert.assertEquals(Integer.MAX_VALUE, insert.getMaxRowsPerStatement(0, 0));
+        Assert.assertEquals(1, MultiRowInsert.parse("insert into t (a, b) values (?, ?)").getMaxRowsPerStatement(0, 1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.sqlhelper.common.ddl.model.internal.JdbcType;
+import com.jn.sqlhelper.common.resultset.ResultSetDescription;
+import com.jn.sqlhelper.common.resultset.ResultSetDescriptionCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResultSetDescriptionTests {
+
+    @Test
+    public void testLazy() {
+        AtomicInteger calls = new AtomicInteger();
+        ResultSetDescription description = new ResultSetDescription(newMetaData(30, calls));
+        Assert.assertEquals(30, description.getColumnCount());
+        Assert.assertEquals(1, calls.get());
+
+        Assert.assertEquals("column_1", description.getColumnName(1));
+        Assert.assertEquals("column_30", description.getColumnName(30));
+        Assert.assertEquals(31, calls.get());
+
+        Assert.assertEquals(JdbcType.VARCHAR, description.getColumnType(2));
+        Assert.assertEquals(61, calls.get());
+        // the failed attribute has the default value
+        Assert.assertEquals("", description.getColumnClassName(3));
+        Assert.assertEquals("column_3", description.getColumnLabel(3));
+    }
+
+    @Test
+    public void testCache() throws SQLException {
+        AtomicInteger calls = new AtomicInteger();
+        ResultSet resultSet = newResultSet(newMetaData(30, calls));
+        ResultSetDescriptionCache cache = new ResultSetDescriptionCache(1);
+        ResultSetDescription description = cache.get("select * from t", resultSet);
+        Assert.assertTrue(description.isCurrency(1));
+        Assert.assertFalse(description.isSearchable(1));
+
+        calls.set(0);
+        Assert.assertSame(description, cache.get("select * from t", resultSet));
+        // the column count and the column labels
+        Assert.assertEquals(31, calls.get());
+
+        // the column count is changed
+        Assert.assertNotSame(description, cache.get("select * from t", newResultSet(newMetaData(31, calls))));
+        // evicted
+        cache.get("select id from t", resultSet);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testColumnsRenamed() throws SQLException {
+        AtomicInteger calls = new AtomicInteger();
+        ResultSetDescriptionCache cache = new ResultSetDescriptionCache();
+        ResultSetDescription description = cache.get("select * from t", newResultSet(newMetaData(3, calls)));
+
+        // a column is renamed, the column count is not changed
+        ResultSetDescription renamed = cache.get("select * from t", newResultSet(newMetaData(3, "col_", calls)));
+        Assert.assertNotSame(description, renamed);
+        Assert.assertEquals("col_2", renamed.getColumnLabel(2));
+        Assert.assertSame(renamed, cache.get("select * from t", newResultSet(newMetaData(3, "col_", calls))));
+
+        cache.invalidate("select * from t");
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNotSame(renamed, cache.get("select * from t", newResultSet(newMetaData(3, "col_", calls))));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCachedIsLoaded() throws SQLException {
+        AtomicInteger calls = new AtomicInteger();
+        ResultSet resultSet = newResultSet(newMetaData(50, calls));
+        ResultSetDescription description = new ResultSetDescriptionCache().get("select * from t", resultSet);
+
+        // the cached description is shared by the threads, it doesn't read the metadata any more
+        calls.set(0);
+        Assert.assertEquals("column_50", description.getColumnName(50));
+        Assert.assertEquals("column_50", description.getColumnLabel(50));
+        Assert.assertEquals(JdbcType.VARCHAR, description.getColumnType(50));
+        Assert.assertTrue(description.isCurrency(50));
+        Assert.assertEquals(0, calls.get());
+    }
+
+    /**
+     * the column i is a varchar named column_i, every call is counted, getColumnClassName is not supported
+     */
+    private static ResultSetMetaData newMetaData(int columns, AtomicInteger calls) {
+        return newMetaData(columns, "column_", calls);
+    }
+
+    private static ResultSetMetaData newMetaData(final int columns, final String columnPrefix, final AtomicInteger calls) {
+        return JdbcStubs.proxy(ResultSetMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                calls.incrementAndGet();
+                String name = method.getName();
+                if ("getColumnCount".equals(name)) {
+                    return columns;
+                }
+                if ("getColumnName".equals(name) || "getColumnLabel".equals(name)) {
+                    return columnPrefix + args[0];
+                }
+                if ("getColumnType".equals(name)) {
+                    return Types.VARCHAR;
+                }
+                if ("getColumnClassName".equals(name)) {
+                    throw new SQLException("not supported");
+                }
+                if ("isCurrency".equals(name)) {
+                    return true;
+                }
+                return JdbcStubs.defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static ResultSet newResultSet(ResultSetMetaData metaData) {
+        return new JdbcStubs.ResultSetStub(metaData, new Object[0][]).proxy();
+    }
+}
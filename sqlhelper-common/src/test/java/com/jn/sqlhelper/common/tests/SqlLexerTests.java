@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.sqlhelper.common.utils.SqlLexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SqlLexerTests {
+    @Test
+    public void testTrailingOrderBy() {
+        Assert.assertEquals(37, SqlLexer.findTrailingOrderBy("select a, b from x where a>0 and b>0 order by a, \t b "));
+        Assert.assertEquals(16, SqlLexer.findTrailingOrderBy("select a from t ORDER   BY a desc, b"));
+        Assert.assertEquals(33, SqlLexer.findTrailingOrderBy("select a from t /* order by x */ order by \"order\""));
+        Assert.assertEquals(32, SqlLexer.findTrailingOrderBy("select a from t where x='it''s' order by a"));
+
+        // in a sub query
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select * from (select a, b from x where a>0 order by a, \t b) n \nwhere a>0"));
+        // in string literal or comment
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select a from t where s = 'order by x' "));
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select a from t -- order by x\n"));
+        // not the trailing clause
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select a from t order by a union select b from u"));
+        // has placeholder
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select a from t order by field(a, ?)"));
+        // brackets are not matched
+        Assert.assertEquals(-1, SqlLexer.findTrailingOrderBy("select a from t order by a)"));
+    }
+
+    @Test
+    public void testLargeSql() {
+        for (int size : new int[]{1024, 10 * 1024, 100 * 1024}) {
+            String sql = generateSql(size);
+            Assert.assertEquals(sql.lastIndexOf("order by"), SqlLexer.findTrailingOrderBy(sql));
+        }
+    }
+
+    private static String generateSql(int size) {
+        StringBuilder builder = new StringBuilder("select t.id, t.name, (select count(1) from c where c.tid = t.id) cnt from t where t.id in (");
+        int i = 0;
+        while (builder.length() < size) {
+            builder.append("'value_").append(i++).append("', ");
+        }
+        builder.append("'end') and t.name like ? order by t.id desc, t.name");
+        return builder.toString();
+    }
+}
@@ -15,6 +15,8 @@
 package com.jn.sqlhelper.common.tests;
 
 import com.jn.sqlhelper.common.utils.SQLs;
+import com.jn.sqlhelper.common.utils.SqlStatementType;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class SqlsTests {
@@ -33,4 +35,56 @@ public class SqlsTests {
         sql = "select \t count(1) from t";
         System.out.println(sql + ",\t" + SQLs.isSelectCountStatement(sql));
     }
+
+    private static final String[] CORPUS = new String[]{
+            "select id, name from user where id = ?",
+            "  /*+ index(u idx_user_name) */ SELECT u.* FROM user u WHERE u.name like ?",
+            "-- the active users\nselect count(*) from user where status = 1",
+            "SELECT\n\tcount(1)\nFROM user",
+            "select country from user",
+            "(select a from t1) union (select a from t2)",
+            "with recursive tree(id, pid) as (select id, pid from node where id = ? union all select n.id, n.pid from node n join tree t on (n.pid = t.id)), leaf as (select * from tree) select count(1) from leaf",
+            "with t as (select * from user) insert into user_bak select * from t",
+            "insert into user(id, name) values (?, ?)",
+            "update user set name = ? where id = ?",
+            "UPDATE user u SET u.name = ?",
+            "delete from user where id = ?",
+            "merge into user u using dual on (u.id = ?) when matched then update set u.name = ?",
+            "create table user (id int)",
+            "drop table user",
+            "with t as (select 1"
+    };
+
+    private static final SqlStatementType[] TYPES = new SqlStatementType[]{
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.SELECT,
+            SqlStatementType.INSERT,
+            SqlStatementType.INSERT,
+            SqlStatementType.UPDATE,
+            SqlStatementType.UPDATE,
+            SqlStatementType.DELETE,
+            SqlStatementType.MERGE,
+            SqlStatementType.CREATE,
+            SqlStatementType.DROP,
+            SqlStatementType.OTHER
+    };
+
+    @Test
+    public void testStatementType() {
+        for (int i = 0; i < CORPUS.length; i++) {
+            Assert.assertEquals(CORPUS[i], TYPES[i], SQLs.getStatementType(CORPUS[i]));
+        }
+        Assert.assertFalse(SQLs.isSelectCountStatement(CORPUS[0]));
+        Assert.assertTrue(SQLs.isSelectCountStatement(CORPUS[2]));
+        Assert.assertTrue(SQLs.isSelectCountStatement(CORPUS[3]));
+        Assert.assertFalse(SQLs.isSelectCountStatement(CORPUS[4]));
+        Assert.assertTrue(SQLs.isSelectCountStatement(CORPUS[6]));
+        Assert.assertTrue(SQLs.isCreateStatement(CORPUS[13]));
+        Assert.assertTrue(SQLs.isDropTableStatement(CORPUS[14]));
+    }
 }
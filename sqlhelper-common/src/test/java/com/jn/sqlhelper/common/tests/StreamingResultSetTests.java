@@ -0,0 +1,76 @@
+package com.jn.sqlhelper.common.tests;
+
+import com.jn.langx.util.function.Consumer;
+import com.jn.sqlhelper.common.resultset.ResultSetDescription;
+import com.jn.sqlhelper.common.resultset.ResultSetIterator;
+import com.jn.sqlhelper.common.resultset.RowMapper;
+import com.jn.sqlhelper.common.resultset.StreamingResultSetExtractor;
+import com.jn.sqlhelper.common.statement.StreamingStatements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StreamingResultSetTests {
+    private static final RowMapper<Long> ID_MAPPER = new RowMapper<Long>() {
+        @Override
+        public Long mapping(ResultSet row, int currentRowIndex, ResultSetDescription resultSetDescription) {
+            try {
+                return row.getLong(1);
+            } catch (SQLException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    };
+
+    @Test
+    public void testExtractor() throws Throwable {
+        for (boolean scrollable : new boolean[]{false, true}) {
+            final List<Long> ids = new ArrayList<Long>();
+            int count = new StreamingResultSetExtractor<Long>(ID_MAPPER, new Consumer<Long>() {
+                @Override
+                public void accept(Long id) {
+                    ids.add(id);
+                }
+            }, 3, 4).extract(newResultSet(10, scrollable).proxy());
+            Assert.assertEquals(4, count);
+            Assert.assertEquals(Arrays.asList(4L, 5L, 6L, 7L), ids);
+        }
+    }
+
+    @Test
+    public void testIterator() {
+        JdbcStubs.ResultSetStub resultSet = newResultSet(3, false);
+        ResultSetIterator<Long> iterator = new ResultSetIterator<Long>(resultSet.proxy(), ID_MAPPER);
+        List<Long> ids = new ArrayList<Long>();
+        while (iterator.hasNext()) {
+            Assert.assertFalse(resultSet.isClosed());
+            ids.add(iterator.next());
+        }
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), ids);
+        Assert.assertTrue(resultSet.isClosed());
+        Assert.assertTrue(iterator.isClosed());
+    }
+
+    @Test
+    public void testStreamingFetchSize() {
+        Assert.assertEquals(Integer.MIN_VALUE, StreamingStatements.getStreamingFetchSize("MySQL", 100));
+        Assert.assertEquals(100, StreamingStatements.getStreamingFetchSize("PostgreSQL", 100));
+        Assert.assertEquals(StreamingStatements.DEFAULT_FETCH_SIZE, StreamingStatements.getStreamingFetchSize(null, 0));
+    }
+
+    /**
+     * an in-memory result set of one column: the row i is i
+     */
+    private static JdbcStubs.ResultSetStub newResultSet(int rows, boolean scrollable) {
+        Object[][] values = new Object[rows][];
+        for (int i = 1; i <= rows; i++) {
+            values[i - 1] = new Object[]{(long) i};
+        }
+        return new JdbcStubs.ResultSetStub(JdbcStubs.metaData("id"), values).scrollable(scrollable);
+    }
+}
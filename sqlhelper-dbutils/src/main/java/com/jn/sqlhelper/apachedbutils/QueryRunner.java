@@ -18,6 +18,10 @@ import com.jn.langx.annotation.NonNull;
 import com.jn.langx.util.Preconditions;
 import com.jn.langx.util.Strings;
 import com.jn.langx.util.collection.Collects;
+import com.jn.langx.util.function.Consumer;
+import com.jn.sqlhelper.common.resultset.RowMapper;
+import com.jn.sqlhelper.common.resultset.StreamingResultSetExtractor;
+import com.jn.sqlhelper.common.statement.StreamingStatements;
 import com.jn.sqlhelper.common.utils.SQLs;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
 import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorProvider;
@@ -355,6 +359,96 @@ public class QueryRunner extends org.apache.commons.dbutils.QueryRunner {
         return r;
     }
 
+    /**
+     * Stream the rows of a query to a consumer, the rows are not kept in memory.
+     * The <code>Connection</code> is retrieved from the <code>DataSource</code> set in the constructor.
+     *
+     * @see #stream(Connection, String, long, int, RowMapper, Consumer, Object...)
+     */
+    public <T> int stream(String sql, long offset, int limit, RowMapper<T> rowMapper, Consumer<T> consumer, Object... params) throws SQLException {
+        Connection conn = this.prepareConnection();
+        try {
+            return this.stream(conn, sql, offset, limit, rowMapper, consumer, params);
+        } finally {
+            close(conn);
+        }
+    }
+
+    /**
+     * Stream the rows of a query to a consumer, the rows are not kept in memory.
+     * The caller is responsible for closing the connection.
+     * <p>
+     * The statement fetches the rows in batches, see {@link StreamingStatements}.
+     * The offset and the limit are instrumented into the sql if there is a limit and the dialect supports limit,
+     * so the skipped rows are not transferred, else they are skipped on the client side.
+     *
+     * @param conn      The connection to execute the query in.
+     * @param sql       The query to execute.
+     * @param offset    The count of the rows to skip.
+     * @param limit     The max count of the rows, no limit if it is not positive.
+     * @param rowMapper The mapper of a row.
+     * @param consumer  The consumer of the mapped rows.
+     * @param params    The replacement parameters.
+     * @return The count of the consumed rows.
+     * @throws SQLException if a database access error occurs
+     */
+    public <T> int stream(Connection conn, String sql, long offset, int limit, RowMapper<T> rowMapper, Consumer<T> consumer, Object... params) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+        if (rowMapper == null || consumer == null) {
+            throw new SQLException("Null RowMapper or Consumer");
+        }
+
+        SQLStatementInstrumentor instrumentor = SQLInstrumentorProvider.getInstance().get(instrumentConfig);
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int count = 0;
+        try {
+            // the last row (offset + limit) must be an int for the dialects which use the max rows as the limit
+            boolean limited = limit > 0 && offset + limit <= Integer.MAX_VALUE && SQLs.isSelectStatement(sql) && instrumentor.beginIfSupportsLimit(conn.getMetaData());
+            if (limited) {
+                RowSelection rowSelection = new RowSelection();
+                rowSelection.setOffset(offset);
+                rowSelection.setLimit(limit);
+                stmt = this.prepareStatement(conn, instrumentor.instrumentLimitSql(sql, rowSelection));
+                StreamingStatements.enableStreaming(stmt, getStreamingFetchSize());
+
+                ArrayBasedQueryParameters queryParameters = new ArrayBasedQueryParameters();
+                queryParameters.setCallable(false);
+                queryParameters.setRowSelection(rowSelection);
+                queryParameters.setParameters(params, 0, 0);
+                PagedPreparedStatementSetter parameterSetter = new PagedPreparedStatementSetter(new DbutilsOriginalPreparedStatementSetter(params == null ? new Object[0] : params));
+                instrumentor.bindParameters(new PagedPreparedStatement(stmt), parameterSetter, queryParameters, true);
+                rs = this.wrap(stmt.executeQuery());
+                count = new StreamingResultSetExtractor<T>(rowMapper, consumer).extract(rs);
+            } else {
+                stmt = this.prepareStatement(conn, sql);
+                StreamingStatements.enableStreaming(stmt, getStreamingFetchSize());
+                this.fillStatement(stmt, params);
+                rs = this.wrap(stmt.executeQuery());
+                count = new StreamingResultSetExtractor<T>(rowMapper, consumer, (int) Math.min(offset, Integer.MAX_VALUE), limit > 0 ? limit : Integer.MAX_VALUE).extract(rs);
+            }
+        } catch (SQLException e) {
+            this.rethrow(e, sql, params);
+        } finally {
+            instrumentor.finish();
+            try {
+                close(rs);
+            } finally {
+                close(stmt);
+            }
+        }
+        return count;
+    }
+
+    private int getStreamingFetchSize() {
+        return stmtConfig != null && stmtConfig.isFetchSizeSet() ? stmtConfig.getFetchSize() : StreamingStatements.DEFAULT_FETCH_SIZE;
+    }
+
     private class DbutilsOriginalPreparedStatementSetter implements PreparedStatementSetter {
         private Object[] params;
 
@@ -417,7 +511,7 @@ public class QueryRunner extends org.apache.commons.dbutils.QueryRunner {
                     result.setTotal(count);
                     int maxPageCount = result.getMaxPage();
                     if (maxPageCount >= 0) {
-                        if (requestPageNo > maxPageCount) {
+                        if (KeysetPaginations.getLocatedPageNo(request) > maxPageCount) {
                             if (isUseLastPageIfPageNoOut(request)) {
                                 request.setPageNo(maxPageCount);
                                 result.setPageNo(maxPageCount);
@@ -447,7 +541,9 @@ public class QueryRunner extends org.apache.commons.dbutils.QueryRunner {
                     int afterSubqueryParametersCount = 0;
 
                     if (!subqueryPagination) {
-                        if (PAGING_CONTEXT.isOrderByRequest()) {
+                        if (rowSelection.isKeysetPaging()) {
+                            paginationSql = instrumentor.instrumentKeysetLimitSql(sql, rowSelection);
+                        } else if (PAGING_CONTEXT.isOrderByRequest()) {
                             paginationSql = instrumentor.instrumentOrderByLimitSql(sql, PAGING_CONTEXT.getPagingRequest().getOrderBy(), rowSelection);
                         } else {
                             paginationSql = instrumentor.instrumentLimitSql(sql, rowSelection);
@@ -484,7 +580,11 @@ public class QueryRunner extends org.apache.commons.dbutils.QueryRunner {
                     instrumentor.bindParameters(ps, parameterSetter, queryParameters, true);
                     // execute
                     ResultSet resultSet = this.wrap(ps.executeQuery());
-                    items.addAll((List) rsh.handle(resultSet));
+                    List rows = (List) rsh.handle(resultSet);
+                    items.addAll(rows);
+                    if (rowSelection.isKeysetPaging()) {
+                        result.setNextCursor(KeysetPaginations.nextCursor(rows, rowSelection));
+                    }
                 }
                 request.setPageNo(requestPageNo);
                 result.setPageNo(request.getPageNo());
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect;
+
+import java.util.*;
+
+/**
+ * An Aho-Corasick automaton over the keywords of the vendor database id mappings.
+ * <p>
+ * It finds all the keywords contained (case insensitive) in a database product name with one scan.
+ * The matched keywords are ordered by: the longer the first, then by the keyword's natural order,
+ * so the longest keyword always wins.
+ */
+class DatabaseIdMatcher {
+    private static final Comparator<String> LONGEST_FIRST = new Comparator<String>() {
+        @Override
+        public int compare(String k1, String k2) {
+            int delta = k2.length() - k1.length();
+            return delta != 0 ? delta : k1.compareTo(k2);
+        }
+    };
+
+    private final Node root = new Node();
+    private final int keywordCount;
+
+    DatabaseIdMatcher(Collection<?> keywords) {
+        for (Object keyword : keywords) {
+            if (keyword != null && keyword.toString().length() > 0) {
+                addKeyword(keyword.toString());
+            }
+        }
+        this.keywordCount = keywords.size();
+        buildFailureLinks();
+    }
+
+    private void addKeyword(String keyword) {
+        Node node = root;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = Character.toLowerCase(keyword.charAt(i));
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node();
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        if (node.keywords == null) {
+            node.keywords = new TreeSet<String>();
+        }
+        node.keywords.add(keyword);
+    }
+
+    private void buildFailureLinks() {
+        LinkedList<Node> queue = new LinkedList<Node>();
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.removeFirst();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+                Node failure = node.failure;
+                while (failure != null && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                child.failure = failure == null ? root : failure.children.get(c);
+                child.output = child.failure.keywords != null ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    int size() {
+        return keywordCount;
+    }
+
+    /**
+     * @return the original keywords contained in the text, longest first
+     */
+    List<String> match(String text) {
+        if (text == null || keywordCount == 0) {
+            return Collections.emptyList();
+        }
+        TreeSet<String> matched = null;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            Node next = node.children.get(c);
+            while (next == null && node != root) {
+                node = node.failure;
+                next = node.children.get(c);
+            }
+            node = next == null ? root : next;
+            Node out = node.keywords != null ? node : node.output;
+            while (out != null) {
+                if (matched == null) {
+                    matched = new TreeSet<String>(LONGEST_FIRST);
+                }
+                matched.addAll(out.keywords);
+                out = out.output;
+            }
+        }
+        if (matched == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<String>(matched);
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+        private Node failure;
+        // the nearest node in the failure chain which ends a keyword
+        private Node output;
+        // the original keywords end at this node
+        private Set<String> keywords;
+    }
+}
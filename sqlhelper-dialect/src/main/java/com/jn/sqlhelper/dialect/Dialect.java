@@ -15,9 +15,11 @@
 package com.jn.sqlhelper.dialect;
 
 import com.jn.langx.annotation.NonNull;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
 import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
 import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
 import com.jn.sqlhelper.dialect.likeescaper.LikeEscaper;
+import com.jn.sqlhelper.dialect.pagination.CountEstimator;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
 
 import java.sql.CallableStatement;
@@ -145,6 +147,36 @@ public interface Dialect extends LikeEscaper {
 
     boolean isSupportsBatchSql();
 
+    /**
+     * The syntax to insert multiple rows with one statement, it is used by the BATCH_SQL batch mode.
+     * The single row inserts are expanded only if the style is not {@link MultiRowInsertStyle#NONE}
+     * and the max bind parameters is declared.
+     */
+    MultiRowInsertStyle getMultiRowInsertStyle();
+
+    /**
+     * @return the max rows of a multiple rows insert, 0: unlimited
+     */
+    int getMaxMultiRowInsertRows();
+
+    /**
+     * @return the max bind parameters of a statement, 0: unknown
+     */
+    int getMaxBindParameters();
+
+    /**
+     * Whether supports the row value comparison, e.g. (a, b) &gt; (?, ?)
+     * It is used by the keyset pagination.
+     */
+    boolean isSupportsRowValueComparison();
+
+    /**
+     * Get the estimator of the row count based on the planner statistics
+     *
+     * @return null if not supported
+     */
+    CountEstimator getCountEstimator();
+
     String generateTableDDL(@NonNull DatabaseDescription database, String catalog, String schema, @NonNull String tableName) throws SQLException;
 
     UrlParser getUrlParser();
@@ -22,7 +22,9 @@ import com.jn.langx.util.function.Predicate;
 import com.jn.langx.util.reflect.Reflects;
 import com.jn.langx.util.struct.Holder;
 import com.jn.sqlhelper.dialect.annotation.Driver;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.*;
+import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
 import com.jn.sqlhelper.dialect.sqlparser.SqlParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,15 +36,30 @@ import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DialectRegistry {
 
     private static final Logger logger = LoggerFactory.getLogger(DialectRegistry.class);
-    private static final Map<String, Dialect> nameToDialectMap = new TreeMap<String, Dialect>();
-    private static final Map<String, String> classNameToNameMap = new TreeMap<String, String>();
+    /**
+     * when true, a builtin dialect (and its driver) will be created when it is used at the first time
+     */
+    private static final boolean lazyRegistration = Boolean.parseBoolean(System.getProperty("sqlhelper.dialect.lazyRegistration", "false"));
+    private static final Map<String, Dialect> nameToDialectMap = new ConcurrentSkipListMap<String, Dialect>();
+    private static final Map<String, String> classNameToNameMap = new ConcurrentSkipListMap<String, String>();
+    // key: dialect name, value: the dialect class which has not been created
+    private static final Map<String, Class<? extends Dialect>> lazyDialectClassMap = new ConcurrentSkipListMap<String, Class<? extends Dialect>>();
     // key:DatabaseMetaData.getProduceName() + getDriver();
-    private static final Map<String, Holder<Dialect>> dbToDialectMap = new HashMap<String, Holder<Dialect>>();
+    private static final Map<String, Holder<Dialect>> dbToDialectMap = new ConcurrentHashMap<String, Holder<Dialect>>();
     private static final Properties vendorDatabaseIdMappings = new Properties();
+    // rebuilt lazily after the mappings changed
+    private static volatile DatabaseIdMatcher databaseIdMatcher;
+    /**
+     * increased when a dialect is registered
+     */
+    private static final AtomicInteger version = new AtomicInteger(0);
 
     static {
         loadDatabaseIdMappings();
@@ -59,10 +76,67 @@ public class DialectRegistry {
         return registry;
     }
 
+    /**
+     * All the dialects, the lazily registered dialects are created by it, so don't use it for a lookup.
+     */
     public Collection<Dialect> getDialects() {
+        if (!lazyDialectClassMap.isEmpty()) {
+            for (String name : new ArrayList<String>(lazyDialectClassMap.keySet())) {
+                createLazyDialect(name);
+            }
+        }
         return nameToDialectMap.values();
     }
 
+    /**
+     * The url parsers of all the dialects, sorted by the dialect name.
+     * The lazily registered dialects are not created, their parsers are declared with {@link UrlParserClass}.
+     *
+     * @return key: the dialect name, value: the url parser
+     */
+    public Map<String, UrlParser> getUrlParsers() {
+        Map<String, UrlParser> parsers = new TreeMap<String, UrlParser>();
+        // the lazy dialects are read first, a dialect created meanwhile is in the created dialects then
+        for (Map.Entry<String, Class<? extends Dialect>> entry : lazyDialectClassMap.entrySet()) {
+            UrlParser parser = newUrlParser(entry.getValue());
+            if (parser != null) {
+                parsers.put(entry.getKey(), parser);
+            }
+        }
+        for (Map.Entry<String, Dialect> entry : nameToDialectMap.entrySet()) {
+            UrlParser parser = entry.getValue().getUrlParser();
+            if (parser != null) {
+                parsers.put(entry.getKey(), parser);
+            }
+        }
+        return parsers;
+    }
+
+    private static UrlParser newUrlParser(final Class<? extends Dialect> clazz) {
+        final UrlParserClass urlParserAnno = clazz.getAnnotation(UrlParserClass.class);
+        if (urlParserAnno == null) {
+            return null;
+        }
+        try {
+            return urlParserAnno.value().newInstance();
+        } catch (Throwable ex) {
+            logger.warn("Can't create the url parser {} for dialect {}", Reflects.getFQNClassName(urlParserAnno.value()), Reflects.getFQNClassName(clazz));
+            return null;
+        }
+    }
+
+    /**
+     * The version is changed whenever a dialect is registered,
+     * the indexes built from the dialects (the url schemas for example) can use it to find out they are stale.
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    public static boolean isLazyRegistration() {
+        return lazyRegistration;
+    }
+
     public Dialect getDialectByClassName(final String className) {
         final String dialectName = (String) DialectRegistry.classNameToNameMap.get(className);
         if (dialectName != null) {
@@ -72,7 +146,27 @@ public class DialectRegistry {
     }
 
     public Dialect getDialectByName(final String databaseId) {
-        return DialectRegistry.nameToDialectMap.get(databaseId);
+        if (databaseId == null) {
+            return null;
+        }
+        Dialect dialect = DialectRegistry.nameToDialectMap.get(databaseId);
+        if (dialect == null && lazyDialectClassMap.containsKey(databaseId)) {
+            dialect = createLazyDialect(databaseId);
+        }
+        return dialect;
+    }
+
+    private static Dialect createLazyDialect(final String name) {
+        synchronized (lazyDialectClassMap) {
+            Dialect dialect = nameToDialectMap.get(name);
+            if (dialect == null) {
+                Class<? extends Dialect> clazz = lazyDialectClassMap.remove(name);
+                if (clazz != null) {
+                    dialect = registerDialectByClass(clazz);
+                }
+            }
+            return dialect;
+        }
     }
 
     private static String databaseIdStringLowerCase(DatabaseMetaData databaseMetaData) {
@@ -107,15 +201,11 @@ public class DialectRegistry {
                 // ignore
             }
             if (dialect == null) {
-                Enumeration<String> keys = (Enumeration<String>) vendorDatabaseIdMappings.propertyNames();
-                while (keys.hasMoreElements()) {
-                    String key = keys.nextElement();
-                    if (databaseIdString.contains(key.toLowerCase())) {
-                        dialect = getDialectByName(vendorDatabaseIdMappings.getProperty(key));
-                        if (dialect != null) {
-                            dbToDialectMap.put(databaseIdString, new Holder<Dialect>(dialect));
-                            break;
-                        }
+                for (String key : getDatabaseIdMatcher().match(databaseIdString)) {
+                    dialect = getDialectByName(vendorDatabaseIdMappings.getProperty(key));
+                    if (dialect != null) {
+                        dbToDialectMap.put(databaseIdString, new Holder<Dialect>(dialect));
+                        break;
                     }
                 }
             }
@@ -276,6 +366,17 @@ public class DialectRegistry {
                 YugabyteDBDialect.class
         };
 
+        if (lazyRegistration) {
+            for (Class<? extends Dialect> clazz : Arrays.asList(dialects)) {
+                String name = getDialectName(clazz);
+                lazyDialectClassMap.put(name, clazz);
+                DialectRegistry.classNameToNameMap.put(clazz.getCanonicalName(), name);
+                setDatabaseId(name, name);
+            }
+            logger.info("Registered dialects lazily: {}", lazyDialectClassMap.keySet());
+            return;
+        }
+
         for (Class<? extends Dialect> clazz : Arrays.asList(dialects)) {
             registerDialectByClass(clazz, null);
         }
@@ -307,6 +408,17 @@ public class DialectRegistry {
 
     public static void setDatabaseId(String keywordsInDriver, String databaseId) {
         vendorDatabaseIdMappings.setProperty(keywordsInDriver, databaseId);
+        databaseIdMatcher = null;
+    }
+
+    private static DatabaseIdMatcher getDatabaseIdMatcher() {
+        DatabaseIdMatcher matcher = databaseIdMatcher;
+        // the mappings is public, it maybe changed without setDatabaseId()
+        if (matcher == null || matcher.size() != vendorDatabaseIdMappings.size()) {
+            matcher = new DatabaseIdMatcher(new ArrayList<Object>(vendorDatabaseIdMappings.keySet()));
+            databaseIdMatcher = matcher;
+        }
+        return matcher;
     }
 
     /**
@@ -319,15 +431,11 @@ public class DialectRegistry {
         if (productName == null) {
             return null;
         }
-        Iterator<Object> iter = (vendorDatabaseIdMappings.keySet().iterator());
-        productName = productName.toLowerCase();
-        while (iter.hasNext()) {
-            String databaseId = iter.next().toString().toLowerCase();
-            if (productName.contains(databaseId)) {
-                return databaseId;
-            }
+        List<String> keys = getDatabaseIdMatcher().match(productName);
+        if (keys.isEmpty()) {
+            return null;
         }
-        return null;
+        return keys.get(0).toLowerCase();
     }
 
     public void registerDialectByClassName(final String className) throws ClassNotFoundException {
@@ -340,6 +448,7 @@ public class DialectRegistry {
             final Dialect dialect = registerDialectByClass(clazz);
             if (!Strings.isBlank(dialectName) && dialect != null) {
                 DialectRegistry.nameToDialectMap.put(dialectName, dialect);
+                version.incrementAndGet();
             }
         } catch (Throwable ex) {
             DialectRegistry.logger.info(ex.getMessage(), ex);
@@ -375,8 +484,7 @@ public class DialectRegistry {
         return registerDialectByClass(clazz, null);
     }
 
-    private static Dialect registerDialectByClass(final Class<? extends Dialect> clazz, Dialect dialect) {
-
+    private static String getDialectName(final Class<? extends Dialect> clazz) {
         final Name nameAnno = (Name) Reflects.getAnnotation(clazz, Name.class);
         String name;
         if (nameAnno != null) {
@@ -388,6 +496,11 @@ public class DialectRegistry {
             final String simpleClassName = clazz.getSimpleName().toLowerCase();
             name = simpleClassName.replaceAll("dialect", "");
         }
+        return name;
+    }
+
+    private static Dialect registerDialectByClass(final Class<? extends Dialect> clazz, Dialect dialect) {
+        final String name = getDialectName(clazz);
         if (dialect == null) {
             final Driver driverAnno = (Driver) Reflects.getAnnotation(clazz, Driver.class);
             Class<? extends java.sql.Driver> driverClass = null;
@@ -451,9 +564,11 @@ public class DialectRegistry {
             }
         }
         if (dialect != null) {
+            lazyDialectClassMap.remove(name);
             DialectRegistry.nameToDialectMap.put(name, dialect);
             DialectRegistry.classNameToNameMap.put(clazz.getCanonicalName(), name);
             setDatabaseId(name, name);
+            version.incrementAndGet();
         }
         return dialect;
     }
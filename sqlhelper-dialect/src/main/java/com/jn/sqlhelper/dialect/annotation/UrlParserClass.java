@@ -0,0 +1,36 @@
+
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect.annotation;
+
+import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * The url parser of a dialect. It is used to find the url schemas of a lazily registered dialect without creating the dialect,
+ * so the dialect should set a parser of the same class in its constructor.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({TYPE})
+@Inherited
+public @interface UrlParserClass {
+    Class<? extends UrlParser> value();
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect.instrument;
+
+import com.jn.langx.annotation.Nullable;
+import com.jn.sqlhelper.dialect.Dialect;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the dialect resolved for a DataSource, a Connection or a jdbc url,
+ * so every pool only resolves its dialect from the DatabaseMetaData once.
+ * <p>
+ * DataSource and Connection keys are weak referenced, they will be removed after they are GC'd.
+ */
+public class DialectResolutionCache {
+    private final Map<Object, Dialect> ownerToDialectMap = Collections.synchronizedMap(new WeakHashMap<Object, Dialect>());
+    private final ConcurrentHashMap<String, Dialect> urlToDialectMap = new ConcurrentHashMap<String, Dialect>();
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * Find the dialect by the owner first, then by the url.
+     *
+     * @param owner a DataSource or a Connection
+     * @param url   the jdbc url
+     * @return the cached dialect, null if missed
+     */
+    public Dialect get(@Nullable Object owner, @Nullable String url) {
+        Dialect dialect = null;
+        if (owner != null) {
+            dialect = ownerToDialectMap.get(owner);
+        }
+        if (dialect == null && url != null) {
+            dialect = urlToDialectMap.get(url);
+            if (dialect != null && owner != null) {
+                ownerToDialectMap.put(owner, dialect);
+            }
+        }
+        if (dialect != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return dialect;
+    }
+
+    public void put(@Nullable Object owner, @Nullable String url, Dialect dialect) {
+        if (dialect == null) {
+            return;
+        }
+        if (owner != null) {
+            ownerToDialectMap.put(owner, dialect);
+        }
+        if (url != null) {
+            urlToDialectMap.put(url, dialect);
+        }
+    }
+
+    /**
+     * Call it when a DataSource is closed. The entry of its url is kept, because other DataSources may share the url.
+     */
+    public void evict(@Nullable DataSource dataSource) {
+        if (dataSource != null) {
+            ownerToDialectMap.remove(dataSource);
+        }
+    }
+
+    public void evict(@Nullable String url) {
+        if (url != null) {
+            urlToDialectMap.remove(url);
+        }
+    }
+
+    public void clear() {
+        ownerToDialectMap.clear();
+        urlToDialectMap.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        return ownerToDialectMap.size() + urlToDialectMap.size();
+    }
+}
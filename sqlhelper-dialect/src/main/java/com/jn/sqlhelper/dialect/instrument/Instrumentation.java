@@ -2,6 +2,7 @@ package com.jn.sqlhelper.dialect.instrument;
 
 import com.jn.langx.annotation.Singleton;
 import com.jn.langx.lifecycle.Initializable;
+import com.jn.sqlhelper.dialect.instrument.count.CountTransformer;
 import com.jn.sqlhelper.dialect.instrument.orderby.OrderByTransformer;
 import com.jn.sqlhelper.dialect.instrument.where.WhereTransformer;
 import com.jn.sqlhelper.dialect.sqlparser.SqlParser;
@@ -15,6 +16,8 @@ public interface Instrumentation<Statement, SQL extends SqlStatementWrapper<Stat
 
     OrderByTransformer<Statement> getOrderByTransformer();
 
+    CountTransformer<Statement> getCountTransformer();
+
     boolean isEnabled();
 
     void setEnabled(boolean enabled);
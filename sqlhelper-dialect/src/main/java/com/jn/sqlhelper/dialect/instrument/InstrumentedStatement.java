@@ -3,14 +3,44 @@ package com.jn.sqlhelper.dialect.instrument;
 import com.jn.sqlhelper.dialect.orderby.OrderBy;
 import com.jn.sqlhelper.dialect.sqlparser.SqlStatementWrapper;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The instrumented sql variants of an original sql, it is shared by all the threads.
+ * <p>
+ * The count sql is kept in a field. The limit, order by variants are kept in a copy-on-write array,
+ * every variant is located by a packed long key (dialect, variant type, has offset) and the fingerprint of the order by,
+ * so a lookup allocates nothing. At most {@link #MAX_VARIANTS} variants are kept, the oldest one will be evicted.
+ */
 public class InstrumentedStatement implements SqlStatementWrapper {
+    static final int MAX_VARIANTS = 32;
+
+    private static final int LIMIT = 1;
+    private static final int ORDER_BY = 2;
+    private static final int ORDER_BY_LIMIT = 3;
+
+    /**
+     * database id => a small integer used in the packed keys
+     */
+    private static final ConcurrentHashMap<String, Integer> dialectIds = new ConcurrentHashMap<String, Integer>();
+    private static final AtomicInteger dialectIdSequence = new AtomicInteger(0);
+    private static final Variant[] EMPTY_VARIANTS = new Variant[0];
+
     private String originalSql;
-    private Map<TransformConfig, String> instrumentedSqlMap = new HashMap<TransformConfig, String>();
+    private volatile String countSql;
+    private volatile Variant[] variants = EMPTY_VARIANTS;
+    private final InstrumentedStatementStats stats;
     private boolean changed = false;
 
+    public InstrumentedStatement() {
+        this(null);
+    }
+
+    public InstrumentedStatement(InstrumentedStatementStats stats) {
+        this.stats = stats;
+    }
+
     @Override
     public String getOriginalSql() {
         return originalSql;
@@ -42,71 +72,129 @@ public class InstrumentedStatement implements SqlStatementWrapper {
     }
 
     public void setCountSql(String countSql) {
-        TransformConfig config = new TransformConfig();
-        config.setCount(true);
-        instrumentedSqlMap.put(config, countSql);
+        this.countSql = countSql;
     }
 
     public String getCountSql() {
-        TransformConfig config = new TransformConfig();
-        config.setCount(true);
-        return instrumentedSqlMap.get(config);
+        return record(countSql);
     }
 
     public void setLimitSql(String dialect, String limitSql, boolean hasOffset) {
-        TransformConfig config = new TransformConfig();
-        config.setDialect(dialect);
-        config.setLimitOffset(hasOffset);
-        instrumentedSqlMap.put(config, limitSql);
+        put(key(LIMIT, dialect, hasOffset), null, limitSql);
     }
 
     public String getLimitSql(String dialect, boolean hasOffset) {
-        TransformConfig config = new TransformConfig();
-        config.setDialect(dialect);
-        config.setLimitOffset(hasOffset);
-        return instrumentedSqlMap.get(config);
+        return find(key(LIMIT, dialect, hasOffset), null);
     }
 
     public String getOrderBySql(OrderBy orderBy) {
-        TransformConfig config = new TransformConfig();
-        config.setOrderBy(orderBy);
-        return instrumentedSqlMap.get(config);
+        return find(key(ORDER_BY, null, false), orderBy);
     }
 
     public void setOrderBySql(OrderBy orderBy, String orderBySql) {
-        TransformConfig config = new TransformConfig();
-        config.setOrderBy(orderBy);
-        instrumentedSqlMap.put(config, orderBySql);
-    }
-    public String getTenantSql() {
-        TransformConfig config = new TransformConfig();
-        config.setMultiTenant(true);
-        return instrumentedSqlMap.get(config);
+        put(key(ORDER_BY, null, false), orderBy, orderBySql);
     }
 
-    public void setTenantSql(String sql){
-        TransformConfig config = new TransformConfig();
-        config.setMultiTenant(true);
-        instrumentedSqlMap.put(config,sql);
-    }
     public void setOrderByLimitSql(OrderBy orderBy, String dialect, String sql, boolean hasOffset) {
-        TransformConfig config = new TransformConfig();
-        config.setOrderBy(orderBy);
-        config.setDialect(dialect);
-        config.setLimitOffset(hasOffset);
-        instrumentedSqlMap.put(config, sql);
+        put(key(ORDER_BY_LIMIT, dialect, hasOffset), orderBy, sql);
     }
 
     public String getOrderByLimitSql(OrderBy orderBy, String dialect, boolean hasOffset) {
-        TransformConfig config = new TransformConfig();
-        config.setOrderBy(orderBy);
-        config.setDialect(dialect);
-        config.setLimitOffset(hasOffset);
-        return instrumentedSqlMap.get(config);
+        return find(key(ORDER_BY_LIMIT, dialect, hasOffset), orderBy);
     }
 
     @Override
     public void setStatement(Object o) {
 
     }
+
+    private static long key(int type, String dialect, boolean hasOffset) {
+        return ((long) dialectId(dialect) << 3) | (type << 1) | (hasOffset ? 1 : 0);
+    }
+
+    private static int dialectId(String dialect) {
+        if (dialect == null) {
+            return 0;
+        }
+        Integer id = dialectIds.get(dialect);
+        if (id == null) {
+            Integer newId = dialectIdSequence.incrementAndGet();
+            id = dialectIds.putIfAbsent(dialect, newId);
+            if (id == null) {
+                id = newId;
+            }
+        }
+        return id;
+    }
+
+    private String find(long key, OrderBy orderBy) {
+        long fingerprint = orderBy == null ? 0 : orderBy.fingerprint();
+        Variant[] variants = this.variants;
+        for (Variant variant : variants) {
+            if (variant.matches(key, fingerprint, orderBy)) {
+                return record(variant.sql);
+            }
+        }
+        return record(null);
+    }
+
+    private synchronized void put(long key, OrderBy orderBy, String sql) {
+        long fingerprint = orderBy == null ? 0 : orderBy.fingerprint();
+        Variant variant = new Variant(key, orderBy == null ? null : orderBy.copy(), fingerprint, sql);
+        Variant[] variants = this.variants;
+        for (int i = 0; i < variants.length; i++) {
+            if (variants[i].matches(key, fingerprint, orderBy)) {
+                Variant[] newVariants = variants.clone();
+                newVariants[i] = variant;
+                this.variants = newVariants;
+                return;
+            }
+        }
+        Variant[] newVariants;
+        if (variants.length < MAX_VARIANTS) {
+            newVariants = new Variant[variants.length + 1];
+            System.arraycopy(variants, 0, newVariants, 0, variants.length);
+        } else {
+            // evict the oldest one
+            newVariants = new Variant[variants.length];
+            System.arraycopy(variants, 1, newVariants, 0, variants.length - 1);
+            if (stats != null) {
+                stats.evict();
+            }
+        }
+        newVariants[newVariants.length - 1] = variant;
+        this.variants = newVariants;
+    }
+
+    private String record(String sql) {
+        if (stats != null) {
+            if (sql != null) {
+                stats.hit();
+            } else {
+                stats.miss();
+            }
+        }
+        return sql;
+    }
+
+    private static final class Variant {
+        private final long key;
+        private final OrderBy orderBy;
+        private final long orderByFingerprint;
+        private final String sql;
+
+        private Variant(long key, OrderBy orderBy, long orderByFingerprint, String sql) {
+            this.key = key;
+            this.orderBy = orderBy;
+            this.orderByFingerprint = orderByFingerprint;
+            this.sql = sql;
+        }
+
+        private boolean matches(long key, long orderByFingerprint, OrderBy orderBy) {
+            if (this.key != key || this.orderByFingerprint != orderByFingerprint) {
+                return false;
+            }
+            return orderBy == null ? this.orderBy == null : orderBy.isSame(this.orderBy);
+        }
+    }
 }
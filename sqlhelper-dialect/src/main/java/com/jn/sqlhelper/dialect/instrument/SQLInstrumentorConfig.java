@@ -30,6 +30,20 @@ public class SQLInstrumentorConfig {
     private String subqueryPagingStartFlag = "[PAGING_START]";
     private String subqueryPagingEndFlag = "[PAGING_END]";
     private String instrumentation = "jsqlparser";
+    /**
+     * rewrite the select list to count(x) directly when it is safe, else wrap the sql as a sub query
+     */
+    private boolean optimizeCountSql = false;
+    /**
+     * remove the left joins which are not used by the where clause in the optimized count sql.
+     * enable it only when all the left joins are to-one joins
+     */
+    private boolean countSqlRemoveLeftJoins = false;
+    /**
+     * cache the tenant rewrites by (sql, tenant shape), it is independent of cacheInstrumentedSql
+     */
+    private boolean cacheTenantSql = true;
+    private int tenantSqlCacheMaxCapacity = 1000;
 
     public int getCacheInitialCapacity() {
         return cacheInitialCapacity;
@@ -122,4 +136,38 @@ public class SQLInstrumentorConfig {
     public void setInstrumentation(String instrumentation) {
         this.instrumentation = instrumentation;
     }
+
+    public boolean isOptimizeCountSql() {
+        return optimizeCountSql;
+    }
+
+    public void setOptimizeCountSql(boolean optimizeCountSql) {
+        this.optimizeCountSql = optimizeCountSql;
+    }
+
+    public boolean isCountSqlRemoveLeftJoins() {
+        return countSqlRemoveLeftJoins;
+    }
+
+    public void setCountSqlRemoveLeftJoins(boolean countSqlRemoveLeftJoins) {
+        this.countSqlRemoveLeftJoins = countSqlRemoveLeftJoins;
+    }
+
+    public boolean isCacheTenantSql() {
+        return cacheTenantSql;
+    }
+
+    public void setCacheTenantSql(boolean cacheTenantSql) {
+        this.cacheTenantSql = cacheTenantSql;
+    }
+
+    public int getTenantSqlCacheMaxCapacity() {
+        return tenantSqlCacheMaxCapacity;
+    }
+
+    public void setTenantSqlCacheMaxCapacity(int tenantSqlCacheMaxCapacity) {
+        if (tenantSqlCacheMaxCapacity > 0) {
+            this.tenantSqlCacheMaxCapacity = tenantSqlCacheMaxCapacity;
+        }
+    }
 }
@@ -22,15 +22,16 @@ import com.jn.langx.cache.CacheBuilder;
 import com.jn.langx.cache.Loader;
 import com.jn.langx.lifecycle.Initializable;
 import com.jn.langx.lifecycle.InitializationException;
+import com.jn.langx.util.Emptys;
 import com.jn.langx.util.Preconditions;
 import com.jn.langx.util.Strings;
 import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.collection.Pipeline;
 import com.jn.langx.util.function.Consumer;
-import com.jn.langx.util.function.Predicate;
+import com.jn.sqlhelper.common.utils.SqlLexer;
 import com.jn.sqlhelper.dialect.Dialect;
 import com.jn.sqlhelper.dialect.DialectRegistry;
 import com.jn.sqlhelper.dialect.SQLDialectException;
+import com.jn.sqlhelper.dialect.instrument.count.CountTransformer;
 import com.jn.sqlhelper.dialect.instrument.orderby.DefaultOrderByTransformer;
 import com.jn.sqlhelper.dialect.instrument.orderby.OrderByTransformer;
 
@@ -39,17 +40,21 @@ import com.jn.sqlhelper.dialect.instrument.where.WhereTransformConfig;
 import com.jn.sqlhelper.dialect.instrument.where.WhereTransformer;
 import com.jn.sqlhelper.dialect.internal.limit.LimitHelper;
 import com.jn.sqlhelper.dialect.orderby.OrderBy;
+import com.jn.sqlhelper.dialect.pagination.KeysetPaginations;
 import com.jn.sqlhelper.dialect.pagination.PagedPreparedParameterSetter;
 import com.jn.sqlhelper.dialect.pagination.QueryParameters;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
 import com.jn.sqlhelper.dialect.sqlparser.SqlParser;
+import com.jn.sqlhelper.dialect.sqlparser.SqlStatementWrapper;
 import com.jn.sqlhelper.dialect.sqlparser.StatementWrapper;
 import com.jn.sqlhelper.dialect.sqlparser.StringSqlStatementWrapper;
 import com.jn.sqlhelper.dialect.tenant.Tenant;
+import com.jn.sqlhelper.dialect.tenant.TenantSql;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.HashMap;
 import java.util.List;
@@ -66,6 +71,11 @@ public class SQLStatementInstrumentor implements Initializable {
     private Instrumentation instrumentation;
     private OrderByTransformer orderByTransformer;
     private WhereTransformer whereTransformer;
+    private CountTransformer countTransformer;
+    private final DialectResolutionCache dialectCache = new DialectResolutionCache();
+    private final InstrumentedStatementStats instrumentedStatementStats = new InstrumentedStatementStats();
+    private TenantSqlCache tenantSqlCache;
+
     public String getName() {
         return name;
     }
@@ -98,7 +108,7 @@ public class SQLStatementInstrumentor implements Initializable {
                         .loader(new Loader<String, InstrumentedStatement>() {
                             @Override
                             public InstrumentedStatement load(String originalSql) {
-                                InstrumentedStatement s = new InstrumentedStatement();
+                                InstrumentedStatement s = new InstrumentedStatement(instrumentedStatementStats);
                                 s.setOriginalSql(originalSql);
                                 return s;
                             }
@@ -117,6 +127,9 @@ public class SQLStatementInstrumentor implements Initializable {
                         })
                         .build();
             }
+            if (this.config.isCacheTenantSql()) {
+                tenantSqlCache = new TenantSqlCache(config.getTenantSqlCacheMaxCapacity());
+            }
             InstrumentationRegistry.getInstance().enableInstrumentation(this.config.getInstrumentation());
             this.instrumentation = InstrumentationRegistry.getInstance().findInstrumentation(this.config.getInstrumentation());
             Preconditions.checkNotNull(instrumentation,"Can't find a suitable or enabled SQL instrumentation");
@@ -126,6 +139,7 @@ public class SQLStatementInstrumentor implements Initializable {
             orderByTransformer = new DefaultOrderByTransformer();
             orderByTransformer.setInstrumentation(instrumentation);
             orderByTransformer.init();
+            countTransformer = instrumentation.getCountTransformer();
             logger.info("The {} SQLStatementInstrumentor initial finish", this.name);
         }
     }
@@ -135,6 +149,11 @@ public class SQLStatementInstrumentor implements Initializable {
         return this.beginIfSupportsLimit(dialect);
     }
 
+    public boolean beginIfSupportsLimit(final DataSource dataSource) {
+        final Dialect dialect = this.getDialect(dataSource);
+        return this.beginIfSupportsLimit(dialect);
+    }
+
     public boolean beginIfSupportsLimit(final String databaseId) {
         final Dialect dialect = this.dialectRegistry.getDialectByName(databaseId);
         return this.beginIfSupportsLimit(dialect);
@@ -161,19 +180,66 @@ public class SQLStatementInstrumentor implements Initializable {
     }
 
     private Dialect getDialect(final Statement statement) {
-        Dialect dialect = null;
-        if (statement != null) {
+        Dialect dialect = getConfiguredDialect();
+        if (dialect == null && statement != null) {
+            try {
+                // the dialect is found by the connection first, then by the url, with one lookup
+                dialect = getDialect(statement.getConnection().getMetaData());
+            } catch (SQLException e) {
+                logger.error("sql error code: {}, message: {}", e.getErrorCode(), e.getMessage(), e);
+            }
+        }
+        return dialect;
+    }
+
+    public Dialect getDialect(@Nullable DataSource dataSource) {
+        Dialect dialect = getConfiguredDialect();
+        if (dialect != null || dataSource == null) {
+            return dialect;
+        }
+        dialect = dialectCache.get(dataSource, null);
+        if (dialect == null) {
+            Connection connection = null;
             try {
-                final Connection connection = statement.getConnection();
-                dialect = getDialect(connection.getMetaData());
+                connection = dataSource.getConnection();
+                DatabaseMetaData databaseMetaData = connection.getMetaData();
+                dialect = this.dialectRegistry.getDialectByDatabaseMetadata(databaseMetaData);
+                dialectCache.put(dataSource, getUrl(databaseMetaData), dialect);
             } catch (SQLException e) {
                 logger.error("sql error code: {}, message: {}", e.getErrorCode(), e.getMessage(), e);
+            } finally {
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (Throwable ex) {
+                        // ignore it
+                    }
+                }
             }
         }
         return dialect;
     }
 
     public Dialect getDialect(@Nullable DatabaseMetaData databaseMetaData) {
+        Dialect dialect = getConfiguredDialect();
+        if (dialect == null && databaseMetaData != null) {
+            Connection connection = null;
+            try {
+                connection = databaseMetaData.getConnection();
+            } catch (SQLException ex) {
+                // ignore it
+            }
+            String url = getUrl(databaseMetaData);
+            dialect = dialectCache.get(connection, url);
+            if (dialect == null) {
+                dialect = this.dialectRegistry.getDialectByDatabaseMetadata(databaseMetaData);
+                dialectCache.put(connection, url, dialect);
+            }
+        }
+        return dialect;
+    }
+
+    private Dialect getConfiguredDialect() {
         Dialect dialect = this.getCurrentDialect();
         if (dialect != null) {
             return dialect;
@@ -185,12 +251,46 @@ public class SQLStatementInstrumentor implements Initializable {
         if (dialect == null && this.config.getDialectClassName() != null) {
             dialect = this.dialectRegistry.getDialectByClassName(this.config.getDialectClassName());
         }
-        if (dialect == null && databaseMetaData != null) {
-            dialect = this.dialectRegistry.getDialectByDatabaseMetadata(databaseMetaData);
-        }
         return dialect;
     }
 
+    private static String getUrl(DatabaseMetaData databaseMetaData) {
+        try {
+            return databaseMetaData.getURL();
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Remove the cached dialect of a closed DataSource
+     */
+    public void evictDialect(DataSource dataSource) {
+        dialectCache.evict(dataSource);
+    }
+
+    public void evictDialect(String url) {
+        dialectCache.evict(url);
+    }
+
+    public DialectResolutionCache getDialectCache() {
+        return dialectCache;
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of the cached instrumented sql variants
+     */
+    public InstrumentedStatementStats getInstrumentedStatementStats() {
+        return instrumentedStatementStats;
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of the cached tenant rewrites, null if the tenant sql is not cached
+     */
+    public InstrumentedStatementStats getTenantSqlCacheStats() {
+        return tenantSqlCache == null ? null : tenantSqlCache.getStats();
+    }
+
     public String instrumentLimitSql(String sql, final RowSelection selection) {
         final Dialect dialect = this.getCurrentDialect();
         return instrumentLimitSql(dialect, sql, selection);
@@ -257,9 +357,42 @@ public class SQLStatementInstrumentor implements Initializable {
         return sql;
     }
 
-    public String instrumentTenantSql(String sql,Tenant tenant) {
-        if (this.config.isCacheInstrumentedSql()) {
-            String tenantSql = getInstrumentedStatement(sql).getTenantSql();
+    public String instrumentKeysetLimitSql(String sql, final RowSelection selection) {
+        final Dialect dialect = this.getCurrentDialect();
+        return instrumentKeysetLimitSql(dialect, sql, selection);
+    }
+
+    /**
+     * Rewrite the sql for the keyset pagination, the page is located by the keyset predicate, and the offset is always 0.
+     *
+     * @see KeysetPaginations
+     */
+    public String instrumentKeysetLimitSql(Dialect dialect, String sql, final RowSelection selection) {
+        if (selection == null || !selection.isKeysetPaging()) {
+            throw new IllegalArgumentException("Illegal argument : selection, it is not a keyset pagination");
+        }
+        OrderBy orderBy = selection.getKeysetOrderBy();
+        boolean rowValueComparison = KeysetPaginations.isUseRowValueComparison(dialect, orderBy);
+        String keysetSql = KeysetPaginations.instrumentKeysetSql(sql, orderBy, Emptys.isNotEmpty(selection.getKeysetValues()), rowValueComparison);
+        return instrumentLimitSql(dialect, keysetSql, selection);
+    }
+
+    public String instrumentTenantSql(String sql, Tenant tenant) {
+        return instrumentTenant(sql, tenant).getSql();
+    }
+
+    /**
+     * Inject the tenant condition into the where clause (or the tenant column into an insert statement).
+     * <p>
+     * If the tenant is parameterized, the tenant values are placeholders and the parameter values are
+     * {@link Tenant#getParameterValues(boolean)}, otherwise the tenant values are inlined as literals.
+     * The rewritten sql is cached by (sql, {@link Tenant#getShape(boolean)}).
+     */
+    public TenantSql instrumentTenant(String sql, Tenant tenant) {
+        String shape = null;
+        if (tenantSqlCache != null) {
+            shape = tenant.getShape(true);
+            TenantSql tenantSql = tenantSqlCache.get(sql, shape);
             if (tenantSql != null) {
                 return tenantSql;
             }
@@ -268,25 +401,26 @@ public class SQLStatementInstrumentor implements Initializable {
             StatementWrapper statementWrapper = new StatementWrapper();
             statementWrapper.setOriginalSql(sql);
             statementWrapper.setStatement(CCJSqlParserUtil.parse(sql));
-            WhereTransformConfig whereTransformConfig=new WhereTransformConfig();
+            WhereTransformConfig whereTransformConfig = new WhereTransformConfig();
             whereTransformConfig.setInstrumentSubSelect(false);
             whereTransformConfig.setPosition(WhereTransformConfig.Position.FIRST);
-            whereTransformConfig.setExpression(tenant.getTenant(false));
+            whereTransformConfig.setExpression(tenant.getTenant(true));
             TransformConfig transformConfig = new TransformConfig();
             transformConfig.setTenant(tenant);
             transformConfig.setWhereInstrumentConfigs(Collects.asList(whereTransformConfig));
             whereTransformer.transform(statementWrapper, transformConfig);
             String newSql = statementWrapper.get().toString();
             if (newSql != null) {
-                if (this.config.isCacheInstrumentedSql()) {
-                    getInstrumentedStatement(sql).setTenantSql(newSql);
+                TenantSql tenantSql = tenant.isParameterized() ? TenantSql.parameterize(newSql) : new TenantSql(newSql);
+                if (tenantSqlCache != null) {
+                    tenantSqlCache.put(sql, shape, tenantSql);
                 }
-                return newSql;
+                return tenantSql;
             }
-        }catch (Throwable ex) {
+        } catch (Throwable ex) {
             logger.warn(ex.getMessage(), ex);
         }
-        return sql;
+        return new TenantSql(sql);
     }
 
     public void finish() {
@@ -297,8 +431,6 @@ public class SQLStatementInstrumentor implements Initializable {
         return countSql(originalSql, null);
     }
 
-    private final static List<String> keywordsNotAfterOrderBy = Collects.asList("select", "?", "union", "from", "where", "and", "or", "between", "in", "case");
-
     public String countSql(String originalSql, String countColumn) {
         if (Strings.isBlank(countColumn)) {
             countColumn = "1";
@@ -312,60 +444,50 @@ public class SQLStatementInstrumentor implements Initializable {
         }
 
         // do count
-        boolean sliceOrderBy = false;
-        final String lowerSql = originalSql.toLowerCase().trim();
-        final int orderIndex = originalSql.toLowerCase().lastIndexOf("order");
-        if (orderIndex != -1) {
-            String remainSql = lowerSql.substring(orderIndex + "order".length()).trim();
-            sliceOrderBy = remainSql.startsWith("by");
-            if (sliceOrderBy) {
-                remainSql = Strings.replace(remainSql, "(", " ( ");
-                remainSql = Strings.replace(remainSql, ")", " ) ");
-                Pipeline<String> pipeline = Pipeline.<String>of(remainSql.split("[\\s,]+")).filter(new Predicate<String>() {
-                    @Override
-                    public boolean test(String value) {
-                        return Strings.isNotEmpty(value);
-                    }
-                });
-                if (pipeline.anyMatch(new Predicate<String>() {
-                    @Override
-                    public boolean test(String value) {
-                        return keywordsNotAfterOrderBy.contains(value);
-                    }
-                })) {
-                    sliceOrderBy = false;
-                }
-                if (sliceOrderBy) {
-                    int leftBracketsCount = 0;
-                    List<String> list = pipeline.asList();
-                    for (int i = 0; i < list.size(); i++) {
-                        String c = list.get(i);
-                        if (c.equals("(")) {
-                            leftBracketsCount++;
-                        } else if (c.equals(")")) {
-                            leftBracketsCount--;
-                            if (leftBracketsCount < 0) {
-                                sliceOrderBy = false;
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+        String countSql = null;
+        if (this.config.isOptimizeCountSql()) {
+            countSql = optimizeCountSql(originalSql, countColumn);
         }
-        if (sliceOrderBy) {
-            originalSql = originalSql.trim().substring(0, orderIndex).trim();
+        if (countSql == null) {
+            String sql = originalSql;
+            final int orderIndex = SqlLexer.findTrailingOrderBy(originalSql);
+            if (orderIndex != -1) {
+                sql = originalSql.substring(0, orderIndex);
+            }
+            countSql = "select count(" + countColumn + ") from (" + sql.trim() + ") tmp_count";
         }
-        String countSql = "select count(" + countColumn + ") from (" + originalSql + ") tmp_count";
 
         // cache it
-        if (this.config.isCacheInstrumentedSql()) {
-            getInstrumentedStatement(originalSql).setCountSql(countSql);
+        if (instrumentedSql != null) {
+            instrumentedSql.setCountSql(countSql);
         }
         return countSql;
     }
 
 
+    /**
+     * @return the optimized count sql, null if the sql can't be optimized
+     */
+    private String optimizeCountSql(String originalSql, String countColumn) {
+        if (countTransformer == null) {
+            return null;
+        }
+        try {
+            SqlStatementWrapper sqlStatementWrapper = instrumentation.getSqlParser().parse(originalSql);
+            TransformConfig transformConfig = new TransformConfig();
+            transformConfig.setCount(true);
+            transformConfig.setCountColumn(countColumn);
+            transformConfig.setCountRemoveLeftJoins(this.config.isCountSqlRemoveLeftJoins());
+            countTransformer.transform(sqlStatementWrapper, transformConfig);
+            if (sqlStatementWrapper.isChanged()) {
+                return sqlStatementWrapper.getSql();
+            }
+        } catch (Throwable ex) {
+            logger.debug("Can't optimize the count sql, will wrap it as a sub query, sql: {}", originalSql, ex);
+        }
+        return null;
+    }
+
     private InstrumentedStatement getInstrumentedStatement(String originalSql) {
         if (this.config.isCacheInstrumentedSql()) {
             try {
@@ -428,6 +550,7 @@ public class SQLStatementInstrumentor implements Initializable {
                     col += parameterSetter.setSubqueryParameters(statement, queryParameters, col);
                 }
             }
+            col += bindKeysetParameters(dialect, selection, statement, col);
             col += dialect.bindLimitParametersAtEndOfQuery(selection, statement, col);
             if (setOriginalParameters && countOfAfterSubquery > 0) {
                 col += parameterSetter.setAfterSubqueryParameters(statement, queryParameters, col);
@@ -447,6 +570,21 @@ public class SQLStatementInstrumentor implements Initializable {
         return statement;
     }
 
+    /**
+     * the keyset predicate is after the original sql, and before the limit clause
+     */
+    private int bindKeysetParameters(Dialect dialect, RowSelection selection, PreparedStatement statement, int index) throws SQLException {
+        if (selection == null || !selection.isKeysetPaging() || Emptys.isEmpty(selection.getKeysetValues())) {
+            return 0;
+        }
+        boolean rowValueComparison = KeysetPaginations.isUseRowValueComparison(dialect, selection.getKeysetOrderBy());
+        List<Object> parameters = KeysetPaginations.getKeysetParameters(selection.getKeysetValues(), rowValueComparison);
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(index + i, parameters.get(i));
+        }
+        return parameters.size();
+    }
+
     public SQLInstrumentorConfig getConfig() {
         return this.config;
     }
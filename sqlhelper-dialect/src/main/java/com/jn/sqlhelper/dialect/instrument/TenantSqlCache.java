@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect.instrument;
+
+import com.jn.sqlhelper.dialect.tenant.Tenant;
+import com.jn.sqlhelper.dialect.tenant.TenantSql;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Caches the tenant rewrites by (original sql, tenant shape), so a sql is parsed only once for a tenant shape.
+ * <p>
+ * The shape is the tenant column and the single/IN form, see {@link Tenant#getShape(boolean)}.
+ * The literal (not parameterized) tenants also have the values in their shapes.
+ * <p>
+ * At most maxCapacity rewrites are kept, the oldest one will be evicted.
+ */
+public class TenantSqlCache {
+    private final ConcurrentHashMap<Key, TenantSql> cache = new ConcurrentHashMap<Key, TenantSql>();
+    private final ConcurrentLinkedQueue<Key> insertionOrder = new ConcurrentLinkedQueue<Key>();
+    private final InstrumentedStatementStats stats = new InstrumentedStatementStats();
+    private final int maxCapacity;
+
+    public TenantSqlCache(int maxCapacity) {
+        this.maxCapacity = Math.max(1, maxCapacity);
+    }
+
+    public TenantSql get(String sql, String shape) {
+        TenantSql tenantSql = cache.get(new Key(sql, shape));
+        if (tenantSql != null) {
+            stats.hit();
+        } else {
+            stats.miss();
+        }
+        return tenantSql;
+    }
+
+    public void put(String sql, String shape, TenantSql tenantSql) {
+        Key key = new Key(sql, shape);
+        if (cache.putIfAbsent(key, tenantSql) != null) {
+            return;
+        }
+        insertionOrder.offer(key);
+        while (cache.size() > maxCapacity) {
+            Key eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            if (cache.remove(eldest) != null) {
+                stats.evict();
+            }
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+        insertionOrder.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public InstrumentedStatementStats getStats() {
+        return stats;
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final String shape;
+        private final int hash;
+
+        private Key(String sql, String shape) {
+            this.sql = sql;
+            this.shape = shape;
+            this.hash = sql.hashCode() * 31 + shape.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && sql.equals(that.sql) && shape.equals(that.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -29,6 +29,14 @@ public class TransformConfig implements Serializable {
 
     private boolean isCount = false;
 
+    private String countColumn;
+
+    /**
+     * remove the left joins which are not referenced by the where clause when count,
+     * it is correct only when the joined table has at most one row for a row of the main table
+     */
+    private boolean countRemoveLeftJoins = false;
+
     private boolean isMultiTenant = false;
 
     private List<WhereTransformConfig> whereInstrumentConfigs;
@@ -52,6 +60,12 @@ public class TransformConfig implements Serializable {
         if (isCount != that.isCount) {
             return false;
         }
+        if (countRemoveLeftJoins != that.countRemoveLeftJoins) {
+            return false;
+        }
+        if (!Objects.equals(countColumn, that.countColumn)) {
+            return false;
+        }
         if (isMultiTenant != that.isMultiTenant) {
             return false;
         }
@@ -84,6 +98,8 @@ public class TransformConfig implements Serializable {
     public int hashCode() {
         return new HashCodeBuilder()
                 .with(this.isCount)
+                .with(this.countColumn)
+                .with(this.countRemoveLeftJoins)
                 .with(this.isMultiTenant)
                 .with(this.likeEscaped)
                 .with(this.likeEscaper)
@@ -143,6 +159,22 @@ public class TransformConfig implements Serializable {
         isCount = count;
     }
 
+    public String getCountColumn() {
+        return countColumn;
+    }
+
+    public void setCountColumn(String countColumn) {
+        this.countColumn = countColumn;
+    }
+
+    public boolean isCountRemoveLeftJoins() {
+        return countRemoveLeftJoins;
+    }
+
+    public void setCountRemoveLeftJoins(boolean countRemoveLeftJoins) {
+        this.countRemoveLeftJoins = countRemoveLeftJoins;
+    }
+
     public boolean isMultiTenant() {
         return isMultiTenant;
     }
@@ -0,0 +1,10 @@
+package com.jn.sqlhelper.dialect.instrument.count;
+
+import com.jn.sqlhelper.dialect.instrument.ClauseTransformer;
+
+/**
+ * Rewrite a select statement to a count statement without wrapping it in a sub query.
+ * If the statement can't be rewritten safely, the statement wrapper should be kept unchanged.
+ */
+public interface CountTransformer<Statement> extends ClauseTransformer<Statement> {
+}
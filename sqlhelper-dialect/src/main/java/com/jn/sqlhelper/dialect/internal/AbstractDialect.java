@@ -21,6 +21,7 @@ import com.jn.langx.text.StringTemplates;
 import com.jn.langx.util.Preconditions;
 import com.jn.langx.util.Strings;
 import com.jn.langx.util.reflect.Reflects;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
 import com.jn.sqlhelper.common.ddl.dump.DatabaseLoader;
 import com.jn.sqlhelper.common.ddl.dump.TableGenerator;
 import com.jn.sqlhelper.common.ddl.model.DatabaseDescription;
@@ -36,6 +37,7 @@ import com.jn.sqlhelper.dialect.internal.urlparser.CommonUrlParser;
 import com.jn.sqlhelper.dialect.internal.urlparser.NoopUrlParser;
 import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
 import com.jn.sqlhelper.dialect.likeescaper.LikeEscaper;
+import com.jn.sqlhelper.dialect.pagination.CountEstimator;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
 
 import java.sql.CallableStatement;
@@ -51,6 +53,7 @@ public abstract class AbstractDialect<T extends AbstractDialect> implements Dial
     private UrlParser urlParser;
     private LimitHandler limitHandler;
     private LikeEscaper likeEscaper;
+    private CountEstimator countEstimator;
     private Boolean isUseLimitInVariableMode = null;
 
     private final Properties properties = new Properties();
@@ -113,6 +116,15 @@ public abstract class AbstractDialect<T extends AbstractDialect> implements Dial
         getRealDialect().urlParser = urlParser;
     }
 
+    protected void setCountEstimator(@Nullable CountEstimator countEstimator) {
+        getRealDialect().countEstimator = countEstimator;
+    }
+
+    @Override
+    public CountEstimator getCountEstimator() {
+        return getRealDialect().countEstimator;
+    }
+
     protected void setLikeEscaper(@NonNull LikeEscaper likeEscaper) {
         likeEscaper = likeEscaper == null ? BackslashStyleEscaper.INSTANCE : likeEscaper;
         getRealDialect().likeEscaper = likeEscaper;
@@ -275,6 +287,28 @@ public abstract class AbstractDialect<T extends AbstractDialect> implements Dial
         return delegate == null || delegate.isSupportsBatchSql();
     }
 
+    @Override
+    public MultiRowInsertStyle getMultiRowInsertStyle() {
+        // default is NONE, the dialects declare the style explicitly
+        return delegate == null ? MultiRowInsertStyle.NONE : delegate.getMultiRowInsertStyle();
+    }
+
+    @Override
+    public int getMaxMultiRowInsertRows() {
+        return delegate == null ? 0 : delegate.getMaxMultiRowInsertRows();
+    }
+
+    @Override
+    public int getMaxBindParameters() {
+        return delegate == null ? 0 : delegate.getMaxBindParameters();
+    }
+
+    @Override
+    public boolean isSupportsRowValueComparison() {
+        // default is false, the keyset pagination will use the expanded OR predicates
+        return delegate == null ? false : delegate.isSupportsRowValueComparison();
+    }
+
     @Override
     public List<Character> getLikeKeyChars() {
         return getRealDialect().likeEscaper.getLikeKeyChars();
@@ -32,6 +32,11 @@ public class H2Dialect extends AbstractDialect {
         return true;
     }
 
+    @Override
+    public boolean isSupportsRowValueComparison() {
+        return true;
+    }
+
     @Override
     public boolean isSupportsLimitOffset() {
         return true;
@@ -35,6 +35,11 @@ public class HSQLDialect extends AbstractDialect {
         return true;
     }
 
+    @Override
+    public boolean isSupportsRowValueComparison() {
+        return true;
+    }
+
     @Override
     public boolean isBindLimitParametersFirst() {
         return false;
@@ -19,6 +19,7 @@ import com.jn.langx.annotation.Name;
 import com.jn.sqlhelper.dialect.annotation.Driver;
 import com.jn.sqlhelper.dialect.internal.limit.LimitOnlyLimitHandler;
 import com.jn.sqlhelper.dialect.internal.limit.SkipLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.InformixUrlParser;
 
 /**
@@ -27,6 +28,7 @@ import com.jn.sqlhelper.dialect.internal.urlparser.InformixUrlParser;
 
 @Name("informix")
 @Driver("com.informix.jdbc.IfxDriver")
+@UrlParserClass(InformixUrlParser.class)
 public class InformixDialect extends AbstractDialect {
     public InformixDialect() {
         super();
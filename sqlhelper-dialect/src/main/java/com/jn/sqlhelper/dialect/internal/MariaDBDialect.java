@@ -15,8 +15,10 @@
 
 package com.jn.sqlhelper.dialect.internal;
 
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.MariaDBUrlParser;
 
+@UrlParserClass(MariaDBUrlParser.class)
 public class MariaDBDialect extends MySQLDialect {
     public MariaDBDialect() {
         super();
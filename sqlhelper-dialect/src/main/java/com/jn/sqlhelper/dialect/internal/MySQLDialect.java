@@ -15,13 +15,17 @@
 
 package com.jn.sqlhelper.dialect.internal;
 
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
+import com.jn.sqlhelper.dialect.internal.count.MySQLCountEstimator;
 import com.jn.sqlhelper.dialect.likeescaper.BackslashStyleEscaper;
 import com.jn.sqlhelper.dialect.internal.limit.LimitCommaLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.MySqlUrlParser;
 
 import java.sql.CallableStatement;
 import java.sql.SQLException;
 
+@UrlParserClass(MySqlUrlParser.class)
 public class MySQLDialect extends AbstractDialect {
 
     public MySQLDialect() {
@@ -29,6 +33,7 @@ public class MySQLDialect extends AbstractDialect {
         setUrlParser(new MySqlUrlParser());
         setLimitHandler(new LimitCommaLimitHandler());
         setLikeEscaper(BackslashStyleEscaper.INSTANCE);
+        setCountEstimator(new MySQLCountEstimator());
     }
 
     @Override
@@ -36,6 +41,11 @@ public class MySQLDialect extends AbstractDialect {
         return true;
     }
 
+    @Override
+    public boolean isSupportsRowValueComparison() {
+        return true;
+    }
+
     @Override
     public boolean isSupportsLimitOffset() {
         return true;
@@ -65,4 +75,14 @@ public class MySQLDialect extends AbstractDialect {
     public boolean isSupportsBatchSql() {
         return true;
     }
+
+    @Override
+    public MultiRowInsertStyle getMultiRowInsertStyle() {
+        return MultiRowInsertStyle.VALUES_LIST;
+    }
+
+    @Override
+    public int getMaxBindParameters() {
+        return 65535;
+    }
 }
@@ -17,12 +17,14 @@ package com.jn.sqlhelper.dialect.internal;
 
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
 import com.jn.sqlhelper.dialect.SQLDialectException;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
 import com.jn.sqlhelper.dialect.annotation.Driver;
 import com.jn.sqlhelper.dialect.likeescaper.SlashStyleEscaper;
 import com.jn.sqlhelper.dialect.likeescaper.BackslashStyleEscaper;
 import com.jn.sqlhelper.dialect.internal.limit.AbstractLimitHandler;
 import com.jn.sqlhelper.dialect.internal.limit.LimitHelper;
 import com.jn.sqlhelper.dialect.internal.limit.OracleXLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.OracleUrlParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,7 @@ import java.util.Locale;
 
 
 @Driver("oracle.jdbc.driver.OracleDriver")
+@UrlParserClass(OracleUrlParser.class)
 public class OracleDialect extends AbstractDialect {
     private static final int PARAM_LIST_SIZE_LIMIT = 1000;
 
@@ -107,6 +110,16 @@ public class OracleDialect extends AbstractDialect {
         public boolean isSupportsBatchSql() {
             return true;
         }
+
+        @Override
+        public MultiRowInsertStyle getMultiRowInsertStyle() {
+            return MultiRowInsertStyle.INSERT_ALL;
+        }
+
+        @Override
+        public int getMaxBindParameters() {
+            return 65535;
+        }
     }
 
     private static class Oracle8i9LimitHandler extends AbstractLimitHandler {
@@ -15,8 +15,10 @@
 package com.jn.sqlhelper.dialect.internal;
 
 import com.jn.sqlhelper.dialect.internal.limit.LimitOffsetLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.OscarUrlParser;
 
+@UrlParserClass(OscarUrlParser.class)
 public class OscarDialect extends AbstractDialect {
     public OscarDialect() {
         setUrlParser(new OscarUrlParser());
@@ -15,8 +15,11 @@
 
 package com.jn.sqlhelper.dialect.internal;
 
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
+import com.jn.sqlhelper.dialect.internal.count.PostgreSQLCountEstimator;
 import com.jn.sqlhelper.dialect.likeescaper.BackslashStyleEscaper;
 import com.jn.sqlhelper.dialect.internal.limit.LimitOffsetLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.PostgreSQLUrlParser;
 
 import java.sql.CallableStatement;
@@ -25,6 +28,7 @@ import java.sql.SQLException;
 /**
  * https://www.postgresql.org/docs/current/queries-limit.html
  */
+@UrlParserClass(PostgreSQLUrlParser.class)
 public class PostgreSQLDialect extends AbstractDialect {
 
     public PostgreSQLDialect() {
@@ -32,6 +36,7 @@ public class PostgreSQLDialect extends AbstractDialect {
         setUrlParser(new PostgreSQLUrlParser());
         setLimitHandler(new LimitOffsetLimitHandler());
         setLikeEscaper(BackslashStyleEscaper.NON_DEFAULT_INSTANCE);
+        setCountEstimator(new PostgreSQLCountEstimator());
     }
 
     @Override
@@ -39,6 +44,11 @@ public class PostgreSQLDialect extends AbstractDialect {
         return true;
     }
 
+    @Override
+    public boolean isSupportsRowValueComparison() {
+        return true;
+    }
+
     @Override
     public boolean isSupportsLimitOffset() {
         return true;
@@ -49,6 +59,19 @@ public class PostgreSQLDialect extends AbstractDialect {
         return true;
     }
 
+    @Override
+    public MultiRowInsertStyle getMultiRowInsertStyle() {
+        return MultiRowInsertStyle.VALUES_LIST;
+    }
+
+    /**
+     * the protocol uses a 16-bit parameter count
+     */
+    @Override
+    public int getMaxBindParameters() {
+        return 32767;
+    }
+
     @Override
     public int registerResultSetOutParameter(CallableStatement statement, int col)
             throws SQLException {
@@ -15,13 +15,16 @@
 
 package com.jn.sqlhelper.dialect.internal;
 
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
 import com.jn.sqlhelper.dialect.likeescaper.BackslashStyleEscaper;
 import com.jn.sqlhelper.dialect.internal.limit.OffsetFetchFirstOnlyLimitHandler;
 import com.jn.sqlhelper.dialect.internal.limit.SQLServer2005LimitHandler;
 import com.jn.sqlhelper.dialect.internal.limit.TopLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.SqlServerUrlParser;
 
 
+@UrlParserClass(SqlServerUrlParser.class)
 public class SQLServerDialect extends AbstractTransactSQLDialect {
     private static final int PARAM_LIST_SIZE_LIMIT = 2100;
 
@@ -37,6 +40,27 @@ public class SQLServerDialect extends AbstractTransactSQLDialect {
         return false;
     }
 
+    @Override
+    public MultiRowInsertStyle getMultiRowInsertStyle() {
+        return MultiRowInsertStyle.VALUES_LIST;
+    }
+
+    /**
+     * a table value constructor has at most 1000 rows
+     */
+    @Override
+    public int getMaxMultiRowInsertRows() {
+        return 1000;
+    }
+
+    /**
+     * the sp_executesql uses 2 of them for the statement and the parameter definitions
+     */
+    @Override
+    public int getMaxBindParameters() {
+        return PARAM_LIST_SIZE_LIMIT - 2;
+    }
+
     private static class SQLServer2000Dialect extends AbstractTransactSQLDialect {
         private SQLServer2000Dialect() {
             setLimitHandler(new TopLimitHandler());
@@ -15,6 +15,7 @@
 package com.jn.sqlhelper.dialect.internal;
 
 import com.jn.sqlhelper.dialect.internal.limit.LimitOffsetLimitHandler;
+import com.jn.sqlhelper.dialect.annotation.UrlParserClass;
 import com.jn.sqlhelper.dialect.internal.urlparser.PostgreSQLUrlParser;
 
 import java.sql.CallableStatement;
@@ -23,6 +24,7 @@ import java.sql.SQLException;
 /**
  * https://www.postgresql.org/docs/current/queries-limit.html
  */
+@UrlParserClass(PostgreSQLUrlParser.class)
 public class UxDBDialect extends AbstractDialect {
 
     public UxDBDialect() {
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jn.sqlhelper.dialect.internal.count;
+
+import com.jn.sqlhelper.dialect.pagination.CountEstimator;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * The estimated rows of the outermost select is the product of rows * filtered / 100 of its tables (the rows have the min id),
+ * the derived tables and the sub queries (the rows have greater ids) are ignored.
+ */
+public class MySQLCountEstimator implements CountEstimator {
+
+    @Override
+    public String getEstimateSql(String querySql) {
+        return "EXPLAIN " + querySql;
+    }
+
+    @Override
+    public long estimate(ResultSet resultSet) throws SQLException {
+        boolean hasFiltered = hasColumn(resultSet.getMetaData(), "filtered");
+        long minId = Long.MAX_VALUE;
+        double rows = -1;
+        while (resultSet.next()) {
+            long id = resultSet.getLong("id");
+            if (resultSet.wasNull()) {
+                // the UNION RESULT
+                continue;
+            }
+            double tableRows = resultSet.getDouble("rows");
+            if (resultSet.wasNull()) {
+                continue;
+            }
+            if (hasFiltered) {
+                double filtered = resultSet.getDouble("filtered");
+                if (!resultSet.wasNull()) {
+                    tableRows = tableRows * filtered / 100;
+                }
+            }
+            if (id < minId) {
+                minId = id;
+                rows = tableRows;
+            } else if (id == minId) {
+                rows = rows * tableRows;
+            }
+        }
+        return rows < 0 ? -1 : Math.round(Math.ceil(rows));
+    }
+
+    private static boolean hasColumn(ResultSetMetaData metaData, String column) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jn.sqlhelper.dialect.internal.count;
+
+import com.jn.sqlhelper.dialect.pagination.CountEstimator;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The first line of the EXPLAIN is the top plan node, e.g.:
+ * <pre>
+ * Seq Scan on tenk1  (cost=0.00..483.00 rows=7001 width=244)
+ * </pre>
+ */
+public class PostgreSQLCountEstimator implements CountEstimator {
+    private static final Pattern ROWS_PATTERN = Pattern.compile("\\brows=(\\d+)");
+
+    @Override
+    public String getEstimateSql(String querySql) {
+        return "EXPLAIN " + querySql;
+    }
+
+    @Override
+    public long estimate(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return -1;
+        }
+        String plan = resultSet.getString(1);
+        if (plan == null) {
+            return -1;
+        }
+        Matcher matcher = ROWS_PATTERN.matcher(plan);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
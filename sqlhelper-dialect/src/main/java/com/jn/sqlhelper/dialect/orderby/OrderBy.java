@@ -83,12 +83,60 @@ public class OrderBy implements Serializable, Iterable<OrderByItem> {
 
     @Override
     public int hashCode() {
-        return Pipeline.<OrderByItem>of(items.values()).map(new Function<OrderByItem, Integer>() {
-            @Override
-            public Integer apply(OrderByItem item) {
-                return item.hashCode();
+        long fingerprint = fingerprint();
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    /**
+     * A case insensitive hash of the items, it is consistent with {@link #equals(Object)} and allocates nothing.
+     */
+    public long fingerprint() {
+        long h = 1;
+        for (OrderByItem item : items.values()) {
+            String expression = item.getExpression();
+            if (expression != null) {
+                for (int i = 0; i < expression.length(); i++) {
+                    h = h * 31 + Character.toLowerCase(expression.charAt(i));
+                }
+            }
+            h = h * 31 + (item.getType() == null ? 0 : item.getType().ordinal() + 1);
+        }
+        return h;
+    }
+
+    /**
+     * Same as {@link #equals(Object)}, but does not build the strings
+     */
+    public boolean isSame(OrderBy that) {
+        if (this == that) {
+            return true;
+        }
+        if (that == null || this.items.size() != that.items.size()) {
+            return false;
+        }
+        Iterator<OrderByItem> iter = that.items.values().iterator();
+        for (OrderByItem item : items.values()) {
+            OrderByItem item2 = iter.next();
+            if (item.getType() != item2.getType()) {
+                return false;
+            }
+            String expression = item.getExpression();
+            if (expression == null ? item2.getExpression() != null : !expression.equalsIgnoreCase(item2.getExpression())) {
+                return false;
             }
-        }).sum().intValue();
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the expressions and types, the comparators are not copied
+     */
+    public OrderBy copy() {
+        OrderBy orderBy = new OrderBy();
+        for (OrderByItem item : items.values()) {
+            orderBy.add(new OrderByItem(item.getExpression(), item.getType()));
+        }
+        return orderBy;
     }
 
     public void setComparator(String itemExpression, Comparator comparator) {
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jn.sqlhelper.dialect.pagination;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Estimate the row count of a query with the planner statistics, it is used by {@link CountStrategy#ESTIMATED}
+ */
+public interface CountEstimator {
+    /**
+     * @param querySql the query sql
+     * @return the sql to get the planner statistics, it has the same placeholders as the query sql
+     */
+    String getEstimateSql(String querySql);
+
+    /**
+     * @param resultSet the result set of the estimate sql
+     * @return the estimated row count, -1 if unknown
+     */
+    long estimate(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jn.sqlhelper.dialect.pagination;
+
+/**
+ * How to get the total of a paging request.
+ * <p>
+ * A cached or an estimated total is not exact ({@link PagingResult#isTotalExact()} is false). If the requested page is out of it,
+ * the count sql is executed to get the exact total, so the use last page if page out still works.
+ */
+public enum CountStrategy {
+    /**
+     * execute the count sql every time
+     */
+    EXACT,
+    /**
+     * cache the count result per (sql, parameters) with a ttl, the count sql is executed only if the cache is missed
+     */
+    CACHED,
+    /**
+     * use the planner statistics of the database, fall back to EXACT if the dialect has no {@link CountEstimator}
+     */
+    ESTIMATED
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect.pagination;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.codec.base64.Base64;
+import com.jn.langx.annotation.Nullable;
+import com.jn.langx.util.Strings;
+import com.jn.sqlhelper.common.utils.SqlLexer;
+import com.jn.sqlhelper.dialect.Dialect;
+import com.jn.sqlhelper.dialect.orderby.OrderBy;
+import com.jn.sqlhelper.dialect.orderby.OrderByItem;
+import com.jn.sqlhelper.dialect.orderby.OrderByType;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Keyset (seek) pagination.
+ * <p>
+ * The query is wrapped as a derived table, the page is located with the last seen values of the order by items:
+ * <pre>
+ * SELECT * FROM (original sql without the trailing ORDER BY) sqlhelper_keyset_
+ * WHERE (k1, k2) &gt; (?, ?)
+ * ORDER BY k1, k2
+ * </pre>
+ * The row value comparison is used only if the dialect supports it and all the order by items have the same direction,
+ * else the predicate is expanded to: (k1 &gt; ?) OR (k1 = ? AND k2 &gt; ?).
+ * <p>
+ * The order by items should be the columns (or labels) of the select list, the qualifiers are removed,
+ * and they should be unique together and not null.
+ */
+public class KeysetPaginations {
+    private static final String KEYSET_TABLE_ALIAS = "sqlhelper_keyset_";
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BIG_DECIMAL = 5;
+    private static final byte TYPE_BIG_INTEGER = 6;
+    private static final byte TYPE_BOOLEAN = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 9;
+    private static final byte TYPE_SQL_DATE = 10;
+
+    /**
+     * @return whether the rows of the request are located by the keyset values rather than by the page no
+     */
+    public static boolean isKeysetPaging(@NonNull PagingRequest request) {
+        return request.isKeysetPaging() && !request.isSubqueryPaging() && request.getPageSize() > 0;
+    }
+
+    /**
+     * @return the page no which the rows are located by, a keyset page is always the first page after the keyset values
+     */
+    public static int getLocatedPageNo(@NonNull PagingRequest request) {
+        return isKeysetPaging(request) ? 1 : request.getPageNo();
+    }
+
+    public static int size(@Nullable OrderBy orderBy) {
+        int size = 0;
+        if (orderBy != null) {
+            for (OrderByItem ignored : orderBy) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public static boolean isUseRowValueComparison(@NonNull Dialect dialect, @NonNull OrderBy orderBy) {
+        if (!dialect.isSupportsRowValueComparison() || size(orderBy) < 2) {
+            return false;
+        }
+        Boolean asc = null;
+        for (OrderByItem item : orderBy) {
+            if (asc == null) {
+                asc = isAsc(item);
+            } else if (asc != isAsc(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsc(OrderByItem item) {
+        return item.getType() != OrderByType.DESC;
+    }
+
+    /**
+     * @return the column name of the order by item in the derived table
+     */
+    private static String getColumn(OrderByItem item) {
+        String expression = item.getExpression().trim();
+        int index = expression.lastIndexOf('.');
+        return index >= 0 ? expression.substring(index + 1) : expression;
+    }
+
+    /**
+     * @param hasKeysetValues false if it is the first page
+     * @return the keyset sql without the limit
+     */
+    public static String instrumentKeysetSql(@NonNull String sql, @NonNull OrderBy orderBy, boolean hasKeysetValues, boolean rowValueComparison) {
+        int orderByIndex = SqlLexer.findTrailingOrderBy(sql);
+        if (orderByIndex >= 0) {
+            sql = sql.substring(0, orderByIndex);
+        }
+        StringBuilder builder = new StringBuilder(sql.length() + 128);
+        builder.append("SELECT * FROM (").append(sql.trim()).append(") ").append(KEYSET_TABLE_ALIAS);
+        if (hasKeysetValues) {
+            builder.append(" WHERE ");
+            if (rowValueComparison) {
+                appendRowValuePredicate(builder, orderBy);
+            } else {
+                appendExpandedPredicate(builder, orderBy);
+            }
+        }
+        builder.append(" ORDER BY ");
+        boolean first = true;
+        for (OrderByItem item : orderBy) {
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(getColumn(item)).append(isAsc(item) ? " ASC" : " DESC");
+            first = false;
+        }
+        return builder.toString();
+    }
+
+    private static void appendRowValuePredicate(StringBuilder builder, OrderBy orderBy) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        boolean asc = true;
+        for (OrderByItem item : orderBy) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(getColumn(item));
+            placeholders.append("?");
+            asc = isAsc(item);
+        }
+        builder.append("(").append(columns).append(") ").append(asc ? ">" : "<").append(" (").append(placeholders).append(")");
+    }
+
+    private static void appendExpandedPredicate(StringBuilder builder, OrderBy orderBy) {
+        List<OrderByItem> items = new ArrayList<OrderByItem>();
+        for (OrderByItem item : orderBy) {
+            items.add(item);
+        }
+        builder.append("(");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                builder.append(" OR ");
+            }
+            builder.append("(");
+            for (int j = 0; j < i; j++) {
+                builder.append(getColumn(items.get(j))).append(" = ? AND ");
+            }
+            OrderByItem item = items.get(i);
+            builder.append(getColumn(item)).append(isAsc(item) ? " > ?" : " < ?");
+            builder.append(")");
+        }
+        builder.append(")");
+    }
+
+    /**
+     * @return the parameters of the keyset predicate, with the same order as the placeholders
+     */
+    public static List<Object> getKeysetParameters(@NonNull List<Object> keysetValues, boolean rowValueComparison) {
+        if (rowValueComparison) {
+            return keysetValues;
+        }
+        List<Object> parameters = new ArrayList<Object>();
+        for (int i = 0; i < keysetValues.size(); i++) {
+            for (int j = 0; j <= i; j++) {
+                parameters.add(keysetValues.get(j));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @param rows      the rows of current page
+     * @param selection the row selection of current page
+     * @return the cursor of the next page, null if there is no more rows
+     */
+    @Nullable
+    public static String nextCursor(@Nullable List rows, @NonNull RowSelection selection) {
+        if (rows == null || rows.isEmpty() || !selection.isKeysetPaging()) {
+            return null;
+        }
+        if (selection.getLimit() != null && rows.size() < selection.getLimit()) {
+            return null;
+        }
+        Object lastRow = rows.get(rows.size() - 1);
+        List<Object> values = new ArrayList<Object>();
+        for (OrderByItem item : selection.getKeysetOrderBy()) {
+            values.add(getValue(lastRow, getColumn(item)));
+        }
+        return encodeCursor(values);
+    }
+
+    private static Object getValue(Object row, String column) {
+        if (row == null) {
+            return null;
+        }
+        if (row instanceof Map) {
+            Map map = (Map) row;
+            if (map.containsKey(column)) {
+                return map.get(column);
+            }
+            String property = toCamelCase(column);
+            for (Object entryObject : map.entrySet()) {
+                Map.Entry entry = (Map.Entry) entryObject;
+                String key = entry.getKey() == null ? null : entry.getKey().toString();
+                if (column.equalsIgnoreCase(key) || property.equalsIgnoreCase(key)) {
+                    return entry.getValue();
+                }
+            }
+            throw new IllegalArgumentException("Can't find the keyset column " + column + " in the row");
+        }
+        Field field = findField(row.getClass(), column);
+        if (field == null) {
+            field = findField(row.getClass(), toCamelCase(column));
+        }
+        if (field == null) {
+            throw new IllegalArgumentException("Can't find the keyset column " + column + " in the class " + row.getClass().getName());
+        }
+        try {
+            field.setAccessible(true);
+            return field.get(row);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private static Field findField(Class clazz, String name) {
+        while (clazz != null && clazz != Object.class) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getName().equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return null;
+    }
+
+    private static String toCamelCase(String column) {
+        StringBuilder builder = new StringBuilder(column.length());
+        boolean upper = false;
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c == '_') {
+                upper = builder.length() > 0;
+            } else {
+                builder.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Encode the keyset values to an url safe string. The values are written with their types, not the java serialization.
+     */
+    public static String encodeCursor(@NonNull List<Object> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeShort(values.size());
+            for (Object value : values) {
+                writeValue(output, value);
+            }
+            output.flush();
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+        return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            output.writeByte(TYPE_LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(TYPE_BIG_DECIMAL);
+            output.writeUTF(value.toString());
+        } else if (value instanceof BigInteger) {
+            output.writeByte(TYPE_BIG_INTEGER);
+            output.writeUTF(value.toString());
+        } else if (value instanceof Boolean) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Timestamp) {
+            output.writeByte(TYPE_TIMESTAMP);
+            output.writeLong(((Timestamp) value).getTime());
+            output.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            output.writeByte(TYPE_SQL_DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof Date) {
+            output.writeByte(TYPE_DATE);
+            output.writeLong(((Date) value).getTime());
+        } else {
+            output.writeByte(TYPE_STRING);
+            output.writeUTF(value.toString());
+        }
+    }
+
+    /**
+     * @return the keyset values, empty if the cursor is blank
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public static List<Object> decodeCursor(@Nullable String cursor) {
+        List<Object> values = new ArrayList<Object>();
+        if (Strings.isBlank(cursor)) {
+            return values;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(cursor.trim())));
+        try {
+            int size = input.readShort();
+            for (int i = 0; i < size; i++) {
+                values.add(readValue(input));
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Illegal keyset pagination cursor: " + cursor, ex);
+        }
+        return values;
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return input.readUTF();
+            case TYPE_INTEGER:
+                return input.readInt();
+            case TYPE_LONG:
+                return input.readLong();
+            case TYPE_DOUBLE:
+                return input.readDouble();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(input.readUTF());
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(input.readUTF());
+            case TYPE_BOOLEAN:
+                return input.readBoolean();
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                return timestamp;
+            case TYPE_SQL_DATE:
+                return new java.sql.Date(input.readLong());
+            case TYPE_DATE:
+                return new Date(input.readLong());
+            default:
+                throw new IOException("unknown value type: " + type);
+        }
+    }
+}
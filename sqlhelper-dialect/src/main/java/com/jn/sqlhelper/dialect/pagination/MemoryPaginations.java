@@ -2,15 +2,10 @@ package com.jn.sqlhelper.dialect.pagination;
 
 import com.jn.langx.util.Emptys;
 import com.jn.langx.util.Preconditions;
-import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.collection.NonDistinctTreeSet;
-import com.jn.langx.util.collection.Pipeline;
+import com.jn.langx.util.Throwables;
 import com.jn.langx.util.comparator.ComparableComparator;
-import com.jn.langx.util.comparator.ParallelingComparator;
-import com.jn.langx.util.comparator.ReverseComparator;
 import com.jn.langx.util.function.Functions;
 import com.jn.langx.util.function.Predicate;
-import com.jn.langx.util.reflect.FieldComparator;
 import com.jn.langx.util.reflect.Reflects;
 import com.jn.langx.util.reflect.type.Primitives;
 import com.jn.sqlhelper.dialect.orderby.OrderBy;
@@ -19,23 +14,62 @@ import com.jn.sqlhelper.dialect.orderby.OrderByType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
+ * Paging a collection in memory.
+ * <p>
+ * The sort keys of an element are read once, then the elements are sorted by the keys, the equal elements keep their order.
+ * If a page is in the front part of the collection, only the first (offset + limit) elements are selected with a bounded heap,
+ * so the whole collection is not sorted.
+ * <p>
+ * The fields and comparators of the order by items are resolved once for a (class, order by),
+ * the items which have custom comparators are resolved every time.
+ *
  * @author jinuo.fang
  */
 @SuppressWarnings({"unchecked"})
 public class MemoryPaginations {
     private static final Logger logger = LoggerFactory.getLogger(MemoryPaginations.class);
 
+    /**
+     * the collections which have less elements are filtered in the current thread
+     */
+    public static final int PARALLEL_FILTER_THRESHOLD = 10000;
+
+    /**
+     * at most SORT_PLANS_PER_CLASS order bys of a class are cached, the others are resolved every time
+     */
+    private static final int SORT_PLANS_PER_CLASS = 64;
+    /**
+     * class => (order by => sort plan).
+     * The classes are weak keys, and the plans refer to the fields of the class, so the plans are soft values,
+     * a class (and its class loader) can be collected after it is unloaded.
+     */
+    private static final Map<Class, SoftReference<ConcurrentHashMap<String, SortPlan>>> sortPlans = Collections.synchronizedMap(new WeakHashMap<Class, SoftReference<ConcurrentHashMap<String, SortPlan>>>());
+
     public static <C, E> List<E> paging(Collection<E> list, PagingRequest<C, E> pagingRequest, Predicate<E>... filters) {
+        return paging(list, pagingRequest, null, filters);
+    }
+
+    /**
+     * @param executor if it is not null, and the collection has {@link #PARALLEL_FILTER_THRESHOLD} elements at least,
+     *                 the collection is filtered in parts with the executor
+     */
+    public static <C, E> List<E> paging(Collection<E> list, PagingRequest<C, E> pagingRequest, Executor executor, Predicate<E>... filters) {
         Preconditions.checkNotNull(list);
         Preconditions.checkNotNull(pagingRequest);
 
         // step 1: do filter
         Predicate<E> filter = Emptys.isNotEmpty(filters) ? Functions.allPredicate(filters) : null;
-        List<E> filtered = Collects.asList(filter != null ? Collects.filter(list, filter) : list);
+        List<E> filtered = doFilter(list, filter, executor);
 
         // step 2: build paging result
         PagingResult<E> result = new PagingResult<E>();
@@ -50,73 +84,268 @@ public class MemoryPaginations {
             return rs;
         }
 
-        // step 3: sort
-        List<E> sorted = pagingRequest.needOrderBy() ? doSort(filtered, pagingRequest.getOrderBy()) : filtered;
+        SortPlan sortPlan = pagingRequest.needOrderBy() ? getSortPlan(filtered, pagingRequest.getOrderBy()) : null;
 
-
-        // step 4: do paging
+        // step 3: sort and do paging
         if (pagingRequest.isGetAllRequest()) {
+            List<E> sorted = sortPlan != null ? sortPlan.sort(filtered) : filtered;
             result.setItems(sorted);
             return sorted;
         }
 
+        int offset;
+        int limit;
         if (pagingRequest.isGetAllFromNonZeroOffsetRequest()) {
             int pageSize = 10;
-            int offset = (pagingRequest.getPageNo() - 1) * pageSize;
-            List<E> rs = Collects.emptyArrayList();
-            Pipeline.of(sorted).skip(offset).addTo(rs);
+            offset = (pagingRequest.getPageNo() - 1) * pageSize;
+            limit = Integer.MAX_VALUE;
+        } else {
+            offset = (pagingRequest.getPageNo() - 1) * pagingRequest.getPageSize();
+            limit = pagingRequest.getPageSize();
+        }
+        List<E> rs = new ArrayList<E>();
+        if (offset < 0 || offset >= filtered.size()) {
             result.setItems(rs);
             return rs;
         }
-
-        int offset = (pagingRequest.getPageNo() - 1) * pagingRequest.getPageSize();
-        int limit = pagingRequest.getPageSize();
-        List<E> rs = Collects.emptyArrayList();
-        Pipeline.of(sorted).skip(offset).limit(limit).addTo(rs);
+        int end = (int) Math.min((long) offset + limit, filtered.size());
+        List<E> sorted;
+        if (sortPlan == null) {
+            sorted = filtered;
+        } else if (end <= filtered.size() / 2) {
+            sorted = sortPlan.top(filtered, end);
+        } else {
+            sorted = sortPlan.sort(filtered);
+        }
+        rs.addAll(sorted.subList(offset, end));
         result.setItems(rs);
         return rs;
     }
 
+    private static <E> List<E> doFilter(Collection<E> collection, final Predicate<E> filter, Executor executor) {
+        if (filter == null) {
+            return new ArrayList<E>(collection);
+        }
+        if (executor == null || collection.size() < PARALLEL_FILTER_THRESHOLD) {
+            List<E> filtered = new ArrayList<E>();
+            for (E e : collection) {
+                if (filter.test(e)) {
+                    filtered.add(e);
+                }
+            }
+            return filtered;
+        }
 
-    private static <E> List<E> doSort(Collection<E> collection, OrderBy orderBy) {
-        if (collection.isEmpty() || !orderBy.isValid()) {
-            return Collects.asList(collection);
+        final List<E> elements = collection instanceof RandomAccess ? (List<E>) collection : new ArrayList<E>(collection);
+        int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), elements.size() / (PARALLEL_FILTER_THRESHOLD / 2)));
+        int partSize = (elements.size() + parts - 1) / parts;
+        List<FutureTask<List<E>>> tasks = new ArrayList<FutureTask<List<E>>>(parts);
+        for (int start = 0; start < elements.size(); start += partSize) {
+            final int from = start;
+            final int to = Math.min(start + partSize, elements.size());
+            FutureTask<List<E>> task = new FutureTask<List<E>>(new Callable<List<E>>() {
+                @Override
+                public List<E> call() {
+                    List<E> filtered = new ArrayList<E>();
+                    for (int i = from; i < to; i++) {
+                        E e = elements.get(i);
+                        if (filter.test(e)) {
+                            filtered.add(e);
+                        }
+                    }
+                    return filtered;
+                }
+            });
+            tasks.add(task);
+            executor.execute(task);
         }
-        List<E> list = Collects.asList(collection);
-        Class modelClass = list.get(0).getClass();
-        ParallelingComparator parallelingComparator = new ParallelingComparator();
 
-        int i = 0;
+        // the parts are joined in order
+        List<E> filtered = new ArrayList<E>();
+        try {
+            for (FutureTask<List<E>> task : tasks) {
+                filtered.addAll(task.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw Throwables.wrapAsRuntimeException(ex);
+        } catch (ExecutionException ex) {
+            throw Throwables.wrapAsRuntimeException(ex.getCause());
+        }
+        return filtered;
+    }
+
+    /**
+     * @return null if no any order by item can be used
+     */
+    private static <E> SortPlan getSortPlan(List<E> list, OrderBy orderBy) {
+        if (list.isEmpty() || !orderBy.isValid()) {
+            return null;
+        }
+        Class modelClass = list.get(0).getClass();
+        boolean cacheable = true;
+        StringBuilder key = new StringBuilder();
         for (OrderByItem orderByItem : orderBy) {
-            String fieldName = orderByItem.getExpression();
-            Field field = Reflects.getDeclaredField(modelClass, fieldName);
-            if (field != null) {
-                Comparator comparator = orderByItem.getComparator();
-                if (comparator == null) {
-                    Class fieldClass = field.getType();
-                    if (Comparable.class.isAssignableFrom(Primitives.wrap(fieldClass))) {
-                        comparator = new ComparableComparator();
+            if (orderByItem.getComparator() != null) {
+                cacheable = false;
+                break;
+            }
+            key.append(',').append(orderByItem.getExpression()).append(orderByItem.getType() == OrderByType.DESC ? '-' : '+');
+        }
+        SortPlan sortPlan;
+        if (!cacheable) {
+            sortPlan = SortPlan.compile(modelClass, orderBy);
+        } else {
+            String cacheKey = key.toString();
+            ConcurrentHashMap<String, SortPlan> classSortPlans = getSortPlans(modelClass);
+            sortPlan = classSortPlans.get(cacheKey);
+            if (sortPlan == null) {
+                sortPlan = SortPlan.compile(modelClass, orderBy);
+                if (classSortPlans.size() < SORT_PLANS_PER_CLASS) {
+                    SortPlan existing = classSortPlans.putIfAbsent(cacheKey, sortPlan);
+                    if (existing != null) {
+                        sortPlan = existing;
                     }
                 }
-                if (comparator != null) {
-                    comparator = new FieldComparator(field, comparator);
-                    if (orderByItem.getType() == OrderByType.DESC) {
-                        comparator = new ReverseComparator(comparator);
+            }
+        }
+        return sortPlan.isEmpty() ? null : sortPlan;
+    }
+
+    private static ConcurrentHashMap<String, SortPlan> getSortPlans(Class modelClass) {
+        synchronized (sortPlans) {
+            SoftReference<ConcurrentHashMap<String, SortPlan>> reference = sortPlans.get(modelClass);
+            ConcurrentHashMap<String, SortPlan> classSortPlans = reference == null ? null : reference.get();
+            if (classSortPlans == null) {
+                classSortPlans = new ConcurrentHashMap<String, SortPlan>();
+                sortPlans.put(modelClass, new SoftReference<ConcurrentHashMap<String, SortPlan>>(classSortPlans));
+            }
+            return classSortPlans;
+        }
+    }
+
+    /**
+     * The accessible fields, the comparators and the directions of the order by items of a class.
+     */
+    private static final class SortPlan {
+        private final Field[] fields;
+        private final Comparator[] comparators;
+        private final boolean[] descending;
+
+        private SortPlan(Field[] fields, Comparator[] comparators, boolean[] descending) {
+            this.fields = fields;
+            this.comparators = comparators;
+            this.descending = descending;
+        }
+
+        private static SortPlan compile(Class modelClass, OrderBy orderBy) {
+            List<Field> fields = new ArrayList<Field>();
+            List<Comparator> comparators = new ArrayList<Comparator>();
+            List<Boolean> descending = new ArrayList<Boolean>();
+            for (OrderByItem orderByItem : orderBy) {
+                String fieldName = orderByItem.getExpression();
+                Field field = Reflects.getDeclaredField(modelClass, fieldName);
+                if (field != null) {
+                    Comparator comparator = orderByItem.getComparator();
+                    if (comparator == null) {
+                        Class fieldClass = field.getType();
+                        if (Comparable.class.isAssignableFrom(Primitives.wrap(fieldClass))) {
+                            comparator = new ComparableComparator();
+                        }
+                    }
+                    if (comparator != null) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                        comparators.add(comparator);
+                        descending.add(orderByItem.getType() == OrderByType.DESC);
                     }
-                    parallelingComparator.addComparator(comparator);
-                    i++;
+                } else {
+                    logger.warn("can't find a field [{}] in class [{}]", fieldName, Reflects.getFQNClassName(modelClass));
+                }
+            }
+            boolean[] desc = new boolean[descending.size()];
+            for (int i = 0; i < desc.length; i++) {
+                desc[i] = descending.get(i);
+            }
+            return new SortPlan(fields.toArray(new Field[0]), comparators.toArray(new Comparator[0]), desc);
+        }
+
+        private boolean isEmpty() {
+            return fields.length == 0;
+        }
+
+        private <E> List<E> sort(List<E> list) {
+            SortKey[] keys = new SortKey[list.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = newKey(list.get(i), i);
+            }
+            Arrays.sort(keys, keyComparator);
+            return toList(keys, keys.length);
+        }
+
+        /**
+         * selects the first k elements with a bounded max heap, then sorts them
+         */
+        private <E> List<E> top(List<E> list, int k) {
+            PriorityQueue<SortKey> heap = new PriorityQueue<SortKey>(k, Collections.reverseOrder(keyComparator));
+            for (int i = 0; i < list.size(); i++) {
+                SortKey key = newKey(list.get(i), i);
+                if (heap.size() < k) {
+                    heap.add(key);
+                } else if (keyComparator.compare(key, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(key);
                 }
-            } else {
-                logger.warn("can't find a field [{}] in class [{}]", fieldName, Reflects.getFQNClassName(modelClass));
             }
+            SortKey[] keys = heap.toArray(new SortKey[heap.size()]);
+            Arrays.sort(keys, keyComparator);
+            return toList(keys, keys.length);
+        }
 
+        private SortKey newKey(Object element, int index) {
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                try {
+                    values[i] = fields[i].get(element);
+                } catch (IllegalAccessException ex) {
+                    throw Throwables.wrapAsRuntimeException(ex);
+                }
+            }
+            return new SortKey(element, values, index);
         }
-        if (i > 0) {
-            Set<E> rs = new NonDistinctTreeSet<E>(parallelingComparator);
-            rs.addAll(list);
-            return Collects.asList(rs);
+
+        private static <E> List<E> toList(SortKey[] keys, int length) {
+            List<E> list = new ArrayList<E>(length);
+            for (int i = 0; i < length; i++) {
+                list.add((E) keys[i].element);
+            }
+            return list;
         }
-        return list;
+
+        private final Comparator<SortKey> keyComparator = new Comparator<SortKey>() {
+            @Override
+            public int compare(SortKey key1, SortKey key2) {
+                for (int i = 0; i < comparators.length; i++) {
+                    int delta = descending[i] ? comparators[i].compare(key2.values[i], key1.values[i]) : comparators[i].compare(key1.values[i], key2.values[i]);
+                    if (delta != 0) {
+                        return delta;
+                    }
+                }
+                // the equal elements keep their order
+                return key1.index < key2.index ? -1 : (key1.index == key2.index ? 0 : 1);
+            }
+        };
     }
 
+    private static final class SortKey {
+        private final Object element;
+        private final Object[] values;
+        private final int index;
+
+        private SortKey(Object element, Object[] values, int index) {
+            this.element = element;
+            this.values = values;
+            this.index = index;
+        }
+    }
 }
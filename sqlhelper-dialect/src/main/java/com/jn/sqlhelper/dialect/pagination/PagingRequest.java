@@ -20,11 +20,18 @@ import com.jn.easyjson.core.exclusion.IgnoreAnnotationExclusion;
 import com.jn.langx.util.collection.Collects;
 import com.jn.sqlhelper.dialect.SelectRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PagingRequest<C, E> extends SelectRequest<PagingRequest<C, E>, PagingRequestContext<C, E>> {
     private static final long serialVersionUID = 1L;
     private Boolean count = null;
     private String countColumn;
     private Boolean cacheCount = null;
+    /**
+     * null: use the global configuration
+     */
+    private CountStrategy countStrategy;
 
     // begin 1
     private int pageNo = 1;
@@ -40,6 +47,12 @@ public class PagingRequest<C, E> extends SelectRequest<PagingRequest<C, E>, Pagi
     private String subqueryPagingStartFlag;
     private String subqueryPagingEndFlag;
 
+    /**
+     * keyset (seek) pagination, the page is located by the last seen values of the order by items, not by the offset
+     */
+    private boolean isKeysetPaging = false;
+    private List<Object> keysetValues;
+
 
     /**
      * Nothing to do, will not do query, the result is empty list
@@ -126,6 +139,7 @@ public class PagingRequest<C, E> extends SelectRequest<PagingRequest<C, E>, Pagi
     public void clear(boolean clearResult) {
         super.clear();
         count = null;
+        countStrategy = null;
         useLastPageIfPageOut = null;
         setCtx(null);
         if (clearResult) {
@@ -154,6 +168,15 @@ public class PagingRequest<C, E> extends SelectRequest<PagingRequest<C, E>, Pagi
         return this;
     }
 
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    public PagingRequest<C, E> setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+        return this;
+    }
+
     public PagingRequest<C, E> setCtx(PagingRequestContext ctx) {
         return (PagingRequest) setContext(ctx);
     }
@@ -212,6 +235,45 @@ public class PagingRequest<C, E> extends SelectRequest<PagingRequest<C, E>, Pagi
         return subqueryPaging(true).setSubqueryPagingStartFlag(subQueryPagingStartFlag).setSubqueryPagingEndFlag(subQueryPagingEndFlag);
     }
 
+    public boolean isKeysetPaging() {
+        return isKeysetPaging;
+    }
+
+    /**
+     * @return the last seen values of the order by items, empty if it is the first page
+     */
+    public List<Object> getKeysetValues() {
+        return keysetValues;
+    }
+
+    /**
+     * Use the keyset pagination, the order by is required.
+     *
+     * @param lastValues the last seen values of the order by items, with the same order. Empty for the first page
+     */
+    public PagingRequest<C, E> keyset(Object... lastValues) {
+        this.isKeysetPaging = true;
+        List<Object> values = new ArrayList<Object>();
+        if (lastValues != null) {
+            for (Object value : lastValues) {
+                values.add(value);
+            }
+        }
+        this.keysetValues = values;
+        return this;
+    }
+
+    /**
+     * Use the keyset pagination with a cursor.
+     *
+     * @param cursor the {@link PagingResult#getNextCursor()} of the previous page, null or empty for the first page
+     */
+    public PagingRequest<C, E> keysetCursor(String cursor) {
+        this.isKeysetPaging = true;
+        this.keysetValues = KeysetPaginations.decodeCursor(cursor);
+        return this;
+    }
+
     @Override
     public String toString() {
         return JSONBuilderProvider.create().serializeNulls(true).prettyFormat(true).addSerializationExclusion(new IgnoreAnnotationExclusion()).build().toJson(this);
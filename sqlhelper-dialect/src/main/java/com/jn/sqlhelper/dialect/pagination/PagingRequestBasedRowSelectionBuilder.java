@@ -17,6 +17,8 @@ package com.jn.sqlhelper.dialect.pagination;
 
 import com.jn.sqlhelper.dialect.conf.Settings;
 
+import java.util.List;
+
 public class PagingRequestBasedRowSelectionBuilder implements RowSelectionBuilder<PagingRequest> {
     private int defaultPageSize = Settings.getInstance().getPageSize();
 
@@ -31,6 +33,19 @@ public class PagingRequestBasedRowSelectionBuilder implements RowSelectionBuilde
             int pageNo = request.getPageNo();
             long offset = 0L;
             int limit = request.getPageSize();
+            if (KeysetPaginations.isKeysetPaging(request)) {
+                if (!request.needOrderBy()) {
+                    throw new IllegalArgumentException("The keyset pagination requires the order by");
+                }
+                List<Object> keysetValues = request.getKeysetValues();
+                if (keysetValues != null && !keysetValues.isEmpty() && keysetValues.size() != KeysetPaginations.size(request.getOrderBy())) {
+                    throw new IllegalArgumentException("The keyset values do not match the order by: " + request.getOrderBy());
+                }
+                rowSelection.setKeysetOrderBy(request.getOrderBy());
+                rowSelection.setKeysetValues(keysetValues);
+                // the page is located by the keyset values
+                pageNo = KeysetPaginations.getLocatedPageNo(request);
+            }
             if (request.isGetAllFromNonZeroOffsetRequest()) {
                 offset = (pageNo - 1) * getDefaultPageSize();
                 limit = Integer.MAX_VALUE;
@@ -21,7 +21,15 @@ public class PagingResult<E> {
     private int pageNo;
     private int pageSize;
     private long total;
+    /**
+     * false if the total is a cached or estimated value
+     */
+    private boolean totalExact = true;
     private List<E> items;
+    /**
+     * the cursor of the next page for the keyset pagination, null if there is no more data
+     */
+    private String nextCursor;
 
     public int getPageNo() {
         return this.pageNo;
@@ -50,6 +58,15 @@ public class PagingResult<E> {
         return this;
     }
 
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public PagingResult<E> setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+        return this;
+    }
+
     public List<E> getItems() {
         return this.items;
     }
@@ -59,6 +76,19 @@ public class PagingResult<E> {
         return this;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public PagingResult<E> setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
     public int getMaxPage() {
         return Long.valueOf(getMaxPageCount(pageSize)).intValue();
     }
@@ -15,12 +15,21 @@
 
 package com.jn.sqlhelper.dialect.pagination;
 
+import com.jn.sqlhelper.dialect.orderby.OrderBy;
+
+import java.util.List;
+
 public final class RowSelection {
     private Long offset;
     private Integer limit;
     private Integer timeout;
     private Integer fetchSize;
     private Integer maxRows = -1;
+    /**
+     * keyset pagination: the order by and the last seen values of the order by items
+     */
+    private OrderBy keysetOrderBy;
+    private List<Object> keysetValues;
 
     public Long getOffset() {
         return this.offset;
@@ -73,4 +82,24 @@ public final class RowSelection {
     public void setMaxRows(Integer maxRows) {
         this.maxRows = maxRows;
     }
+
+    public boolean isKeysetPaging() {
+        return keysetOrderBy != null;
+    }
+
+    public OrderBy getKeysetOrderBy() {
+        return keysetOrderBy;
+    }
+
+    public void setKeysetOrderBy(OrderBy keysetOrderBy) {
+        this.keysetOrderBy = keysetOrderBy;
+    }
+
+    public List<Object> getKeysetValues() {
+        return keysetValues;
+    }
+
+    public void setKeysetValues(List<Object> keysetValues) {
+        this.keysetValues = keysetValues;
+    }
 }
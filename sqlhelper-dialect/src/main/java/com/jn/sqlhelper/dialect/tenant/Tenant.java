@@ -12,7 +12,10 @@ import java.util.List;
  * @author huxiongming
  */
 public class Tenant {
-
+    /**
+     * the tenant values are rendered as this string literal first, then they are replaced with the placeholders
+     */
+    static final String PARAMETER_MARKER = "__sqlhelper_tenant_parameter__";
 
     private String tenantColumn;
 
@@ -21,6 +24,12 @@ public class Tenant {
 
     private String singleTenantValues;
 
+    /**
+     * Bind the tenant values as parameters, then the rewritten sql is same for all the tenants:
+     * tenant_col = ? or tenant_col IN (?, ?, ...), the size of the IN list is rounded up to a power of 2.
+     */
+    private boolean parameterized = false;
+
     public void setTenantColumn(String tenantColumn) {
         this.tenantColumn = tenantColumn;
     }
@@ -50,6 +59,14 @@ public class Tenant {
     }
 
 
+    public boolean isParameterized() {
+        return parameterized;
+    }
+
+    public void setParameterized(boolean parameterized) {
+        this.parameterized = parameterized;
+    }
+
     public SQLExpression getTenant(boolean where) {
         if (where && isMultipleTenant) {
             return multipleTenantCondition();
@@ -65,7 +82,7 @@ public class Tenant {
     private SQLExpression singleTenantCondition() {
         EqualExpression equalExpression=new EqualExpression();
         equalExpression.setLeft(new SQLExpressions.ColumnBuilder().column(this.tenantColumn).build());
-        equalExpression.setRight(new StringExpression(this.singleTenantValues));
+        equalExpression.setRight(new StringExpression(parameterized ? PARAMETER_MARKER : this.singleTenantValues));
         return equalExpression;
     }
 
@@ -77,11 +94,89 @@ public class Tenant {
     private SQLExpression multipleTenantCondition() {
         InExpression inExpression = new InExpression();
         inExpression.setLeft(new ColumnExpression(this.tenantColumn));
-        final ListExpression listExpression = new SQLExpressions.ListExpressionBuilder().addValues(this.multipleTenantValues).build();
+        final ListExpression listExpression;
+        if (parameterized) {
+            SQLExpressions.ListExpressionBuilder builder = new SQLExpressions.ListExpressionBuilder();
+            for (int i = 0; i < bucketSize(getNonNullTenantValues().size()); i++) {
+                builder.addValue(PARAMETER_MARKER);
+            }
+            listExpression = builder.build();
+        } else {
+            listExpression = new SQLExpressions.ListExpressionBuilder().addValues(this.multipleTenantValues).build();
+        }
         inExpression.setRight(listExpression);
         return inExpression;
     }
 
+    /**
+     * @return the value of the tenant column in an insert statement
+     */
+    public String getInsertValue() {
+        return parameterized ? PARAMETER_MARKER : singleTenantValues;
+    }
+
+    /**
+     * The parameter values of a parameterized where condition, the multiple values are padded to the bucket size
+     * with the last value.
+     */
+    public List<Object> getParameterValues(boolean where) {
+        List<Object> values = new ArrayList<Object>();
+        if (where && isMultipleTenant) {
+            List<String> tenantValues = getNonNullTenantValues();
+            int size = bucketSize(tenantValues.size());
+            for (int i = 0; i < size; i++) {
+                values.add(tenantValues.isEmpty() ? null : tenantValues.get(Math.min(i, tenantValues.size() - 1)));
+            }
+        } else {
+            values.add(singleTenantValues);
+        }
+        return values;
+    }
+
+    /**
+     * @return the shape of a parameterized condition, the rewritten sqls of a same shape are same
+     */
+    public String getParameterizedShape(boolean where) {
+        if (where && isMultipleTenant) {
+            return tenantColumn + " in " + bucketSize(getNonNullTenantValues().size());
+        }
+        return tenantColumn + " =";
+    }
+
+    /**
+     * @return the key of the rewritten sqls, the literal values are a part of the shape if it is not parameterized
+     */
+    public String getShape(boolean where) {
+        if (parameterized) {
+            return getParameterizedShape(where);
+        }
+        if (where && isMultipleTenant) {
+            // an insert statement is rewritten with the single value even if it is a multiple tenant
+            return tenantColumn + " in " + multipleTenantValues + ", " + tenantColumn + " = " + singleTenantValues;
+        }
+        return tenantColumn + " = " + singleTenantValues;
+    }
+
+    private List<String> getNonNullTenantValues() {
+        List<String> values = new ArrayList<String>();
+        if (multipleTenantValues != null) {
+            for (String value : multipleTenantValues) {
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int bucketSize(int size) {
+        int bucket = 1;
+        while (bucket < size) {
+            bucket <<= 1;
+        }
+        return bucket;
+    }
+
     @Override
     public String toString() {
         return "_tenant";
@@ -0,0 +1,73 @@
+package com.jn.sqlhelper.dialect.tenant;
+
+import com.jn.sqlhelper.common.utils.SqlLexer;
+
+/**
+ * A sql rewritten for a tenant.
+ * <p>
+ * If the tenant is parameterized, the tenant values are placeholders in the sql,
+ * {@link #getParameterIndexes()} are the indexes (0-based) of them in all the placeholders of the sql.
+ */
+public class TenantSql {
+    private static final int[] NO_PARAMETERS = new int[0];
+    private static final String MARKER_LITERAL = "'" + Tenant.PARAMETER_MARKER + "'";
+
+    private final String sql;
+    private final int[] parameterIndexes;
+
+    public TenantSql(String sql) {
+        this(sql, NO_PARAMETERS);
+    }
+
+    public TenantSql(String sql, int[] parameterIndexes) {
+        this.sql = sql;
+        this.parameterIndexes = parameterIndexes;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int[] getParameterIndexes() {
+        return parameterIndexes;
+    }
+
+    public boolean isParameterized() {
+        return parameterIndexes.length > 0;
+    }
+
+    /**
+     * Replace the tenant markers in a rewritten sql with placeholders, and record the indexes of them.
+     */
+    public static TenantSql parameterize(String rewrittenSql) {
+        SqlLexer lexer = new SqlLexer(rewrittenSql);
+        StringBuilder builder = new StringBuilder(rewrittenSql.length());
+        int[] indexes = new int[4];
+        int tenantParameterCount = 0;
+        int parameterCount = 0;
+        int copied = 0;
+        int type;
+        while ((type = lexer.next()) != SqlLexer.EOF) {
+            if (type == SqlLexer.PARAMETER) {
+                parameterCount++;
+            } else if (type == SqlLexer.STRING && lexer.getTokenEnd() - lexer.getTokenStart() == MARKER_LITERAL.length()
+                    && rewrittenSql.startsWith(MARKER_LITERAL, lexer.getTokenStart())) {
+                builder.append(rewrittenSql, copied, lexer.getTokenStart()).append('?');
+                copied = lexer.getTokenEnd();
+                if (tenantParameterCount == indexes.length) {
+                    int[] newIndexes = new int[indexes.length * 2];
+                    System.arraycopy(indexes, 0, newIndexes, 0, indexes.length);
+                    indexes = newIndexes;
+                }
+                indexes[tenantParameterCount++] = parameterCount++;
+            }
+        }
+        if (tenantParameterCount == 0) {
+            return new TenantSql(rewrittenSql);
+        }
+        builder.append(rewrittenSql, copied, rewrittenSql.length());
+        int[] parameterIndexes = new int[tenantParameterCount];
+        System.arraycopy(indexes, 0, parameterIndexes, 0, tenantParameterCount);
+        return new TenantSql(builder.toString(), parameterIndexes);
+    }
+}
@@ -14,45 +14,103 @@
 
 package com.jn.sqlhelper.dialect.urlparser;
 
-import com.jn.langx.util.Objects;
 import com.jn.langx.util.Preconditions;
-import com.jn.sqlhelper.dialect.Dialect;
 import com.jn.sqlhelper.dialect.DialectRegistry;
 import com.jn.sqlhelper.dialect.internal.urlparser.UnKnownDatabaseInfo;
 import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Finds the url parser with a prefix trie of the url schemas of all the dialects,
+ * the trie is rebuilt when a dialect is registered. Building it doesn't create the lazily registered dialects.
+ * <p>
+ * The parsed results are cached by url, at most {@link #DEFAULT_CACHE_CAPACITY} results are kept, the oldest one will be evicted.
+ */
 public class JdbcUrlParser {
     private static final Logger logger = LoggerFactory.getLogger(JdbcUrlParser.class);
+    public static final int DEFAULT_CACHE_CAPACITY = 256;
+
     private DialectRegistry dialectRegistry = DialectRegistry.getInstance();
+    private volatile UrlSchemaTrie trie;
+    private volatile int trieVersion = -1;
+    private final ConcurrentHashMap<String, DatabaseInfo> cache = new ConcurrentHashMap<String, DatabaseInfo>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+    private final int cacheCapacity;
+
+    public JdbcUrlParser() {
+        this(DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * @param cacheCapacity 0: disable the cache
+     */
+    public JdbcUrlParser(int cacheCapacity) {
+        this.cacheCapacity = Math.max(0, cacheCapacity);
+    }
 
     public DatabaseInfo parse(final String url) {
         Preconditions.checkNotNull(url);
-        Collection<Dialect> dialects = dialectRegistry.getDialects();
-        UrlParser parser = null;
-
-        for (Dialect dialect : dialects) {
-            if (Objects.isNotNull(dialect.getUrlParser())) {
-                for (String schema : dialect.getUrlParser().getUrlSchemas()) {
-                    if (url.startsWith(schema)) {
-                        parser = dialect.getUrlParser();
-                        break;
-                    }
-                }
-            }
+        UrlSchemaTrie trie = getTrie();
+        DatabaseInfo databaseInfo = cache.get(url);
+        if (databaseInfo != null) {
+            return databaseInfo;
         }
+        UrlParser parser = trie.find(url);
         if (parser != null) {
             try {
-                return parser.parse(url);
+                databaseInfo = parser.parse(url);
             } catch (Exception e) {
                 logger.error(e.getMessage(), e);
                 return UnKnownDatabaseInfo.createUnknownDataBase(url);
             }
         } else {
-            return UnKnownDatabaseInfo.createUnknownDataBase(url);
+            databaseInfo = UnKnownDatabaseInfo.createUnknownDataBase(url);
+        }
+        cache(url, databaseInfo);
+        return databaseInfo;
+    }
+
+    private UrlSchemaTrie getTrie() {
+        int version = dialectRegistry.getVersion();
+        UrlSchemaTrie trie = this.trie;
+        if (trie != null && trieVersion == version) {
+            return trie;
+        }
+        synchronized (this) {
+            if (this.trie != null && trieVersion == version) {
+                return this.trie;
+            }
+            // the parsers of the lazily registered dialects are found without creating the dialects,
+            // a dialect registered after the version was read will make the trie stale
+            trie = new UrlSchemaTrie();
+            for (UrlParser parser : dialectRegistry.getUrlParsers().values()) {
+                for (String schema : parser.getUrlSchemas()) {
+                    trie.put(schema, parser);
+                }
+            }
+            cache.clear();
+            insertionOrder.clear();
+            this.trie = trie;
+            this.trieVersion = version;
+            return trie;
+        }
+    }
+
+    private void cache(String url, DatabaseInfo databaseInfo) {
+        if (cacheCapacity == 0 || cache.putIfAbsent(url, databaseInfo) != null) {
+            return;
+        }
+        insertionOrder.offer(url);
+        while (cache.size() > cacheCapacity) {
+            String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            cache.remove(eldest);
         }
     }
 }
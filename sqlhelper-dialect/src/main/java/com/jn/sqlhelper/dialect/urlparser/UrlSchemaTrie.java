@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.dialect.urlparser;
+
+import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
+
+/**
+ * A prefix trie of the url schemas, it finds the parser of the longest schema those the url starts with.
+ * <p>
+ * It is built once and never changed after that, so it can be shared by the threads.
+ */
+class UrlSchemaTrie {
+    private final Node root = new Node();
+
+    /**
+     * the parser of a same schema is replaced
+     */
+    void put(String schema, UrlParser parser) {
+        Node node = root;
+        for (int i = 0; i < schema.length(); i++) {
+            node = node.getOrAddChild(schema.charAt(i));
+        }
+        node.parser = parser;
+    }
+
+    /**
+     * @return null if no any schema matched
+     */
+    UrlParser find(String url) {
+        Node node = root;
+        UrlParser parser = null;
+        for (int i = 0; i < url.length() && node != null; i++) {
+            node = node.getChild(url.charAt(i));
+            if (node != null && node.parser != null) {
+                parser = node.parser;
+            }
+        }
+        return parser;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private UrlParser parser;
+
+        private Node getChild(char c) {
+            // most nodes have one child
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(char c) {
+            Node child = getChild(c);
+            if (child == null) {
+                child = new Node();
+                int length = keys.length;
+                char[] newKeys = new char[length + 1];
+                Node[] newChildren = new Node[length + 1];
+                System.arraycopy(keys, 0, newKeys, 0, length);
+                System.arraycopy(children, 0, newChildren, 0, length);
+                newKeys[length] = c;
+                newChildren[length] = child;
+                keys = newKeys;
+                children = newChildren;
+            }
+            return child;
+        }
+    }
+}
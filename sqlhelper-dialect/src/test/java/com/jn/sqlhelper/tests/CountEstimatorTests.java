@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.internal.count.MySQLCountEstimator;
+import com.jn.sqlhelper.dialect.internal.count.PostgreSQLCountEstimator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * The result sets are the EXPLAIN outputs of MySQL and PostgreSQL
+ */
+public class CountEstimatorTests {
+    private static final String[] MYSQL_57_COLUMNS = new String[]{"id", "select_type", "table", "partitions", "type", "possible_keys", "key", "key_len", "ref", "rows", "filtered", "Extra"};
+    private static final String[] MYSQL_56_COLUMNS = new String[]{"id", "select_type", "table", "type", "possible_keys", "key", "key_len", "ref", "rows", "Extra"};
+
+    @Test
+    public void testMySQLJoin() throws SQLException {
+        // EXPLAIN SELECT * FROM employees e JOIN salaries s ON e.emp_no = s.emp_no WHERE e.gender = 'M'
+        ResultSet resultSet = newResultSet(MYSQL_57_COLUMNS, new Object[][]{
+                {1L, "SIMPLE", "e", null, "ALL", "PRIMARY", null, null, null, 299113L, 50.00D, "Using where"},
+                {1L, "SIMPLE", "s", null, "ref", "PRIMARY", "PRIMARY", "4", "employees.e.emp_no", 9L, 100.00D, null}
+        });
+        // 299113 * 50% * 9
+        Assert.assertEquals(1346009L, new MySQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testMySQLDerivedTable() throws SQLException {
+        // EXPLAIN SELECT * FROM (SELECT * FROM user WHERE age > 10) t
+        ResultSet resultSet = newResultSet(MYSQL_57_COLUMNS, new Object[][]{
+                {1L, "PRIMARY", "<derived2>", null, "ALL", null, null, null, null, 333L, 100.00D, null},
+                {2L, "DERIVED", "user", null, "ALL", null, null, null, null, 1000L, 33.33D, "Using where"}
+        });
+        Assert.assertEquals(333L, new MySQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testMySQLUnion() throws SQLException {
+        // EXPLAIN SELECT id FROM user UNION SELECT id FROM admin
+        ResultSet resultSet = newResultSet(MYSQL_57_COLUMNS, new Object[][]{
+                {1L, "PRIMARY", "user", null, "index", null, "PRIMARY", "8", null, 120L, 100.00D, "Using index"},
+                {2L, "UNION", "admin", null, "index", null, "PRIMARY", "8", null, 3L, 100.00D, "Using index"},
+                {null, "UNION RESULT", "<union1,2>", null, "ALL", null, null, null, null, null, null, "Using temporary"}
+        });
+        Assert.assertEquals(120L, new MySQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testMySQLWithoutFiltered() throws SQLException {
+        // MySQL 5.6, EXPLAIN SELECT * FROM user WHERE age > 10
+        ResultSet resultSet = newResultSet(MYSQL_56_COLUMNS, new Object[][]{
+                {1L, "SIMPLE", "user", "ALL", null, null, null, null, 1000L, "Using where"}
+        });
+        Assert.assertEquals(1000L, new MySQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testMySQLNoRows() throws SQLException {
+        Assert.assertEquals(-1L, new MySQLCountEstimator().estimate(newResultSet(MYSQL_57_COLUMNS, new Object[0][])));
+    }
+
+    @Test
+    public void testPostgreSQL() throws SQLException {
+        // EXPLAIN SELECT * FROM tenk1 WHERE unique1 < 7000
+        ResultSet resultSet = newResultSet(new String[]{"QUERY PLAN"}, new Object[][]{
+                {"Seq Scan on tenk1  (cost=0.00..483.00 rows=7001 width=244)"},
+                {"  Filter: (unique1 < 7000)"}
+        });
+        Assert.assertEquals(7001L, new PostgreSQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testPostgreSQLJoin() throws SQLException {
+        // EXPLAIN SELECT * FROM tenk1 t1, tenk2 t2 WHERE t1.unique1 < 100 AND t1.unique2 = t2.unique2
+        ResultSet resultSet = newResultSet(new String[]{"QUERY PLAN"}, new Object[][]{
+                {"Hash Join  (cost=230.47..713.98 rows=101 width=488)"},
+                {"  Hash Cond: (t2.unique2 = t1.unique2)"},
+                {"  ->  Seq Scan on tenk2 t2  (cost=0.00..445.00 rows=10000 width=244)"},
+                {"  ->  Hash  (cost=229.20..229.20 rows=101 width=244)"},
+                {"        ->  Bitmap Heap Scan on tenk1 t1  (cost=5.07..229.20 rows=101 width=244)"},
+                {"              Recheck Cond: (unique1 < 100)"},
+                {"              ->  Bitmap Index Scan on tenk1_unique1  (cost=0.00..5.04 rows=101 width=0)"},
+                {"                    Index Cond: (unique1 < 100)"}
+        });
+        Assert.assertEquals(101L, new PostgreSQLCountEstimator().estimate(resultSet));
+    }
+
+    @Test
+    public void testPostgreSQLNoRows() throws SQLException {
+        Assert.assertEquals(-1L, new PostgreSQLCountEstimator().estimate(newResultSet(new String[]{"QUERY PLAN"}, new Object[0][])));
+        Assert.assertEquals(-1L, new PostgreSQLCountEstimator().estimate(newResultSet(new String[]{"QUERY PLAN"}, new Object[][]{{"Result  (cost=0.00..0.01)"}})));
+    }
+
+    /**
+     * an in-memory result set, the columns are found by the index or the label
+     */
+    private static ResultSet newResultSet(final String[] columns, final Object[][] rows) {
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class[]{ResultSetMetaData.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getColumnCount".equals(method.getName())) {
+                    return columns.length;
+                }
+                if ("getColumnLabel".equals(method.getName()) || "getColumnName".equals(method.getName())) {
+                    return columns[(Integer) args[0] - 1];
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[]{ResultSet.class}, new InvocationHandler() {
+            private int row = 0;
+            private boolean wasNull = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                String name = method.getName();
+                if ("next".equals(name)) {
+                    return ++row <= rows.length;
+                }
+                if ("getMetaData".equals(name)) {
+                    return metaData;
+                }
+                if ("wasNull".equals(name)) {
+                    return wasNull;
+                }
+                if (name.startsWith("get") && args != null && args.length == 1) {
+                    Object value = rows[row - 1][index(args[0])];
+                    wasNull = value == null;
+                    if ("getString".equals(name)) {
+                        return value == null ? null : value.toString();
+                    }
+                    if ("getLong".equals(name)) {
+                        return value == null ? 0L : ((Number) value).longValue();
+                    }
+                    if ("getDouble".equals(name)) {
+                        return value == null ? 0D : ((Number) value).doubleValue();
+                    }
+                }
+                throw new UnsupportedOperationException(name);
+            }
+
+            private int index(Object column) throws SQLException {
+                if (column instanceof Integer) {
+                    return (Integer) column - 1;
+                }
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equalsIgnoreCase((String) column)) {
+                        return i;
+                    }
+                }
+                throw new SQLException("unknown column: " + column);
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.Dialect;
+import com.jn.sqlhelper.dialect.DialectRegistry;
+import com.jn.sqlhelper.dialect.internal.urlparser.MySqlUrlParser;
+import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
+import com.jn.sqlhelper.dialect.urlparser.DatabaseInfo;
+import com.jn.sqlhelper.dialect.urlparser.JdbcUrlParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Runs with -Dsqlhelper.dialect.lazyRegistration=true in its own surefire execution.
+ */
+public class DialectRegistryLazyTests {
+
+    @Test
+    public void testLazyRegistration() {
+        Assert.assertTrue(DialectRegistry.isLazyRegistration());
+        DialectRegistry registry = DialectRegistry.getInstance();
+        Dialect mysql = registry.getDialectByName("mysql");
+        Assert.assertNotNull(mysql);
+        Assert.assertSame(mysql, registry.getDialectByName("mysql"));
+        Assert.assertSame(mysql, registry.getDialectByClassName(mysql.getClass().getCanonicalName()));
+        Assert.assertNull(registry.getDialectByName("not_exists_dialect"));
+    }
+
+    @Test
+    public void testUrlParsersDontCreateDialects() throws Exception {
+        DialectRegistry registry = DialectRegistry.getInstance();
+        int lazyDialects = lazyDialectCount();
+        Map<String, UrlParser> parsers = registry.getUrlParsers();
+        Assert.assertEquals(lazyDialects, lazyDialectCount());
+        Assert.assertTrue(parsers.get("mysql") instanceof MySqlUrlParser);
+        Assert.assertTrue(parsers.get("mysql").getUrlSchemas().contains("jdbc:mysql:"));
+    }
+
+    @Test
+    public void testJdbcUrlParserDontCreateDialects() throws Exception {
+        int lazyDialects = lazyDialectCount();
+        DatabaseInfo databaseInfo = new JdbcUrlParser().parse("jdbc:mysql://localhost:3306/test");
+        Assert.assertEquals("mysql", databaseInfo.getDatabaseId());
+        Assert.assertEquals(lazyDialects, lazyDialectCount());
+    }
+
+    @Test
+    public void testGetDialects() throws Exception {
+        DialectRegistry registry = DialectRegistry.getInstance();
+        for (Dialect dialect : registry.getDialects()) {
+            Assert.assertNotNull(dialect);
+        }
+        Assert.assertEquals(0, lazyDialectCount());
+        Assert.assertNotNull(registry.getDialectByName("postgresql"));
+    }
+
+    private static int lazyDialectCount() throws Exception {
+        Field field = DialectRegistry.class.getDeclaredField("lazyDialectClassMap");
+        field.setAccessible(true);
+        return ((Map) field.get(null)).size();
+    }
+}
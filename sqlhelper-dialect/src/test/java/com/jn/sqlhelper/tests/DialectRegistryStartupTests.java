@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.Dialect;
+import com.jn.sqlhelper.dialect.DialectRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The dialects are same whether they are registered eagerly or lazily (-Dsqlhelper.dialect.lazyRegistration=true).
+ */
+public class DialectRegistryStartupTests {
+
+    @Test
+    public void testGetDialectByName() {
+        DialectRegistry registry = DialectRegistry.getInstance();
+        Dialect mysql = registry.getDialectByName("mysql");
+        Assert.assertNotNull(mysql);
+        Assert.assertSame(mysql, registry.getDialectByName("mysql"));
+        Assert.assertNull(registry.getDialectByName("not_exists_dialect"));
+    }
+
+    @Test
+    public void testGetDialects() {
+        DialectRegistry registry = DialectRegistry.getInstance();
+        Dialect mysql = registry.getDialectByName("mysql");
+        Assert.assertTrue(registry.getDialects().contains(mysql));
+        for (Dialect dialect : registry.getDialects()) {
+            Assert.assertNotNull(dialect);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.DialectRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Properties;
+
+public class GuessDatabaseIdTests {
+    private static final String[] PRODUCT_NAMES = new String[]{
+            "MySQL", "PostgreSQL", "Oracle", "H2", "Apache Derby", "MariaDB", "SQLite", "HSQL Database Engine", "DB2/LINUXX8664", "unknown"
+    };
+    private static final String POSTGRE_KEYWORDS = "Postgre";
+
+    private String postgreDatabaseId;
+
+    @Before
+    public void saveMappings() {
+        postgreDatabaseId = DialectRegistry.getVendorDatabaseIdMappings().getProperty(POSTGRE_KEYWORDS);
+    }
+
+    @After
+    public void restoreMappings() {
+        if (postgreDatabaseId == null) {
+            // the matcher is rebuilt since the size of the mappings is changed
+            DialectRegistry.getVendorDatabaseIdMappings().remove(POSTGRE_KEYWORDS);
+        } else {
+            DialectRegistry.setDatabaseId(POSTGRE_KEYWORDS, postgreDatabaseId);
+        }
+    }
+
+    @Test
+    public void testLongestMatchWins() {
+        DialectRegistry.setDatabaseId(POSTGRE_KEYWORDS, "postgresql");
+        Assert.assertEquals("postgresql", DialectRegistry.guessDatabaseId("PostgreSQL 12.1"));
+        Assert.assertEquals("mysql", DialectRegistry.guessDatabaseId("MySQL"));
+        Assert.assertNull(DialectRegistry.guessDatabaseId("unknown"));
+    }
+
+    @Test
+    public void testSameAsScan() {
+        DialectRegistry.setDatabaseId(POSTGRE_KEYWORDS, "postgresql");
+        for (String productName : PRODUCT_NAMES) {
+            Assert.assertEquals(productName, scan(productName), DialectRegistry.guessDatabaseId(productName));
+        }
+    }
+
+    /**
+     * scans all the keywords, the longest one wins, then the first one in the natural order
+     */
+    private static String scan(String productName) {
+        Properties mappings = DialectRegistry.getVendorDatabaseIdMappings();
+        Iterator<Object> iter = mappings.keySet().iterator();
+        productName = productName.toLowerCase();
+        String matched = null;
+        while (iter.hasNext()) {
+            String keywords = iter.next().toString();
+            if (productName.contains(keywords.toLowerCase())) {
+                if (matched == null || keywords.length() > matched.length()
+                        || (keywords.length() == matched.length() && keywords.compareTo(matched) < 0)) {
+                    matched = keywords;
+                }
+            }
+        }
+        return matched == null ? null : matched.toLowerCase();
+    }
+}
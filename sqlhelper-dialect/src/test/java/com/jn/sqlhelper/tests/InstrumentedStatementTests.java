@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.instrument.InstrumentedStatement;
+import com.jn.sqlhelper.dialect.instrument.InstrumentedStatementStats;
+import com.jn.sqlhelper.dialect.orderby.OrderBy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InstrumentedStatementTests {
+
+    @Test
+    public void testVariants() {
+        InstrumentedStatementStats stats = new InstrumentedStatementStats();
+        InstrumentedStatement statement = new InstrumentedStatement(stats);
+        Assert.assertNull(statement.getLimitSql("mysql", true));
+        statement.setLimitSql("mysql", "limit_offset", true);
+        statement.setLimitSql("mysql", "limit", false);
+        statement.setLimitSql("oracle", "rownum", true);
+        Assert.assertEquals("limit_offset", statement.getLimitSql("mysql", true));
+        Assert.assertEquals("limit", statement.getLimitSql("mysql", false));
+        Assert.assertEquals("rownum", statement.getLimitSql("oracle", true));
+        Assert.assertNull(statement.getLimitSql("oracle", false));
+
+        OrderBy orderBy = new OrderBy();
+        orderBy.addAsc("name");
+        orderBy.addDesc("id");
+        statement.setOrderBySql(orderBy, "order_by");
+        // mutating the order by after it is cached does not change the cache
+        orderBy.addAsc("age");
+        OrderBy orderBy2 = new OrderBy();
+        orderBy2.addAsc("NAME");
+        orderBy2.addDesc("ID");
+        Assert.assertEquals(orderBy2.hashCode(), orderBy2.copy().hashCode());
+        Assert.assertEquals("order_by", statement.getOrderBySql(orderBy2));
+        Assert.assertNull(statement.getOrderBySql(orderBy));
+        Assert.assertNull(statement.getOrderByLimitSql(orderBy2, "mysql", true));
+
+        Assert.assertEquals(4, stats.getHitCount());
+        Assert.assertEquals(4, stats.getMissCount());
+        Assert.assertEquals(0, stats.getEvictionCount());
+    }
+
+    @Test
+    public void testEviction() {
+        InstrumentedStatementStats stats = new InstrumentedStatementStats();
+        InstrumentedStatement statement = new InstrumentedStatement(stats);
+        for (int i = 0; i < 40; i++) {
+            statement.setLimitSql("dialect" + i, "sql" + i, true);
+        }
+        Assert.assertEquals(8, stats.getEvictionCount());
+        Assert.assertNull(statement.getLimitSql("dialect0", true));
+        Assert.assertEquals("sql39", statement.getLimitSql("dialect39", true));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Throwable {
+        final InstrumentedStatement statement = new InstrumentedStatement(new InstrumentedStatementStats());
+        final String[] dialects = new String[]{"mysql", "oracle", "postgresql", "h2"};
+        final Throwable[] errors = new Throwable[1];
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 10000; i++) {
+                            String dialect = dialects[i % dialects.length];
+                            String sql = statement.getLimitSql(dialect, true);
+                            if (sql == null) {
+                                statement.setLimitSql(dialect, dialect + "_limit", true);
+                            } else if (!sql.equals(dialect + "_limit")) {
+                                throw new IllegalStateException(sql);
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        errors[0] = ex;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(errors[0]);
+    }
+}
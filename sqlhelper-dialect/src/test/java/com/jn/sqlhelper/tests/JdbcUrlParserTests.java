@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.Dialect;
+import com.jn.sqlhelper.dialect.DialectRegistry;
+import com.jn.sqlhelper.dialect.internal.urlparser.UnKnownDatabaseInfo;
+import com.jn.sqlhelper.dialect.internal.urlparser.UrlParser;
+import com.jn.sqlhelper.dialect.urlparser.DatabaseInfo;
+import com.jn.sqlhelper.dialect.urlparser.JdbcUrlParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JdbcUrlParserTests {
+    private static final String[] URLS = new String[]{
+            "jdbc:mysql://localhost:3306/test?useUnicode=true&characterEncoding=utf8",
+            "jdbc:mysql:loadbalance://host1:3306,host2:3306/test",
+            "jdbc:mariadb://localhost:3306/test",
+            "jdbc:postgresql://localhost:5432/test",
+            "jdbc:oracle:thin:@localhost:1521:orcl",
+            "jdbc:sqlserver://localhost:1433;databaseName=test",
+            "jdbc:jtds:sqlserver://localhost:1433/test",
+            "jdbc:h2:mem:test",
+            "jdbc:unknown://localhost/test"
+    };
+
+    @Test
+    public void testParse() {
+        JdbcUrlParser parser = new JdbcUrlParser();
+        for (String url : URLS) {
+            DatabaseInfo databaseInfo = parser.parse(url);
+            Assert.assertEquals(url, legacyParse(url).getDatabaseId(), databaseInfo.getDatabaseId());
+            Assert.assertSame(databaseInfo, parser.parse(url));
+        }
+    }
+
+    @Test
+    public void testParseUncached() {
+        JdbcUrlParser parser = new JdbcUrlParser(0);
+        for (String url : URLS) {
+            Assert.assertEquals(url, legacyParse(url).getDatabaseId(), parser.parse(url).getDatabaseId());
+        }
+    }
+
+    /**
+     * the parser before the trie: the last matched dialect wins
+     */
+    private static DatabaseInfo legacyParse(String url) {
+        UrlParser parser = null;
+        for (Dialect dialect : DialectRegistry.getInstance().getDialects()) {
+            if (dialect.getUrlParser() != null) {
+                for (String schema : dialect.getUrlParser().getUrlSchemas()) {
+                    if (url.startsWith(schema)) {
+                        parser = dialect.getUrlParser();
+                        break;
+                    }
+                }
+            }
+        }
+        if (parser == null) {
+            return UnKnownDatabaseInfo.createUnknownDataBase(url);
+        }
+        try {
+            return parser.parse(url);
+        } catch (Exception ex) {
+            return UnKnownDatabaseInfo.createUnknownDataBase(url);
+        }
+    }
+}
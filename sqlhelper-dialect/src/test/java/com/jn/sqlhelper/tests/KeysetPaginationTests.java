@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.orderby.OrderBy;
+import com.jn.sqlhelper.dialect.pagination.KeysetPaginations;
+import com.jn.sqlhelper.dialect.pagination.PagingRequest;
+import com.jn.sqlhelper.dialect.pagination.PagingRequestBasedRowSelectionBuilder;
+import com.jn.sqlhelper.dialect.pagination.RowSelection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.*;
+
+public class KeysetPaginationTests {
+    private static final String SQL = "select u.id, u.create_time from user u where u.age > ? order by u.name";
+
+    @Test
+    public void testRowValuePredicate() {
+        OrderBy orderBy = new OrderBy();
+        orderBy.addDesc("u.create_time");
+        orderBy.addDesc("u.id");
+        String sql = KeysetPaginations.instrumentKeysetSql(SQL, orderBy, true, true);
+        Assert.assertEquals("SELECT * FROM (select u.id, u.create_time from user u where u.age > ?) sqlhelper_keyset_ WHERE (create_time, id) < (?, ?) ORDER BY create_time DESC, id DESC", sql);
+        Assert.assertEquals(Arrays.<Object>asList(1, 2), KeysetPaginations.getKeysetParameters(Arrays.<Object>asList(1, 2), true));
+    }
+
+    @Test
+    public void testExpandedPredicate() {
+        OrderBy orderBy = new OrderBy();
+        orderBy.addAsc("create_time");
+        orderBy.addDesc("id");
+        String sql = KeysetPaginations.instrumentKeysetSql(SQL, orderBy, true, false);
+        Assert.assertEquals("SELECT * FROM (select u.id, u.create_time from user u where u.age > ?) sqlhelper_keyset_ WHERE ((create_time > ?) OR (create_time = ? AND id < ?)) ORDER BY create_time ASC, id DESC", sql);
+        Assert.assertEquals(Arrays.<Object>asList(1, 1, 2), KeysetPaginations.getKeysetParameters(Arrays.<Object>asList(1, 2), false));
+
+        // the first page
+        sql = KeysetPaginations.instrumentKeysetSql(SQL, orderBy, false, false);
+        Assert.assertEquals("SELECT * FROM (select u.id, u.create_time from user u where u.age > ?) sqlhelper_keyset_ ORDER BY create_time ASC, id DESC", sql);
+    }
+
+    @Test
+    public void testCursor() {
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        timestamp.setNanos(123456789);
+        List<Object> values = Arrays.<Object>asList(1, 2L, "name", null, new BigDecimal("3.14"), timestamp, true);
+        String cursor = KeysetPaginations.encodeCursor(values);
+        // url safe and not padded
+        Assert.assertTrue(cursor, cursor.matches("[A-Za-z0-9_-]+"));
+        Assert.assertEquals(values, KeysetPaginations.decodeCursor(cursor));
+        Assert.assertTrue(KeysetPaginations.decodeCursor(null).isEmpty());
+    }
+
+    @Test
+    public void testLocatedPageNo() {
+        OrderBy orderBy = new OrderBy();
+        orderBy.addAsc("id");
+        PagingRequest request = new PagingRequest().limit(5, 10);
+        request.setOrderBy(orderBy);
+        Assert.assertEquals(5, KeysetPaginations.getLocatedPageNo(request));
+
+        // a keyset page is never out of the total pages, whatever the page no is
+        request.keyset(100);
+        Assert.assertEquals(1, KeysetPaginations.getLocatedPageNo(request));
+        Assert.assertEquals(0L, new PagingRequestBasedRowSelectionBuilder().build(request).getOffset().longValue());
+    }
+
+    @Test
+    public void testNextCursor() {
+        OrderBy orderBy = new OrderBy();
+        orderBy.addAsc("u.create_time");
+        orderBy.addAsc("u.id");
+        PagingRequest request = new PagingRequest().limit(1, 2);
+        request.setOrderBy(orderBy);
+        request.keyset();
+        RowSelection selection = new PagingRequestBasedRowSelectionBuilder().build(request);
+        Assert.assertTrue(selection.isKeysetPaging());
+        Assert.assertEquals(0L, selection.getOffset().longValue());
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        rows.add(row(1, 100L));
+        Assert.assertNull(KeysetPaginations.nextCursor(rows, selection));
+        rows.add(row(2, 200L));
+        String cursor = KeysetPaginations.nextCursor(rows, selection);
+        Assert.assertEquals(Arrays.<Object>asList(200L, 2), KeysetPaginations.decodeCursor(cursor));
+
+        request.keysetCursor(cursor);
+        selection = new PagingRequestBasedRowSelectionBuilder().build(request);
+        Assert.assertEquals(Arrays.<Object>asList(200L, 2), selection.getKeysetValues());
+    }
+
+    private static Map<String, Object> row(int id, long createTime) {
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("ID", id);
+        row.put("CREATE_TIME", createTime);
+        return row;
+    }
+}
@@ -1,18 +1,33 @@
 package com.jn.sqlhelper.tests;
 
 import com.jn.langx.util.collection.Collects;
+import com.jn.langx.util.collection.NonDistinctTreeSet;
+import com.jn.langx.util.collection.Pipeline;
+import com.jn.langx.util.comparator.ComparableComparator;
+import com.jn.langx.util.comparator.ParallelingComparator;
+import com.jn.langx.util.comparator.ReverseComparator;
 import com.jn.langx.util.function.Consumer;
 import com.jn.langx.util.function.Predicate;
+import com.jn.langx.util.reflect.FieldComparator;
+import com.jn.langx.util.reflect.Reflects;
 import com.jn.sqlhelper.dialect.orderby.OrderBy;
+import com.jn.sqlhelper.dialect.orderby.OrderByItem;
+import com.jn.sqlhelper.dialect.orderby.OrderByType;
 import com.jn.sqlhelper.dialect.orderby.ProgramStyleOrderByBuilder;
 import com.jn.sqlhelper.dialect.orderby.SymbolStyleOrderByBuilder;
 import com.jn.sqlhelper.dialect.pagination.MemoryPaginations;
 import com.jn.sqlhelper.dialect.pagination.PagingRequest;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MemoryPaginationsTests {
 
@@ -206,6 +221,80 @@ public class MemoryPaginationsTests {
     }
 
 
+    @Test
+    public void testSameAsTreeSetSort() {
+        // the parallel filter is used for 20000 persons
+        List<Person> persons = newPersons(20000);
+        OrderBy orderBy = SymbolStyleOrderByBuilder.MATH_SYMBOL_ORDER_BY_BUILDER.build("-age, +id");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int pageNo : new int[]{1, 2, 100, 600, 800, 1300, 1500}) {
+                PagingRequest pagingRequest = new PagingRequest();
+                pagingRequest.limit(pageNo, 10);
+                pagingRequest.setOrderBy(orderBy);
+                List<Person> expected = legacyPaging(persons, pagingRequest, AGE_FILTER);
+                Assert.assertEquals(expected, MemoryPaginations.paging(persons, pagingRequest, AGE_FILTER));
+                Assert.assertEquals(expected, MemoryPaginations.paging(persons, pagingRequest, executor, AGE_FILTER));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSortPlansOfOrderBys() {
+        List<Person> persons = newPersons(2000);
+        for (String orderBy : new String[]{"-age, +name, +id", "+age, -name, +id", "-age, +name, +id"}) {
+            PagingRequest pagingRequest = new PagingRequest();
+            pagingRequest.limit(1, 10);
+            pagingRequest.setOrderBy(SymbolStyleOrderByBuilder.MATH_SYMBOL_ORDER_BY_BUILDER.build(orderBy));
+            Assert.assertEquals(legacyPaging(persons, pagingRequest, AGE_FILTER), MemoryPaginations.paging(persons, pagingRequest, AGE_FILTER));
+        }
+    }
+
+    private static final Predicate<Person> AGE_FILTER = new Predicate<Person>() {
+        @Override
+        public boolean test(Person person) {
+            return person.getAge() > 30;
+        }
+    };
+
+    private static List<Person> newPersons(int count) {
+        Random random = new Random(10);
+        List<Person> persons = new ArrayList<Person>(count);
+        for (int i = 0; i < count; i++) {
+            Person person = new Person();
+            person.setId("id_" + i);
+            person.setName("name_" + Math.abs(random.nextInt(1000)));
+            person.setAge(Math.abs(random.nextInt(100)));
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    /**
+     * the paging before the top k selection: sorts all the filtered elements with a tree set
+     */
+    private static List<Person> legacyPaging(List<Person> persons, PagingRequest pagingRequest, Predicate<Person> filter) {
+        List<Person> filtered = Collects.asList(Collects.filter(persons, filter));
+        ParallelingComparator parallelingComparator = new ParallelingComparator();
+        for (Object item : pagingRequest.getOrderBy()) {
+            OrderByItem orderByItem = (OrderByItem) item;
+            Field field = Reflects.getDeclaredField(Person.class, orderByItem.getExpression());
+            Comparator comparator = new FieldComparator(field, new ComparableComparator());
+            if (orderByItem.getType() == OrderByType.DESC) {
+                comparator = new ReverseComparator(comparator);
+            }
+            parallelingComparator.addComparator(comparator);
+        }
+        NonDistinctTreeSet<Person> sorted = new NonDistinctTreeSet<Person>(parallelingComparator);
+        sorted.addAll(filtered);
+        int offset = (pagingRequest.getPageNo() - 1) * pagingRequest.getPageSize();
+        List<Person> rs = Collects.emptyArrayList();
+        Pipeline.of(sorted).skip(offset).limit(pagingRequest.getPageSize()).addTo(rs);
+        return rs;
+    }
+
     public void test() {
 
     }
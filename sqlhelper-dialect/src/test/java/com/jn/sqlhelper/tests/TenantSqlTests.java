@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.tests;
+
+import com.jn.sqlhelper.dialect.tenant.Tenant;
+import com.jn.sqlhelper.dialect.tenant.TenantSql;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class TenantSqlTests {
+
+    @Test
+    public void testParameterize() {
+        String marker = "'__sqlhelper_tenant_parameter__'";
+        TenantSql tenantSql = TenantSql.parameterize("SELECT a, ? FROM t WHERE t.tenant IN (" + marker + ", " + marker + ") AND x = ? AND y = 'marker'");
+        Assert.assertEquals("SELECT a, ? FROM t WHERE t.tenant IN (?, ?) AND x = ? AND y = 'marker'", tenantSql.getSql());
+        Assert.assertArrayEquals(new int[]{1, 2}, tenantSql.getParameterIndexes());
+
+        tenantSql = TenantSql.parameterize("SELECT a FROM t WHERE x = ?");
+        Assert.assertFalse(tenantSql.isParameterized());
+    }
+
+    @Test
+    public void testBucketedValues() {
+        Tenant tenant = new Tenant();
+        tenant.setTenantColumn("tenant_id");
+        tenant.setParameterized(true);
+        tenant.setMultipleTenant(true);
+        tenant.setMultipleTenantValues(Arrays.asList("a", "b", "c"));
+        Assert.assertEquals("tenant_id in 4", tenant.getParameterizedShape(true));
+        Assert.assertEquals(Arrays.<Object>asList("a", "b", "c", "c"), tenant.getParameterValues(true));
+
+        tenant.setMultipleTenantValues(Arrays.asList("d", "e", "f", "g"));
+        Assert.assertEquals("tenant_id in 4", tenant.getParameterizedShape(true));
+
+        tenant.setSingleTenantValues("a");
+        Assert.assertEquals(Arrays.<Object>asList("a"), tenant.getParameterValues(false));
+    }
+}
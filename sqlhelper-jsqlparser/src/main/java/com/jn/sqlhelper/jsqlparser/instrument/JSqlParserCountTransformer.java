@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.jsqlparser.instrument;
+
+import com.jn.langx.annotation.NonNull;
+import com.jn.langx.lifecycle.InitializationException;
+import com.jn.langx.util.Emptys;
+import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.Strings;
+import com.jn.sqlhelper.dialect.instrument.AbstractClauseTransformer;
+import com.jn.sqlhelper.dialect.instrument.TransformConfig;
+import com.jn.sqlhelper.dialect.instrument.count.CountTransformer;
+import com.jn.sqlhelper.dialect.sqlparser.SQLParseException;
+import com.jn.sqlhelper.dialect.sqlparser.SqlStatementWrapper;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rewrite the select list of a plain select to count(x) directly.
+ * <p>
+ * The statement is kept unchanged if it has any of: DISTINCT, GROUP BY, HAVING, UNION, LIMIT, TOP, FETCH, FOR UPDATE,
+ * INTO, a function (aggregate or window function) or a placeholder in the select list, a placeholder in the ORDER BY clause.
+ * <p>
+ * The ORDER BY clauses of the statement and of the sub queries in the FROM clause (which has no limit) are removed.
+ * If {@link TransformConfig#isCountRemoveLeftJoins()}, the LEFT JOINs which are not referenced by the WHERE clause
+ * or the other joins are removed too.
+ */
+public class JSqlParserCountTransformer extends AbstractClauseTransformer<Statement> implements CountTransformer<Statement> {
+
+    @Override
+    public void init() throws InitializationException {
+
+    }
+
+    @Override
+    public SqlStatementWrapper<Statement> transform(@NonNull SqlStatementWrapper<Statement> sw, @NonNull TransformConfig config) {
+        Preconditions.checkNotNull(sw);
+        Preconditions.checkNotNull(config);
+        Statement statement = sw.get();
+        if (!(statement instanceof Select)) {
+            return sw;
+        }
+        SelectBody selectBody = ((Select) statement).getSelectBody();
+        if (!(selectBody instanceof PlainSelect)) {
+            return sw;
+        }
+        PlainSelect plainSelect = (PlainSelect) selectBody;
+        if (!isCountable(plainSelect)) {
+            return sw;
+        }
+        try {
+            plainSelect.setOrderByElements(null);
+            removeOrderByInSubSelect(plainSelect.getFromItem());
+            if (Emptys.isNotEmpty(plainSelect.getJoins())) {
+                for (Join join : plainSelect.getJoins()) {
+                    removeOrderByInSubSelect(join.getRightItem());
+                }
+            }
+            if (config.isCountRemoveLeftJoins()) {
+                removeUnusedLeftJoins(plainSelect);
+            }
+
+            Function count = new Function();
+            count.setName("count");
+            String countColumn = config.getCountColumn();
+            if (Strings.isBlank(countColumn) || "*".equals(countColumn.trim())) {
+                count.setAllColumns(true);
+            } else {
+                List<Expression> parameters = new ArrayList<Expression>();
+                parameters.add(CCJSqlParserUtil.parseExpression(countColumn));
+                count.setParameters(new ExpressionList(parameters));
+            }
+            List<SelectItem> selectItems = new ArrayList<SelectItem>();
+            selectItems.add(new SelectExpressionItem(count));
+            plainSelect.setSelectItems(selectItems);
+            sw.setChanged(true);
+        } catch (JSQLParserException ex) {
+            throw new SQLParseException(ex);
+        }
+        return sw;
+    }
+
+    private static boolean isCountable(PlainSelect plainSelect) {
+        if (plainSelect.getDistinct() != null
+                || plainSelect.getGroupBy() != null
+                || plainSelect.getHaving() != null
+                || plainSelect.getLimit() != null
+                || plainSelect.getOffset() != null
+                || plainSelect.getFetch() != null
+                || plainSelect.getTop() != null
+                || plainSelect.isForUpdate()
+                || Emptys.isNotEmpty(plainSelect.getIntoTables())) {
+            return false;
+        }
+        List<OrderByElement> orderByElements = plainSelect.getOrderByElements();
+        if (Emptys.isNotEmpty(orderByElements) && PlainSelect.orderByToString(orderByElements).contains("?")) {
+            return false;
+        }
+        List<SelectItem> selectItems = plainSelect.getSelectItems();
+        if (Emptys.isEmpty(selectItems)) {
+            return false;
+        }
+        for (SelectItem selectItem : selectItems) {
+            if (selectItem instanceof AllColumns || selectItem instanceof AllTableColumns) {
+                continue;
+            }
+            // functions, window functions, sub queries and placeholders will be rejected
+            String item = selectItem.toString();
+            if (item.contains("(") || item.contains("?")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void removeOrderByInSubSelect(FromItem fromItem) {
+        if (!(fromItem instanceof SubSelect)) {
+            return;
+        }
+        SelectBody selectBody = ((SubSelect) fromItem).getSelectBody();
+        if (!(selectBody instanceof PlainSelect)) {
+            return;
+        }
+        PlainSelect plainSelect = (PlainSelect) selectBody;
+        List<OrderByElement> orderByElements = plainSelect.getOrderByElements();
+        if (Emptys.isEmpty(orderByElements)) {
+            return;
+        }
+        // the order by is required by the limit
+        if (plainSelect.getLimit() != null || plainSelect.getOffset() != null || plainSelect.getFetch() != null || plainSelect.getTop() != null) {
+            return;
+        }
+        if (PlainSelect.orderByToString(orderByElements).contains("?")) {
+            return;
+        }
+        plainSelect.setOrderByElements(null);
+    }
+
+    private static void removeUnusedLeftJoins(PlainSelect plainSelect) {
+        List<Join> joins = plainSelect.getJoins();
+        if (Emptys.isEmpty(joins)) {
+            return;
+        }
+        ReferencedTableCollector whereTables = new ReferencedTableCollector();
+        if (plainSelect.getWhere() != null) {
+            plainSelect.getWhere().accept(whereTables);
+            // the correlated or unqualified columns may reference any join
+            if (whereTables.unresolvable) {
+                return;
+            }
+        }
+        List<Join> keptJoins = new ArrayList<Join>();
+        for (int i = 0; i < joins.size(); i++) {
+            Join join = joins.get(i);
+            if (isRemovableLeftJoin(join, i, joins, whereTables.tables)) {
+                continue;
+            }
+            keptJoins.add(join);
+        }
+        plainSelect.setJoins(keptJoins.isEmpty() ? null : keptJoins);
+    }
+
+    private static boolean isRemovableLeftJoin(Join join, int index, List<Join> joins, Set<String> whereTables) {
+        if (!join.isLeft() || join.isNatural() || join.getOnExpression() == null || join.toString().contains("?")) {
+            return false;
+        }
+        String name = getName(join.getRightItem());
+        if (name == null || whereTables.contains(name)) {
+            return false;
+        }
+        for (int j = 0; j < joins.size(); j++) {
+            if (j == index) {
+                continue;
+            }
+            Expression onExpression = joins.get(j).getOnExpression();
+            if (onExpression != null) {
+                ReferencedTableCollector collector = new ReferencedTableCollector();
+                onExpression.accept(collector);
+                if (collector.unresolvable || collector.tables.contains(name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String getName(FromItem fromItem) {
+        if (fromItem.getAlias() != null && Strings.isNotBlank(fromItem.getAlias().getName())) {
+            return fromItem.getAlias().getName().toLowerCase();
+        }
+        if (fromItem instanceof Table) {
+            return ((Table) fromItem).getName().toLowerCase();
+        }
+        return null;
+    }
+
+    /**
+     * collect the table names (or alias) of the columns in an expression
+     */
+    private static class ReferencedTableCollector extends ExpressionVisitorAdapter {
+        private final Set<String> tables = new HashSet<String>();
+        private boolean unresolvable = false;
+
+        @Override
+        public void visit(Column column) {
+            Table table = column.getTable();
+            if (table == null || Strings.isBlank(table.getName())) {
+                unresolvable = true;
+            } else {
+                tables.add(table.getName().toLowerCase());
+            }
+        }
+
+        @Override
+        public void visit(SubSelect subSelect) {
+            unresolvable = true;
+        }
+    }
+}
@@ -172,7 +172,7 @@ public class JSqlParserWhereTransformer extends AbstractClauseTransformer<Statem
         if (insert.getItemsList() != null) {
             ItemsList itemsList = insert.getItemsList();
             if (itemsList instanceof ExpressionList) {
-                ((ExpressionList) insert.getItemsList()).getExpressions().add(new StringValue(tenant.getSingleTenantValues()));
+                ((ExpressionList) insert.getItemsList()).getExpressions().add(new StringValue(tenant.getInsertValue()));
             }
         }
     }
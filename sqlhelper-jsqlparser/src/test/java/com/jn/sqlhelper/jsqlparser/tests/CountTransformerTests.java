@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.jsqlparser.tests;
+
+import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.dialect.instrument.SQLStatementInstrumentor;
+import com.jn.sqlhelper.dialect.instrument.TransformConfig;
+import com.jn.sqlhelper.jsqlparser.instrument.JSqlParserCountTransformer;
+import com.jn.sqlhelper.jsqlparser.sqlparser.JSqlParser;
+import com.jn.sqlhelper.jsqlparser.sqlparser.JSqlParserStatementWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CountTransformerTests {
+    private final JSqlParser parser = new JSqlParser();
+    private final JSqlParserCountTransformer transformer = new JSqlParserCountTransformer();
+
+    @Test
+    public void testRewriteSelectList() {
+        Assert.assertEquals("SELECT count(*) FROM user WHERE age > ?",
+                count("select id, name, age from user where age > ? order by age desc", false));
+        Assert.assertEquals("SELECT count(*) FROM user u, dept d WHERE u.dept_id = d.id",
+                count("select u.*, d.name from user u, dept d where u.dept_id = d.id", false));
+        // order by in the sub query is removed
+        Assert.assertEquals("SELECT count(*) FROM (SELECT id FROM user) t",
+                count("select t.id from (select id from user order by name) t", false));
+        // order by in the sub query is required by the limit
+        Assert.assertEquals("SELECT count(*) FROM (SELECT id FROM user ORDER BY name LIMIT 10) t",
+                count("select t.id from (select id from user order by name limit 10) t", false));
+    }
+
+    @Test
+    public void testKeepUnsafeStatements() {
+        Assert.assertNull(count("select distinct name from user", false));
+        Assert.assertNull(count("select dept_id from user group by dept_id", false));
+        Assert.assertNull(count("select id from user union select id from admin", false));
+        Assert.assertNull(count("select max(age) from user", false));
+        Assert.assertNull(count("select id, row_number() over (order by age) rn from user", false));
+        Assert.assertNull(count("select id, ? as flag from user", false));
+        Assert.assertNull(count("select id from user limit 10", false));
+        Assert.assertNull(count("select id from user order by field(id, ?, ?)", false));
+    }
+
+    @Test
+    public void testRemoveLeftJoins() {
+        Assert.assertEquals("SELECT count(*) FROM user u WHERE u.age > 10",
+                count("select u.id, d.name from user u left join dept d on u.dept_id = d.id where u.age > 10", true));
+        // referenced by the where clause
+        Assert.assertEquals("SELECT count(*) FROM user u LEFT JOIN dept d ON u.dept_id = d.id WHERE d.name = 'x'",
+                count("select u.id from user u left join dept d on u.dept_id = d.id where d.name = 'x'", true));
+        // unqualified column may reference the joined table
+        Assert.assertEquals("SELECT count(*) FROM user u LEFT JOIN dept d ON u.dept_id = d.id WHERE name = 'x'",
+                count("select u.id from user u left join dept d on u.dept_id = d.id where name = 'x'", true));
+        // inner join filters rows
+        Assert.assertEquals("SELECT count(*) FROM user u INNER JOIN dept d ON u.dept_id = d.id",
+                count("select u.id from user u inner join dept d on u.dept_id = d.id", true));
+    }
+
+    @Test
+    public void testCountColumn() {
+        Assert.assertEquals("SELECT count(u.id) FROM user u WHERE u.age > ?",
+                count("select u.id, u.name from user u where u.age > ? order by u.age", "u.id", false));
+        Assert.assertEquals("SELECT count(1) FROM user WHERE age > ?",
+                count("select id, name from user where age > ?", "1", false));
+    }
+
+    @Test
+    public void testDistinct() {
+        Assert.assertNull(count("select distinct name from user where age > ?", false));
+        Assert.assertNull(count("select distinct u.name from user u left join dept d on u.dept_id = d.id", true));
+        // only the distinct of the outer select matters
+        Assert.assertEquals("SELECT count(*) FROM (SELECT DISTINCT name FROM user) t",
+                count("select t.name from (select distinct name from user) t", false));
+        Assert.assertEquals("SELECT count(*) FROM user WHERE dept_id IN (SELECT DISTINCT id FROM dept)",
+                count("select id from user where dept_id in (select distinct id from dept)", false));
+    }
+
+    @Test
+    public void testInstrumentorCountSql() {
+        SQLStatementInstrumentor optimized = newInstrumentor(true);
+        Assert.assertEquals("SELECT count(1) FROM user WHERE age > ?",
+                optimized.countSql("select id, name from user where age > ? order by age"));
+        Assert.assertEquals("SELECT count(u.id) FROM user u WHERE u.age > ?",
+                optimized.countSql("select u.id, u.name from user u where u.age > ?", "u.id"));
+        // can't be optimized, wrapped as a sub query
+        Assert.assertEquals("select count(1) from (select distinct name from user) tmp_count",
+                optimized.countSql("select distinct name from user order by name"));
+
+        SQLStatementInstrumentor wrapped = newInstrumentor(false);
+        Assert.assertEquals("select count(1) from (select id, name from user where age > ?) tmp_count",
+                wrapped.countSql("select id, name from user where age > ? order by age"));
+    }
+
+    private static SQLStatementInstrumentor newInstrumentor(boolean optimizeCountSql) {
+        SQLInstrumentorConfig config = new SQLInstrumentorConfig();
+        config.setOptimizeCountSql(optimizeCountSql);
+        SQLStatementInstrumentor instrumentor = new SQLStatementInstrumentor();
+        instrumentor.setConfig(config);
+        instrumentor.init();
+        return instrumentor;
+    }
+
+    private String count(String sql, boolean removeLeftJoins) {
+        return count(sql, "*", removeLeftJoins);
+    }
+
+    private String count(String sql, String countColumn, boolean removeLeftJoins) {
+        JSqlParserStatementWrapper sw = parser.parse(sql);
+        TransformConfig config = new TransformConfig();
+        config.setCount(true);
+        config.setCountColumn(countColumn);
+        config.setCountRemoveLeftJoins(removeLeftJoins);
+        transformer.transform(sw, config);
+        return sw.isChanged() ? sw.getSql() : null;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.jsqlparser.tests;
+
+import com.jn.langx.util.collection.Collects;
+import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.dialect.instrument.SQLStatementInstrumentor;
+import com.jn.sqlhelper.dialect.tenant.Tenant;
+import com.jn.sqlhelper.dialect.tenant.TenantSql;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TenantSqlCacheTests {
+
+    @Test
+    public void testCache() {
+        SQLStatementInstrumentor instrumentor = newInstrumentor(true);
+        String sql = "select u.id, u.name from user u where u.age > ?";
+        TenantSql tenantSql = instrumentor.instrumentTenant(sql, tenant("1", true));
+        Assert.assertEquals("SELECT u.id, u.name FROM user u WHERE tenant_id = ? AND u.age > ?", tenantSql.getSql());
+        Assert.assertArrayEquals(new int[]{0}, tenantSql.getParameterIndexes());
+        // another tenant of the same shape
+        Assert.assertSame(tenantSql, instrumentor.instrumentTenant(sql, tenant("2", true)));
+
+        // the literal values are a part of the shape
+        Assert.assertEquals("SELECT u.id, u.name FROM user u WHERE tenant_id = '1' AND u.age > ?", instrumentor.instrumentTenantSql(sql, tenant("1", false)));
+        Assert.assertEquals("SELECT u.id, u.name FROM user u WHERE tenant_id = '2' AND u.age > ?", instrumentor.instrumentTenantSql(sql, tenant("2", false)));
+
+        Assert.assertEquals(1, instrumentor.getTenantSqlCacheStats().getHitCount());
+        Assert.assertEquals(3, instrumentor.getTenantSqlCacheStats().getMissCount());
+    }
+
+    @Test
+    public void testCacheMultipleTenantInsert() {
+        SQLStatementInstrumentor instrumentor = newInstrumentor(true);
+        String sql = "insert into user(id, name) values (?, ?)";
+        Tenant tenant = tenant("1", false);
+        tenant.setMultipleTenant(true);
+        tenant.setMultipleTenantValues(Collects.asList("1", "2"));
+        String insertSql = instrumentor.instrumentTenantSql(sql, tenant);
+        Assert.assertTrue(insertSql, insertSql.endsWith("'1')"));
+
+        // the same multiple values, but another insert value
+        tenant.setSingleTenantValues("2");
+        insertSql = instrumentor.instrumentTenantSql(sql, tenant);
+        Assert.assertTrue(insertSql, insertSql.endsWith("'2')"));
+    }
+
+    @Test
+    public void testSameAsUncached() {
+        String sql = reportingSql(20);
+        SQLStatementInstrumentor cold = newInstrumentor(false);
+        SQLStatementInstrumentor warm = newInstrumentor(true);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(cold.instrumentTenantSql(sql, tenant("" + i, true)), warm.instrumentTenantSql(sql, tenant("" + i, true)));
+            Assert.assertEquals(cold.instrumentTenantSql(sql, tenant("" + i, false)), warm.instrumentTenantSql(sql, tenant("" + i, false)));
+        }
+        Assert.assertEquals(9, warm.getTenantSqlCacheStats().getHitCount());
+    }
+
+    private static SQLStatementInstrumentor newInstrumentor(boolean cacheTenantSql) {
+        SQLInstrumentorConfig config = new SQLInstrumentorConfig();
+        config.setCacheTenantSql(cacheTenantSql);
+        SQLStatementInstrumentor instrumentor = new SQLStatementInstrumentor();
+        instrumentor.setConfig(config);
+        instrumentor.init();
+        return instrumentor;
+    }
+
+    private static Tenant tenant(String value, boolean parameterized) {
+        Tenant tenant = new Tenant();
+        tenant.setTenantColumn("tenant_id");
+        tenant.setSingleTenantValues(value);
+        tenant.setParameterized(parameterized);
+        return tenant;
+    }
+
+    private static String reportingSql(int joins) {
+        StringBuilder builder = new StringBuilder("select t0.id, t0.name");
+        for (int i = 1; i <= joins; i++) {
+            builder.append(", t").append(i).append(".name as name").append(i);
+        }
+        builder.append(" from t0");
+        for (int i = 1; i <= joins; i++) {
+            builder.append(" left join t").append(i).append(" on t").append(i).append(".id = t").append(i - 1).append(".ref_id");
+        }
+        builder.append(" where t0.status = ? and t0.create_time > ? order by t0.id desc");
+        return builder.toString();
+    }
+}
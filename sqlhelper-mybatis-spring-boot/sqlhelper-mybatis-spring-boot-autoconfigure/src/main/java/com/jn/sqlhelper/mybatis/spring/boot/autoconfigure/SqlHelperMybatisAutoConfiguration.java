@@ -27,6 +27,7 @@ import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
 import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -34,7 +35,7 @@ import org.springframework.context.annotation.Bean;
 
 @org.springframework.context.annotation.Configuration
 @AutoConfigureBefore(MybatisAutoConfiguration.class)
-public class SqlHelperMybatisAutoConfiguration implements ConfigurationCustomizer {
+public class SqlHelperMybatisAutoConfiguration implements ConfigurationCustomizer, DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(SqlHelperMybatisAutoConfiguration.class);
 
     @Bean
@@ -64,6 +65,7 @@ public class SqlHelperMybatisAutoConfiguration implements ConfigurationCustomize
     }
 
     private SqlHelperMybatisProperties sqlHelperMybatisProperties;
+    private SqlHelperMybatisPlugin plugin;
 
     @Autowired
     public void setSqlHelperMybatisProperties(SqlHelperMybatisProperties sqlHelperMybatisProperties) {
@@ -76,6 +78,7 @@ public class SqlHelperMybatisAutoConfiguration implements ConfigurationCustomize
         configuration.setDefaultScriptingLanguage(CustomScriptLanguageDriver.class);
 
         SqlHelperMybatisPlugin plugin = new SqlHelperMybatisPlugin();
+        this.plugin = plugin;
         plugin.setPaginationConfig(sqlHelperMybatisProperties.getPagination());
         plugin.setInstrumentorConfig(sqlHelperMybatisProperties.getInstrumentor());
         plugin.init();
@@ -85,5 +88,10 @@ public class SqlHelperMybatisAutoConfiguration implements ConfigurationCustomize
         configuration.addInterceptor(plugin);
     }
 
-
+    @Override
+    public void destroy() {
+        if (plugin != null) {
+            plugin.shutdown();
+        }
+    }
 }
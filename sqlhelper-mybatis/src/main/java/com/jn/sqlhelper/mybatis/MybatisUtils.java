@@ -26,6 +26,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.List;
 import java.util.Map;
 
 public class MybatisUtils {
@@ -92,7 +93,11 @@ public class MybatisUtils {
     }
 
     public static BoundSql rebuildBoundSql(String newSql, Configuration configuration, BoundSql boundSql) {
-        BoundSql newBoundSql = new BoundSql(configuration, newSql, boundSql.getParameterMappings(), boundSql.getParameterObject());
+        return rebuildBoundSql(newSql, configuration, boundSql, boundSql.getParameterMappings());
+    }
+
+    public static BoundSql rebuildBoundSql(String newSql, Configuration configuration, BoundSql boundSql, List<ParameterMapping> parameterMappings) {
+        BoundSql newBoundSql = new BoundSql(configuration, newSql, parameterMappings, boundSql.getParameterObject());
         final Map<String, Object> additionalParameters = BoundSqls.getAdditionalParameter(boundSql);
         for (Map.Entry<String, Object> entry : additionalParameters.entrySet()) {
             newBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
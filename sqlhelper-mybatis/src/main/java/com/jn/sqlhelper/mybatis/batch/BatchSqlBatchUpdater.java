@@ -15,14 +15,42 @@
 package com.jn.sqlhelper.mybatis.batch;
 
 import com.jn.langx.util.Preconditions;
+import com.jn.langx.util.io.IOs;
 import com.jn.sqlhelper.common.batch.BatchMode;
 import com.jn.sqlhelper.common.batch.BatchResult;
+import com.jn.sqlhelper.common.batch.MultiRowInsert;
+import com.jn.sqlhelper.common.batch.MultiRowInsertStyle;
+import com.jn.sqlhelper.dialect.Dialect;
+import com.jn.sqlhelper.mybatis.plugins.CustomMybatisParameterHandler;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.SqlSession;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 
+/**
+ * If the statement is a single row insert, and the dialect declares the multiple rows insert style,
+ * it will be expanded to multiple rows inserts with the syntax of the dialect, see {@link MultiRowInsert}.
+ * All of the inserts are executed in one transaction.
+ * <p>
+ * Otherwise the statement is a batch sql (with a foreach for example), it is executed once with all the beans.
+ */
 public class BatchSqlBatchUpdater<E> extends MybatisBatchUpdater<E> {
+    /**
+     * the rows of a statement at most if the dialect has no limits
+     */
+    public static final int DEFAULT_MAX_ROWS_PER_STATEMENT = 1000;
+
+    private Dialect dialect;
+
+    public void setDialect(Dialect dialect) {
+        this.dialect = dialect;
+    }
 
     @Override
     public BatchResult batchUpdate(MybatisBatchStatement statement, List<E> beans) throws SQLException {
@@ -30,10 +58,20 @@ public class BatchSqlBatchUpdater<E> extends MybatisBatchUpdater<E> {
         Preconditions.checkArgument(statement.getBatchMode() == BatchMode.BATCH_SQL);
         Preconditions.checkNotNull(sessionFactory);
 
-        SqlSession session = sessionFactory.openSession(true);
         BatchResult<E> result = new BatchResult<E>();
         result.setParameters(beans);
         result.setStatement(statement);
+        MappedStatement mappedStatement = sessionFactory.getConfiguration().getMappedStatement(statement.getSql());
+        if (isExpandable(mappedStatement) && !beans.isEmpty()) {
+            BoundSql boundSql = mappedStatement.getBoundSql(beans.get(0));
+            MultiRowInsert insert = MultiRowInsert.parse(boundSql.getSql());
+            if (insert != null && insert.isSupported(dialect.getMultiRowInsertStyle()) && insert.getParametersPerRow() == boundSql.getParameterMappings().size()) {
+                insertMultipleRows(mappedStatement, boundSql.getSql(), insert, beans, result);
+                return result;
+            }
+        }
+
+        SqlSession session = sessionFactory.openSession(true);
         try {
             int updated = session.update(statement.getSql(), beans);
             result.setRowsAffected(updated);
@@ -44,4 +82,72 @@ public class BatchSqlBatchUpdater<E> extends MybatisBatchUpdater<E> {
         }
         return result;
     }
+
+    /**
+     * The insert is expanded only if:
+     * <pre>
+     * 1) the dialect declares the multiple rows insert style and the max bind parameters explicitly
+     * 2) no key is generated, the generated keys of the expanded insert can't be set to the beans
+     * 3) no plugin is registered, the expanded insert is executed with the connection directly, the plugins are bypassed
+     * </pre>
+     */
+    private boolean isExpandable(MappedStatement mappedStatement) {
+        return dialect != null
+                && dialect.getMultiRowInsertStyle() != null
+                && dialect.getMultiRowInsertStyle() != MultiRowInsertStyle.NONE
+                && dialect.getMaxBindParameters() > 0
+                && mappedStatement.getSqlCommandType() == SqlCommandType.INSERT
+                && mappedStatement.getKeyGenerator() instanceof NoKeyGenerator
+                && mappedStatement.getConfiguration().getInterceptors().isEmpty();
+    }
+
+    private void insertMultipleRows(MappedStatement mappedStatement, String singleRowSql, MultiRowInsert insert, List<E> beans, BatchResult<E> result) {
+        int maxRows = dialect.getMaxMultiRowInsertRows() > 0 ? dialect.getMaxMultiRowInsertRows() : DEFAULT_MAX_ROWS_PER_STATEMENT;
+        int rowsPerStatement = insert.getMaxRowsPerStatement(maxRows, dialect.getMaxBindParameters());
+        SqlSession session = sessionFactory.openSession(false);
+        PreparedStatement fullStatement = null;
+        int affectedRows = 0;
+        try {
+            Connection connection = session.getConnection();
+            for (int batchStart = 0; batchStart < beans.size(); batchStart += rowsPerStatement) {
+                int rows = Math.min(rowsPerStatement, beans.size() - batchStart);
+                PreparedStatement pstmt;
+                if (rows == rowsPerStatement) {
+                    // the full batches reuse one statement
+                    if (fullStatement == null) {
+                        fullStatement = connection.prepareStatement(insert.build(dialect.getMultiRowInsertStyle(), rows));
+                    }
+                    pstmt = fullStatement;
+                } else {
+                    pstmt = connection.prepareStatement(insert.build(dialect.getMultiRowInsertStyle(), rows));
+                }
+                try {
+                    pstmt.clearParameters();
+                    for (int i = 0; i < rows; i++) {
+                        E bean = beans.get(batchStart + i);
+                        BoundSql boundSql = mappedStatement.getBoundSql(bean);
+                        if (!singleRowSql.equals(boundSql.getSql())) {
+                            // the dynamic sql is changed by the bean
+                            throw new SQLException("The statement " + mappedStatement.getId() + " is not the same for all the beans");
+                        }
+                        new CustomMybatisParameterHandler(mappedStatement, bean, boundSql).setOriginalParameters(pstmt, null, i * insert.getParametersPerRow() + 1);
+                    }
+                    affectedRows += pstmt.executeUpdate();
+                } finally {
+                    if (pstmt != fullStatement) {
+                        IOs.close(pstmt);
+                    }
+                }
+            }
+            session.commit(true);
+        } catch (Throwable ex) {
+            result.addThrowable(ex);
+            session.rollback(true);
+            affectedRows = 0;
+        } finally {
+            IOs.close(fullStatement);
+            session.close();
+        }
+        result.setRowsAffected(affectedRows);
+    }
 }
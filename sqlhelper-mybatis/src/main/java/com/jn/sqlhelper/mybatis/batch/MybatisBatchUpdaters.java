@@ -55,6 +55,10 @@ public class MybatisBatchUpdaters {
     }
 
     public static <E> MybatisBatchUpdater<E> createBatchUpdater(@NonNull SqlSessionFactory sessionFactory, @Nullable BatchMode batchType) {
+        return createBatchUpdater(sessionFactory, batchType, batchType == BatchMode.BATCH_SQL ? findDialect(sessionFactory) : null);
+    }
+
+    private static <E> MybatisBatchUpdater<E> createBatchUpdater(@NonNull SqlSessionFactory sessionFactory, @Nullable BatchMode batchType, @Nullable Dialect dialect) {
         MybatisBatchUpdater<E> updater = null;
         if (batchType != null) {
             switch (batchType) {
@@ -62,7 +66,9 @@ public class MybatisBatchUpdaters {
                     updater = new SimpleBatchUpdater<E>();
                     break;
                 case BATCH_SQL:
-                    updater = new BatchSqlBatchUpdater<E>();
+                    BatchSqlBatchUpdater<E> batchSqlBatchUpdater = new BatchSqlBatchUpdater<E>();
+                    batchSqlBatchUpdater.setDialect(dialect);
+                    updater = batchSqlBatchUpdater;
                     break;
                 case JDBC_BATCH:
                     updater = new JdbcBatchUpdater<E>();
@@ -109,31 +115,18 @@ public class MybatisBatchUpdaters {
             }
         });
 
+        // the dialect is resolved once, it may open a session to read the database metadata
+        Dialect dialect = batchMode == null || batchMode == BatchMode.BATCH_SQL ? findDialect(sessionFactory) : null;
         if (batchMode != null) {
-            return MybatisBatchUpdaters.<E>createBatchUpdater(sessionFactory, batchMode).batchUpdate(statement, entities);
+            return MybatisBatchUpdaters.<E>createBatchUpdater(sessionFactory, batchMode, dialect).batchUpdate(statement, entities);
         }
 
-        // find dialect
-        Configuration configuration = sessionFactory.getConfiguration();
-        String databaseId = configuration.getDatabaseId();
-        Dialect dialect = null;
-        if (!Strings.isEmpty(databaseId)) {
-            dialect = DialectRegistry.getInstance().getDialectByName(databaseId);
-        }
-        if (Objects.isNull(dialect)) {
-            SqlSession session = sessionFactory.openSession();
-            Connection connection = session.getConnection();
-            dialect = DialectRegistry.getInstance().getDialectByDatabaseMetadata(connection.getMetaData());
-            session.close();
-        }
-
-
         boolean supportsBatchSqlMode = dialect != null && dialect.isSupportsBatchSql();
         MybatisBatchUpdater<E> updater = null;
         BatchResult<E> result = null;
         if (supportsBatchSqlMode) {
             statement.setBatchMode(BatchMode.BATCH_SQL);
-            updater = createBatchSqlBatchUpdater(sessionFactory);
+            updater = createBatchUpdater(sessionFactory, BatchMode.BATCH_SQL, dialect);
             result = updater.batchUpdate(statement, entities);
             if (!result.hasThrowable()) {
                 return result;
@@ -143,7 +136,7 @@ public class MybatisBatchUpdaters {
         boolean supportsJdbcBatch = dialect != null && dialect.isSupportsBatchUpdates();
         if (supportsJdbcBatch) {
             statement.setBatchMode(BatchMode.JDBC_BATCH);
-            updater = createJdbcBatchUpdater(sessionFactory);
+            updater = createBatchUpdater(sessionFactory, BatchMode.JDBC_BATCH, dialect);
             result = updater.batchUpdate(statement, entities);
             if (result.hasThrowable()) {
                 logger.warn("Error when execute batch update based jdbc batch mode, statement: {}, errors:", statement.getSql());
@@ -158,7 +151,7 @@ public class MybatisBatchUpdaters {
             }
         }
         statement.setBatchMode(BatchMode.SIMPLE);
-        updater = createSimpleBatchUpdater(sessionFactory);
+        updater = createBatchUpdater(sessionFactory, BatchMode.SIMPLE, dialect);
         result = updater.batchUpdate(statement, entities);
         if (result.hasThrowable()) {
             logger.warn("Error when execute batch update based simple batch mode, statement: {}, errors", statement.getSql());
@@ -172,6 +165,27 @@ public class MybatisBatchUpdaters {
         return result;
     }
 
+    private static Dialect findDialect(@NonNull SqlSessionFactory sessionFactory) {
+        Configuration configuration = sessionFactory.getConfiguration();
+        String databaseId = configuration.getDatabaseId();
+        Dialect dialect = null;
+        if (!Strings.isEmpty(databaseId)) {
+            dialect = DialectRegistry.getInstance().getDialectByName(databaseId);
+        }
+        if (Objects.isNull(dialect)) {
+            SqlSession session = sessionFactory.openSession();
+            try {
+                Connection connection = session.getConnection();
+                dialect = DialectRegistry.getInstance().getDialectByDatabaseMetadata(connection.getMetaData());
+            } catch (SQLException ex) {
+                logger.warn("Can't find the dialect of the database, error: {}", ex.getMessage(), ex);
+            } finally {
+                session.close();
+            }
+        }
+        return dialect;
+    }
+
     public static boolean hasStatement(@NonNull SqlSessionFactory sessionFactory, @NonNull MybatisBatchStatement statement) {
         return MybatisUtils.hasStatement(sessionFactory, statement.getSql());
     }
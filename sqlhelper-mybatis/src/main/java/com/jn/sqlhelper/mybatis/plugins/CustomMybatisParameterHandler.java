@@ -2,8 +2,6 @@ package com.jn.sqlhelper.mybatis.plugins;
 
 import com.jn.langx.util.Emptys;
 import com.jn.langx.util.Objects;
-import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.collection.Pipeline;
 import com.jn.sqlhelper.dialect.*;
 import com.jn.sqlhelper.dialect.likeescaper.LikeEscaper;
 import com.jn.sqlhelper.dialect.pagination.PagedPreparedParameterSetter;
@@ -17,18 +15,17 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
-import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
-import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.BitSet;
 import java.util.List;
 
 @SuppressWarnings("unchecked")
@@ -41,6 +38,20 @@ public class CustomMybatisParameterHandler implements ParameterHandler, PagedPre
     protected final Object parameterObject;
     protected final BoundSql boundSql;
     protected final Configuration configuration;
+    private final ParameterBindingPlan bindingPlan;
+    /**
+     * the parameter object is a single value, it is the value of all the parameters
+     */
+    private final boolean singleValueParameterObject;
+    private MetaObject metaObject;
+
+    private boolean requestContextResolved = false;
+    private SqlRequestContext sqlRequestContext;
+    private LikeEscaper likeEscaper;
+    /**
+     * the parameters slots (index - 1) to escape
+     */
+    private BitSet escapeLikeParametersSlots;
 
     public CustomMybatisParameterHandler(final MappedStatement mappedStatement, final Object parameterObject, final BoundSql boundSql) {
         this.mappedStatement = mappedStatement;
@@ -48,6 +59,8 @@ public class CustomMybatisParameterHandler implements ParameterHandler, PagedPre
         this.typeHandlerRegistry = mappedStatement.getConfiguration().getTypeHandlerRegistry();
         this.parameterObject = parameterObject;
         this.boundSql = boundSql;
+        this.bindingPlan = ParameterBindingPlan.of(mappedStatement, boundSql);
+        this.singleValueParameterObject = parameterObject != null && this.typeHandlerRegistry.hasTypeHandler(parameterObject.getClass());
     }
 
     @Override
@@ -68,26 +81,45 @@ public class CustomMybatisParameterHandler implements ParameterHandler, PagedPre
         return !PAGING_CONTEXT.getPagingRequest().isValidRequest();
     }
 
-    private boolean isTenantRequest(){
-        SqlRequestContext sqlRequestContext = SqlRequestContextHolder.getInstance().get();
-        Tenant tenant=sqlRequestContext.getRequest().getTenant();
-        return Emptys.isNotEmpty(tenant);
-    }
-    private List<Integer> getEscapeLikeParametersIndexes() {
-        SqlRequestContext sqlRequestContext = SqlRequestContextHolder.getInstance().get();
+    /**
+     * the request context is read once for all the parameters
+     */
+    private void resolveRequestContext() {
+        if (requestContextResolved) {
+            return;
+        }
+        requestContextResolved = true;
+        sqlRequestContext = SqlRequestContextHolder.getInstance().get();
         if (Objects.isNull(sqlRequestContext) || Objects.isNull(sqlRequestContext.getRequest())) {
-            return null;
+            return;
         }
-        if (Objects.isNull(sqlRequestContext.get(MybatisSqlRequestContextKeys.LIKE_ESCAPER))) {
-            return null;
+        LikeEscaper likeEscaper = (LikeEscaper) sqlRequestContext.get(MybatisSqlRequestContextKeys.LIKE_ESCAPER);
+        if (Objects.isNull(likeEscaper)) {
+            return;
+        }
+        List<Integer> escapeLikeParametersIndexes = (List<Integer>) sqlRequestContext.get(MybatisSqlRequestContextKeys.LIKE_ESCAPE_PARAMETERS_INDEXES);
+        if (Emptys.isNotEmpty(escapeLikeParametersIndexes)) {
+            BitSet slots = new BitSet();
+            for (Integer index : escapeLikeParametersIndexes) {
+                if (index != null && index >= 0) {
+                    slots.set(index);
+                }
+            }
+            this.likeEscaper = likeEscaper;
+            this.escapeLikeParametersSlots = slots;
         }
-        return (List<Integer>) sqlRequestContext.get(MybatisSqlRequestContextKeys.LIKE_ESCAPE_PARAMETERS_INDEXES);
+    }
+
+    private boolean isTenantRequest() {
+        resolveRequestContext();
+        Tenant tenant = sqlRequestContext.getRequest().getTenant();
+        return Emptys.isNotEmpty(tenant);
     }
 
     @Override
     public void setParameters(final PreparedStatement ps) {
         if (!MybatisUtils.isQueryStatement(mappedStatement) || !isInPagingRequestScope() || isInvalidPagingRequest() || this.isPagingCountStatement() || NestedStatements.isNestedStatement(mappedStatement)||isTenantRequest()) {
-            this.setParameters(ps, this.boundSql.getParameterMappings(), 1, getEscapeLikeParametersIndexes());
+            this.setParameters(ps, 0, bindingPlan.size(), 1);
             return;
         }
         try {
@@ -104,82 +136,78 @@ public class CustomMybatisParameterHandler implements ParameterHandler, PagedPre
 
     @Override
     public int setOriginalParameters(final PreparedStatement ps, final QueryParameters parameters, final int startIndex) {
-        final List<ParameterMapping> parameterMappings = this.boundSql.getParameterMappings();
-        setParameters(ps, parameterMappings, startIndex, getEscapeLikeParametersIndexes());
-        return this.boundSql.getParameterMappings().size();
+        setParameters(ps, 0, bindingPlan.size(), startIndex);
+        return bindingPlan.size();
     }
 
-    private void setParameters(final PreparedStatement ps, List<ParameterMapping> parameterMappings, final int startIndex, List<Integer> escapeLikeParametersIndexes) {
-        boolean needEscapeLikeParameters = Emptys.isNotEmpty(escapeLikeParametersIndexes);
-        LikeEscaper likeEscaper = null;
-        if (needEscapeLikeParameters) {
-            likeEscaper = (LikeEscaper) SqlRequestContextHolder.getInstance().get().get(MybatisSqlRequestContextKeys.LIKE_ESCAPER);
-        }
+    /**
+     * binds the parameters [from, to) of the plan, the first one is bound to the startIndex
+     */
+    private void setParameters(final PreparedStatement ps, final int from, final int to, final int startIndex) {
+        resolveRequestContext();
         ErrorContext.instance().activity("setting parameters").object(this.mappedStatement.getParameterMap().getId());
-        if (parameterMappings != null) {
-            for (int i = 0; i < parameterMappings.size(); ++i) {
-                final ParameterMapping parameterMapping = parameterMappings.get(i);
-                if (parameterMapping.getMode() != ParameterMode.OUT) {
-                    final String propertyName = parameterMapping.getProperty();
-                    Object value;
-                    if (this.boundSql.hasAdditionalParameter(propertyName)) {
-                        value = this.boundSql.getAdditionalParameter(propertyName);
-                    } else if (this.parameterObject == null) {
-                        value = null;
-                    } else if (this.typeHandlerRegistry.hasTypeHandler(this.parameterObject.getClass())) {
-                        value = this.parameterObject;
-                    } else {
-                        final MetaObject metaObject = this.configuration.newMetaObject(this.parameterObject);
-                        value = metaObject.getValue(propertyName);
-                    }
-                    final TypeHandler typeHandler = parameterMapping.getTypeHandler();
-                    JdbcType jdbcType = parameterMapping.getJdbcType();
-                    if (value == null && jdbcType == null) {
-                        jdbcType = this.configuration.getJdbcTypeForNull();
-                    }
-                    try {
-                        if (value instanceof String && needEscapeLikeParameters) {
-                            if (escapeLikeParametersIndexes.contains(i + startIndex - 1)) {
-                                value = likeEscaper.escape(value.toString());
-                            }
-                        }
-                        typeHandler.setParameter(ps, i + startIndex, value, jdbcType);
-                    } catch (TypeException e) {
-                        throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
-                    } catch (SQLException e) {
-                        throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
-                    }
+        final List<ParameterMapping> parameterMappings = this.boundSql.getParameterMappings();
+        for (int i = from; i < to; ++i) {
+            final String propertyName = bindingPlan.properties[i];
+            if (propertyName == null) {
+                continue;
+            }
+            final int index = startIndex + i - from;
+            Object value = getParameterValue(propertyName);
+            JdbcType jdbcType = bindingPlan.jdbcTypes[i];
+            if (value == null && jdbcType == null) {
+                jdbcType = this.configuration.getJdbcTypeForNull();
+            }
+            try {
+                if (escapeLikeParametersSlots != null && value instanceof String && escapeLikeParametersSlots.get(index - 1)) {
+                    value = likeEscaper.escape(value.toString());
                 }
+                parameterMappings.get(i).getTypeHandler().setParameter(ps, index, value, jdbcType);
+            } catch (TypeException e) {
+                throw new TypeException("Could not set parameters for mapping: " + parameterMappings.get(i) + ". Cause: " + e, e);
+            } catch (SQLException e) {
+                throw new TypeException("Could not set parameters for mapping: " + parameterMappings.get(i) + ". Cause: " + e, e);
             }
         }
     }
 
+    private Object getParameterValue(String propertyName) {
+        if (this.boundSql.hasAdditionalParameter(propertyName)) {
+            return this.boundSql.getAdditionalParameter(propertyName);
+        }
+        if (this.parameterObject == null) {
+            return null;
+        }
+        if (singleValueParameterObject) {
+            return this.parameterObject;
+        }
+        if (metaObject == null) {
+            metaObject = this.configuration.newMetaObject(this.parameterObject);
+        }
+        return metaObject.getValue(propertyName);
+    }
+
 
     @Override
     public int setBeforeSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
         // find before parameters
-        final List<ParameterMapping> parameterMappings = this.boundSql.getParameterMappings();
-        List<ParameterMapping> before = Collects.limit(parameterMappings, queryParameters.getBeforeSubqueryParameterCount());
-        setParameters(statement, before, startIndex, getEscapeLikeParametersIndexes());
+        int before = Math.min(queryParameters.getBeforeSubqueryParameterCount(), bindingPlan.size());
+        setParameters(statement, 0, before, startIndex);
         return queryParameters.getBeforeSubqueryParameterCount();
     }
 
     @Override
     public int setSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        final List<ParameterMapping> parameterMappings = this.boundSql.getParameterMappings();
-        List<ParameterMapping> subquery = Pipeline.of(parameterMappings)
-                .limit(parameterMappings.size() - queryParameters.getAfterSubqueryParameterCount())
-                .skip(queryParameters.getBeforeSubqueryParameterCount())
-                .asList();
-        setParameters(statement, subquery, startIndex, getEscapeLikeParametersIndexes());
-        return subquery.size();
+        int from = Math.min(queryParameters.getBeforeSubqueryParameterCount(), bindingPlan.size());
+        int to = Math.max(from, bindingPlan.size() - queryParameters.getAfterSubqueryParameterCount());
+        setParameters(statement, from, to, startIndex);
+        return to - from;
     }
 
     @Override
     public int setAfterSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        final List<ParameterMapping> parameterMappings = this.boundSql.getParameterMappings();
-        List<ParameterMapping> after = Collects.skip(parameterMappings, parameterMappings.size() - queryParameters.getAfterSubqueryParameterCount());
-        setParameters(statement, after, startIndex, getEscapeLikeParametersIndexes());
+        int from = Math.max(0, bindingPlan.size() - queryParameters.getAfterSubqueryParameterCount());
+        setParameters(statement, from, bindingPlan.size(), startIndex);
         return queryParameters.getBeforeSubqueryParameterCount();
     }
 }
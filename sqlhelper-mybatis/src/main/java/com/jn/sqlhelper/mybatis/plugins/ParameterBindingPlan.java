@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.mybatis.plugins;
+
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The parameter mappings of a statement resolved to arrays, so the binding is a plain loop.
+ * <p>
+ * The static statements share the parameter mappings list in all the {@link BoundSql}s, their plans are cached by {@link MappedStatement}.
+ * The dynamic statements ({@link DynamicSqlSource}, {@link ProviderSqlSource}) build a new list every time, they are not cached,
+ * neither are the statements built at runtime (the tenant, order by, count statements).
+ * If a {@link BoundSql} has a different list (a rewritten sql), a plan is built for it.
+ * <p>
+ * The cache is weak keyed, and a plan doesn't refer to the statement or its {@link Configuration},
+ * so the plans are released with the configuration. The type handlers refer to the configuration,
+ * they are read from the parameter mappings of the {@link BoundSql}.
+ */
+final class ParameterBindingPlan {
+    private static final Map<MappedStatement, ParameterBindingPlan> PLANS = Collections.synchronizedMap(new WeakHashMap<MappedStatement, ParameterBindingPlan>());
+
+    /**
+     * the statement keeps the list of a static statement alive
+     */
+    private final WeakReference<List<ParameterMapping>> parameterMappings;
+    /**
+     * null: an OUT parameter, it is not bound
+     */
+    final String[] properties;
+    final JdbcType[] jdbcTypes;
+
+    private ParameterBindingPlan(List<ParameterMapping> parameterMappings) {
+        this.parameterMappings = new WeakReference<List<ParameterMapping>>(parameterMappings);
+        int size = parameterMappings == null ? 0 : parameterMappings.size();
+        this.properties = new String[size];
+        this.jdbcTypes = new JdbcType[size];
+        for (int i = 0; i < size; i++) {
+            ParameterMapping parameterMapping = parameterMappings.get(i);
+            properties[i] = parameterMapping.getMode() == ParameterMode.OUT ? null : parameterMapping.getProperty();
+            jdbcTypes[i] = parameterMapping.getJdbcType();
+        }
+    }
+
+    int size() {
+        return properties.length;
+    }
+
+    static ParameterBindingPlan of(MappedStatement mappedStatement, BoundSql boundSql) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (!isCacheable(mappedStatement)) {
+            return new ParameterBindingPlan(parameterMappings);
+        }
+        ParameterBindingPlan plan = PLANS.get(mappedStatement);
+        if (plan != null && plan.parameterMappings.get() == parameterMappings) {
+            return plan;
+        }
+        boolean cached = plan != null;
+        plan = new ParameterBindingPlan(parameterMappings);
+        // the plan of the original sql is kept, the rewritten sqls build their own plans
+        if (!cached && parameterMappings == mappedStatement.getSqlSource().getBoundSql(boundSql.getParameterObject()).getParameterMappings()) {
+            PLANS.put(mappedStatement, plan);
+        }
+        return plan;
+    }
+
+    private static boolean isCacheable(MappedStatement mappedStatement) {
+        SqlSource sqlSource = mappedStatement.getSqlSource();
+        if (sqlSource instanceof DynamicSqlSource || sqlSource instanceof ProviderSqlSource) {
+            return false;
+        }
+        return isRegistered(mappedStatement);
+    }
+
+    private static boolean isRegistered(MappedStatement mappedStatement) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        try {
+            return configuration.hasStatement(mappedStatement.getId(), false) && configuration.getMappedStatement(mappedStatement.getId(), false) == mappedStatement;
+        } catch (Throwable ex) {
+            // an ambiguous short id
+            return false;
+        }
+    }
+}
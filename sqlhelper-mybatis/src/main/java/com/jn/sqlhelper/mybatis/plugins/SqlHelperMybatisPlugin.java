@@ -19,13 +19,15 @@ import com.jn.langx.lifecycle.InitializationException;
 import com.jn.langx.pipeline.*;
 import com.jn.langx.text.properties.PropertiesAccessor;
 import com.jn.langx.util.ClassLoaders;
-import com.jn.langx.util.collection.Collects;
 import com.jn.langx.util.reflect.Reflects;
+import com.jn.sqlhelper.common.statement.StreamingStatements;
 import com.jn.sqlhelper.dialect.instrument.SQLStatementInstrumentor;
 import com.jn.sqlhelper.dialect.SqlRequestContextHolder;
 import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.dialect.pagination.CountStrategy;
 import com.jn.sqlhelper.dialect.pagination.PagingRequestContext;
 import com.jn.sqlhelper.dialect.pagination.PagingRequestContextHolder;
+import com.jn.sqlhelper.mybatis.MybatisUtils;
 import com.jn.sqlhelper.mybatis.plugins.likeescape.LikeParameterEscapeHandler;
 import com.jn.sqlhelper.mybatis.plugins.pagination.PaginationConfig;
 import com.jn.sqlhelper.mybatis.plugins.pagination.PaginationHandler;
@@ -42,6 +44,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,6 +63,18 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
     private static SQLStatementInstrumentor instrumentor = new SQLStatementInstrumentor();
     private boolean inited = false;
     private Map<String, Handler> handlerRegistry = new HashMap<String, Handler>();
+    /**
+     * the precompiled handler chains, they are built once in init()
+     */
+    private List<Handler> queryHandlers;
+    private List<Handler> pageHelperQueryHandlers;
+    private List<Handler> otherHandlers;
+    /**
+     * the statements of the cursor queries with a streaming fetch size, it is null if the streaming cursor is disabled
+     */
+    private StreamingCursorStatements streamingCursorStatements;
+    private boolean streamingCursor = false;
+    private int cursorFetchSize = StreamingStatements.DEFAULT_FETCH_SIZE;
 
     @Override
     public void init() throws InitializationException {
@@ -85,14 +101,42 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
                 }
             }
 
+            if (streamingCursor) {
+                streamingCursorStatements = new StreamingCursorStatements(cursorFetchSize);
+            }
+
             ExecutorInvocationSinkHandler sinkHandler = new ExecutorInvocationSinkHandler();
             handlerRegistry.put("sink", sinkHandler);
+
+            otherHandlers = Collections.singletonList((Handler) tenantHandler);
+            queryHandlers = Collections.unmodifiableList(Arrays.<Handler>asList(tenantHandler, likeParameterEscapeHandler, paginationHandler));
+            Handler pageHelperHandler = handlerRegistry.get(PageHelperCompibles.pageHelperRequestFlag);
+            if (pageHelperHandler != null) {
+                pageHelperQueryHandlers = Collections.unmodifiableList(Arrays.<Handler>asList(tenantHandler, likeParameterEscapeHandler, paginationHandler, pageHelperHandler));
+            }
             inited = true;
         }
     }
 
+    /**
+     * Release the resources of the handlers, the thread pool of the parallel count sql for example.
+     */
+    public void shutdown() {
+        Handler paginationHandler = handlerRegistry.get("pagination");
+        if (paginationHandler instanceof PaginationHandler) {
+            ((PaginationHandler) paginationHandler).shutdown();
+        }
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+        if (streamingCursorStatements != null && "queryCursor".equals(invocation.getMethod().getName())) {
+            Object[] args = invocation.getArgs();
+            args[0] = streamingCursorStatements.get((MappedStatement) args[0], (Executor) invocation.getTarget());
+        }
+        if (canPassThrough(invocation)) {
+            return invocation.proceed();
+        }
         ExecutorInvocation executorInvocation = new ExecutorInvocation(invocation);
         try {
             Pipeline<ExecutorInvocation> pipeline = createPipeline(executorInvocation);
@@ -108,25 +152,29 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
         }
     }
 
+    /**
+     * Every handler skips itself when there is no sql request context,
+     * except the pagination handler, it will do paging with a paging RowBounds.
+     */
+    private boolean canPassThrough(Invocation invocation) {
+        if (SqlRequestContextHolder.getInstance().get() != null) {
+            return false;
+        }
+        String methodName = invocation.getMethod().getName();
+        if ("query".equals(methodName)) {
+            return !MybatisUtils.isPagingRowBounds((RowBounds) invocation.getArgs()[2]);
+        }
+        return true;
+    }
+
     private Pipeline<ExecutorInvocation> createPipeline(ExecutorInvocation executorInvocation) {
         Handler debugHandler = handlerRegistry.get("debug");
         Handler sinkHandler = handlerRegistry.get("sink");
-        List<Handler> handlers = Collects.emptyArrayList();
-        // 是否开启租户模式
-        handlers.add(handlerRegistry.get("tenant"));
+        List<Handler> handlers;
         if ("query".equals(executorInvocation.getMethodName())) {
-            handlers.add(handlerRegistry.get("likeEscape"));
-            handlers.add(handlerRegistry.get("pagination"));
-            Handler pageHelperHander = handlerRegistry.get(PageHelperCompibles.pageHelperRequestFlag);
-            if (this.paginationConfig.isPageHelperCompatible() && pageHelperHander != null) {
-                if (PagingRequestContextHolder.getContext().isPagingRequest()) {
-                    PagingRequestContext context = PagingRequestContextHolder.getContext().get();
-                    boolean isPageHelperRequest = context.getBoolean(PageHelperCompibles.pageHelperRequestFlag, false);
-                    if (isPageHelperRequest) {
-                        handlers.add(pageHelperHander);
-                    }
-                }
-            }
+            handlers = isPageHelperRequest() ? pageHelperQueryHandlers : queryHandlers;
+        } else {
+            handlers = otherHandlers;
         }
 
         DefaultPipeline<ExecutorInvocation> pipeline = Pipelines.newPipeline(debugHandler, sinkHandler, handlers);
@@ -134,6 +182,16 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
         return pipeline;
     }
 
+    private boolean isPageHelperRequest() {
+        if (this.paginationConfig.isPageHelperCompatible() && pageHelperQueryHandlers != null) {
+            if (PagingRequestContextHolder.getContext().isPagingRequest()) {
+                PagingRequestContext context = PagingRequestContextHolder.getContext().get();
+                return context.getBoolean(PageHelperCompibles.pageHelperRequestFlag, false);
+            }
+        }
+        return false;
+    }
+
     @Override
     public Object plugin(Object target) {
         if (target instanceof Executor) {
@@ -154,6 +212,8 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
             SQLInstrumentorConfig instrumentConfig = parseInstrumentorConfig(accessor);
             setInstrumentorConfig(instrumentConfig);
             setPaginationConfig(paginationConfig);
+            setStreamingCursor(accessor.getBoolean("sqlhelper.mybatis.cursor.streaming", streamingCursor));
+            setCursorFetchSize(accessor.getInteger("sqlhelper.mybatis.cursor.fetchSize", cursorFetchSize));
             init();
         }
     }
@@ -166,6 +226,21 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
         instrumentor.setConfig(config);
     }
 
+    /**
+     * Whether set the dialect-appropriate streaming fetch size to the cursor queries which have no fetch size,
+     * e.g. Integer.MIN_VALUE for MySQL.
+     */
+    public void setStreamingCursor(boolean streamingCursor) {
+        this.streamingCursor = streamingCursor;
+    }
+
+    /**
+     * the fetch size of the streaming cursors for the databases (except MySQL) that fetch the rows in batches
+     */
+    public void setCursorFetchSize(int cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
     public static SQLStatementInstrumentor getInstrumentor() {
         return instrumentor;
     }
@@ -184,6 +259,12 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
         paginationConfig.setUseLastPageIfPageOut(accessor.getBoolean(paginationPluginConfigPrefix + "useLastPageIfPageOut", accessor.getBoolean(paginationPluginConfigPrefix + "useLastPageIfPageNoOut", paginationConfig.isUseLastPageIfPageOut())));
         paginationConfig.setPageHelperCompatible(accessor.getBoolean(paginationPluginConfigPrefix + "pageHelperCompatible", paginationConfig.isPageHelperCompatible()));
         paginationConfig.setPageHelperHandlerClass(accessor.getString(paginationPluginConfigPrefix + "pageHelperHandlerClass", paginationConfig.getPageHelperHandlerClass()));
+        paginationConfig.setParallelCount(accessor.getBoolean(paginationPluginConfigPrefix + "parallelCount", paginationConfig.isParallelCount()));
+        paginationConfig.setParallelCountThreads(accessor.getInteger(paginationPluginConfigPrefix + "parallelCountThreads", paginationConfig.getParallelCountThreads()));
+        String countStrategy = accessor.getString(paginationPluginConfigPrefix + "countStrategy", paginationConfig.getCountStrategy().name());
+        paginationConfig.setCountStrategy(CountStrategy.valueOf(countStrategy.trim().toUpperCase()));
+        paginationConfig.setCountResultCacheMaxCapacity(accessor.getInteger(paginationPluginConfigPrefix + "countResultCacheMaxCapacity", paginationConfig.getCountResultCacheMaxCapacity()));
+        paginationConfig.setCountResultCacheExpireInSeconds(accessor.getInteger(paginationPluginConfigPrefix + "countResultCacheExpireInSeconds", paginationConfig.getCountResultCacheExpireInSeconds()));
 
         return paginationConfig;
     }
@@ -198,6 +279,10 @@ public class SqlHelperMybatisPlugin implements Interceptor, Initializable {
         instrumentConfig.setInstrumentation(accessor.getString(instrumentorConfigPrefix + "instrumentation", instrumentConfig.getInstrumentation()));
         instrumentConfig.setDialectClassName(accessor.getString(instrumentorConfigPrefix + "dialectClassName", instrumentConfig.getDialectClassName()));
         instrumentConfig.setCacheInstrumentedSql(accessor.getBoolean(instrumentorConfigPrefix + "cacheInstruemtedSql", false));
+        instrumentConfig.setOptimizeCountSql(accessor.getBoolean(instrumentorConfigPrefix + "optimizeCountSql", instrumentConfig.isOptimizeCountSql()));
+        instrumentConfig.setCountSqlRemoveLeftJoins(accessor.getBoolean(instrumentorConfigPrefix + "countSqlRemoveLeftJoins", instrumentConfig.isCountSqlRemoveLeftJoins()));
+        instrumentConfig.setCacheTenantSql(accessor.getBoolean(instrumentorConfigPrefix + "cacheTenantSql", instrumentConfig.isCacheTenantSql()));
+        instrumentConfig.setTenantSqlCacheMaxCapacity(accessor.getInteger(instrumentorConfigPrefix + "tenantSqlCacheMaxCapacity", instrumentConfig.getTenantSqlCacheMaxCapacity()));
         return instrumentConfig;
     }
 }
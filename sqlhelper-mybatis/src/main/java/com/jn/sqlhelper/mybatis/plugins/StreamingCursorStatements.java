@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the LGPL, Version 3.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at  http://www.gnu.org/licenses/lgpl-3.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jn.sqlhelper.mybatis.plugins;
+
+import com.jn.langx.util.Emptys;
+import com.jn.sqlhelper.common.statement.StreamingStatements;
+import com.jn.sqlhelper.mybatis.MybatisUtils;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The statements of the cursor queries with the dialect-appropriate streaming fetch size,
+ * e.g. Integer.MIN_VALUE for MySQL, so the rows of a cursor are not loaded into memory at once.
+ * <p>
+ * A statement which has a fetch size already is used directly.
+ * For PostgreSQL, the fetch size works only in a transaction (the auto commit is off).
+ * <p>
+ * The streaming statement is added into the configuration of the statement with the id: statement id + {@value #STREAMING_SUFFIX},
+ * so it lives as long as the configuration, and the statements of the different configurations are not mixed up.
+ */
+class StreamingCursorStatements {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingCursorStatements.class);
+    static final String STREAMING_SUFFIX = "_STREAMING";
+    private final int fetchSize;
+
+    StreamingCursorStatements(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    MappedStatement get(MappedStatement ms, Executor executor) {
+        if (ms.getFetchSize() != null) {
+            return ms;
+        }
+        Configuration configuration = ms.getConfiguration();
+        String id = ms.getId() + STREAMING_SUFFIX;
+        if (configuration.hasStatement(id, false)) {
+            return configuration.getMappedStatement(id, false);
+        }
+        int streamingFetchSize = StreamingStatements.getStreamingFetchSize(getDatabase(ms, executor), fetchSize);
+        MappedStatement streamingStatement = customStreamingStatement(ms, id, streamingFetchSize);
+        synchronized (configuration) {
+            if (configuration.hasStatement(id, false)) {
+                return configuration.getMappedStatement(id, false);
+            }
+            configuration.addMappedStatement(streamingStatement);
+        }
+        return streamingStatement;
+    }
+
+    private String getDatabase(MappedStatement ms, Executor executor) {
+        String databaseId = MybatisUtils.getDatabaseId(null, SqlHelperMybatisPlugin.getInstrumentor(), ms);
+        if (Emptys.isEmpty(databaseId)) {
+            try {
+                databaseId = executor.getTransaction().getConnection().getMetaData().getDatabaseProductName();
+            } catch (Throwable ex) {
+                logger.warn("Can't find the database of the statement {}, error: {}", ms.getId(), ex.getMessage());
+            }
+        }
+        return databaseId;
+    }
+
+    private static MappedStatement customStreamingStatement(final MappedStatement ms, String id, int fetchSize) {
+        final MappedStatement.Builder builder = new MappedStatement.Builder(ms.getConfiguration(), id, ms.getSqlSource(), ms.getSqlCommandType());
+        builder.resource(ms.getResource());
+        builder.fetchSize(fetchSize);
+        builder.statementType(ms.getStatementType());
+        builder.keyGenerator(ms.getKeyGenerator());
+        if (Emptys.isNotEmpty(ms.getKeyProperties())) {
+            builder.keyProperty(join(ms.getKeyProperties()));
+        }
+        if (Emptys.isNotEmpty(ms.getKeyColumns())) {
+            builder.keyColumn(join(ms.getKeyColumns()));
+        }
+        if (Emptys.isNotEmpty(ms.getResulSets())) {
+            builder.resultSets(join(ms.getResulSets()));
+        }
+        builder.timeout(ms.getTimeout());
+        builder.parameterMap(ms.getParameterMap());
+        builder.resultMaps(ms.getResultMaps());
+        builder.resultSetType(ms.getResultSetType());
+        builder.cache(ms.getCache());
+        builder.flushCacheRequired(ms.isFlushCacheRequired());
+        builder.useCache(ms.isUseCache());
+        builder.resultOrdered(ms.isResultOrdered());
+        builder.databaseId(ms.getDatabaseId());
+        builder.lang(ms.getLang());
+        return builder.build();
+    }
+
+    private static String join(String[] values) {
+        final StringBuilder builder = new StringBuilder();
+        for (final String value : values) {
+            if (builder.length() > 0) {
+                builder.append(",");
+            }
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -1,8 +1,11 @@
 package com.jn.sqlhelper.mybatis.plugins.pagination;
 
 import com.jn.easyjson.core.JSONBuilderProvider;
+import com.jn.sqlhelper.dialect.pagination.CountStrategy;
 import com.jn.sqlhelper.dialect.pagination.PaginationProperties;
 
+import java.util.concurrent.ExecutorService;
+
 public class PaginationConfig extends PaginationProperties {
     private int countCacheInitCapacity = 10;
     private int countCacheMaxCapacity = 1000;
@@ -16,6 +19,30 @@ public class PaginationConfig extends PaginationProperties {
     private boolean pageHelperCompatible = true;
     private String pageHelperHandlerClass = "com.github.pagehelper.PageHelperHandler";
 
+    /**
+     * execute the count sql with another connection of the same DataSource, at the same time as the page query.
+     * It is ignored in an active transaction.
+     */
+    private boolean parallelCount = false;
+    /**
+     * the threads of the default count executor, it is ignored when virtual threads are supported
+     */
+    private int parallelCountThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * the executor of the parallel count sql, a default executor will be created if it is null
+     */
+    private transient ExecutorService parallelCountExecutor;
+
+    /**
+     * the default count strategy, it can be overridden by the PagingRequest
+     */
+    private CountStrategy countStrategy = CountStrategy.EXACT;
+    /**
+     * the cache of the count results, it is used by the CACHED count strategy
+     */
+    private int countResultCacheMaxCapacity = 1000;
+    private int countResultCacheExpireInSeconds = 60;
+
     @Override
     public String toString() {
         return JSONBuilderProvider.create().serializeNulls(true).build().toJson(this);
@@ -68,4 +95,52 @@ public class PaginationConfig extends PaginationProperties {
     public void setPageHelperHandlerClass(String pageHelperHandlerClass) {
         this.pageHelperHandlerClass = pageHelperHandlerClass;
     }
+
+    public boolean isParallelCount() {
+        return parallelCount;
+    }
+
+    public void setParallelCount(boolean parallelCount) {
+        this.parallelCount = parallelCount;
+    }
+
+    public int getParallelCountThreads() {
+        return parallelCountThreads;
+    }
+
+    public void setParallelCountThreads(int parallelCountThreads) {
+        this.parallelCountThreads = parallelCountThreads;
+    }
+
+    public ExecutorService getParallelCountExecutor() {
+        return parallelCountExecutor;
+    }
+
+    public void setParallelCountExecutor(ExecutorService parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    public int getCountResultCacheMaxCapacity() {
+        return countResultCacheMaxCapacity;
+    }
+
+    public void setCountResultCacheMaxCapacity(int countResultCacheMaxCapacity) {
+        this.countResultCacheMaxCapacity = countResultCacheMaxCapacity;
+    }
+
+    public int getCountResultCacheExpireInSeconds() {
+        return countResultCacheExpireInSeconds;
+    }
+
+    public void setCountResultCacheExpireInSeconds(int countResultCacheExpireInSeconds) {
+        this.countResultCacheExpireInSeconds = countResultCacheExpireInSeconds;
+    }
 }
@@ -9,7 +9,9 @@ import com.jn.langx.pipeline.HandlerContext;
 import com.jn.langx.pipeline.Pipelines;
 import com.jn.langx.util.*;
 import com.jn.langx.util.collection.Collects;
+import com.jn.langx.util.io.IOs;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
+import com.jn.sqlhelper.dialect.Dialect;
 import com.jn.sqlhelper.dialect.instrument.SQLStatementInstrumentor;
 import com.jn.sqlhelper.dialect.orderby.OrderBy;
 import com.jn.sqlhelper.dialect.pagination.*;
@@ -17,20 +19,32 @@ import com.jn.sqlhelper.mybatis.MybatisUtils;
 import com.jn.sqlhelper.mybatis.plugins.*;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link org.apache.ibatis.executor.Executor#query(MappedStatement, Object, RowBounds, ResultHandler)}
@@ -50,6 +64,19 @@ public class PaginationHandler extends AbstractHandler implements Initializable
     private String countSuffix = "_COUNT";
     private static final String ORDER_BY_SUFFIX = "_orderBy";
     private boolean inited = false;
+    /**
+     * the executor of the parallel count sql
+     */
+    private ExecutorService countExecutor;
+    /**
+     * whether the count executor is created by this handler, or supplied by the config
+     */
+    private boolean countExecutorCreated = false;
+    /**
+     * count result cache for the CACHED count strategy
+     * key: the cache key of the query statement, it contains the sql and the parameters
+     */
+    private Cache<CacheKey, Integer> countResultCache;
 
 
     @Override
@@ -70,14 +97,60 @@ public class PaginationHandler extends AbstractHandler implements Initializable
                         .maxCapacity(paginationConfig.getCountCacheMaxCapacity()).build();
                 this.countSuffix = (Strings.isBlank(paginationConfig.getCountSuffix()) ? "_COUNT" : paginationConfig.getCountSuffix().trim());
             }
+            if (paginationConfig.getCountResultCacheMaxCapacity() > 0) {
+                this.countResultCache = CacheBuilder.<CacheKey, Integer>newBuilder()
+                        .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                        .expireAfterWrite(paginationConfig.getCountResultCacheExpireInSeconds())
+                        .maxCapacity(paginationConfig.getCountResultCacheMaxCapacity()).build();
+            }
+            if (paginationConfig.isParallelCount()) {
+                this.countExecutor = paginationConfig.getParallelCountExecutor();
+                if (this.countExecutor == null) {
+                    this.countExecutor = newCountExecutor(paginationConfig.getParallelCountThreads());
+                    this.countExecutorCreated = true;
+                }
+            }
             inited = true;
         }
     }
 
+    /**
+     * Shutdown the executor of the parallel count sql if it is created by this handler,
+     * the executor supplied by {@link PaginationConfig#setParallelCountExecutor(ExecutorService)} is managed by the caller.
+     */
+    public void shutdown() {
+        if (this.countExecutor != null && this.countExecutorCreated) {
+            this.countExecutor.shutdown();
+        }
+    }
+
     public void setPaginationConfig(PaginationConfig config) {
         this.paginationConfig = config;
     }
 
+    /**
+     * Use a virtual thread per count task when the JDK supports it (JDK 21+), else a fixed thread pool of daemon threads.
+     */
+    private static ExecutorService newCountExecutor(int threads) {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executorService = (ExecutorService) method.invoke(null);
+            logger.info("Execute the parallel count sql with virtual threads");
+            return executorService;
+        } catch (Throwable ex) {
+            // NOOP, the virtual threads are not supported
+        }
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "sqlhelper-pagination-count-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
     private boolean isUseLastPageIfPageOut(@NonNull PagingRequest request) {
         Preconditions.checkNotNull(request);
         if (request.isUseLastPageIfPageOut() == null) {
@@ -170,16 +243,49 @@ public class PaginationHandler extends AbstractHandler implements Initializable
 
                 if (this.beginIfSupportsLimit(ms)) {
                     boolean needQuery = true;
+                    // the rows of the page query which is executed at the same time as the count sql
+                    List rows = null;
                     try {
                         if (this.needCount(request)) {
-                            final int count = this.executeCount(ms, parameter, rowBounds, resultHandler, executor, boundSql);
-                            if (count == 0) {
+                            final int count;
+                            final CountStrategy countStrategy = getCountStrategy(request);
+                            Integer approximateCount = null;
+                            CacheKey countResultKey = null;
+                            if (countStrategy == CountStrategy.CACHED && countResultCache != null) {
+                                countResultKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+                                approximateCount = countResultCache.getIfPresent(countResultKey);
+                            } else if (countStrategy == CountStrategy.ESTIMATED) {
+                                approximateCount = this.estimateCount(ms, parameter, executor, boundSql);
+                            }
+                            if (approximateCount != null) {
+                                // the page no is adjusted by an exact total only, so an approximate total which puts the page out is counted again
+                                result.setTotal(approximateCount);
+                                if (result.getMaxPage() >= 0 && KeysetPaginations.getLocatedPageNo(request) > result.getMaxPage()) {
+                                    approximateCount = null;
+                                }
+                            }
+                            if (approximateCount != null) {
+                                count = approximateCount;
+                                result.setTotalExact(false);
+                            } else if (isParallelCountable(ms, executor)) {
+                                Future<Integer> countFuture = this.submitCount(ms, parameter, boundSql);
+                                rows = this.executeQuery(ms, parameter, rowBounds, resultHandler, executor, boundSql, cacheKey);
+                                count = getCount(countFuture);
+                            } else {
+                                count = this.executeCount(ms, parameter, rowBounds, resultHandler, executor, boundSql);
+                            }
+                            if (countResultKey != null && approximateCount == null) {
+                                countResultCache.set(countResultKey, count);
+                            }
+                            // an inexact 0 maybe stale, the query is still executed
+                            if (count == 0 && approximateCount == null) {
                                 needQuery = false;
                             }
                             result.setTotal(count);
                             int maxPageCount = result.getMaxPage();
-                            if (maxPageCount >= 0) {
-                                if (requestPageNo > maxPageCount) {
+                            // the page no is not adjusted by an inexact total
+                            if (maxPageCount >= 0 && result.isTotalExact()) {
+                                if (KeysetPaginations.getLocatedPageNo(request) > maxPageCount) {
                                     if (isUseLastPageIfPageOut(request)) {
                                         request.setPageNo(maxPageCount);
                                         result.setPageNo(maxPageCount);
@@ -195,7 +301,10 @@ public class PaginationHandler extends AbstractHandler implements Initializable
                         logger.error(ex.getMessage(), ex);
                     } finally {
                         if (needQuery) {
-                            List rows = this.executeQuery(ms, parameter, rowBounds, resultHandler, executor, boundSql, cacheKey);
+                            // query again if the page query is not executed or the page no is changed to the last page
+                            if (rows == null || request.getPageNo() != requestPageNo) {
+                                rows = this.executeQuery(ms, parameter, rowBounds, resultHandler, executor, boundSql, cacheKey);
+                            }
                             if (rows != null) {
                                 items.addAll(rows);
                             }
@@ -296,7 +405,9 @@ public class PaginationHandler extends AbstractHandler implements Initializable
             }
         }
         if (!subQueryPagination) {
-            if (PAGING_CONTEXT.isOrderByRequest()) {
+            if (rowSelection.isKeysetPaging()) {
+                pageSql = instrumentor.instrumentKeysetLimitSql(boundSql.getSql(), rowSelection);
+            } else if (PAGING_CONTEXT.isOrderByRequest()) {
                 pageSql = instrumentor.instrumentOrderByLimitSql(boundSql.getSql(), PAGING_CONTEXT.getPagingRequest().getOrderBy(), rowSelection);
             } else {
                 pageSql = instrumentor.instrumentLimitSql(boundSql.getSql(), rowSelection);
@@ -324,7 +435,19 @@ public class PaginationHandler extends AbstractHandler implements Initializable
         final BoundSql pageBoundSql = MybatisUtils.rebuildBoundSql(pageSql, ms.getConfiguration(), boundSql);
         cacheKey.update(request.getPageNo());
         cacheKey.update(request.getPageSize());
-        return executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, cacheKey, pageBoundSql);
+        if (rowSelection.isKeysetPaging()) {
+            cacheKey.update(rowSelection.getKeysetOrderBy().toString());
+            if (rowSelection.getKeysetValues() != null) {
+                for (Object keysetValue : rowSelection.getKeysetValues()) {
+                    cacheKey.update(keysetValue);
+                }
+            }
+        }
+        List rows = executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, cacheKey, pageBoundSql);
+        if (rowSelection.isKeysetPaging() && request.getResult() != null) {
+            request.getResult().setNextCursor(KeysetPaginations.nextCursor(rows, rowSelection));
+        }
+        return rows;
     }
 
     private String getOrderById(final MappedStatement ms, final OrderBy orderBy) {
@@ -417,6 +540,174 @@ public class PaginationHandler extends AbstractHandler implements Initializable
         return count;
     }
 
+    /**
+     * The count sql is executed in parallel only if it is enabled and there is no active transaction,
+     * so the count sql will always see the same data as the page query in a transaction.
+     */
+    private boolean isParallelCountable(final MappedStatement ms, final Executor executor) {
+        if (this.countExecutor == null) {
+            return false;
+        }
+        Environment environment = ms.getConfiguration().getEnvironment();
+        if (environment == null || environment.getDataSource() == null || environment.getTransactionFactory() == null) {
+            return false;
+        }
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            return connection.getAutoCommit();
+        } catch (Throwable ex) {
+            logger.warn("Can't determine whether in a transaction or not, will execute the count sql sequentially. error: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Prepare the count statement and bind its parameters at current thread (the paging request context is a thread local),
+     * then execute it at the count executor.
+     * <p>
+     * The count statement is executed by a mybatis StatementHandler with another connection of the same DataSource,
+     * which is got from the transaction factory of the environment in auto commit mode,
+     * so the plugins of the StatementHandler, ParameterHandler, ResultSetHandler and the result mapping are applied as the sequential count.
+     * It is only used when there is no active transaction (see {@link #isParallelCountable(MappedStatement, Executor)}),
+     * and the mybatis caches are not used.
+     */
+    private Future<Integer> submitCount(final MappedStatement ms, final Object parameter, final BoundSql boundSql) throws SQLException {
+        final PagingRequestContext requestContext = PAGING_CONTEXT.get();
+        final PagingRequest request = PAGING_CONTEXT.getPagingRequest();
+        final String countStatementId = this.getCountStatementId(request, ms.getId());
+        MappedStatement countStatement = this.extractCountStatementFromConfiguration(ms.getConfiguration(), countStatementId);
+        final BoundSql countBoundSql;
+        if (countStatement != null) {
+            countBoundSql = countStatement.getBoundSql(parameter);
+        } else {
+            String querySql = boundSql.getSql();
+            SQLStatementInstrumentor instrumentor = SqlHelperMybatisPlugin.getInstrumentor();
+            final String countSql = instrumentor.countSql(querySql, request.getCountColumn());
+            countStatement = this.customCountStatement(ms, countStatementId, querySql, request);
+            countBoundSql = MybatisUtils.rebuildBoundSql(countSql, countStatement.getConfiguration(), boundSql);
+        }
+
+        final Configuration configuration = ms.getConfiguration();
+        final Environment environment = configuration.getEnvironment();
+        final Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+        // it owns the transaction, the connection is closed with it
+        final Executor countStatementExecutor = new SimpleExecutor(configuration, transaction);
+        Statement statement = null;
+        boolean submitted = false;
+        try {
+            final StatementHandler handler = configuration.newStatementHandler(countStatementExecutor, countStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, countBoundSql);
+            statement = handler.prepare(transaction.getConnection(), transaction.getTimeout());
+            requestContext.set(MybatisSqlRequestContextKeys.COUNT_SQL, countBoundSql);
+            handler.parameterize(statement);
+
+            final Statement countStatementToExecute = statement;
+            Future<Integer> countFuture = countExecutor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    try {
+                        List rows = handler.query(countStatementToExecute, Executor.NO_RESULT_HANDLER);
+                        return rows.isEmpty() ? 0 : ((Number) rows.get(0)).intValue();
+                    } catch (SQLException ex) {
+                        logger.error("error occur when execute count sql [{}], error: {}", countBoundSql.getSql(), ex.getMessage(), ex);
+                        throw ex;
+                    } finally {
+                        IOs.close(countStatementToExecute);
+                        countStatementExecutor.close(false);
+                    }
+                }
+            });
+            submitted = true;
+            return countFuture;
+        } catch (SQLException ex) {
+            logger.error("error occur when prepare count sql [{}], error: {}", countBoundSql.getSql(), ex.getMessage(), ex);
+            throw ex;
+        } finally {
+            requestContext.set(MybatisSqlRequestContextKeys.COUNT_SQL, null);
+            if (!submitted) {
+                IOs.close(statement);
+                countStatementExecutor.close(false);
+            }
+        }
+    }
+
+    private static int getCount(Future<Integer> countFuture) throws Throwable {
+        try {
+            return countFuture.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private CountStrategy getCountStrategy(final PagingRequest request) {
+        if (request.getCountStrategy() != null) {
+            return request.getCountStrategy();
+        }
+        return paginationConfig.getCountStrategy() == null ? CountStrategy.EXACT : paginationConfig.getCountStrategy();
+    }
+
+    /**
+     * Estimate the count with the planner statistics, with the connection of current executor.
+     * <p>
+     * If the connection is in a transaction, the estimation is executed after a savepoint,
+     * and is rolled back to the savepoint when it is failed, since a failed statement aborts the whole transaction in some databases (PostgreSQL for example).
+     * If the savepoint is not supported, the count is not estimated.
+     *
+     * @return null if the dialect has no estimator, or the estimation is failed or is not positive
+     */
+    private Integer estimateCount(final MappedStatement ms, final Object parameter, final Executor executor, final BoundSql boundSql) {
+        Dialect dialect = SqlHelperMybatisPlugin.getInstrumentor().getCurrentDialect();
+        CountEstimator estimator = dialect == null ? null : dialect.getCountEstimator();
+        if (estimator == null) {
+            return null;
+        }
+        final PagingRequestContext requestContext = PAGING_CONTEXT.get();
+        final String estimateSql = estimator.getEstimateSql(boundSql.getSql());
+        final BoundSql estimateBoundSql = MybatisUtils.rebuildBoundSql(estimateSql, ms.getConfiguration(), boundSql);
+        Connection connection = null;
+        Savepoint savepoint = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = executor.getTransaction().getConnection();
+            if (!connection.getAutoCommit()) {
+                if (!connection.getMetaData().supportsSavepoints()) {
+                    return null;
+                }
+                savepoint = connection.setSavepoint();
+            }
+            statement = connection.prepareStatement(estimateSql);
+            // bind the parameters as a count sql
+            requestContext.set(MybatisSqlRequestContextKeys.COUNT_SQL, estimateBoundSql);
+            ms.getConfiguration().newParameterHandler(ms, parameter, estimateBoundSql).setParameters(statement);
+            resultSet = statement.executeQuery();
+            long estimated = estimator.estimate(resultSet);
+            if (estimated > 0) {
+                return (int) Math.min(estimated, Integer.MAX_VALUE);
+            }
+        } catch (Throwable ex) {
+            logger.warn("error occur when estimate the count with sql [{}], will execute the count sql, error: {}", estimateSql, ex.getMessage());
+            if (savepoint != null) {
+                try {
+                    connection.rollback(savepoint);
+                } catch (SQLException e) {
+                    logger.warn("error occur when rollback to the savepoint of the count estimation, error: {}", e.getMessage());
+                }
+            }
+        } finally {
+            requestContext.set(MybatisSqlRequestContextKeys.COUNT_SQL, null);
+            IOs.close(resultSet);
+            IOs.close(statement);
+            if (savepoint != null) {
+                try {
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    // some drivers don't support to release a savepoint, it is released when the transaction ends
+                }
+            }
+        }
+        return null;
+    }
+
     private boolean needCount(final PagingRequest request) {
         if (request.needCount() == null) {
             return paginationConfig.isCount();
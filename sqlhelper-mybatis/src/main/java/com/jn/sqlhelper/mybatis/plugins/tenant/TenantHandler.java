@@ -10,12 +10,14 @@ import com.jn.sqlhelper.dialect.SqlRequestContext;
 import com.jn.sqlhelper.dialect.SqlRequestContextHolder;
 import com.jn.sqlhelper.dialect.instrument.SQLStatementInstrumentor;
 import com.jn.sqlhelper.dialect.tenant.Tenant;
+import com.jn.sqlhelper.dialect.tenant.TenantSql;
 import com.jn.sqlhelper.mybatis.MybatisUtils;
 import com.jn.sqlhelper.mybatis.plugins.ExecutorInvocation;
 import com.jn.sqlhelper.mybatis.plugins.SqlHelperMybatisPlugin;
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.*;
+import org.apache.ibatis.session.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +30,7 @@ import java.util.List;
 public class TenantHandler extends AbstractHandler{
     private static Logger logger = LoggerFactory.getLogger(TenantHandler.class);
     private static final String TENANT_SUFFIX = "tenant";
+    private static final String TENANT_PARAMETER_PREFIX = "__sqlhelper_tenant_";
 
     @Override
     public void inbound(HandlerContext ctx) throws Throwable {
@@ -53,13 +56,13 @@ public class TenantHandler extends AbstractHandler{
         final Object parameter = executorInvocation.getParameter();
         SQLStatementInstrumentor instrumentor = SqlHelperMybatisPlugin.getInstrumentor();
         try {
-            String tenantSql = instrumentor.instrumentTenantSql(boundSql.getSql(), tenant);
+            TenantSql tenantSql = instrumentor.instrumentTenant(boundSql.getSql(), tenant);
             if(SqlCommandType.SELECT.equals(ms.getSqlCommandType())){
-               boundSql = MybatisUtils.rebuildBoundSql(tenantSql, ms.getConfiguration(), boundSql);
+               boundSql = rebuildBoundSql(tenantSql, ms, boundSql, tenant);
                executorInvocation.setBoundSql(boundSql);
                Pipelines.inbound(ctx);
             }else{
-                boundSql = MybatisUtils.rebuildBoundSql(tenantSql, ms.getConfiguration(), boundSql);
+                boundSql = rebuildBoundSql(tenantSql, ms, boundSql, tenant);
                 String tenantStatementId=this.getTenantStatementId(ms,tenant);
                 MappedStatement customTenantStatement=this.customTenantStatement(ms,parameter,tenantStatementId,boundSql);
                 executorInvocation.setResult(executor.update(customTenantStatement, parameter));
@@ -72,13 +75,57 @@ public class TenantHandler extends AbstractHandler{
             instrumentor.finish();
         }
     }
+    /**
+     * Append the parameter mappings of a parameterized tenant sql, the tenant values are the additional parameters
+     */
+    private static BoundSql rebuildBoundSql(TenantSql tenantSql, MappedStatement ms, BoundSql boundSql, Tenant tenant) {
+        Configuration configuration = ms.getConfiguration();
+        if (!tenantSql.isParameterized()) {
+            return MybatisUtils.rebuildBoundSql(tenantSql.getSql(), configuration, boundSql);
+        }
+        int[] indexes = tenantSql.getParameterIndexes();
+        List<Object> values = tenant.getParameterValues(ms.getSqlCommandType() != SqlCommandType.INSERT);
+        if (values.size() != indexes.length) {
+            throw new IllegalStateException("The tenant parameters count is not matched, sql: " + tenantSql.getSql());
+        }
+        List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>(boundSql.getParameterMappings());
+        for (int i = 0; i < indexes.length; i++) {
+            parameterMappings.add(indexes[i], new ParameterMapping.Builder(configuration, TENANT_PARAMETER_PREFIX + i, String.class).build());
+        }
+        BoundSql newBoundSql = MybatisUtils.rebuildBoundSql(tenantSql.getSql(), configuration, boundSql, parameterMappings);
+        for (int i = 0; i < indexes.length; i++) {
+            newBoundSql.setAdditionalParameter(TENANT_PARAMETER_PREFIX + i, values.get(i));
+        }
+        return newBoundSql;
+    }
+
+    private static boolean hasTenantParameter(BoundSql boundSql) {
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            if (parameterMapping.getProperty().startsWith(TENANT_PARAMETER_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String getTenantStatementId(final MappedStatement ms, final Tenant tenant) {
         StringBuilder builder = new StringBuilder(ms.getId() + "_");
         return builder.append(TENANT_SUFFIX).toString();
     }
-    private MappedStatement customTenantStatement(final MappedStatement ms, Object parameter,final String tenantStatementId,BoundSql boundSql) {
-        List<ParameterMapping> parameterMappings= ms.getBoundSql(ms.getParameterMap().getType()).getParameterMappings();
-        StaticSqlSource sqlSource=new StaticSqlSource(ms.getConfiguration(), boundSql.getSql(), parameterMappings);
+    private MappedStatement customTenantStatement(final MappedStatement ms, Object parameter,final String tenantStatementId,final BoundSql boundSql) {
+        SqlSource sqlSource;
+        if (hasTenantParameter(boundSql)) {
+            // the tenant values are the additional parameters of the rebuilt bound sql
+            sqlSource = new SqlSource() {
+                @Override
+                public BoundSql getBoundSql(Object parameterObject) {
+                    return boundSql;
+                }
+            };
+        } else {
+            List<ParameterMapping> parameterMappings = ms.getBoundSql(ms.getParameterMap().getType()).getParameterMappings();
+            sqlSource = new StaticSqlSource(ms.getConfiguration(), boundSql.getSql(), parameterMappings);
+        }
         final MappedStatement.Builder builder = new MappedStatement.Builder(ms.getConfiguration(), tenantStatementId, sqlSource, ms.getSqlCommandType());
         builder.resource(ms.getResource());
         builder.fetchSize(ms.getFetchSize());
@@ -0,0 +1,145 @@
+package com.jn.sqlhelper.mybatis.tests;
+
+import com.jn.sqlhelper.dialect.SqlRequests;
+import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.dialect.pagination.CountStrategy;
+import com.jn.sqlhelper.dialect.pagination.PagingRequest;
+import com.jn.sqlhelper.dialect.pagination.PagingResult;
+import com.jn.sqlhelper.mybatis.plugins.CustomScriptLanguageDriver;
+import com.jn.sqlhelper.mybatis.plugins.SqlHelperMybatisPlugin;
+import com.jn.sqlhelper.mybatis.plugins.pagination.PaginationConfig;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+public class CountResultCacheTests {
+    private static UnpooledDataSource dataSource;
+    private static SqlHelperMybatisPlugin plugin;
+    private static SqlSessionFactory sessionFactory;
+
+    public interface UserMapper {
+        @Select("select id, name from cached_user where age > #{age} order by id")
+        List<Map<String, Object>> selectByAge(@Param("age") int age);
+
+        @Select("select id, name from page_out_user where age > #{age} order by id")
+        List<Map<String, Object>> selectPageOutByAge(@Param("age") int age);
+    }
+
+    /**
+     * 25 users in each table, the age of an user is its id
+     */
+    @BeforeClass
+    public static void setUp() throws SQLException {
+        dataSource = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:count_result_cache;DB_CLOSE_DELAY=-1", "sa", "");
+        execute("create table cached_user(id int primary key, name varchar(32), age int)",
+                "create table page_out_user(id int primary key, name varchar(32), age int)");
+        for (int i = 1; i <= 25; i++) {
+            execute("insert into cached_user values (" + i + ", 'user" + i + "', " + i + ")",
+                    "insert into page_out_user values (" + i + ", 'user" + i + "', " + i + ")");
+        }
+
+        PaginationConfig paginationConfig = new PaginationConfig();
+        paginationConfig.setCount(true);
+        paginationConfig.setCountStrategy(CountStrategy.CACHED);
+        paginationConfig.setCountResultCacheExpireInSeconds(1);
+        plugin = new SqlHelperMybatisPlugin();
+        plugin.setPaginationConfig(paginationConfig);
+        plugin.setInstrumentorConfig(new SQLInstrumentorConfig());
+        plugin.init();
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("h2");
+        configuration.setDefaultScriptingLanguage(CustomScriptLanguageDriver.class);
+        configuration.addInterceptor(plugin);
+        configuration.addMapper(UserMapper.class);
+        sessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        plugin.shutdown();
+    }
+
+    @Test
+    public void testHitAndExpire() throws Exception {
+        PagingResult result = selectPage(SqlRequests.preparePagination(1, 5), false);
+        Assert.assertEquals(15, result.getTotal());
+        Assert.assertTrue(result.isTotalExact());
+
+        execute("insert into cached_user values (26, 'user26', 26)");
+        // the cached total is used
+        result = selectPage(SqlRequests.preparePagination(1, 5), false);
+        Assert.assertEquals(15, result.getTotal());
+        Assert.assertFalse(result.isTotalExact());
+
+        Thread.sleep(2100);
+        // the cached total is expired
+        result = selectPage(SqlRequests.preparePagination(1, 5), false);
+        Assert.assertEquals(16, result.getTotal());
+        Assert.assertTrue(result.isTotalExact());
+    }
+
+    @Test
+    public void testUseLastPageIfPageOut() throws SQLException {
+        PagingResult result = selectPage(SqlRequests.preparePagination(1, 5), true);
+        Assert.assertEquals(25, result.getTotal());
+
+        execute("delete from page_out_user where id > 20");
+        // the page is out of the cached total, the exact total is counted to find the last page
+        PagingRequest request = SqlRequests.preparePagination(6, 5);
+        request.setUseLastPageIfPageOut(true);
+        result = selectPage(request, true);
+        Assert.assertEquals(20, result.getTotal());
+        Assert.assertTrue(result.isTotalExact());
+        List items = result.getItems();
+        Assert.assertEquals(5, items.size());
+        Assert.assertEquals(16, ((Number) ((Map<String, Object>) items.get(0)).get("ID")).intValue());
+    }
+
+    /**
+     * a new session every time, the count is not got from the local cache of the session
+     */
+    private static PagingResult selectPage(PagingRequest request, boolean pageOutTable) {
+        SqlSession session = sessionFactory.openSession(true);
+        try {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            if (pageOutTable) {
+                mapper.selectPageOutByAge(0);
+            } else {
+                mapper.selectByAge(10);
+            }
+            return request.getResult();
+        } finally {
+            session.close();
+        }
+    }
+
+    private static void execute(String... sqls) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
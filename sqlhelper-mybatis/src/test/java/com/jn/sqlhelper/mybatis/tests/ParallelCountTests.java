@@ -0,0 +1,160 @@
+package com.jn.sqlhelper.mybatis.tests;
+
+import com.jn.sqlhelper.dialect.SqlRequests;
+import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.dialect.pagination.PagingRequest;
+import com.jn.sqlhelper.dialect.pagination.PagingResult;
+import com.jn.sqlhelper.mybatis.plugins.CustomScriptLanguageDriver;
+import com.jn.sqlhelper.mybatis.plugins.SqlHelperMybatisPlugin;
+import com.jn.sqlhelper.mybatis.plugins.pagination.PaginationConfig;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelCountTests {
+    private static SqlHelperMybatisPlugin plugin;
+    private static SqlSessionFactory sessionFactory;
+    private static CountingExecutor countExecutor;
+
+    public interface UserMapper {
+        @Select("select id, name from user_info where age > #{age} order by id")
+        List<Map<String, Object>> selectByAge(@Param("age") int age);
+    }
+
+    /**
+     * user_info: 25 users, the age of an user is its id
+     */
+    @BeforeClass
+    public static void setUp() throws SQLException {
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:parallel_count;DB_CLOSE_DELAY=-1", "sa", "");
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("create table user_info(id int primary key, name varchar(32), age int)");
+            for (int i = 1; i <= 25; i++) {
+                statement.execute("insert into user_info values (" + i + ", 'user" + i + "', " + i + ")");
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+
+        countExecutor = new CountingExecutor();
+        PaginationConfig paginationConfig = new PaginationConfig();
+        paginationConfig.setCount(true);
+        paginationConfig.setParallelCount(true);
+        paginationConfig.setParallelCountExecutor(countExecutor);
+        plugin = new SqlHelperMybatisPlugin();
+        plugin.setPaginationConfig(paginationConfig);
+        plugin.setInstrumentorConfig(new SQLInstrumentorConfig());
+        plugin.init();
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("h2");
+        configuration.setDefaultScriptingLanguage(CustomScriptLanguageDriver.class);
+        configuration.addInterceptor(plugin);
+        configuration.addMapper(UserMapper.class);
+        sessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        plugin.shutdown();
+        // the supplied executor is not shutdown by the plugin
+        Assert.assertFalse(countExecutor.isShutdown());
+        countExecutor.shutdown();
+    }
+
+    @Test
+    public void testParallelCount() {
+        int submitted = countExecutor.submitted.get();
+        SqlSession session = sessionFactory.openSession(true);
+        try {
+            PagingResult result = selectPage(session, 2);
+            Assert.assertEquals(submitted + 1, countExecutor.submitted.get());
+            Assert.assertEquals(15, result.getTotal());
+            Assert.assertTrue(result.isTotalExact());
+            assertIds(result.getItems(), 16, 20);
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    public void testParallelCountPageOut() {
+        SqlSession session = sessionFactory.openSession(true);
+        try {
+            // the page is queried again after the page no is changed to the last page
+            PagingRequest request = SqlRequests.preparePagination(5, 5);
+            request.setUseLastPageIfPageOut(true);
+            session.getMapper(UserMapper.class).selectByAge(10);
+            Assert.assertEquals(15, request.getResult().getTotal());
+            assertIds(request.getResult().getItems(), 21, 25);
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    public void testSequentialCountInTransaction() {
+        int submitted = countExecutor.submitted.get();
+        SqlSession session = sessionFactory.openSession(false);
+        try {
+            PagingResult result = selectPage(session, 2);
+            // the count sql sees the same data as the page query in a transaction
+            Assert.assertEquals(submitted, countExecutor.submitted.get());
+            Assert.assertEquals(15, result.getTotal());
+            assertIds(result.getItems(), 16, 20);
+        } finally {
+            session.close();
+        }
+    }
+
+    private static PagingResult selectPage(SqlSession session, int pageNo) {
+        PagingRequest request = SqlRequests.preparePagination(pageNo, 5);
+        session.getMapper(UserMapper.class).selectByAge(10);
+        return request.getResult();
+    }
+
+    private static void assertIds(List items, int firstId, int lastId) {
+        Assert.assertEquals(lastId - firstId + 1, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> row = (Map<String, Object>) items.get(i);
+            Assert.assertEquals(firstId + i, ((Number) row.get("ID")).intValue());
+        }
+    }
+
+    private static class CountingExecutor extends ThreadPoolExecutor {
+        private final AtomicInteger submitted = new AtomicInteger();
+
+        CountingExecutor() {
+            super(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            submitted.incrementAndGet();
+            super.execute(command);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.jn.sqlhelper.mybatis.tests;
+
+import com.jn.sqlhelper.dialect.instrument.SQLInstrumentorConfig;
+import com.jn.sqlhelper.mybatis.plugins.SqlHelperMybatisPlugin;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+public class StreamingCursorTests {
+    private static final String STATEMENT_ID = UserMapper.class.getName() + ".selectAll";
+    private static UnpooledDataSource dataSource;
+    private static SqlHelperMybatisPlugin plugin;
+
+    public interface UserMapper {
+        @Select("select id, name from cursor_user order by id")
+        Cursor<Map<String, Object>> selectAll();
+    }
+
+    @BeforeClass
+    public static void setUp() throws SQLException {
+        dataSource = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:streaming_cursor;DB_CLOSE_DELAY=-1", "sa", "");
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("create table cursor_user(id int primary key, name varchar(32))");
+            for (int i = 1; i <= 10; i++) {
+                statement.execute("insert into cursor_user values (" + i + ", 'user" + i + "')");
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+
+        plugin = new SqlHelperMybatisPlugin();
+        plugin.setInstrumentorConfig(new SQLInstrumentorConfig());
+        plugin.setStreamingCursor(true);
+        plugin.setCursorFetchSize(50);
+        plugin.init();
+    }
+
+    @Test
+    public void testStreamingStatementInConfiguration() throws Exception {
+        SqlSessionFactory sessionFactory = newSessionFactory();
+        Configuration configuration = sessionFactory.getConfiguration();
+        Assert.assertEquals(10, countRows(sessionFactory));
+        MappedStatement streamingStatement = configuration.getMappedStatement(STATEMENT_ID + "_STREAMING", false);
+        Assert.assertEquals(50, streamingStatement.getFetchSize().intValue());
+        Assert.assertNull(configuration.getMappedStatement(STATEMENT_ID, false).getFetchSize());
+
+        // the streaming statement is reused
+        Assert.assertEquals(10, countRows(sessionFactory));
+        Assert.assertSame(streamingStatement, configuration.getMappedStatement(STATEMENT_ID + "_STREAMING", false));
+
+        // another configuration has its own streaming statement
+        SqlSessionFactory sessionFactory2 = newSessionFactory();
+        Assert.assertEquals(10, countRows(sessionFactory2));
+        MappedStatement streamingStatement2 = sessionFactory2.getConfiguration().getMappedStatement(STATEMENT_ID + "_STREAMING", false);
+        Assert.assertNotSame(streamingStatement, streamingStatement2);
+        Assert.assertSame(sessionFactory2.getConfiguration(), streamingStatement2.getConfiguration());
+    }
+
+    private static SqlSessionFactory newSessionFactory() {
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("h2");
+        configuration.addInterceptor(plugin);
+        configuration.addMapper(UserMapper.class);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    private static int countRows(SqlSessionFactory sessionFactory) throws Exception {
+        SqlSession session = sessionFactory.openSession(false);
+        try {
+            Cursor<Map<String, Object>> cursor = session.getMapper(UserMapper.class).selectAll();
+            int rows = 0;
+            for (Map<String, Object> ignored : cursor) {
+                rows++;
+            }
+            cursor.close();
+            return rows;
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.jn.sqlhelper.mybatisplus.plugins.pagination.CustomMybatisPlusScriptLa
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -32,7 +33,7 @@ import org.springframework.context.annotation.Bean;
 
 @org.springframework.context.annotation.Configuration
 @AutoConfigureBefore(MybatisPlusAutoConfiguration.class)
-public class SqlHelperMybatisPlusAutoConfiguration implements ConfigurationCustomizer {
+public class SqlHelperMybatisPlusAutoConfiguration implements ConfigurationCustomizer, DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(SqlHelperMybatisPlusAutoConfiguration.class);
 
     @Bean
@@ -47,6 +48,7 @@ public class SqlHelperMybatisPlusAutoConfiguration implements ConfigurationCusto
     }
 
     private SqlHelperMybatisProperties sqlHelperMybatisProperties;
+    private SqlHelperMybatisPlugin plugin;
 
     @Autowired
     public void setSqlHelperMybatisPlusProperties(SqlHelperMybatisProperties sqlHelperMybatisProperties) {
@@ -59,6 +61,7 @@ public class SqlHelperMybatisPlusAutoConfiguration implements ConfigurationCusto
         configuration.setDefaultScriptingLanguage(CustomMybatisPlusScriptLanguageDriver.class);
 
         SqlHelperMybatisPlugin plugin = new SqlHelperMybatisPlugin();
+        this.plugin = plugin;
         plugin.setPaginationConfig(sqlHelperMybatisProperties.getPagination());
         plugin.setInstrumentorConfig(sqlHelperMybatisProperties.getInstrumentor());
         plugin.init();
@@ -68,5 +71,10 @@ public class SqlHelperMybatisPlusAutoConfiguration implements ConfigurationCusto
         configuration.addInterceptor(plugin);
     }
 
-
-}
\ No newline at end of file
+    @Override
+    public void destroy() {
+        if (plugin != null) {
+            plugin.shutdown();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.jn.langx.util.Preconditions;
 import com.jn.langx.util.Strings;
 import com.jn.langx.util.collection.Collects;
 import com.jn.langx.util.reflect.Reflects;
+import com.jn.sqlhelper.common.resultset.ResultSets;
+import com.jn.sqlhelper.common.statement.StreamingStatements;
 import com.jn.sqlhelper.common.utils.SQLs;
 import com.jn.sqlhelper.dialect.pagination.PagedPreparedParameterSetter;
 import com.jn.sqlhelper.dialect.pagination.RowSelection;
@@ -151,7 +153,7 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                         result.setTotal(count);
                         int maxPageCount = result.getMaxPage();
                         if (maxPageCount >= 0) {
-                            if (requestPageNo > maxPageCount) {
+                            if (KeysetPaginations.getLocatedPageNo(request) > maxPageCount) {
                                 if (isUseLastPageIfPageNoOut(request)) {
                                     request.setPageNo(maxPageCount);
                                     result.setPageNo(maxPageCount);
@@ -180,7 +182,9 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                         }
 
                         if (!subqueryPagination) {
-                            if (PAGING_CONTEXT.isOrderByRequest()) {
+                            if (rowSelection.isKeysetPaging()) {
+                                paginationSql = instrumentor.instrumentKeysetLimitSql(sql, rowSelection);
+                            } else if (PAGING_CONTEXT.isOrderByRequest()) {
                                 paginationSql = instrumentor.instrumentOrderByLimitSql(sql, PAGING_CONTEXT.getPagingRequest().getOrderBy(), rowSelection);
                             } else {
                                 paginationSql = instrumentor.instrumentLimitSql(sql, rowSelection);
@@ -215,6 +219,9 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                             resultSet = ps.executeQuery();
                             List rows = (List) rse.extractData(resultSet);
                             items.addAll(rows);
+                            if (rowSelection.isKeysetPaging()) {
+                                result.setNextCursor(KeysetPaginations.nextCursor(rows, rowSelection));
+                            }
                         } finally {
                             JdbcUtils.closeResultSet(resultSet);
                         }
@@ -300,7 +307,7 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                         result.setTotal(count);
                         int maxPageCount = result.getMaxPage();
                         if (maxPageCount >= 0) {
-                            if (requestPageNo > maxPageCount) {
+                            if (KeysetPaginations.getLocatedPageNo(request) > maxPageCount) {
                                 if (isUseLastPageIfPageNoOut(request)) {
                                     request.setPageNo(maxPageCount);
                                     result.setPageNo(maxPageCount);
@@ -331,7 +338,9 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                         int afterSubqueryParametersCount = 0;
 
                         if (!subqueryPagination) {
-                            if (PAGING_CONTEXT.isOrderByRequest()) {
+                            if (rowSelection.isKeysetPaging()) {
+                                paginationSql = instrumentor.instrumentKeysetLimitSql(sql, rowSelection);
+                            } else if (PAGING_CONTEXT.isOrderByRequest()) {
                                 paginationSql = instrumentor.instrumentOrderByLimitSql(sql, PAGING_CONTEXT.getPagingRequest().getOrderBy(), rowSelection);
                             } else {
                                 paginationSql = instrumentor.instrumentLimitSql(sql, rowSelection);
@@ -398,6 +407,9 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
                             resultSet = ps.executeQuery();
                             List rows = (List) rse.extractData(resultSet);
                             items.addAll(rows);
+                            if (rowSelection.isKeysetPaging()) {
+                                result.setNextCursor(KeysetPaginations.nextCursor(rows, rowSelection));
+                            }
                         } finally {
                             JdbcUtils.closeResultSet(resultSet);
                             if (pss instanceof ParameterDisposer) {
@@ -422,6 +434,72 @@ public class JdbcTemplate extends org.springframework.jdbc.core.JdbcTemplate {
         }
     }
 
+    /**
+     * Stream the rows of a query to a RowCallbackHandler, the rows are not kept in memory.
+     * <p>
+     * The statement fetches the rows in batches, see {@link StreamingStatements}.
+     * The offset and the limit are instrumented into the sql if there is a limit and the dialect supports limit,
+     * so the skipped rows are not transferred, else they are skipped on the client side.
+     *
+     * @param offset the count of the rows to skip
+     * @param limit  the max count of the rows, no limit if it is not positive
+     * @param args   the arguments of the sql
+     * @return the count of the handled rows
+     */
+    public int streamQuery(final String sql, final long offset, final int limit, final RowCallbackHandler rch, final Object... args) throws DataAccessException {
+        Preconditions.checkNotNull(rch, "RowCallbackHandler must not be null");
+        return execute(new ConnectionCallback<Integer>() {
+            @Override
+            public Integer doInConnection(Connection conn) throws SQLException, DataAccessException {
+                SQLStatementInstrumentor instrumentor = SQLInstrumentorProvider.getInstance().get(instrumentConfig);
+                PreparedStatementSetter pss = newArgPreparedStatementSetter(args);
+                PreparedStatement ps = null;
+                ResultSet resultSet = null;
+                try {
+                    // the last row (offset + limit) must be an int for the dialects which use the max rows as the limit
+                    boolean limited = limit > 0 && offset + limit <= Integer.MAX_VALUE && SQLs.isSelectStatement(sql) && instrumentor.beginIfSupportsLimit(conn.getMetaData());
+                    RowSelection rowSelection = null;
+                    String sql0 = sql;
+                    if (limited) {
+                        rowSelection = new RowSelection();
+                        rowSelection.setOffset(offset);
+                        rowSelection.setLimit(limit);
+                        sql0 = instrumentor.instrumentLimitSql(sql, rowSelection);
+                    }
+                    ps = conn.prepareStatement(sql0, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    applyStatementSettings(ps);
+                    StreamingStatements.enableStreaming(ps, getFetchSize());
+                    if (limited) {
+                        SpringJdbcQueryParameters queryParameters = new SpringJdbcQueryParameters();
+                        queryParameters.setCallable(false);
+                        queryParameters.setRowSelection(rowSelection);
+                        instrumentor.bindParameters(new PagedPreparedStatement(ps), new PagedPreparedStatementSetter(pss), queryParameters, true);
+                    } else {
+                        pss.setValues(ps);
+                    }
+                    resultSet = ps.executeQuery();
+                    if (!limited) {
+                        ResultSets.skipRows(resultSet, (int) Math.min(offset, Integer.MAX_VALUE));
+                    }
+                    int count = 0;
+                    while ((limit <= 0 || count < limit) && resultSet.next()) {
+                        rch.processRow(resultSet);
+                        count++;
+                    }
+                    handleWarnings(ps);
+                    return count;
+                } finally {
+                    instrumentor.finish();
+                    JdbcUtils.closeResultSet(resultSet);
+                    JdbcUtils.closeStatement(ps);
+                    if (pss instanceof ParameterDisposer) {
+                        ((ParameterDisposer) pss).cleanupParameters();
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * for Spring 4.x
      */
@@ -14,12 +14,6 @@
 
 package com.jn.sqlhelper.springjdbc.statement;
 
-import com.jn.langx.util.Throwables;
-import com.jn.langx.util.collection.Collects;
-import com.jn.langx.util.collection.Pipeline;
-import com.jn.langx.util.function.Consumer2;
-import com.jn.langx.util.struct.Entry;
-import com.jn.langx.util.struct.Pair;
 import com.jn.sqlhelper.dialect.pagination.PagedPreparedParameterSetter;
 import com.jn.sqlhelper.dialect.pagination.QueryParameters;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -39,6 +33,12 @@ public class NamedParameterPreparedStatementCreator implements PreparedStatement
 
     private NamedParameterPreparedStatementCreatorFactory factory;
 
+    /**
+     * the parameters with the collections expanded, they are flattened once for all the paging parts
+     */
+    private SqlParameter[] flatDeclaredParameters;
+    private Object[] flatValues;
+
     public NamedParameterPreparedStatementCreator(String actualSql, List<?> parameters, NamedParameterPreparedStatementCreatorFactory factory) {
         this.actualSql = actualSql;
         Assert.notNull(parameters, "Parameters List must not be null");
@@ -89,84 +89,110 @@ public class NamedParameterPreparedStatementCreator implements PreparedStatement
 
     @Override
     public int setBeforeSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        List<Pair<SqlParameter, Object>> parameters = flatParameters();
-        return setSqlParameters(statement, Collects.limit(parameters, queryParameters.getBeforeSubqueryParameterCount()), startIndex);
+        flatParameters();
+        int to = Math.min(queryParameters.getBeforeSubqueryParameterCount(), flatValues.length);
+        return setSqlParameters(statement, 0, to, startIndex);
     }
 
     @Override
     public int setSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        List<Pair<SqlParameter, Object>> parameters = flatParameters();
-        Collection<Pair<SqlParameter, Object>> p = Pipeline.of(parameters)
-                .limit(parameters.size() - queryParameters.getAfterSubqueryParameterCount())
-                .skip(queryParameters.getBeforeSubqueryParameterCount()).asList();
-        return setSqlParameters(statement, p, startIndex);
+        flatParameters();
+        int from = Math.min(queryParameters.getBeforeSubqueryParameterCount(), flatValues.length);
+        int to = Math.max(from, flatValues.length - queryParameters.getAfterSubqueryParameterCount());
+        return setSqlParameters(statement, from, to, startIndex);
     }
 
     @Override
     public int setAfterSubqueryParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        List<Pair<SqlParameter, Object>> parameters = flatParameters();
-        return setSqlParameters(statement, Collects.skip(parameters, parameters.size() - queryParameters.getAfterSubqueryParameterCount()), startIndex);
+        flatParameters();
+        int from = Math.max(0, flatValues.length - queryParameters.getAfterSubqueryParameterCount());
+        return setSqlParameters(statement, from, flatValues.length, startIndex);
     }
 
     @Override
     public int setOriginalParameters(PreparedStatement statement, QueryParameters queryParameters, int startIndex) throws SQLException {
-        List<Pair<SqlParameter, Object>> parameters = flatParameters();
-        return setSqlParameters(statement, parameters, 1);
+        flatParameters();
+        return setSqlParameters(statement, 0, flatValues.length, 1);
     }
 
-    private int setSqlParameters(final PreparedStatement statement, Collection<Pair<SqlParameter, Object>> parameters, final int startIndex) {
-        Collects.forEach(parameters, new Consumer2<Integer, Pair<SqlParameter, Object>>() {
-            @Override
-            public void accept(Integer index, Pair<SqlParameter, Object> pair) {
-                try {
-                    StatementCreatorUtils.setParameterValue(statement, index + startIndex, pair.getKey(), pair.getValue());
-                } catch (SQLException ex) {
-                    throw Throwables.wrapAsRuntimeException(ex);
-                }
-            }
-        });
-        return parameters.size();
+    /**
+     * binds the flat parameters [from, to), the first one is bound to the startIndex
+     */
+    private int setSqlParameters(final PreparedStatement statement, final int from, final int to, final int startIndex) throws SQLException {
+        for (int i = from; i < to; i++) {
+            StatementCreatorUtils.setParameterValue(statement, startIndex + i - from, flatDeclaredParameters[i], flatValues[i]);
+        }
+        return to - from;
     }
 
-    private List<Pair<SqlParameter, Object>> flatParameters() {
-        final List<Pair<SqlParameter, Object>> ret = Collects.emptyArrayList();
-        Collects.forEach(this.parameters, new Consumer2<Integer, Object>() {
-            @Override
-            public void accept(Integer i, Object in) {
-                SqlParameter declaredParameter;
-                // SqlParameterValue overrides declared parameter meta-data, in particular for
-                // independence from the declared parameter position in case of named parameters.
-                if (in instanceof SqlParameterValue) {
-                    SqlParameterValue paramValue = (SqlParameterValue) in;
-                    in = paramValue.getValue();
-                    declaredParameter = paramValue;
-                } else {
-                    if (factory.getDeclaredParameters().size() <= i) {
-                        throw new InvalidDataAccessApiUsageException(
-                                "SQL [" + getSql() + "]: unable to access parameter number " + (i + 1) +
-                                        " given only " + factory.getDeclaredParameters().size() + " parameters");
+    private void flatParameters() {
+        if (flatValues != null) {
+            return;
+        }
+        int size = 0;
+        SqlParameter[] declaredParameters = new SqlParameter[this.parameters.size()];
+        Object[] values = new Object[this.parameters.size()];
+        for (int i = 0; i < this.parameters.size(); i++) {
+            Object in = this.parameters.get(i);
+            SqlParameter declaredParameter;
+            // SqlParameterValue overrides declared parameter meta-data, in particular for
+            // independence from the declared parameter position in case of named parameters.
+            if (in instanceof SqlParameterValue) {
+                SqlParameterValue paramValue = (SqlParameterValue) in;
+                in = paramValue.getValue();
+                declaredParameter = paramValue;
+            } else {
+                if (factory.getDeclaredParameters().size() <= i) {
+                    throw new InvalidDataAccessApiUsageException(
+                            "SQL [" + getSql() + "]: unable to access parameter number " + (i + 1) +
+                                    " given only " + factory.getDeclaredParameters().size() + " parameters");
 
-                    }
-                    declaredParameter = factory.getDeclaredParameters().get(i);
                 }
-                if (in instanceof Collection && declaredParameter.getSqlType() != Types.ARRAY) {
-                    Collection<?> entries = (Collection<?>) in;
-                    for (Object entry : entries) {
-                        if (entry instanceof Object[]) {
-                            Object[] valueArray = ((Object[]) entry);
-                            for (Object argValue : valueArray) {
-                                ret.add(new Entry<SqlParameter, Object>(declaredParameter, argValue));
-                            }
-                        } else {
-                            ret.add(new Entry<SqlParameter, Object>(declaredParameter, entry));
+                declaredParameter = factory.getDeclaredParameters().get(i);
+            }
+            declaredParameters[i] = declaredParameter;
+            values[i] = in;
+            size += flatSize(declaredParameter, in);
+        }
+
+        SqlParameter[] flatDeclaredParameters = new SqlParameter[size];
+        Object[] flatValues = new Object[size];
+        int index = 0;
+        for (int i = 0; i < values.length; i++) {
+            SqlParameter declaredParameter = declaredParameters[i];
+            Object in = values[i];
+            if (in instanceof Collection && declaredParameter.getSqlType() != Types.ARRAY) {
+                Collection<?> entries = (Collection<?>) in;
+                for (Object entry : entries) {
+                    if (entry instanceof Object[]) {
+                        Object[] valueArray = ((Object[]) entry);
+                        for (Object argValue : valueArray) {
+                            flatDeclaredParameters[index] = declaredParameter;
+                            flatValues[index++] = argValue;
                         }
+                    } else {
+                        flatDeclaredParameters[index] = declaredParameter;
+                        flatValues[index++] = entry;
                     }
-                } else {
-                    ret.add(new Entry<SqlParameter, Object>(declaredParameter, in));
                 }
+            } else {
+                flatDeclaredParameters[index] = declaredParameter;
+                flatValues[index++] = in;
             }
-        });
-        return ret;
+        }
+        this.flatDeclaredParameters = flatDeclaredParameters;
+        this.flatValues = flatValues;
+    }
+
+    private static int flatSize(SqlParameter declaredParameter, Object in) {
+        if (in instanceof Collection && declaredParameter.getSqlType() != Types.ARRAY) {
+            int size = 0;
+            for (Object entry : (Collection<?>) in) {
+                size += entry instanceof Object[] ? ((Object[]) entry).length : 1;
+            }
+            return size;
+        }
+        return 1;
     }
 
     @Override